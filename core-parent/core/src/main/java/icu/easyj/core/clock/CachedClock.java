@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Destroyable;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * 缓存时钟（粗粒度时钟）
+ * <p>
+ * 由一个后台线程按指定的精度定时更新当前毫秒数，读取时只是一次 volatile 读，
+ * 适用于只需要毫秒级（或更粗）精度、但调用非常频繁的热点代码，如：缓存过期判断、有效期判断等。
+ * <p>
+ * 注意：读取到的时间最多比真实时间慢 {@link #resolutionMillis} 毫秒；需要精确计时的场景，请使用 {@link System#nanoTime()}。
+ *
+ * @author wangliang181230
+ * @see ClockManager#enableCachedClock(long)
+ */
+public class CachedClock implements IClock, Destroyable {
+
+	/**
+	 * 默认精度：1毫秒
+	 */
+	public static final long DEFAULT_RESOLUTION_MILLIS = 1L;
+
+
+	/**
+	 * 精度，即：更新间隔时间，单位：毫秒
+	 */
+	private final long resolutionMillis;
+
+	/**
+	 * 当前毫秒数
+	 */
+	private volatile long nowMillis;
+
+	private ScheduledThreadPoolExecutor ticker;
+
+
+	public CachedClock(long resolutionMillis) {
+		Assert.isTrue(resolutionMillis > 0, "'resolutionMillis' must be greater than 0");
+
+		this.resolutionMillis = resolutionMillis;
+
+		this.ticker = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("CachedClock-Ticker-", true));
+		this.ticker.scheduleAtFixedRate(() -> this.nowMillis = System.currentTimeMillis(),
+				resolutionMillis, resolutionMillis, TimeUnit.MILLISECONDS);
+		this.nowMillis = System.currentTimeMillis();
+	}
+
+	public CachedClock() {
+		this(DEFAULT_RESOLUTION_MILLIS);
+	}
+
+
+	//region Override IClock
+
+	@Override
+	public long currentTimeMillis() {
+		return this.nowMillis;
+	}
+
+	@Override
+	public long currentTimeMicros() {
+		return this.nowMillis * 1000;
+	}
+
+	@Override
+	public long currentTimeNanos() {
+		return this.nowMillis * 1000_000;
+	}
+
+	//endregion
+
+
+	//region Override Destroyable
+
+	/**
+	 * 停止后台更新线程，销毁后读取到的时间将不再变化
+	 */
+	@Override
+	public synchronized void destroy() {
+		if (this.ticker != null) {
+			this.ticker.shutdownNow();
+			this.ticker = null;
+		}
+	}
+
+	@Override
+	public boolean isDestroyed() {
+		return this.ticker == null;
+	}
+
+	//endregion
+
+
+	public long getResolutionMillis() {
+		return resolutionMillis;
+	}
+}
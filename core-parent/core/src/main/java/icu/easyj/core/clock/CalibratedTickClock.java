@@ -0,0 +1,360 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 可自动校准的记号时钟（补偿往返耗时，自适应校准间隔）
+ * <p>
+ * 与 {@link AutoRefreshHighAccuracyTickClock} 的区别：<br>
+ * 1）校准时，每次采样都记录请求前后的 {@link System#nanoTime()}，以往返耗时的中点作为远端时间对应的记号（Cristian算法），
+ * 并采用往返耗时最小的样本，从而补偿网络延迟；<br>
+ * 2）比较相邻两次校准的结果，估算本地记号时钟相对于远端时钟的漂移率，并据此调整下一次校准的间隔时间，
+ * 使两次校准之间的累计误差不超过 {@link #maxErrorMicros}；<br>
+ * 3）使用外部传入的调度器，多个时钟可共用同一个调度器，销毁时钟时不会关闭调度器。
+ *
+ * @author wangliang181230
+ */
+public class CalibratedTickClock extends WrapperTickClock implements ICalibratedTickClock {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CalibratedTickClock.class);
+
+	/**
+	 * 最小采样次数
+	 */
+	public static final int MIN_SAMPLE_COUNT = 5;
+
+	/**
+	 * 默认采样次数
+	 */
+	public static final int DEFAULT_SAMPLE_COUNT = 10;
+
+	/**
+	 * 默认最小校准间隔：1分钟
+	 */
+	public static final long DEFAULT_MIN_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	/**
+	 * 默认最大校准间隔：30分钟
+	 */
+	public static final long DEFAULT_MAX_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+	/**
+	 * 默认初始校准间隔（还未估算出漂移率时使用）：10分钟
+	 */
+	public static final long DEFAULT_INITIAL_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * 默认两次校准之间允许的最大累计误差：1毫秒
+	 */
+	public static final long DEFAULT_MAX_ERROR_MICROS = 1000L;
+
+	/**
+	 * 远端时间只精确到毫秒，真实时间在 [t, t + 1ms) 之间，取中间值以减小截断误差
+	 */
+	private static final long HALF_MILLI_MICROS = 500L;
+
+	/**
+	 * 漂移率的平滑系数
+	 */
+	private static final double DRIFT_SMOOTHING = 0.5D;
+
+
+	private final String name;
+
+	/**
+	 * 远端时间提供者，单位：毫秒
+	 */
+	private final LongSupplier remotingTimeSupplier;
+
+	/**
+	 * 调度器（可共用）
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	private final int sampleCount;
+	private final long minIntervalMillis;
+	private final long maxIntervalMillis;
+	private final long maxErrorMicros;
+
+
+	//region 校准读数
+
+	private volatile long offsetMicros;
+	private volatile long rttNanos;
+	private volatile double driftPpm = Double.NaN;
+	private volatile long refreshIntervalMillis;
+
+	//endregion
+
+
+	/**
+	 * 上一次校准得到的记号时钟，用于估算漂移率
+	 */
+	private ITickClock lastTickClock;
+
+	private ScheduledFuture<?> scheduledFuture;
+	/**
+	 * 自动校准的轮次，每次开始自动校准时递增，避免停止后又开始时，旧的任务继续调度
+	 */
+	private int round;
+	private volatile boolean autoRefreshing = false;
+	private volatile boolean destroyed = false;
+
+
+	public CalibratedTickClock(String name, @NonNull ScheduledExecutorService scheduler, @NonNull LongSupplier remotingTimeSupplier,
+							   int sampleCount, long minIntervalMillis, long maxIntervalMillis, long maxErrorMicros) {
+		Assert.notNull(name, "'name' must be not null");
+		Assert.notNull(scheduler, "'scheduler' must be not null");
+		Assert.notNull(remotingTimeSupplier, "'remotingTimeSupplier' must be not null");
+		Assert.isTrue(minIntervalMillis > 0 && minIntervalMillis <= maxIntervalMillis, "'minIntervalMillis' must be between 1 and 'maxIntervalMillis'");
+		Assert.isTrue(maxErrorMicros > 0, "'maxErrorMicros' must be greater than 0");
+
+		this.name = name;
+		this.scheduler = scheduler;
+		this.remotingTimeSupplier = remotingTimeSupplier;
+		// 不能小于 最小采样次数（MIN_SAMPLE_COUNT）
+		this.sampleCount = Math.max(sampleCount, MIN_SAMPLE_COUNT);
+		this.minIntervalMillis = minIntervalMillis;
+		this.maxIntervalMillis = maxIntervalMillis;
+		this.maxErrorMicros = maxErrorMicros;
+		this.refreshIntervalMillis = Math.max(minIntervalMillis, Math.min(maxIntervalMillis, DEFAULT_INITIAL_INTERVAL_MILLIS));
+
+		// 初始化
+		this.refreshTickClock();
+
+		// 开始自动校准
+		this.startAutoRefresh();
+	}
+
+	public CalibratedTickClock(String name, @NonNull ScheduledExecutorService scheduler, @NonNull LongSupplier remotingTimeSupplier) {
+		this(name, scheduler, remotingTimeSupplier, DEFAULT_SAMPLE_COUNT,
+				DEFAULT_MIN_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS, DEFAULT_MAX_ERROR_MICROS);
+	}
+
+
+	//region Override IRefreshableTickClock
+
+	/**
+	 * 校准记号时钟
+	 */
+	@Override
+	public synchronized void refreshTickClock() {
+		// 多次采样，取往返耗时最小的一次
+		long bestRemotingMillis = 0, bestMidTickNanos = 0, bestRtt = Long.MAX_VALUE;
+		long startTick, remotingMillis, rtt;
+		for (int i = 0; i < this.sampleCount; i++) {
+			startTick = System.nanoTime();
+			remotingMillis = this.remotingTimeSupplier.getAsLong();
+			rtt = System.nanoTime() - startTick;
+
+			if (rtt < bestRtt) {
+				bestRtt = rtt;
+				bestRemotingMillis = remotingMillis;
+				// 假设请求和响应的耗时相同，远端时间对应往返耗时的中点
+				bestMidTickNanos = startTick + rtt / 2;
+			}
+		}
+
+		ITickClock newTickClock = new TickClock(bestRemotingMillis * 1000 + HALF_MILLI_MICROS, bestMidTickNanos);
+
+		// 与上一次校准的结果比较，估算漂移率
+		if (this.lastTickClock != null) {
+			this.estimateDrift(this.lastTickClock, newTickClock);
+		}
+
+		super.setTickClock(newTickClock);
+		this.lastTickClock = newTickClock;
+
+		// 更新读数
+		long localMicros = System.currentTimeMillis() * 1000;
+		this.offsetMicros = newTickClock.currentTimeMicros() - localMicros;
+		this.rttNanos = bestRtt;
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("记号时钟 '{}' 已完成时间校准：偏移量 {} μs，往返耗时 {} μs，漂移率 {} ppm，下次校准间隔 {} ms。",
+					this.name, this.offsetMicros, bestRtt / 1000, this.driftPpm, this.refreshIntervalMillis);
+		}
+	}
+
+	@Override
+	public Supplier<ITickClock> getTickClockSupplier() {
+		return () -> new TickClock(this.remotingTimeSupplier.getAsLong() * 1000);
+	}
+
+	//endregion
+
+
+	//region Override IAutoRefreshTickClock
+
+	@Override
+	public synchronized void startAutoRefresh() {
+		if (this.autoRefreshing || this.destroyed) {
+			return;
+		}
+
+		this.autoRefreshing = true;
+		this.scheduleNext(++this.round);
+
+		LOGGER.info("已开始记号时钟 '{}' 的时间校准任务，初始执行间隔：{} 毫秒。", this.name, this.refreshIntervalMillis);
+	}
+
+	@Override
+	public synchronized void stopAutoRefresh() {
+		if (!this.autoRefreshing) {
+			return;
+		}
+
+		this.autoRefreshing = false;
+		if (this.scheduledFuture != null) {
+			this.scheduledFuture.cancel(false);
+			this.scheduledFuture = null;
+		}
+		LOGGER.info("已停止记号时钟 '{}' 的时间校准任务！", this.name);
+	}
+
+	@Override
+	public boolean isAutoRefreshing() {
+		return this.autoRefreshing;
+	}
+
+	//endregion
+
+
+	//region Override Destroyable
+
+	/**
+	 * 销毁时钟：只停止当前时钟的校准任务，不关闭共用的调度器
+	 */
+	@Override
+	public void destroy() {
+		if (this.destroyed) {
+			return;
+		}
+
+		this.stopAutoRefresh();
+		this.destroyed = true;
+	}
+
+	@Override
+	public boolean isDestroyed() {
+		return this.destroyed;
+	}
+
+	//endregion
+
+
+	//region Override ICalibratedTickClock
+
+	@Override
+	public long getOffsetMicros() {
+		return this.offsetMicros;
+	}
+
+	@Override
+	public long getRttNanos() {
+		return this.rttNanos;
+	}
+
+	@Override
+	public double getDriftPpm() {
+		return this.driftPpm;
+	}
+
+	@Override
+	public long getRefreshIntervalMillis() {
+		return this.refreshIntervalMillis;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 估算漂移率，并调整校准间隔
+	 *
+	 * @param oldTickClock 上一次校准的记号时钟
+	 * @param newTickClock 本次校准的记号时钟
+	 */
+	private void estimateDrift(ITickClock oldTickClock, ITickClock newTickClock) {
+		long elapsedNanos = newTickClock.getBaseTickNanos() - oldTickClock.getBaseTickNanos();
+		if (elapsedNanos <= 0) {
+			return;
+		}
+
+		// 在本次校准的记号上，新旧两个时钟的时间差，即：上一次校准以来累计的误差
+		long errorNanos = newTickClock.getBaseEpochMicros() * 1000 - (oldTickClock.getBaseEpochMicros() * 1000 + elapsedNanos);
+		double currentDriftPpm = errorNanos * 1_000_000D / elapsedNanos;
+
+		double driftPpm = this.driftPpm;
+		driftPpm = Double.isNaN(driftPpm) ? currentDriftPpm : driftPpm + (currentDriftPpm - driftPpm) * DRIFT_SMOOTHING;
+		this.driftPpm = driftPpm;
+
+		// 累计误差达到 maxErrorMicros 所需的时间：maxErrorMicros / (|driftPpm| / 1_000_000) 微秒
+		double absDriftPpm = Math.abs(driftPpm);
+		long intervalMillis = absDriftPpm < 1e-9 ? this.maxIntervalMillis : (long)(this.maxErrorMicros * 1000D / absDriftPpm);
+		this.refreshIntervalMillis = Math.max(this.minIntervalMillis, Math.min(this.maxIntervalMillis, intervalMillis));
+	}
+
+	private synchronized void scheduleNext(int round) {
+		if (!this.autoRefreshing || round != this.round) {
+			return;
+		}
+
+		try {
+			this.scheduledFuture = this.scheduler.schedule(() -> {
+				try {
+					this.refreshTickClock();
+				} catch (RuntimeException e) {
+					LOGGER.warn("记号时钟 '{}' 的时间校准失败：{}", this.name, e.getMessage(), e);
+				} finally {
+					this.scheduleNext(round);
+				}
+			}, this.refreshIntervalMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			this.autoRefreshing = false;
+			this.scheduledFuture = null;
+			LOGGER.error("记号时钟 '{}' 的时间校准任务被拒绝，已停止自动校准：{}", this.name, e.getMessage());
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public String getName() {
+		return name;
+	}
+
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	//endregion
+}
@@ -15,15 +15,28 @@
  */
 package icu.easyj.core.clock;
 
+import java.util.Date;
 import javax.security.auth.Destroyable;
 
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
 /**
  * 时钟管理器
+ * <p>
+ * 管理EasyJ内部热点代码（如：缓存过期判断、有效期判断等）所使用的时钟，默认为 {@link SystemClock}，
+ * 可通过 {@link #enableCachedClock(long)} 切换为 {@link CachedClock}，以减少获取系统时间的开销。
  *
  * @author wangliang181230
  */
 public abstract class ClockManager {
 
+	/**
+	 * EasyJ内部热点代码所使用的时钟
+	 */
+	private static volatile IClock clock = SystemClock.INSTANCE;
+
+
 	/**
 	 * 销毁时钟
 	 *
@@ -32,10 +45,95 @@ public abstract class ClockManager {
 	public static void destroy(IClock clock) {
 		if (clock instanceof Destroyable) {
 			try {
-				((IAutoRefreshTickClock)clock).destroy();
+				((Destroyable)clock).destroy();
 			} catch (Exception ignore) {
 				// do nothing
 			}
 		}
 	}
+
+
+	//region EasyJ内部热点代码所使用的时钟
+
+	/**
+	 * 获取EasyJ内部热点代码所使用的时钟
+	 *
+	 * @return 时钟
+	 */
+	@NonNull
+	public static IClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * 设置EasyJ内部热点代码所使用的时钟（原时钟如果是缓存时钟，将被销毁）
+	 *
+	 * @param newClock 新的时钟
+	 */
+	public static synchronized void setClock(@NonNull IClock newClock) {
+		Assert.notNull(newClock, "'newClock' must not be null");
+
+		IClock oldClock = clock;
+		clock = newClock;
+		if (oldClock != newClock && oldClock instanceof CachedClock) {
+			destroy(oldClock);
+		}
+	}
+
+	/**
+	 * 启用缓存时钟
+	 *
+	 * @param resolutionMillis 精度，单位：毫秒
+	 */
+	public static synchronized void enableCachedClock(long resolutionMillis) {
+		IClock currentClock = clock;
+		if (currentClock instanceof CachedClock && ((CachedClock)currentClock).getResolutionMillis() == resolutionMillis) {
+			return;
+		}
+		setClock(new CachedClock(resolutionMillis));
+	}
+
+	/**
+	 * 启用缓存时钟（默认精度）
+	 */
+	public static void enableCachedClock() {
+		enableCachedClock(CachedClock.DEFAULT_RESOLUTION_MILLIS);
+	}
+
+	/**
+	 * 停用缓存时钟，恢复为系统时钟
+	 */
+	public static void disableCachedClock() {
+		setClock(SystemClock.INSTANCE);
+	}
+
+	/**
+	 * 判断是否已启用缓存时钟
+	 *
+	 * @return 是否已启用缓存时钟
+	 */
+	public static boolean isCachedClockEnabled() {
+		return clock instanceof CachedClock;
+	}
+
+	/**
+	 * 当前毫秒数
+	 *
+	 * @return timeMillis 毫秒数
+	 */
+	public static long currentTimeMillis() {
+		return clock.currentTimeMillis();
+	}
+
+	/**
+	 * 当前时间
+	 *
+	 * @return now 当前时间
+	 */
+	@NonNull
+	public static Date now() {
+		return new Date(clock.currentTimeMillis());
+	}
+
+	//endregion
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+/**
+ * 可校准的记号时钟接口
+ * <p>
+ * 提供最近一次校准的偏移量、往返耗时及漂移率等读数，便于监控远端时钟的质量。
+ *
+ * @author wangliang181230
+ */
+public interface ICalibratedTickClock extends IAutoRefreshTickClock {
+
+	/**
+	 * 获取最近一次校准时，远端时钟相对于本地系统时钟的偏移量，单位：微秒
+	 *
+	 * @return 偏移量（正数表示远端时钟比本地快）
+	 */
+	long getOffsetMicros();
+
+	/**
+	 * 获取最近一次校准时，所采用样本的往返耗时（即：所有样本中最小的往返耗时），单位：纳秒
+	 *
+	 * @return 往返耗时
+	 */
+	long getRttNanos();
+
+	/**
+	 * 获取估算的漂移率，即：本地记号时钟相对于远端时钟每走一秒所偏差的微秒数，单位：ppm（百万分之一）
+	 *
+	 * @return 漂移率（至少完成两次校准后才有值）
+	 */
+	double getDriftPpm();
+
+	/**
+	 * 获取当前的自动校准间隔时间，单位：毫秒
+	 *
+	 * @return 校准间隔时间
+	 */
+	long getRefreshIntervalMillis();
+}
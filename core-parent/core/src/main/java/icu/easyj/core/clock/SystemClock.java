@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+/**
+ * 系统时钟，即：直接调用 {@link System#currentTimeMillis()} 的时钟
+ * <p>
+ * 注意：JDK8中系统时间只精确到毫秒，所以微秒数和纳秒数都是由毫秒数换算而来的。
+ *
+ * @author wangliang181230
+ */
+public enum SystemClock implements IClock {
+
+	// 单例
+	INSTANCE;
+
+
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public long currentTimeMicros() {
+		return System.currentTimeMillis() * 1000;
+	}
+
+	@Override
+	public long currentTimeNanos() {
+		return System.currentTimeMillis() * 1000_000;
+	}
+}
@@ -17,7 +17,12 @@ package icu.easyj.core.clock.factory;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.clock.AutoRefreshHighAccuracyTickClock;
+import icu.easyj.core.clock.CalibratedTickClock;
 import icu.easyj.core.clock.ClockManager;
 import icu.easyj.core.clock.IAutoRefreshTickClock;
 import icu.easyj.core.util.MapUtils;
@@ -26,6 +31,10 @@ import org.springframework.util.Assert;
 
 /**
  * 抽象远端时钟工厂
+ * <p>
+ * 默认创建的远端时钟为 {@link AutoRefreshHighAccuracyTickClock}，每10分钟刷新一次。
+ * 通过 {@link #setCalibratedClockEnabled(boolean)} 启用校准模式后，新创建的远端时钟为 {@link CalibratedTickClock}：
+ * 补偿往返耗时、根据漂移率自适应校准间隔（每次校准采样多次，间隔最短1分钟），并且所有远端时钟共用同一个调度器。
  *
  * @param <K> 远端键类型
  * @author wangliang181230
@@ -39,6 +48,11 @@ public abstract class AbstractRemotingClockFactory<K> implements IRemotingClockF
 	 */
 	private final ConcurrentMap<K, IAutoRefreshTickClock> remotingClockMap;
 
+	/**
+	 * 是否启用校准模式（默认不启用），只影响启用之后新创建的远端时钟
+	 */
+	private volatile boolean calibratedClockEnabled = false;
+
 	/**
 	 * 无参构造函数
 	 */
@@ -58,6 +72,23 @@ public abstract class AbstractRemotingClockFactory<K> implements IRemotingClockF
 
 	//region Override IRemotingClockFactory
 
+	/**
+	 * 创建远端时钟
+	 *
+	 * @param remotingKey 远端键值
+	 * @return 时钟：启用校准模式时为 {@link CalibratedTickClock}，否则为 {@link AutoRefreshHighAccuracyTickClock}
+	 */
+	@Override
+	@NonNull
+	public IAutoRefreshTickClock createClock(@NonNull K remotingKey) {
+		Assert.notNull(remotingKey, "'remotingKey' must not be null");
+		if (!this.calibratedClockEnabled) {
+			return IRemotingClockFactory.super.createClock(remotingKey);
+		}
+		return new CalibratedTickClock(remotingKey.getClass().getSimpleName(), getSharedScheduler(),
+				() -> this.getRemotingTime(remotingKey));
+	}
+
 	/**
 	 * 获取远端时钟
 	 *
@@ -85,4 +116,50 @@ public abstract class AbstractRemotingClockFactory<K> implements IRemotingClockF
 	}
 
 	//endregion
+
+
+	//region Getter、Setter
+
+	public boolean isCalibratedClockEnabled() {
+		return calibratedClockEnabled;
+	}
+
+	/**
+	 * 设置是否启用校准模式
+	 * <p>
+	 * 注意：只影响之后新创建的远端时钟，已创建的远端时钟需销毁后重新获取才会切换。
+	 *
+	 * @param calibratedClockEnabled 是否启用校准模式
+	 */
+	public void setCalibratedClockEnabled(boolean calibratedClockEnabled) {
+		this.calibratedClockEnabled = calibratedClockEnabled;
+	}
+
+	//endregion
+
+
+	/**
+	 * 获取所有远端时钟共用的调度器
+	 *
+	 * @return 调度器
+	 */
+	protected static ScheduledExecutorService getSharedScheduler() {
+		return SharedSchedulerHolder.INSTANCE;
+	}
+
+
+	/**
+	 * 共用调度器持有者（延迟初始化）
+	 */
+	private static final class SharedSchedulerHolder {
+
+		private static final ScheduledExecutorService INSTANCE;
+
+		static {
+			ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2,
+					new NamedThreadFactory("RemotingClock-Calibration-", true));
+			scheduler.setRemoveOnCancelPolicy(true);
+			INSTANCE = scheduler;
+		}
+	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * 上下文快照
+ * <p>
+ * 在提交异步任务的线程中捕获 {@link ContextUtils 上下文} 和 {@link MDC 日志上下文}，
+ * 并在执行任务的线程中还原，任务执行完成后，恢复执行线程原有的上下文。
+ * <p>
+ * 注意：只复制上下文的键值对，值对象本身在线程间共享。
+ *
+ * @author wangliang181230
+ */
+public final class ContextSnapshot {
+
+	/**
+	 * 上下文的副本
+	 */
+	private final Map<String, Object> entries;
+
+	/**
+	 * 日志上下文的副本
+	 */
+	@Nullable
+	private final Map<String, String> mdc;
+
+
+	private ContextSnapshot(Map<String, Object> entries, @Nullable Map<String, String> mdc) {
+		this.entries = entries;
+		this.mdc = mdc;
+	}
+
+
+	/**
+	 * 捕获当前线程的上下文
+	 *
+	 * @return 上下文快照
+	 */
+	@NonNull
+	public static ContextSnapshot capture() {
+		return new ContextSnapshot(new HashMap<>(ContextUtils.getInstance().entries()), MDC.getCopyOfContextMap());
+	}
+
+	/**
+	 * 包装任务，使任务在当前快照的上下文中执行
+	 *
+	 * @param task 任务
+	 * @return 包装后的任务
+	 */
+	@NonNull
+	public Runnable wrap(@NonNull Runnable task) {
+		return () -> {
+			ContextSnapshot previous = this.apply();
+			try {
+				task.run();
+			} finally {
+				previous.apply();
+			}
+		};
+	}
+
+	/**
+	 * 包装任务，使任务在当前快照的上下文中执行
+	 *
+	 * @param task 任务
+	 * @param <T>  任务结果类型
+	 * @return 包装后的任务
+	 */
+	@NonNull
+	public <T> Supplier<T> wrap(@NonNull Supplier<T> task) {
+		return () -> {
+			ContextSnapshot previous = this.apply();
+			try {
+				return task.get();
+			} finally {
+				previous.apply();
+			}
+		};
+	}
+
+
+	/**
+	 * 将快照应用到当前线程
+	 *
+	 * @return 当前线程原有的上下文快照，用于恢复
+	 */
+	private ContextSnapshot apply() {
+		ContextSnapshot previous = capture();
+
+		Context context = ContextUtils.getInstance();
+		context.clear();
+		this.entries.forEach(context::put);
+
+		if (this.mdc == null) {
+			MDC.clear();
+		} else {
+			MDC.setContextMap(this.mdc);
+		}
+
+		return previous;
+	}
+}
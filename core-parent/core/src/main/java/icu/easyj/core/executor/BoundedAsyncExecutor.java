@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.context.ContextSnapshot;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 有界异步执行器
+ * <p>
+ * 用于将阻塞的远程调用转换为 {@link CompletableFuture}，避免调用方的每个并发调用都占用一个线程：<br>
+ * 1）执行中的任务数不超过 {@link BoundedAsyncExecutorConfig#getMaxInFlight()}，等待的任务数不超过 {@link BoundedAsyncExecutorConfig#getQueueCapacity()}，
+ * 超出时，返回以 {@link RejectedExecutionException} 异常完成的 {@link CompletableFuture}，而不是阻塞调用方；<br>
+ * 2）提交任务时，捕获调用方线程的上下文和日志上下文（{@link ContextSnapshot}），在执行线程中还原。
+ *
+ * @author wangliang181230
+ * @see BoundedAsyncExecutorConfig
+ */
+public class BoundedAsyncExecutor implements AutoCloseable {
+
+	/**
+	 * 线程池
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * 最大并发执行任务数
+	 */
+	private final int maxInFlight;
+
+	/**
+	 * 等待队列容量
+	 */
+	private final int queueCapacity;
+
+	//region 统计数据
+
+	/**
+	 * 被拒绝的任务数
+	 */
+	private final LongAdder rejectedCount = new LongAdder();
+
+	//endregion
+
+
+	public BoundedAsyncExecutor(@NonNull String threadNamePrefix, int maxInFlight, int queueCapacity) {
+		Assert.notNull(threadNamePrefix, "'threadNamePrefix' must not be null");
+		Assert.isTrue(maxInFlight > 0, "'maxInFlight' must be greater than 0");
+		Assert.isTrue(queueCapacity >= 0, "'queueCapacity' must not be less than 0");
+
+		BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+		this.executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60L, TimeUnit.SECONDS, queue,
+				new NamedThreadFactory(threadNamePrefix, true), new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+		this.maxInFlight = maxInFlight;
+		this.queueCapacity = queueCapacity;
+	}
+
+	public BoundedAsyncExecutor(@NonNull String threadNamePrefix, @NonNull BoundedAsyncExecutorConfig config) {
+		this(threadNamePrefix, config.getMaxInFlight(), config.getQueueCapacity());
+	}
+
+
+	/**
+	 * 异步执行任务
+	 *
+	 * @param task 任务
+	 * @param <T>  任务结果类型
+	 * @return 任务结果，任务被拒绝时，以 {@link RejectedExecutionException} 异常完成
+	 */
+	@NonNull
+	public <T> CompletableFuture<T> supplyAsync(@NonNull Supplier<T> task) {
+		Assert.notNull(task, "'task' must not be null");
+
+		Supplier<T> wrappedTask = ContextSnapshot.capture().wrap(task);
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			this.executor.execute(() -> {
+				if (future.isDone()) {
+					return; // 等待期间已被调用方取消
+				}
+				try {
+					future.complete(wrappedTask.get());
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			this.rejectedCount.increment();
+			future.completeExceptionally(new RejectedExecutionException("异步任务数已达上限：执行中 " + this.maxInFlight
+					+ " 个，等待中 " + this.queueCapacity + " 个", e));
+		}
+		return future;
+	}
+
+	/**
+	 * 关闭执行器，已提交的任务会继续执行
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+	@Override
+	public void close() {
+		this.shutdown();
+	}
+
+
+	//region Getter
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * 获取执行中的任务数
+	 *
+	 * @return 执行中的任务数
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * 获取等待中的任务数
+	 *
+	 * @return 等待中的任务数
+	 */
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	//endregion
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.executor;
+
+/**
+ * 有界异步执行器配置
+ *
+ * @author wangliang181230
+ * @see BoundedAsyncExecutor
+ */
+public class BoundedAsyncExecutorConfig {
+
+	/**
+	 * 默认的最大并发执行任务数
+	 */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+	/**
+	 * 默认的等待队列容量
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+
+	/**
+	 * 最大并发执行任务数，即：执行线程数
+	 */
+	private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+	/**
+	 * 等待队列容量，执行中的任务数已达上限且队列已满时，新任务将被拒绝（为0时，不排队）
+	 */
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+
+	//region Getter、Setter
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	//endregion
+}
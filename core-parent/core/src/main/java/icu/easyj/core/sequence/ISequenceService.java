@@ -17,6 +17,7 @@ package icu.easyj.core.sequence;
 
 import icu.easyj.core.exception.NotSupportedException;
 import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
 
 /**
  * 序列服务
@@ -44,6 +45,26 @@ public interface ISequenceService {
 	 */
 	long nextVal(@NonNull String seqName);
 
+	/**
+	 * 批量获取下一批序列值
+	 * <p>
+	 * 默认实现为循环调用 {@link #nextVal(String)}，能够一次预留多个序列值的实现类，应重写该方法，减少远程调用次数。
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数（必须大于0）
+	 * @return 序列值数组（长度等于count，各实现类不保证序列值连续）
+	 */
+	@NonNull
+	default long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		long[] vals = new long[count];
+		for (int i = 0; i < count; i++) {
+			vals[i] = this.nextVal(seqName);
+		}
+		return vals;
+	}
+
 	/**
 	 * 设置序列值
 	 *
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence;
+
+/**
+ * 号段缓存序列服务配置
+ *
+ * @author wangliang181230
+ * @see SegmentSequenceService
+ */
+public class SegmentSequenceConfig {
+
+	/**
+	 * 默认号段步长
+	 */
+	public static final int DEFAULT_STEP = 1000;
+
+	/**
+	 * 默认预加载阈值
+	 */
+	public static final double DEFAULT_PREFETCH_THRESHOLD = 0.8D;
+
+
+	/**
+	 * 是否启用号段缓存（默认不启用）
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 号段步长，即：每次远程调用预留的序列值个数
+	 */
+	private int step = DEFAULT_STEP;
+
+	/**
+	 * 预加载阈值（取值范围：0~1），当前号段的使用比例达到该值时，将在后台预加载下一个号段
+	 */
+	private double prefetchThreshold = DEFAULT_PREFETCH_THRESHOLD;
+
+
+	//region Getter、Setter
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getStep() {
+		return step;
+	}
+
+	public void setStep(int step) {
+		this.step = step;
+	}
+
+	public double getPrefetchThreshold() {
+		return prefetchThreshold;
+	}
+
+	public void setPrefetchThreshold(double prefetchThreshold) {
+		this.prefetchThreshold = prefetchThreshold;
+	}
+
+	//endregion
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.util.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 号段缓存序列服务（包装远端序列服务的装饰器）
+ * <p>
+ * 每调用一次被包装的序列服务的 {@link ISequenceService#nextVals(String, int)}，在远端一次预留 step 个序列值作为一个号段，
+ * 之后在内存中通过CAS无锁分配。远端的序列值始终是真实的序列值，所以启用或关闭号段缓存、或与未启用号段缓存的实例混用，都不会生成重复的序列值。
+ * <p>
+ * 采用双缓冲：当前号段的使用比例达到预加载阈值时，在后台预加载下一个号段，当前号段用完后直接切换到下一个号段。
+ * 只有在下一个号段未加载完成时，才会同步调用远端序列服务。
+ * <p>
+ * 注意事项：<br>
+ * 1）被包装的序列服务应重写 {@link ISequenceService#nextVals(String, int)}，一次远程调用预留整个号段，否则号段缓存无法减少远程调用次数；<br>
+ * 2）序列值在当前实例内是递增的，但不连续，多实例部署或应用重启时都会跳过未使用完的号段；<br>
+ * 3）{@link #currVal(String)} 返回的是当前实例最近分配的序列值，当前实例未分配过时，返回远端的当前序列值。
+ *
+ * @author wangliang181230
+ * @see SegmentSequenceConfig
+ */
+public class SegmentSequenceService implements ISequenceService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SegmentSequenceService.class);
+
+
+	/**
+	 * 被包装的序列服务
+	 */
+	private final ISequenceService sequenceService;
+
+	/**
+	 * 号段步长
+	 */
+	private final int step;
+
+	/**
+	 * 号段内触发预加载的下标
+	 */
+	private final int prefetchIndex;
+
+	/**
+	 * 预加载号段的执行器
+	 */
+	private final Executor prefetchExecutor;
+
+	/**
+	 * 号段缓冲Map
+	 */
+	private final Map<String, SegmentBuffer> segmentBufferMap = new ConcurrentHashMap<>();
+
+
+	public SegmentSequenceService(@NonNull ISequenceService sequenceService, int step, double prefetchThreshold, @NonNull Executor prefetchExecutor) {
+		Assert.notNull(sequenceService, "'sequenceService' must not be null");
+		Assert.isTrue(step > 0, "'step' must be greater than 0");
+		Assert.isTrue(prefetchThreshold >= 0 && prefetchThreshold <= 1, "'prefetchThreshold' must be between 0 and 1");
+		Assert.notNull(prefetchExecutor, "'prefetchExecutor' must not be null");
+
+		this.sequenceService = sequenceService;
+		this.step = step;
+		this.prefetchIndex = Math.max(1, Math.min(step, (int)(step * prefetchThreshold))) - 1;
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	public SegmentSequenceService(@NonNull ISequenceService sequenceService, int step, double prefetchThreshold) {
+		this(sequenceService, step, prefetchThreshold, DefaultPrefetchExecutorHolder.INSTANCE);
+	}
+
+	public SegmentSequenceService(@NonNull ISequenceService sequenceService, @NonNull SegmentSequenceConfig config) {
+		this(sequenceService, config.getStep(), config.getPrefetchThreshold());
+	}
+
+	public SegmentSequenceService(@NonNull ISequenceService sequenceService) {
+		this(sequenceService, SegmentSequenceConfig.DEFAULT_STEP, SegmentSequenceConfig.DEFAULT_PREFETCH_THRESHOLD);
+	}
+
+
+	//region Override ISequenceService
+
+	@Override
+	public long currVal(@NonNull String seqName) {
+		SegmentBuffer buffer = this.segmentBufferMap.get(seqName);
+		if (buffer != null) {
+			Segment segment = buffer.current;
+			int allocated = Math.min(segment.allocated.get(), segment.vals.length);
+			if (allocated > 0) {
+				return segment.vals[allocated - 1];
+			}
+		}
+
+		// 当前号段还未分配过序列值，返回远端的当前序列值
+		return this.sequenceService.currVal(seqName);
+	}
+
+	@Override
+	public long nextVal(@NonNull String seqName) {
+		SegmentBuffer buffer = this.getSegmentBuffer(seqName);
+
+		Segment segment;
+		int index;
+		while (true) {
+			segment = buffer.current;
+
+			// 无锁分配序列值
+			index = segment.allocated.getAndIncrement();
+			if (index < segment.vals.length) {
+				// 只有分配到预加载位置的那一个线程，才会触发预加载
+				if (index == segment.prefetchAt) {
+					this.prefetch(buffer);
+				}
+				return segment.vals[index];
+			}
+
+			// 当前号段已用完，切换号段
+			this.switchSegment(buffer, segment);
+		}
+	}
+
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		SegmentBuffer buffer = this.getSegmentBuffer(seqName);
+
+		long[] vals = new long[count];
+		int i = 0;
+		Segment segment;
+		int from, to;
+		while (i < count) {
+			segment = buffer.current;
+
+			// 一次CAS预留剩余所需的序列值，超出号段的部分作废
+			from = segment.allocated.getAndAdd(count - i);
+			to = from + (count - i);
+			if (from < segment.vals.length) {
+				if (segment.prefetchAt >= from && segment.prefetchAt < to) {
+					this.prefetch(buffer);
+				}
+
+				to = Math.min(to, segment.vals.length);
+				System.arraycopy(segment.vals, from, vals, i, to - from);
+				i += to - from;
+			}
+
+			if (i < count) {
+				// 当前号段已用完，切换号段
+				this.switchSegment(buffer, segment);
+			}
+		}
+		return vals;
+	}
+
+	@Override
+	public long setVal(@NonNull String seqName, long newVal) {
+		SegmentBuffer buffer = this.getSegmentBuffer(seqName);
+		synchronized (buffer) {
+			// 使已缓存的号段失效，仍持有旧号段的线程也无法再从中分配序列值
+			buffer.current.invalidate();
+			buffer.current = Segment.empty();
+			if (buffer.next != null) {
+				buffer.next.invalidate();
+				buffer.next = null;
+			}
+
+			try {
+				// 在锁内设置远端序列值，使同步加载的号段都在设置之后预留
+				return this.sequenceService.setVal(seqName, newVal);
+			} finally {
+				// 设置完成后再更新版本号，丢弃设置期间预加载的号段
+				buffer.generation++;
+			}
+		}
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private SegmentBuffer getSegmentBuffer(String seqName) {
+		return MapUtils.computeIfAbsent(this.segmentBufferMap, seqName, SegmentBuffer::new);
+	}
+
+	/**
+	 * 从远端序列服务预留一个号段
+	 *
+	 * @param seqName 序列名
+	 * @return 号段
+	 */
+	private Segment loadSegment(String seqName) {
+		long[] vals = this.sequenceService.nextVals(seqName, this.step);
+		return new Segment(vals, this.prefetchIndex);
+	}
+
+	/**
+	 * 切换号段（仅在号段用完时调用，不在热点路径上）
+	 *
+	 * @param buffer    号段缓冲
+	 * @param exhausted 已用完的号段
+	 */
+	private void switchSegment(SegmentBuffer buffer, Segment exhausted) {
+		synchronized (buffer) {
+			if (buffer.current != exhausted) {
+				return; // 已被其他线程切换
+			}
+
+			Segment next = buffer.next;
+			if (next != null) {
+				buffer.next = null;
+			} else {
+				// 预加载未完成或失败，同步加载
+				next = this.loadSegment(buffer.seqName);
+			}
+			buffer.current = next;
+		}
+	}
+
+	/**
+	 * 在后台预加载下一个号段
+	 *
+	 * @param buffer 号段缓冲
+	 */
+	private void prefetch(SegmentBuffer buffer) {
+		if (buffer.next != null || !buffer.prefetching.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			this.prefetchExecutor.execute(() -> {
+				try {
+					long generation = buffer.generation;
+					Segment segment = this.loadSegment(buffer.seqName);
+					synchronized (buffer) {
+						// 只保留比当前号段更大的号段，保证当前实例内的序列值递增；
+						// 加载期间设置过序列值时，丢弃该号段
+						if (buffer.next == null && generation == buffer.generation && segment.first() > buffer.current.last()) {
+							buffer.next = segment;
+						}
+					}
+				} catch (RuntimeException e) {
+					LOGGER.warn("预加载序列 '{}' 的下一个号段失败，将在当前号段用完时同步加载：{}", buffer.seqName, e.getMessage(), e);
+				} finally {
+					buffer.prefetching.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			buffer.prefetching.set(false);
+			LOGGER.warn("预加载序列 '{}' 的下一个号段的任务被拒绝，将在当前号段用完时同步加载。", buffer.seqName);
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public ISequenceService getSequenceService() {
+		return sequenceService;
+	}
+
+	public int getStep() {
+		return step;
+	}
+
+	//endregion
+
+
+	/**
+	 * 号段
+	 */
+	private static final class Segment {
+
+		/**
+		 * 远端预留的序列值
+		 */
+		private final long[] vals;
+
+		/**
+		 * 已分配的序列值个数（大于等于 vals.length 时，表示号段已用完）
+		 */
+		private final AtomicInteger allocated = new AtomicInteger(0);
+
+		/**
+		 * 分配到该下标时，触发预加载
+		 */
+		private final int prefetchAt;
+
+
+		private Segment(long[] vals, int prefetchAt) {
+			this.vals = vals;
+			this.prefetchAt = prefetchAt;
+		}
+
+		/**
+		 * 空号段，用于号段缓冲的初始化，首次分配时将同步加载号段
+		 *
+		 * @return 空号段
+		 */
+		private static Segment empty() {
+			return new Segment(new long[0], -1);
+		}
+
+		private long first() {
+			return this.vals.length > 0 ? this.vals[0] : Long.MAX_VALUE;
+		}
+
+		private long last() {
+			return this.vals.length > 0 ? this.vals[this.vals.length - 1] : Long.MIN_VALUE;
+		}
+
+		/**
+		 * 使号段失效：之后的分配都将视为号段已用完
+		 */
+		private void invalidate() {
+			this.allocated.set(this.vals.length);
+		}
+	}
+
+	/**
+	 * 号段缓冲（双缓冲）
+	 */
+	private static final class SegmentBuffer {
+
+		private final String seqName;
+
+		/**
+		 * 当前号段
+		 */
+		private volatile Segment current = Segment.empty();
+
+		/**
+		 * 预加载的下一个号段
+		 */
+		private volatile Segment next;
+
+		/**
+		 * 是否正在预加载
+		 */
+		private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+		/**
+		 * 版本号，每次设置序列值后递增，用于丢弃设置之前开始加载的号段
+		 */
+		private volatile long generation;
+
+
+		private SegmentBuffer(String seqName) {
+			this.seqName = seqName;
+		}
+	}
+
+	/**
+	 * 默认的预加载执行器（延迟初始化）
+	 */
+	private static final class DefaultPrefetchExecutorHolder {
+
+		private static final Executor INSTANCE;
+
+		static {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), new NamedThreadFactory("SegmentSequence-Prefetch-", true));
+			executor.allowCoreThreadTimeOut(true);
+			INSTANCE = executor;
+		}
+	}
+}
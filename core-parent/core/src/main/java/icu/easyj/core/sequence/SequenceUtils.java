@@ -71,6 +71,18 @@ public abstract class SequenceUtils {
 		return getSequenceService().nextVal(seqName);
 	}
 
+	/**
+	 * 批量获取下一批序列值
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数
+	 * @return 序列值数组
+	 */
+	public static long[] nextVals(@NonNull String seqName, int count) {
+		Assert.notNull(seqName, "'seqName' must be not null");
+		return getSequenceService().nextVals(seqName, count);
+	}
+
 	/**
 	 * 设置序列值
 	 *
@@ -83,4 +95,34 @@ public abstract class SequenceUtils {
 		Assert.notNull(seqName, "'seqName' must be not null");
 		return getSequenceService().setVal(seqName, newVal);
 	}
+
+
+	/**
+	 * 生成一段连续的序列值，主要用于批量获取序列值的实现类
+	 *
+	 * @param first 第一个序列值
+	 * @param count 序列值个数
+	 * @return 序列值数组
+	 */
+	public static long[] toRange(long first, int count) {
+		return toRange(first, count, 1L);
+	}
+
+	/**
+	 * 按步长生成一段序列值，主要用于批量获取序列值的实现类
+	 *
+	 * @param first     第一个序列值
+	 * @param count     序列值个数
+	 * @param increment 步长（可以为负数，但不能为0）
+	 * @return 序列值数组
+	 */
+	public static long[] toRange(long first, int count, long increment) {
+		Assert.isTrue(increment != 0, "'increment' must not be 0");
+
+		long[] vals = new long[count];
+		for (int i = 0; i < count; i++) {
+			vals[i] = first + i * increment;
+		}
+		return vals;
+	}
 }
@@ -21,8 +21,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import icu.easyj.core.loader.LoadLevel;
 import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.SequenceUtils;
 import icu.easyj.core.util.MapUtils;
 import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
 
 /**
  * 基于 {@link AtomicLong} 实现的内存序列服务
@@ -34,6 +36,10 @@ import org.springframework.lang.NonNull;
  * 特点：性能高。
  * <p>
  * 使用说明：应用启动时，需要指定其初始值。
+ * <p>
+ * 分段模式：当 {@link #blockSize} 大于1时，每个线程每次从共享计数器中申请一小段序列值，之后在线程内分配，
+ * 避免高并发下所有线程争用同一个计数器的缓存行。此模式下序列值仍然唯一，且在同一线程内递增，但不再全局有序，
+ * {@link #currVal(String)} 返回的是已申请的最大序列值。默认不启用，即：全局严格有序。
  *
  * @author wangliang181230
  */
@@ -42,13 +48,35 @@ public class AtomicLongSequenceServiceImpl implements ISequenceService {
 
 	private static final long DEFAULT_INITIAL_VALUE = 0L;
 
+	/**
+	 * 默认每段的序列值个数：1，即不分段
+	 */
+	private static final int DEFAULT_BLOCK_SIZE = 1;
+
 
-	private final Map<String, AtomicLong> atomicLongMap = new ConcurrentHashMap<>();
+	private final Map<String, Counter> counterMap = new ConcurrentHashMap<>();
 	private final long initialValue;
 
+	/**
+	 * 每个线程每次申请的序列值个数，小于等于1时不分段
+	 */
+	private final int blockSize;
 
-	public AtomicLongSequenceServiceImpl(long initialValue) {
+	/**
+	 * 各线程最近使用的序列名与计数器的绑定，重复使用同一序列名时跳过Map的查找
+	 * （只在所属线程内读写，不会像共享字段一样，在序列名交替使用时产生跨线程的写竞争）
+	 */
+	private final ThreadLocal<CounterBinding> localBinding = ThreadLocal.withInitial(CounterBinding::new);
+
+
+	public AtomicLongSequenceServiceImpl(long initialValue, int blockSize) {
+		Assert.isTrue(blockSize > 0, "'blockSize' must be greater than 0");
 		this.initialValue = initialValue;
+		this.blockSize = blockSize;
+	}
+
+	public AtomicLongSequenceServiceImpl(long initialValue) {
+		this(initialValue, DEFAULT_BLOCK_SIZE);
 	}
 
 	public AtomicLongSequenceServiceImpl() {
@@ -58,21 +86,122 @@ public class AtomicLongSequenceServiceImpl implements ISequenceService {
 
 	@Override
 	public long currVal(@NonNull String seqName) {
-		return this.getAtomicLong(seqName).get();
+		return this.getCounter(seqName).value.get();
 	}
 
 	@Override
 	public long nextVal(@NonNull String seqName) {
-		return this.getAtomicLong(seqName).incrementAndGet();
+		Counter counter = this.getCounter(seqName);
+		if (counter.localBlock == null) {
+			return counter.value.incrementAndGet();
+		}
+
+		Block block = counter.localBlock.get();
+		if (block.next > block.max || block.generation != counter.generation) {
+			// 当前线程的序列段已用完，或序列值已被重新设置过，重新申请
+			block.generation = counter.generation; // 必须在申请之前读取
+			block.max = counter.value.addAndGet(this.blockSize);
+			block.next = block.max - this.blockSize + 1;
+		}
+		return block.next++;
+	}
+
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		long last = this.getCounter(seqName).value.addAndGet(count);
+		return SequenceUtils.toRange(last - count + 1, count);
 	}
 
 	@Override
 	public long setVal(@NonNull String seqName, long newVal) {
-		return this.getAtomicLong(seqName).getAndSet(newVal);
+		Counter counter = this.getCounter(seqName);
+		synchronized (counter) {
+			long previousVal = counter.value.getAndSet(newVal);
+			// 使所有线程中已申请的序列段失效
+			counter.generation++;
+			return previousVal;
+		}
 	}
 
 
 	public AtomicLong getAtomicLong(String seqName) {
-		return MapUtils.computeIfAbsent(atomicLongMap, seqName, k -> new AtomicLong(this.initialValue));
+		return this.getCounter(seqName).value;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+
+	private Counter getCounter(String seqName) {
+		CounterBinding binding = this.localBinding.get();
+		if (seqName.equals(binding.seqName)) {
+			return binding.counter;
+		}
+
+		// 计数器创建后不会被移除，所以绑定不会过期
+		Counter counter = MapUtils.computeIfAbsent(counterMap, seqName, k -> new Counter(this.initialValue, this.blockSize > 1));
+		binding.seqName = seqName;
+		binding.counter = counter;
+		return counter;
+	}
+
+
+	/**
+	 * 序列计数器
+	 */
+	private static final class Counter {
+
+		/**
+		 * 共享的序列值
+		 */
+		private final AtomicLong value;
+
+		/**
+		 * 各线程的序列段，不分段时为null
+		 */
+		private final ThreadLocal<Block> localBlock;
+
+		/**
+		 * 版本号，每次重新设置序列值时递增，用于使各线程中已申请的序列段失效
+		 */
+		private volatile long generation;
+
+
+		private Counter(long initialValue, boolean striped) {
+			this.value = new AtomicLong(initialValue);
+			this.localBlock = striped ? ThreadLocal.withInitial(Block::new) : null;
+		}
+	}
+
+	/**
+	 * 线程内的序列段（只在所属线程内访问，无需同步）
+	 */
+	private static final class Block {
+
+		/**
+		 * 下一个待分配的序列值
+		 */
+		private long next = 1L;
+
+		/**
+		 * 序列段的最大序列值（包含），初始值小于 next，表示还未申请
+		 */
+		private long max = 0L;
+
+		private long generation;
+	}
+
+	/**
+	 * 线程内的序列名与计数器的绑定（只在所属线程内访问，无需同步）
+	 */
+	private static final class CounterBinding {
+
+		private String seqName;
+
+		private Counter counter;
 	}
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+/**
+ * 基于内存映射文件实现的序列服务配置
+ *
+ * @author wangliang181230
+ * @see MmapSequenceServiceImpl
+ */
+public class MmapSequenceConfig {
+
+	/**
+	 * 默认文件路径
+	 */
+	public static final String DEFAULT_FILE = "./data/easyj-sequence.dat";
+
+	/**
+	 * 默认每次持久化预留的序列值个数
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+	/**
+	 * 默认最多可保存的序列个数
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+
+	/**
+	 * 文件路径
+	 */
+	private String file = DEFAULT_FILE;
+
+	/**
+	 * 每次持久化预留的序列值个数，即：每分配这么多个序列值，才刷一次盘
+	 */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * 最多可保存的序列个数（决定文件大小，文件创建后不可修改）
+	 */
+	private int capacity = DEFAULT_CAPACITY;
+
+
+	//region Getter、Setter
+
+	public String getFile() {
+		return file;
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public void setBlockSize(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	//endregion
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.SequenceUtils;
+import icu.easyj.core.util.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 基于内存映射文件实现的序列服务
+ * <p>
+ * 主要用途：单机单应用运行时，无需依赖Redis或数据库，即可保证序列值在应用重启后依然递增。
+ * <p>
+ * 实现说明：<br>
+ * 1）序列值在内存中通过 {@link AtomicLong} 分配，文件中只保存每个序列的高水位（已预留的最大序列值）；<br>
+ * 2）分配的序列值超过高水位时，一次预留 {@link #blockSize} 个序列值，并刷一次盘，即：每个序列段只刷一次盘；<br>
+ * 3）正常关闭时，保存每个序列的当前值，重启后从当前值继续递增；
+ * 异常退出时，文件中只有高水位，重启后从高水位继续递增，即：跳过最后一个序列段中未使用的序列值，保证不重复。
+ * <p>
+ * 文件格式：64字节的文件头 + capacity 个128字节的槽位，每个槽位保存一个序列，包括：8字节的序列值、2字节的名称长度、名称（UTF-8）。
+ * <p>
+ * 注意：同一个文件只能被一个进程打开。
+ *
+ * @author wangliang181230
+ * @see MmapSequenceConfig
+ */
+public class MmapSequenceServiceImpl implements ISequenceService, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MmapSequenceServiceImpl.class);
+
+
+	//region 文件格式
+
+	private static final int MAGIC = 0x45534551; // "ESEQ"
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 64;
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_CAPACITY = 8;
+	private static final int HEADER_SLOT_SIZE = 12;
+	private static final int HEADER_USED = 16;
+	private static final int HEADER_CLEAN_SHUTDOWN = 20;
+
+	private static final int SLOT_SIZE = 128;
+	private static final int SLOT_VALUE = 0;
+	private static final int SLOT_NAME_LENGTH = 8;
+	private static final int SLOT_NAME = 10;
+	private static final int MAX_NAME_LENGTH = SLOT_SIZE - SLOT_NAME;
+
+	//endregion
+
+
+	/**
+	 * 文件
+	 */
+	private final File file;
+
+	/**
+	 * 每次持久化预留的序列值个数
+	 */
+	private final int blockSize;
+
+	private final RandomAccessFile randomAccessFile;
+	private final FileLock fileLock;
+
+	/**
+	 * 内存映射缓冲区（所有写操作都在该对象的锁内进行）
+	 */
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * 最多可保存的序列个数
+	 */
+	private final int capacity;
+
+	/**
+	 * 序列计数器Map
+	 */
+	private final Map<String, Counter> counterMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 是否已关闭
+	 */
+	private volatile boolean closed = false;
+
+
+	public MmapSequenceServiceImpl(@NonNull File file, int blockSize, int capacity) throws IOException {
+		Assert.notNull(file, "'file' must not be null");
+		Assert.isTrue(blockSize > 0, "'blockSize' must be greater than 0");
+		Assert.isTrue(capacity > 0, "'capacity' must be greater than 0");
+
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+			throw new IOException("创建序列文件所在目录失败：" + parent.getAbsolutePath());
+		}
+
+		this.file = file;
+		this.blockSize = blockSize;
+		this.randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = this.randomAccessFile.getChannel();
+			this.fileLock = channel.tryLock();
+			if (this.fileLock == null) {
+				throw new IOException("序列文件已被其他进程打开：" + file.getAbsolutePath());
+			}
+
+			boolean isNew = channel.size() == 0;
+			if (!isNew) {
+				// 文件已存在时，容量以文件中的为准
+				capacity = this.readCapacity(channel);
+			}
+			this.capacity = capacity;
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long)capacity * SLOT_SIZE);
+
+			if (isNew) {
+				this.buffer.putInt(HEADER_MAGIC, MAGIC);
+				this.buffer.putInt(HEADER_VERSION, VERSION);
+				this.buffer.putInt(HEADER_CAPACITY, capacity);
+				this.buffer.putInt(HEADER_SLOT_SIZE, SLOT_SIZE);
+				this.buffer.putInt(HEADER_USED, 0);
+			} else {
+				this.load();
+			}
+
+			// 标记为未正常关闭，直到调用 close()
+			this.buffer.putInt(HEADER_CLEAN_SHUTDOWN, 0);
+			this.buffer.force();
+		} catch (IOException | RuntimeException e) {
+			this.randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	public MmapSequenceServiceImpl(@NonNull MmapSequenceConfig config) throws IOException {
+		this(new File(config.getFile()), config.getBlockSize(), config.getCapacity());
+	}
+
+
+	//region Override ISequenceService
+
+	@Override
+	public long currVal(@NonNull String seqName) {
+		return this.getCounter(seqName).value.get();
+	}
+
+	@Override
+	public long nextVal(@NonNull String seqName) {
+		Counter counter = this.getCounter(seqName);
+		long val = counter.value.incrementAndGet();
+		if (val > counter.highWater) {
+			this.reserve(counter, val);
+		}
+		return val;
+	}
+
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		Counter counter = this.getCounter(seqName);
+		long last = counter.value.addAndGet(count);
+		if (last > counter.highWater) {
+			this.reserve(counter, last);
+		}
+		return SequenceUtils.toRange(last - count + 1, count);
+	}
+
+	@Override
+	public long setVal(@NonNull String seqName, long newVal) {
+		Counter counter = this.getCounter(seqName);
+		synchronized (counter) {
+			long previousVal = counter.value.getAndSet(newVal);
+			this.persist(counter, newVal);
+			counter.highWater = newVal;
+			return previousVal;
+		}
+	}
+
+	//endregion
+
+
+	//region Override Closeable
+
+	/**
+	 * 保存所有序列的当前值，并释放文件
+	 */
+	@Override
+	public void close() {
+		synchronized (this.buffer) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+
+			for (Counter counter : this.counterMap.values()) {
+				this.buffer.putLong(counter.offset + SLOT_VALUE, counter.value.get());
+			}
+			this.buffer.putInt(HEADER_CLEAN_SHUTDOWN, 1);
+			this.buffer.force();
+
+			try {
+				this.fileLock.release();
+				this.randomAccessFile.close();
+			} catch (IOException e) {
+				LOGGER.warn("关闭序列文件失败：{}", this.file.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private int readCapacity(FileChannel channel) throws IOException {
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+		if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION
+				|| header.getInt(HEADER_SLOT_SIZE) != SLOT_SIZE) {
+			throw new IOException("不是有效的序列文件：" + this.file.getAbsolutePath());
+		}
+		return header.getInt(HEADER_CAPACITY);
+	}
+
+	/**
+	 * 从文件中加载所有序列
+	 */
+	private void load() {
+		boolean cleanShutdown = this.buffer.getInt(HEADER_CLEAN_SHUTDOWN) == 1;
+		if (!cleanShutdown) {
+			LOGGER.warn("序列文件上次未正常关闭，所有序列将从已预留的高水位继续递增：{}", this.file.getAbsolutePath());
+		}
+
+		int used = this.buffer.getInt(HEADER_USED);
+		for (int i = 0; i < used; i++) {
+			int offset = HEADER_SIZE + i * SLOT_SIZE;
+			byte[] nameBytes = new byte[this.buffer.getShort(offset + SLOT_NAME_LENGTH)];
+			for (int j = 0; j < nameBytes.length; j++) {
+				nameBytes[j] = this.buffer.get(offset + SLOT_NAME + j);
+			}
+			String seqName = new String(nameBytes, StandardCharsets.UTF_8);
+			// 正常关闭时，保存的是当前值；异常退出时，保存的是高水位，直接从高水位继续递增，跳过未使用的序列值
+			this.counterMap.put(seqName, new Counter(offset, this.buffer.getLong(offset + SLOT_VALUE)));
+		}
+	}
+
+	private Counter getCounter(String seqName) {
+		if (this.closed) {
+			throw new IllegalStateException("序列服务已关闭");
+		}
+		return MapUtils.computeIfAbsent(this.counterMap, seqName, this::createCounter);
+	}
+
+	/**
+	 * 在文件中分配一个槽位，创建新的序列
+	 *
+	 * @param seqName 序列名
+	 * @return 序列计数器
+	 */
+	private Counter createCounter(String seqName) {
+		byte[] nameBytes = seqName.getBytes(StandardCharsets.UTF_8);
+		Assert.isTrue(nameBytes.length <= MAX_NAME_LENGTH, "序列名过长，最多 " + MAX_NAME_LENGTH + " 个字节：" + seqName);
+
+		synchronized (this.buffer) {
+			int used = this.buffer.getInt(HEADER_USED);
+			if (used >= this.capacity) {
+				throw new IllegalStateException("序列文件已满，最多可保存 " + this.capacity + " 个序列：" + this.file.getAbsolutePath());
+			}
+
+			int offset = HEADER_SIZE + used * SLOT_SIZE;
+			this.buffer.putLong(offset + SLOT_VALUE, 0L);
+			this.buffer.putShort(offset + SLOT_NAME_LENGTH, (short)nameBytes.length);
+			for (int i = 0; i < nameBytes.length; i++) {
+				this.buffer.put(offset + SLOT_NAME + i, nameBytes[i]);
+			}
+			this.buffer.putInt(HEADER_USED, used + 1);
+			this.buffer.force();
+
+			return new Counter(offset, 0L);
+		}
+	}
+
+	/**
+	 * 预留一个序列段，并持久化其高水位
+	 *
+	 * @param counter 序列计数器
+	 * @param val     需要覆盖的序列值
+	 */
+	private void reserve(Counter counter, long val) {
+		synchronized (counter) {
+			if (val <= counter.highWater) {
+				return; // 已被其他线程预留
+			}
+
+			long highWater = Math.max(val, counter.value.get()) + this.blockSize - 1;
+			this.persist(counter, highWater);
+			// 刷盘之后才能更新内存中的高水位，保证分配出去的序列值都不超过文件中的高水位
+			counter.highWater = highWater;
+		}
+	}
+
+	private void persist(Counter counter, long val) {
+		synchronized (this.buffer) {
+			if (this.closed) {
+				throw new IllegalStateException("序列服务已关闭");
+			}
+			this.buffer.putLong(counter.offset + SLOT_VALUE, val);
+			this.buffer.force();
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public File getFile() {
+		return file;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	//endregion
+
+
+	/**
+	 * 序列计数器
+	 */
+	private static final class Counter {
+
+		/**
+		 * 槽位在文件中的偏移量
+		 */
+		private final int offset;
+
+		/**
+		 * 当前值
+		 */
+		private final AtomicLong value;
+
+		/**
+		 * 高水位：已持久化的最大序列值
+		 */
+		private volatile long highWater;
+
+
+		private Counter(int offset, long value) {
+			this.offset = offset;
+			this.value = new AtomicLong(value);
+			this.highWater = value;
+		}
+	}
+}
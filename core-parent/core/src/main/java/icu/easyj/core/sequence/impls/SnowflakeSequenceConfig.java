@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+/**
+ * 雪花算法序列服务配置
+ * <p>
+ * 生成的序列值为64位正整数，从高位到低位依次为：1位符号位（固定为0）、时间戳位、节点ID位、序列号位，
+ * 其中：时间戳位数 = 63 - 节点ID位数 - 序列号位数。
+ *
+ * @author wangliang181230
+ * @see SnowflakeSequenceServiceImpl
+ */
+public class SnowflakeSequenceConfig {
+
+	/**
+	 * 默认起始时间：2021-01-01 00:00:00（北京时间）
+	 */
+	public static final long DEFAULT_EPOCH = 1609430400000L;
+
+	/**
+	 * 默认节点ID位数
+	 */
+	public static final int DEFAULT_NODE_BITS = 10;
+
+	/**
+	 * 默认序列号位数
+	 */
+	public static final int DEFAULT_SEQUENCE_BITS = 12;
+
+	/**
+	 * 默认允许的最大时钟回拨毫秒数
+	 */
+	public static final long DEFAULT_MAX_BACKWARD_MILLIS = 5000L;
+
+	/**
+	 * 默认时钟类型：本地时钟
+	 */
+	public static final String DEFAULT_CLOCK = "local";
+
+
+	/**
+	 * 节点ID（为空时，由当前服务的数据中心ID和工作ID生成）
+	 */
+	private Long nodeId;
+
+	/**
+	 * 起始时间（毫秒数），时间戳位保存的是与该时间的差值
+	 */
+	private long epoch = DEFAULT_EPOCH;
+
+	/**
+	 * 节点ID位数
+	 */
+	private int nodeBits = DEFAULT_NODE_BITS;
+
+	/**
+	 * 序列号位数，即：每个节点每毫秒可生成的序列值个数为 2^sequenceBits
+	 */
+	private int sequenceBits = DEFAULT_SEQUENCE_BITS;
+
+	/**
+	 * 允许的最大时钟回拨毫秒数（时钟回拨或序列号借用未来时间时，序列值的时间戳领先时钟的毫秒数不能超过该值）
+	 */
+	private long maxBackwardMillis = DEFAULT_MAX_BACKWARD_MILLIS;
+
+	/**
+	 * 时钟类型：local=本地时钟、db=主数据库时钟、redis=Redis时钟（多节点共用同一个时间源，可降低各节点时间不一致的影响）
+	 */
+	private String clock = DEFAULT_CLOCK;
+
+
+	//region Getter、Setter
+
+	public Long getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(Long nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public long getEpoch() {
+		return epoch;
+	}
+
+	public void setEpoch(long epoch) {
+		this.epoch = epoch;
+	}
+
+	public int getNodeBits() {
+		return nodeBits;
+	}
+
+	public void setNodeBits(int nodeBits) {
+		this.nodeBits = nodeBits;
+	}
+
+	public int getSequenceBits() {
+		return sequenceBits;
+	}
+
+	public void setSequenceBits(int sequenceBits) {
+		this.sequenceBits = sequenceBits;
+	}
+
+	public long getMaxBackwardMillis() {
+		return maxBackwardMillis;
+	}
+
+	public void setMaxBackwardMillis(long maxBackwardMillis) {
+		this.maxBackwardMillis = maxBackwardMillis;
+	}
+
+	public String getClock() {
+		return clock;
+	}
+
+	public void setClock(String clock) {
+		this.clock = clock;
+	}
+
+	//endregion
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import icu.easyj.core.clock.ITickClock;
+import icu.easyj.core.clock.TickClock;
+import icu.easyj.core.exception.NotSupportedException;
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.util.MapUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 基于雪花算法实现的序列服务
+ * <p>
+ * 特点：无需远程调用，性能高；多节点部署时，只需保证各节点的节点ID不同，即可保证序列值全局唯一且趋势递增。
+ * <p>
+ * 实现说明：<br>
+ * 1）时间取自 {@link ITickClock}，在两次校准之间基于 {@link System#nanoTime()} 单调递增，不受系统时间调整的影响；<br>
+ * 2）每个序列的状态（时间戳 + 序列号）压缩在一个 {@link AtomicLong} 中，通过CAS无锁更新；<br>
+ * 3）同一毫秒内的序列号用完时，向后借用下一毫秒；时钟回拨时，继续使用上一次的时间戳递增序列号，
+ * 保证当前实例内的序列值严格递增。借用或回拨的毫秒数超过 {@link #maxBackwardMillis} 时，抛出异常。
+ * <p>
+ * 注意：不支持 {@link #setVal(String, long)}。
+ *
+ * @author wangliang181230
+ * @see SnowflakeSequenceConfig
+ */
+public class SnowflakeSequenceServiceImpl implements ISequenceService {
+
+	/**
+	 * 时钟
+	 */
+	private final ITickClock clock;
+
+	/**
+	 * 节点ID
+	 */
+	private final long nodeId;
+
+	/**
+	 * 起始时间（毫秒数）
+	 */
+	private final long epoch;
+
+	/**
+	 * 序列号位数
+	 */
+	private final int sequenceBits;
+
+	/**
+	 * 时间戳左移位数（节点ID位数 + 序列号位数）
+	 */
+	private final int timestampShift;
+
+	/**
+	 * 最大时间戳（相对于起始时间）
+	 */
+	private final long maxTimestamp;
+
+	/**
+	 * 序列号掩码
+	 */
+	private final long sequenceMask;
+
+	/**
+	 * 节点ID左移序列号位数后的值，生成序列值时直接按位或
+	 */
+	private final long nodeIdPart;
+
+	/**
+	 * 允许的最大时钟回拨毫秒数
+	 */
+	private final long maxBackwardMillis;
+
+	/**
+	 * 序列状态Map，值为：{@code 时间戳 << sequenceBits | 序列号}
+	 */
+	private final Map<String, AtomicLong> stateMap = new ConcurrentHashMap<>();
+
+
+	public SnowflakeSequenceServiceImpl(@NonNull ITickClock clock, long nodeId, long epoch,
+										int nodeBits, int sequenceBits, long maxBackwardMillis) {
+		Assert.notNull(clock, "'clock' must not be null");
+		Assert.isTrue(nodeBits >= 0, "'nodeBits' must not be less than 0");
+		Assert.isTrue(sequenceBits > 0, "'sequenceBits' must be greater than 0");
+		Assert.isTrue(nodeBits + sequenceBits < 63, "'nodeBits' + 'sequenceBits' must be less than 63");
+		Assert.isTrue(nodeId >= 0 && nodeId < (1L << nodeBits), "'nodeId' must be between 0 and " + ((1L << nodeBits) - 1));
+		Assert.isTrue(epoch >= 0 && epoch <= clock.currentTimeMillis(), "'epoch' must be between 0 and the current time");
+		Assert.isTrue(maxBackwardMillis >= 0, "'maxBackwardMillis' must not be less than 0");
+
+		this.clock = clock;
+		this.nodeId = nodeId;
+		this.epoch = epoch;
+		this.sequenceBits = sequenceBits;
+		this.timestampShift = nodeBits + sequenceBits;
+		this.maxTimestamp = (1L << (63 - this.timestampShift)) - 1;
+		this.sequenceMask = (1L << sequenceBits) - 1;
+		this.nodeIdPart = nodeId << sequenceBits;
+		this.maxBackwardMillis = maxBackwardMillis;
+	}
+
+	public SnowflakeSequenceServiceImpl(@NonNull ITickClock clock, long nodeId, @NonNull SnowflakeSequenceConfig config) {
+		this(clock, nodeId, config.getEpoch(), config.getNodeBits(), config.getSequenceBits(), config.getMaxBackwardMillis());
+	}
+
+	public SnowflakeSequenceServiceImpl(@NonNull ITickClock clock, long nodeId) {
+		this(clock, nodeId, new SnowflakeSequenceConfig());
+	}
+
+	public SnowflakeSequenceServiceImpl(long nodeId) {
+		this(new TickClock(System.currentTimeMillis() * 1000), nodeId);
+	}
+
+
+	//region Override ISequenceService
+
+	@Override
+	public long currVal(@NonNull String seqName) {
+		AtomicLong state = this.stateMap.get(seqName);
+		if (state == null || state.get() < 0) {
+			return 0L; // 还未生成过序列值
+		}
+		return this.toValue(state.get());
+	}
+
+	@Override
+	public long nextVal(@NonNull String seqName) {
+		return this.toValue(this.reserve(seqName, 1));
+	}
+
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		long last = this.reserve(seqName, count);
+
+		// 从最后一个状态倒推，跨毫秒时由 toValue 自动进位
+		long[] vals = new long[count];
+		for (int i = count - 1; i >= 0; i--) {
+			vals[i] = this.toValue(last--);
+		}
+		return vals;
+	}
+
+	/**
+	 * 不支持设置雪花算法序列的值
+	 *
+	 * @throws NotSupportedException 不支持
+	 */
+	@Override
+	public long setVal(@NonNull String seqName, long newVal) {
+		throw new NotSupportedException("雪花算法序列服务不支持设置序列值");
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private AtomicLong getState(String seqName) {
+		return MapUtils.computeIfAbsent(this.stateMap, seqName, k -> new AtomicLong(-1L));
+	}
+
+	/**
+	 * 预留序列状态
+	 *
+	 * @param seqName 序列名
+	 * @param count   预留个数
+	 * @return 预留的最后一个状态
+	 */
+	private long reserve(String seqName, int count) {
+		AtomicLong state = this.getState(seqName);
+
+		long current, first, last, now, lastTimestamp;
+		do {
+			current = state.get();
+			now = this.clock.currentTimeMillis() - this.epoch;
+			lastTimestamp = current >>> this.sequenceBits;
+
+			if (current < 0 || now > lastTimestamp) {
+				// 进入新的毫秒，序列号从0开始
+				first = now << this.sequenceBits;
+			} else {
+				// 同一毫秒内、借用了未来的毫秒、或时钟回拨，继续递增（序列号溢出时自动进位到时间戳）
+				first = current + 1;
+			}
+			last = first + count - 1;
+
+			this.checkTimestamp(seqName, last >>> this.sequenceBits, now);
+		} while (!state.compareAndSet(current, last));
+
+		return last;
+	}
+
+	private void checkTimestamp(String seqName, long timestamp, long now) {
+		if (timestamp > this.maxTimestamp) {
+			throw new IllegalStateException("雪花算法序列 '" + seqName + "' 的时间戳已超出最大值，请调整起始时间或位数配置");
+		}
+		if (timestamp - now > this.maxBackwardMillis) {
+			throw new IllegalStateException("雪花算法序列 '" + seqName + "' 的时间戳领先当前时钟 " + (timestamp - now)
+					+ " 毫秒，超出了允许的最大值 " + this.maxBackwardMillis + " 毫秒，可能是时钟回拨或序列值生成过快导致的");
+		}
+	}
+
+	/**
+	 * 将序列状态转换为序列值
+	 *
+	 * @param state 序列状态
+	 * @return 序列值
+	 */
+	private long toValue(long state) {
+		long timestamp = state >>> this.sequenceBits;
+		long sequence = state & this.sequenceMask;
+		return (timestamp << this.timestampShift) | this.nodeIdPart | sequence;
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public ITickClock getClock() {
+		return clock;
+	}
+
+	public long getNodeId() {
+		return nodeId;
+	}
+
+	public long getEpoch() {
+		return epoch;
+	}
+
+	//endregion
+}
@@ -107,6 +107,7 @@ public abstract class ObjectUtils {
 
 			// 设置值
 			try {
+				ReflectionUtils.setAccessible(field);
 				field.set(result, value);
 			} catch (IllegalAccessException ignore) {
 				// 设置失败时，忽略该字段
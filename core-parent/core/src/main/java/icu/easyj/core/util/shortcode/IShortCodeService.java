@@ -16,6 +16,7 @@
 package icu.easyj.core.util.shortcode;
 
 import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
 
 /**
  * long型ID 与 短字符串 互相转换的服务类
@@ -44,4 +45,64 @@ public interface IShortCodeService {
 	 * @throws IllegalArgumentException shortCode为null
 	 */
 	long toId(@NonNull String shortCode);
+
+
+	/**
+	 * long型ID 转换为 短字符串，并写入调用方提供的字符数组中
+	 *
+	 * @param id     ID（必须大于等于0）
+	 * @param buf    字符数组（剩余空间必须足够写入短字符串）
+	 * @param offset 写入的起始位置
+	 * @return 写入的字符数，即：短字符串的长度
+	 * @throws IllegalArgumentException ID小于0
+	 */
+	default int toCode(long id, @NonNull char[] buf, int offset) {
+		String shortCode = this.toCode(id);
+		shortCode.getChars(0, shortCode.length(), buf, offset);
+		return shortCode.length();
+	}
+
+	/**
+	 * long型ID 转换为 短字符串，并追加到调用方提供的 {@link StringBuilder} 中
+	 *
+	 * @param sb 字符串构建器
+	 * @param id ID（必须大于等于0）
+	 * @return sb 字符串构建器
+	 * @throws IllegalArgumentException ID小于0
+	 */
+	@NonNull
+	default StringBuilder appendCode(@NonNull StringBuilder sb, long id) {
+		return sb.append(this.toCode(id));
+	}
+
+	/**
+	 * 批量将 long型ID 转换为 短字符串
+	 *
+	 * @param ids ID数组（都必须大于等于0）
+	 * @return 短字符串数组，与ID数组一一对应
+	 * @throws IllegalArgumentException ID数组为null 或 存在小于0的ID
+	 */
+	@NonNull
+	default String[] toCodes(@NonNull long[] ids) {
+		Assert.notNull(ids, "'ids' must not be null");
+
+		String[] shortCodes = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			shortCodes[i] = this.toCode(ids[i]);
+		}
+		return shortCodes;
+	}
+
+	/**
+	 * 从字符序列的指定区间中读取短字符串，并转换为 long长整形ID
+	 *
+	 * @param cs    字符序列
+	 * @param start 起始位置（包含）
+	 * @param end   结束位置（不包含）
+	 * @return 原ID
+	 * @throws IllegalArgumentException 短字符串有误
+	 */
+	default long toId(@NonNull CharSequence cs, int start, int end) {
+		return this.toId(cs.subSequence(start, end).toString());
+	}
 }
@@ -15,6 +15,8 @@
  */
 package icu.easyj.core.util.shortcode.impls;
 
+import java.util.Arrays;
+
 import icu.easyj.core.loader.LoadLevel;
 import icu.easyj.core.util.StringUtils;
 import icu.easyj.core.util.shortcode.IShortCodeService;
@@ -23,6 +25,9 @@ import org.springframework.util.Assert;
 
 /**
  * long型ID 与 短字符串 互相转换服务 默认实现
+ * <p>
+ * 编码时，先通过进制的幂次表精确计算出位数，再从低位到高位直接写入目标位置；
+ * 解码时，通过字符的反向查找表直接得到每个字符对应的数值，时间复杂度为 O(length)。
  *
  * @author wangliang181230
  */
@@ -50,6 +55,21 @@ public class DefaultShortCodeServiceImpl implements IShortCodeService {
 
 	protected final String firstChar;
 
+	/**
+	 * 反向查找表：下标为字符，值为该字符在字符集中的下标，不在字符集中的字符为-1
+	 */
+	protected final int[] indexTable;
+
+	/**
+	 * 进制的幂次表：powers[i] = base^(i+1)，用于精确计算位数
+	 */
+	private final long[] powers;
+
+	/**
+	 * 短字符串的最大长度（即：{@link Long#MAX_VALUE} 的位数）
+	 */
+	protected final int maxCodeLength;
+
 
 	public DefaultShortCodeServiceImpl() {
 		this(DEFAULT_CHAR_TABLE);
@@ -61,9 +81,40 @@ public class DefaultShortCodeServiceImpl implements IShortCodeService {
 
 		this.charTable = charTable;
 		this.firstChar = String.valueOf(charTable[0]);
+
+		// 反向查找表
+		char maxChar = 0;
+		for (char c : charTable) {
+			if (c > maxChar) {
+				maxChar = c;
+			}
+		}
+		this.indexTable = new int[maxChar + 1];
+		Arrays.fill(this.indexTable, -1);
+		for (int i = 0; i < charTable.length; i++) {
+			Assert.isTrue(this.indexTable[charTable[i]] == -1, "字符集中存在重复的字符：" + charTable[i]);
+			this.indexTable[charTable[i]] = i;
+		}
+
+		// 幂次表（不超过 Long.MAX_VALUE）
+		long base = charTable.length;
+		long[] powers = new long[64];
+		int count = 0;
+		long power = base;
+		while (true) {
+			powers[count++] = power;
+			if (power > Long.MAX_VALUE / base) {
+				break;
+			}
+			power *= base;
+		}
+		this.powers = Arrays.copyOf(powers, count);
+		this.maxCodeLength = count + 1;
 	}
 
 
+	//region Override IShortCodeService
+
 	@NonNull
 	@Override
 	public String toCode(@NonNull Long id) {
@@ -73,48 +124,134 @@ public class DefaultShortCodeServiceImpl implements IShortCodeService {
 			return firstChar;
 		}
 
-		// 自定义进制字符集长度
-		int charTableLength = charTable.length;
+		char[] buf = new char[this.digitCount(id)];
+		this.writeDigits(id, buf, 0, buf.length);
+		return new String(buf);
+	}
+
+	@Override
+	public int toCode(long id, @NonNull char[] buf, int offset) {
+		Assert.isTrue(id >= 0, "ID必须大于等于0");
 
-		double power = Math.log(id) / Math.log(charTableLength); // Math.pow(charTableLength, power) == id
-		int charPos = (int)(power) + 2;
+		int digitCount = this.digitCount(id);
+		this.writeDigits(id, buf, offset, digitCount);
+		return digitCount;
+	}
 
-		// 生成字符数组
-		char[] buf = new char[charPos];
-		while (id > 0) {
-			int index = (int)(id % charTableLength);
-			buf[--charPos] = charTable[index];
+	@NonNull
+	@Override
+	public StringBuilder appendCode(@NonNull StringBuilder sb, long id) {
+		Assert.isTrue(id >= 0, "ID必须大于等于0");
+
+		int digitCount = this.digitCount(id);
+		int end = sb.length() + digitCount;
+		sb.setLength(end);
+
+		int charTableLength = this.charTable.length;
+		do {
+			sb.setCharAt(--end, this.charTable[(int)(id % charTableLength)]);
 			id /= charTableLength;
-		}
+		} while (id > 0);
+		return sb;
+	}
+
+	@NonNull
+	@Override
+	public String[] toCodes(@NonNull long[] ids) {
+		Assert.notNull(ids, "'ids' must not be null");
 
-		if (charPos == 0) {
-			return new String(buf);
-		} else {
-			return new String(buf, charPos, (buf.length - charPos));
+		// 复用同一个缓冲区
+		char[] buf = new char[this.getMaxCodeLength()];
+		String[] shortCodes = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			shortCodes[i] = new String(buf, 0, this.toCode(ids[i], buf, 0));
 		}
+		return shortCodes;
 	}
 
-
 	@Override
 	public long toId(@NonNull String shortCode) {
 		Assert.isTrue(StringUtils.isNotBlank(shortCode), "'shortCode' must not be blank");
+		return this.toId(shortCode, 0, shortCode.length());
+	}
+
+	@Override
+	public long toId(@NonNull CharSequence cs, int start, int end) {
+		Assert.isTrue(start < end, "'shortCode' must not be empty");
 
-		char[] chars = StringUtils.toCharArray(shortCode);
+		long base = this.charTable.length;
 		long id = 0L;
-		for (int i = 0; i < chars.length; i++) {
-			int index = 0;
-			for (int j = 0; j < this.charTable.length; j++) {
-				if (chars[i] == this.charTable[j]) {
-					index = j;
-					break;
-				}
+		int index;
+		for (int i = start; i < end; i++) {
+			index = this.indexOf(cs.charAt(i));
+			if (index < 0) {
+				throw new IllegalArgumentException("短字符串 '" + cs.subSequence(start, end) + "' 中存在无效的字符：" + cs.charAt(i));
 			}
-			if (i > 0) {
-				id = id * this.charTable.length + index;
-			} else {
-				id = index;
+			if (id > (Long.MAX_VALUE - index) / base) {
+				throw new IllegalArgumentException("短字符串 '" + cs.subSequence(start, end) + "' 有误，它超出了long的最大值！");
 			}
+			id = id * base + index;
 		}
 		return id;
 	}
+
+	//endregion
+
+
+	//region Protected
+
+	/**
+	 * 获取字符在字符集中的下标
+	 *
+	 * @param c 字符
+	 * @return 下标，不在字符集中时返回-1
+	 */
+	protected int indexOf(char c) {
+		return c < this.indexTable.length ? this.indexTable[c] : -1;
+	}
+
+	/**
+	 * 计算ID转换为短字符串后的位数（不使用浮点运算）
+	 *
+	 * @param id ID（必须大于等于0）
+	 * @return 位数
+	 */
+	protected int digitCount(long id) {
+		long[] powers = this.powers;
+		for (int i = 0; i < powers.length; i++) {
+			if (id < powers[i]) {
+				return i + 1;
+			}
+		}
+		return powers.length + 1;
+	}
+
+	/**
+	 * 将ID的每一位字符，从低位到高位写入字符数组
+	 *
+	 * @param id         ID（必须大于等于0）
+	 * @param buf        字符数组
+	 * @param offset     写入的起始位置
+	 * @param digitCount 位数
+	 */
+	protected void writeDigits(long id, char[] buf, int offset, int digitCount) {
+		int charTableLength = this.charTable.length;
+		int pos = offset + digitCount;
+		do {
+			buf[--pos] = this.charTable[(int)(id % charTableLength)];
+			id /= charTableLength;
+		} while (id > 0);
+	}
+
+	//endregion
+
+
+	/**
+	 * 获取短字符串的最大长度，可用于确定调用 {@link #toCode(long, char[], int)} 时字符数组所需的长度
+	 *
+	 * @return 短字符串的最大长度
+	 */
+	public int getMaxCodeLength() {
+		return maxCodeLength;
+	}
 }
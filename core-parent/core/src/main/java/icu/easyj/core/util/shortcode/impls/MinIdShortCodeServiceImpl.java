@@ -62,12 +62,46 @@ public class MinIdShortCodeServiceImpl implements IShortCodeService {
 		return shortCodeService.toCode(id);
 	}
 
+	@Override
+	public int toCode(long id, @NonNull char[] buf, int offset) {
+		Assert.isTrue(id >= minId, "ID必须大于等于最小ID：" + minId);
+		return shortCodeService.toCode(id - minId, buf, offset);
+	}
+
+	@NonNull
+	@Override
+	public StringBuilder appendCode(@NonNull StringBuilder sb, long id) {
+		Assert.isTrue(id >= minId, "ID必须大于等于最小ID：" + minId);
+		return shortCodeService.appendCode(sb, id - minId);
+	}
+
+	@NonNull
+	@Override
+	public String[] toCodes(@NonNull long[] ids) {
+		Assert.notNull(ids, "'ids' must not be null");
+
+		long[] innerIds = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			Assert.isTrue(ids[i] >= minId, "ID必须大于等于最小ID：" + minId);
+			innerIds[i] = ids[i] - minId; // 减掉最小ID
+		}
+		return shortCodeService.toCodes(innerIds);
+	}
+
 	@Override
 	public long toId(@NonNull String shortCode) {
-		long id = shortCodeService.toId(shortCode);
+		return this.addMinId(shortCodeService.toId(shortCode), shortCode, 0, shortCode.length());
+	}
+
+	@Override
+	public long toId(@NonNull CharSequence cs, int start, int end) {
+		return this.addMinId(shortCodeService.toId(cs, start, end), cs, start, end);
+	}
+
+	private long addMinId(long id, CharSequence cs, int start, int end) {
 		id += minId; // 加上最小ID
 		if (id < minId) { // 如果加上最小ID后反而变小了，说明ID超过Long.MAX_VALUE了，shortCode并非当前实例生成的。
-			throw new IllegalArgumentException("短字符串 '" + shortCode + "' 有误，它可能不是当前服务生成的！");
+			throw new IllegalArgumentException("短字符串 '" + cs.subSequence(start, end) + "' 有误，它可能不是当前服务生成的！");
 		}
 		return id;
 	}
@@ -19,7 +19,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import cn.hutool.core.util.ArrayUtil;
 import icu.easyj.core.loader.LoadLevel;
-import icu.easyj.core.util.StringUtils;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 
@@ -111,20 +110,48 @@ public class MinLengthShortCodeServiceImpl extends DefaultShortCodeServiceImpl {
 	public String toCode(@NonNull Long id) {
 		Assert.isTrue(id != null && id >= 0, "ID必须大于等于0");
 
+		char[] buf = new char[Math.max(this.digitCount(id), this.minLength)];
+		this.toCode(id, buf, 0);
+		return new String(buf);
+	}
+
+	@Override
+	public int toCode(long id, @NonNull char[] buf, int offset) {
 		// 调用默认实现的方法
-		String shortCode = super.toCode(id);
+		int length = super.toCode(id, buf, offset);
 
 		// 长度不够时，自动随机补全
-		if (shortCode.length() < this.minLength) {
-			StringBuilder sb = new StringBuilder();
-			sb.append(this.separator);
-			for (int i = 1; i < this.minLength - shortCode.length(); i++) {
-				sb.append(this.charTable[ThreadLocalRandom.current().nextInt(this.charTable.length)]);
+		if (length < this.minLength) {
+			int end = offset + this.minLength;
+			int pos = offset + length;
+			buf[pos++] = this.separator;
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			while (pos < end) {
+				buf[pos++] = this.charTable[random.nextInt(this.charTable.length)];
 			}
-			shortCode += sb.toString();
+			length = this.minLength;
 		}
+		return length;
+	}
+
+	@NonNull
+	@Override
+	public StringBuilder appendCode(@NonNull StringBuilder sb, long id) {
+		int start = sb.length();
+
+		// 调用默认实现的方法
+		super.appendCode(sb, id);
 
-		return shortCode;
+		// 长度不够时，自动随机补全
+		int length = sb.length() - start;
+		if (length < this.minLength) {
+			sb.append(this.separator);
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = length + 1; i < this.minLength; i++) {
+				sb.append(this.charTable[random.nextInt(this.charTable.length)]);
+			}
+		}
+		return sb;
 	}
 
 	@Override
@@ -135,26 +162,26 @@ public class MinLengthShortCodeServiceImpl extends DefaultShortCodeServiceImpl {
 			return 0L;
 		}
 
-		char[] chars = StringUtils.toCharArray(shortCode);
-		long id = 0L;
-		for (int i = 0; i < chars.length; i++) {
-			int index = 0;
-			for (int j = 0; j < this.charTable.length; j++) {
-				if (chars[i] == this.charTable[j]) {
-					index = j;
-					break;
-				}
-			}
-			// 当前方法相对于父类方法，多了这个判断，其他代码完全相同
-			if (chars[i] == this.separator) {
+		return this.toId(shortCode, 0, shortCode.length());
+	}
+
+	@Override
+	public long toId(@NonNull CharSequence cs, int start, int end) {
+		// 当前方法相对于父类方法，多了分隔字符的判断：分隔字符及其后面的随机字符都不参与解析
+		for (int i = start; i < end; i++) {
+			if (cs.charAt(i) == this.separator) {
+				end = i;
 				break;
 			}
-			if (i > 0) {
-				id = id * this.charTable.length + index;
-			} else {
-				id = index;
-			}
 		}
-		return id;
+		if (start == end) {
+			return 0L;
+		}
+		return super.toId(cs, start, end);
+	}
+
+	@Override
+	public int getMaxCodeLength() {
+		return Math.max(super.getMaxCodeLength(), this.minLength);
 	}
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link CachedClock} 与 {@link TickClock}、{@link System#currentTimeMillis()} 的性能对比
+ * <p>
+ * 运行方式：执行 {@link #main(String[])} 方法。
+ *
+ * @author wangliang181230
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CachedClockBenchmark {
+
+	private CachedClock cachedClock;
+
+	private TickClock tickClock;
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		cachedClock = new CachedClock();
+		tickClock = new TickClock(System.currentTimeMillis() * 1000);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		cachedClock.destroy();
+	}
+
+
+	@Benchmark
+	public long systemCurrentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Benchmark
+	public long tickClock() {
+		return tickClock.currentTimeMillis();
+	}
+
+	@Benchmark
+	public long cachedClock() {
+		return cachedClock.currentTimeMillis();
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(CachedClockBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CachedClock} 及 {@link ClockManager} 测试类
+ *
+ * @author wangliang181230
+ */
+public class CachedClockTest {
+
+	@Test
+	public void testCachedClock() throws InterruptedException {
+		CachedClock clock = new CachedClock(5);
+		try {
+			long diff = System.currentTimeMillis() - clock.currentTimeMillis();
+			Assertions.assertTrue(diff >= 0 && diff <= 200, "时钟偏差值：" + diff);
+
+			long time = clock.currentTimeMillis();
+			Thread.sleep(50);
+			Assertions.assertTrue(clock.currentTimeMillis() > time);
+			Assertions.assertEquals(clock.currentTimeMillis() * 1000, clock.currentTimeMicros(), 1000 * 10);
+		} finally {
+			clock.destroy();
+		}
+		Assertions.assertTrue(clock.isDestroyed());
+
+		// 销毁后，时间不再变化
+		long time = clock.currentTimeMillis();
+		Thread.sleep(20);
+		Assertions.assertEquals(time, clock.currentTimeMillis());
+	}
+
+	@Test
+	public void testClockManager() {
+		Assertions.assertSame(SystemClock.INSTANCE, ClockManager.getClock());
+		Assertions.assertFalse(ClockManager.isCachedClockEnabled());
+
+		try {
+			ClockManager.enableCachedClock(10);
+			Assertions.assertTrue(ClockManager.isCachedClockEnabled());
+			IClock clock = ClockManager.getClock();
+
+			// 精度相同时，不会重复创建
+			ClockManager.enableCachedClock(10);
+			Assertions.assertSame(clock, ClockManager.getClock());
+
+			long diff = System.currentTimeMillis() - ClockManager.currentTimeMillis();
+			Assertions.assertTrue(diff >= 0 && diff <= 200, "时钟偏差值：" + diff);
+
+			// 切换后，原缓存时钟被销毁
+			ClockManager.enableCachedClock(20);
+			Assertions.assertTrue(((CachedClock)clock).isDestroyed());
+		} finally {
+			ClockManager.disableCachedClock();
+		}
+
+		Assertions.assertSame(SystemClock.INSTANCE, ClockManager.getClock());
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CalibratedTickClock} 测试类
+ *
+ * @author wangliang181230
+ */
+public class CalibratedTickClockTest {
+
+	private ScheduledThreadPoolExecutor scheduler;
+
+
+	@BeforeEach
+	public void before() {
+		scheduler = new ScheduledThreadPoolExecutor(1);
+	}
+
+	@AfterEach
+	public void after() {
+		scheduler.shutdownNow();
+	}
+
+
+	@Test
+	public void testRttCompensation() throws Exception {
+		AtomicInteger counter = new AtomicInteger();
+
+		// 远端时钟比本地快5秒，并且除了第3次采样外，其他采样都有较大的延迟
+		CalibratedTickClock clock = new CalibratedTickClock("test", scheduler, () -> {
+			int i = counter.incrementAndGet();
+			if (i != 3) {
+				sleep(20);
+			}
+			long time = System.currentTimeMillis() + 5000;
+			if (i != 3) {
+				sleep(20);
+			}
+			return time;
+		});
+
+		Assertions.assertEquals(CalibratedTickClock.DEFAULT_SAMPLE_COUNT, counter.get());
+		Assertions.assertTrue(clock.isAutoRefreshing());
+
+		// 采用了往返耗时最小的样本
+		Assertions.assertTrue(clock.getRttNanos() < 20_000_000L, "往返耗时：" + clock.getRttNanos());
+
+		long offsetMillis = clock.getOffsetMicros() / 1000;
+		Assertions.assertTrue(offsetMillis >= 4995 && offsetMillis <= 5005, "偏移量：" + offsetMillis);
+
+		long diff = clock.currentTimeMillis() - System.currentTimeMillis() - 5000;
+		Assertions.assertTrue(diff >= -5 && diff <= 5, "时钟偏差值：" + diff);
+
+		// 只校准过一次，还没有漂移率
+		Assertions.assertTrue(Double.isNaN(clock.getDriftPpm()));
+
+		clock.destroy();
+		Assertions.assertTrue(clock.isDestroyed());
+		Assertions.assertFalse(clock.isAutoRefreshing());
+		// 共用的调度器不会被关闭
+		Assertions.assertFalse(scheduler.isShutdown());
+	}
+
+	@Test
+	public void testDrift() throws Exception {
+		long localStart = System.nanoTime();
+		long remotingStart = System.currentTimeMillis();
+
+		// 远端时钟比本地快10%，即：漂移率为 100000 ppm
+		CalibratedTickClock clock = new CalibratedTickClock("test", scheduler,
+				() -> remotingStart + (System.nanoTime() - localStart) * 11 / 10 / 1_000_000,
+				5, 1000, 60_000, 1000);
+		Assertions.assertTrue(Double.isNaN(clock.getDriftPpm()));
+
+		Thread.sleep(300);
+		clock.refreshTickClock();
+
+		double driftPpm = clock.getDriftPpm();
+		Assertions.assertTrue(driftPpm > 80_000 && driftPpm < 120_000, "漂移率：" + driftPpm);
+		// 漂移率很大，校准间隔调整为最小值
+		Assertions.assertEquals(1000, clock.getRefreshIntervalMillis());
+
+		clock.stopAutoRefresh();
+		Assertions.assertFalse(clock.isAutoRefreshing());
+		clock.startAutoRefresh();
+		Assertions.assertTrue(clock.isAutoRefreshing());
+		clock.destroy();
+	}
+
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
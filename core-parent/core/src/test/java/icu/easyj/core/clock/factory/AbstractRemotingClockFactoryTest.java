@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.clock.factory;
+
+import icu.easyj.core.clock.AutoRefreshHighAccuracyTickClock;
+import icu.easyj.core.clock.CalibratedTickClock;
+import icu.easyj.core.clock.IAutoRefreshTickClock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link AbstractRemotingClockFactory} 测试类
+ *
+ * @author wangliang181230
+ */
+public class AbstractRemotingClockFactoryTest {
+
+	@Test
+	public void testCreateClock() {
+		AbstractRemotingClockFactory<String> factory = new AbstractRemotingClockFactory<String>() {
+			@Override
+			public long getRemotingTime(String remotingKey) {
+				return System.currentTimeMillis();
+			}
+		};
+
+		// 默认不启用校准模式
+		Assertions.assertFalse(factory.isCalibratedClockEnabled());
+		IAutoRefreshTickClock clock = factory.getClock("a");
+		try {
+			Assertions.assertTrue(clock instanceof AutoRefreshHighAccuracyTickClock);
+		} finally {
+			factory.destroyClock("a");
+		}
+
+		// 启用校准模式后，新创建的时钟为校准时钟
+		factory.setCalibratedClockEnabled(true);
+		clock = factory.getClock("b");
+		try {
+			Assertions.assertTrue(clock instanceof CalibratedTickClock);
+		} finally {
+			factory.destroyClock("b");
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.executor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import icu.easyj.core.context.ContextUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link BoundedAsyncExecutor} 测试类
+ *
+ * @author wangliang181230
+ */
+public class BoundedAsyncExecutorTest {
+
+	@Test
+	public void testContextPropagation() throws Exception {
+		try (BoundedAsyncExecutor executor = new BoundedAsyncExecutor("test-async-", 1, 1)) {
+			// 任务中设置的上下文值，在任务执行完后会被清除，不会泄漏到后续任务中
+			executor.supplyAsync(() -> ContextUtils.put("worker-key", "worker-value")).get(5, TimeUnit.SECONDS);
+
+			ContextUtils.put("ctx-key", "ctx-value");
+			try {
+				String result = executor.supplyAsync(() -> ContextUtils.get("ctx-key") + "|" + ContextUtils.get("worker-key")).get(5, TimeUnit.SECONDS);
+				Assertions.assertEquals("ctx-value|null", result);
+			} finally {
+				ContextUtils.clear();
+			}
+
+			// 调用方的上下文也没有残留在工作线程中
+			String result = executor.supplyAsync(() -> ContextUtils.get("worker-key") + "|" + ContextUtils.get("ctx-key")).get(5, TimeUnit.SECONDS);
+			Assertions.assertEquals("null|null", result);
+		}
+	}
+
+	@Test
+	public void testRejected() throws Exception {
+		try (BoundedAsyncExecutor executor = new BoundedAsyncExecutor("test-async-", 1, 0)) {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<String> running = executor.supplyAsync(() -> {
+				started.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "done";
+			});
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// 已达并发上限且无等待队列：不阻塞调用方，直接返回异常完成的Future
+			CompletableFuture<String> rejected = executor.supplyAsync(() -> "rejected");
+			Assertions.assertTrue(rejected.isCompletedExceptionally());
+			ExecutionException e = Assertions.assertThrows(ExecutionException.class, rejected::get);
+			Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+			Assertions.assertEquals(1, executor.getRejectedCount());
+
+			release.countDown();
+			Assertions.assertEquals("done", running.get(5, TimeUnit.SECONDS));
+		}
+	}
+}
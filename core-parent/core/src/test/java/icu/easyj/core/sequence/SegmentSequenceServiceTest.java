@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link SegmentSequenceService} 测试类
+ *
+ * @author wangliang181230
+ */
+public class SegmentSequenceServiceTest {
+
+	private static final String SEQ_NAME = "SEQ_TEST";
+
+
+	@Test
+	public void testNextVal() {
+		CountingSequenceService remote = new CountingSequenceService();
+		// 使用同步执行器，便于断言预加载的结果
+		SegmentSequenceService service = new SegmentSequenceService(remote, 100, 0.5D, Runnable::run);
+
+		// 第一个号段：[1, 100]，远端的序列值为号段中最大的真实序列值
+		Assertions.assertEquals(1, service.nextVal(SEQ_NAME));
+		Assertions.assertEquals(1, service.currVal(SEQ_NAME));
+		Assertions.assertEquals(1, remote.remoteCount.get());
+		Assertions.assertEquals(100, remote.currVal(SEQ_NAME));
+
+		for (int i = 2; i <= 100; i++) {
+			Assertions.assertEquals(i, service.nextVal(SEQ_NAME));
+		}
+		// 使用过半后，已预加载了下一个号段
+		Assertions.assertEquals(2, remote.remoteCount.get());
+
+		// 切换到预加载的号段：[101, 200]
+		Assertions.assertEquals(101, service.nextVal(SEQ_NAME));
+		Assertions.assertEquals(2, remote.remoteCount.get());
+	}
+
+	@Test
+	public void testNextVals() {
+		CountingSequenceService remote = new CountingSequenceService();
+		SegmentSequenceService service = new SegmentSequenceService(remote, 100, 0.5D, Runnable::run);
+
+		Assertions.assertEquals(1, service.nextVal(SEQ_NAME));
+
+		// 跨号段批量获取：[1, 100] 中剩余的99个 + [101, 200] 中的前51个
+		long[] vals = service.nextVals(SEQ_NAME, 150);
+		Assertions.assertEquals(150, vals.length);
+		for (int i = 0; i < vals.length; i++) {
+			Assertions.assertEquals(2 + i, vals[i]);
+		}
+		Assertions.assertEquals(151, service.currVal(SEQ_NAME));
+		Assertions.assertEquals(152, service.nextVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testToggleSegmentMode() {
+		CountingSequenceService remote = new CountingSequenceService();
+
+		// 未启用号段缓存时生成的序列值
+		Assertions.assertEquals(1, remote.nextVal(SEQ_NAME));
+
+		// 启用号段缓存后，从远端的当前序列值之后继续预留
+		SegmentSequenceService service = new SegmentSequenceService(remote, 100, 1.0D, Runnable::run);
+		Assertions.assertEquals(2, service.nextVal(SEQ_NAME));
+
+		// 关闭号段缓存后，远端的序列值不会与号段中的序列值重复
+		Assertions.assertEquals(102, remote.nextVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testSetVal() {
+		CountingSequenceService remote = new CountingSequenceService();
+		SegmentSequenceService service = new SegmentSequenceService(remote, 100, 0.5D, Runnable::run);
+
+		service.nextVal(SEQ_NAME);
+		service.setVal(SEQ_NAME, 12345);
+		Assertions.assertEquals(12345, remote.currVal(SEQ_NAME));
+		Assertions.assertEquals(12345, service.currVal(SEQ_NAME));
+		Assertions.assertEquals(12346, service.nextVal(SEQ_NAME));
+		Assertions.assertEquals(12445, remote.currVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testSetValInvalidatesSegment() throws Exception {
+		CountingSequenceService remote = new CountingSequenceService();
+		SegmentSequenceService service = new SegmentSequenceService(remote, 100, 1.0D, Runnable::run);
+
+		Assertions.assertEquals(1, service.nextVal(SEQ_NAME));
+
+		// 在其他线程中持续获取序列值，同时在当前线程中设置序列值
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean setDone = new AtomicBoolean(false);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Long> future = executor.submit(() -> {
+				started.countDown();
+				boolean afterSet;
+				long val;
+				while (true) {
+					afterSet = setDone.get(); // 必须在获取序列值之前读取
+					val = service.nextVal(SEQ_NAME);
+					// 设置完成后获取到的序列值，必须大于新的序列值
+					if (afterSet) {
+						return val;
+					}
+				}
+			});
+
+			started.await();
+			service.setVal(SEQ_NAME, 1_000_000);
+			setDone.set(true);
+
+			// 在当前线程中获取结果，使子线程中的断言失败能够传递出来
+			Assertions.assertTrue(future.get() > 1_000_000);
+		} finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertTrue(service.nextVal(SEQ_NAME) > 1_000_000);
+	}
+
+	@Test
+	public void testConcurrentNextVal() throws InterruptedException {
+		CountingSequenceService remote = new CountingSequenceService();
+		SegmentSequenceService service = new SegmentSequenceService(remote, 64, 0.8D);
+
+		int threadCount = 16;
+		int countPerThread = 10_000;
+		Set<Long> values = ConcurrentHashMap.newKeySet();
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			new Thread(() -> {
+				try {
+					for (int j = 0; j < countPerThread; j++) {
+						values.add(service.nextVal(SEQ_NAME));
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+
+		// 不能生成重复的序列值
+		Assertions.assertEquals(threadCount * countPerThread, values.size());
+		// 远程调用次数远小于序列值个数
+		Assertions.assertTrue(remote.remoteCount.get() < threadCount * countPerThread / 32);
+	}
+
+
+	/**
+	 * 统计远程调用次数的序列服务
+	 */
+	static class CountingSequenceService extends AtomicLongSequenceServiceImpl {
+
+		final AtomicInteger remoteCount = new AtomicInteger();
+
+		@Override
+		public long[] nextVals(String seqName, int count) {
+			remoteCount.incrementAndGet();
+			return super.nextVals(seqName, count);
+		}
+	}
+}
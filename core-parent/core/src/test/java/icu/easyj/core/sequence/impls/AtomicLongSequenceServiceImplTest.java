@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link AtomicLongSequenceServiceImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class AtomicLongSequenceServiceImplTest {
+
+	private static final String SEQ_NAME = "SEQ_TEST";
+
+
+	@Test
+	public void testNextVals() {
+		AtomicLongSequenceServiceImpl service = new AtomicLongSequenceServiceImpl(10);
+
+		Assertions.assertEquals(11, service.nextVal(SEQ_NAME));
+		Assertions.assertArrayEquals(new long[]{12, 13, 14}, service.nextVals(SEQ_NAME, 3));
+		Assertions.assertEquals(14, service.currVal(SEQ_NAME));
+		Assertions.assertEquals(15, service.nextVal(SEQ_NAME));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> service.nextVals(SEQ_NAME, 0));
+	}
+
+	@Test
+	public void testAlternateSeqNames() {
+		AtomicLongSequenceServiceImpl service = new AtomicLongSequenceServiceImpl();
+
+		// 交替使用不同的序列名，各序列的值互不影响
+		for (int i = 1; i <= 10; i++) {
+			Assertions.assertEquals(i * 2 - 1, service.nextVal(SEQ_NAME));
+			Assertions.assertEquals(i * 2 - 1, service.nextVal(SEQ_NAME + "_2"));
+			// 内容相同、但不是同一个实例的序列名
+			Assertions.assertEquals(i * 2, service.nextVal(new String(SEQ_NAME.toCharArray())));
+			Assertions.assertEquals(i * 2, service.nextVal(SEQ_NAME + "_2"));
+		}
+	}
+
+	@Test
+	public void testStripedNextVal() throws Exception {
+		AtomicLongSequenceServiceImpl service = new AtomicLongSequenceServiceImpl(0, 16);
+
+		// 当前线程申请了第一段 [1, 16]
+		Assertions.assertEquals(1, service.nextVal(SEQ_NAME));
+		Assertions.assertEquals(2, service.nextVal(SEQ_NAME));
+		Assertions.assertEquals(16, service.currVal(SEQ_NAME));
+
+		int threadCount = 8;
+		int countPerThread = 10_000;
+		Set<Long> values = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				futures.add(executor.submit(() -> {
+					long last = 0;
+					for (int j = 0; j < countPerThread; j++) {
+						long val = service.nextVal(SEQ_NAME);
+						// 同一线程内递增
+						Assertions.assertTrue(val > last);
+						last = val;
+						values.add(val);
+					}
+				}));
+			}
+			// 在当前线程中获取结果，使子线程中的断言失败能够传递出来
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// 不能生成重复的序列值，也不能与当前线程的序列段重复
+		Assertions.assertEquals(threadCount * countPerThread, values.size());
+		Assertions.assertFalse(values.contains(1L) || values.contains(2L) || values.contains(3L));
+		Assertions.assertEquals(3, service.nextVal(SEQ_NAME));
+
+		// 重新设置序列值后，已申请的序列段失效
+		service.setVal(SEQ_NAME, 1000);
+		Assertions.assertEquals(1001, service.nextVal(SEQ_NAME));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link MmapSequenceServiceImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class MmapSequenceServiceImplTest {
+
+	private static final String SEQ_NAME = "SEQ_TEST";
+
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	public void testCleanShutdown() throws IOException {
+		File file = tempDir.resolve("sequence.dat").toFile();
+
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 4)) {
+			Assertions.assertEquals(0, service.currVal(SEQ_NAME));
+			Assertions.assertEquals(1, service.nextVal(SEQ_NAME));
+			Assertions.assertArrayEquals(new long[]{2, 3, 4}, service.nextVals(SEQ_NAME, 3));
+			Assertions.assertEquals(1, service.nextVal("SEQ_OTHER"));
+		}
+
+		// 正常关闭后重新打开，从当前值继续递增
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 4)) {
+			Assertions.assertEquals(4, service.currVal(SEQ_NAME));
+			Assertions.assertEquals(5, service.nextVal(SEQ_NAME));
+			Assertions.assertEquals(2, service.nextVal("SEQ_OTHER"));
+
+			Assertions.assertEquals(5, service.setVal(SEQ_NAME, 100));
+			Assertions.assertEquals(101, service.nextVal(SEQ_NAME));
+		}
+
+		MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 4);
+		service.close();
+		Assertions.assertThrows(IllegalStateException.class, () -> service.nextVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testCrashRecovery() throws IOException {
+		File file = tempDir.resolve("sequence.dat").toFile();
+		File crashFile = tempDir.resolve("sequence-crash.dat").toFile();
+
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 4)) {
+			for (int i = 1; i <= 15; i++) {
+				Assertions.assertEquals(i, service.nextVal(SEQ_NAME));
+			}
+
+			// 复制未关闭的文件，模拟进程异常退出时的文件内容
+			Files.copy(file.toPath(), crashFile.toPath());
+		}
+
+		// 异常退出后重新打开，跳过最后一个序列段中未使用的序列值
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(crashFile, 10, 4)) {
+			Assertions.assertEquals(21, service.nextVal(SEQ_NAME));
+		}
+	}
+
+	@Test
+	public void testCapacity() throws IOException {
+		File file = tempDir.resolve("sequence.dat").toFile();
+
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 2)) {
+			service.nextVal("SEQ_1");
+			service.nextVal("SEQ_2");
+			Assertions.assertThrows(IllegalStateException.class, () -> service.nextVal("SEQ_3"));
+		}
+
+		// 文件已存在时，容量以文件中的为准
+		try (MmapSequenceServiceImpl service = new MmapSequenceServiceImpl(file, 10, 100)) {
+			Assertions.assertEquals(2, service.getCapacity());
+		}
+	}
+}
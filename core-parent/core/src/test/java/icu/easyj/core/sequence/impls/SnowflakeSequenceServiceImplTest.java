@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.sequence.impls;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import icu.easyj.core.clock.ITickClock;
+import icu.easyj.core.exception.NotSupportedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link SnowflakeSequenceServiceImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class SnowflakeSequenceServiceImplTest {
+
+	private static final String SEQ_NAME = "SEQ_TEST";
+
+	private static final long EPOCH = SnowflakeSequenceConfig.DEFAULT_EPOCH;
+
+
+	@Test
+	public void testNextVal() {
+		FixedTickClock clock = new FixedTickClock(EPOCH + 1000);
+		SnowflakeSequenceServiceImpl service = new SnowflakeSequenceServiceImpl(clock, 5, EPOCH, 10, 12, 5000);
+
+		Assertions.assertEquals(0, service.currVal(SEQ_NAME));
+
+		long val = service.nextVal(SEQ_NAME);
+		Assertions.assertEquals((1000L << 22) | (5L << 12), val);
+		Assertions.assertEquals(val, service.currVal(SEQ_NAME));
+		Assertions.assertEquals(val + 1, service.nextVal(SEQ_NAME));
+
+		// 进入新的毫秒，序列号从0开始
+		clock.millis = EPOCH + 1001;
+		Assertions.assertEquals((1001L << 22) | (5L << 12), service.nextVal(SEQ_NAME));
+
+		Assertions.assertThrows(NotSupportedException.class, () -> service.setVal(SEQ_NAME, 1));
+	}
+
+	@Test
+	public void testSequenceOverflow() {
+		FixedTickClock clock = new FixedTickClock(EPOCH + 1000);
+		SnowflakeSequenceServiceImpl service = new SnowflakeSequenceServiceImpl(clock, 1, EPOCH, 2, 2, 2);
+
+		// 每毫秒只有4个序列号，用完后借用后面的毫秒
+		long[] vals = service.nextVals(SEQ_NAME, 12);
+		for (int i = 0; i < vals.length; i++) {
+			Assertions.assertEquals(((1000L + i / 4) << 4) | (1L << 2) | (i % 4), vals[i]);
+		}
+
+		// 借用的毫秒数超过了允许的最大值
+		Assertions.assertThrows(IllegalStateException.class, () -> service.nextVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testClockBackward() {
+		FixedTickClock clock = new FixedTickClock(EPOCH + 1000);
+		SnowflakeSequenceServiceImpl service = new SnowflakeSequenceServiceImpl(clock, 0, EPOCH, 10, 12, 100);
+
+		long val = service.nextVal(SEQ_NAME);
+
+		// 小幅回拨：继续递增
+		clock.millis = EPOCH + 950;
+		Assertions.assertEquals(val + 1, service.nextVal(SEQ_NAME));
+
+		// 大幅回拨：抛出异常
+		clock.millis = EPOCH + 800;
+		Assertions.assertThrows(IllegalStateException.class, () -> service.nextVal(SEQ_NAME));
+
+		// 时钟追上后恢复
+		clock.millis = EPOCH + 1001;
+		Assertions.assertEquals(1001L << 22, service.nextVal(SEQ_NAME));
+	}
+
+	@Test
+	public void testConcurrentNextVal() throws InterruptedException {
+		SnowflakeSequenceServiceImpl service = new SnowflakeSequenceServiceImpl(1);
+
+		int threadCount = 8;
+		int countPerThread = 20_000;
+		Set<Long> values = ConcurrentHashMap.newKeySet();
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			new Thread(() -> {
+				try {
+					long last = 0;
+					for (int j = 0; j < countPerThread; j++) {
+						long val = service.nextVal(SEQ_NAME);
+						// 同一线程内严格递增
+						Assertions.assertTrue(val > last);
+						last = val;
+						values.add(val);
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+
+		// 不能生成重复的序列值
+		Assertions.assertEquals(threadCount * countPerThread, values.size());
+	}
+
+
+	/**
+	 * 可手动调整时间的记号时钟
+	 */
+	static class FixedTickClock implements ITickClock {
+
+		volatile long millis;
+
+		FixedTickClock(long millis) {
+			this.millis = millis;
+		}
+
+		@Override
+		public long getBaseEpochMicros() {
+			return millis * 1000;
+		}
+
+		@Override
+		public long getBaseTickNanos() {
+			return System.nanoTime();
+		}
+
+		@Override
+		public long currentTimeNanos() {
+			return millis * 1000_000;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.core.util.shortcode;
+
+import icu.easyj.core.util.shortcode.impls.DefaultShortCodeServiceImpl;
+import icu.easyj.core.util.shortcode.impls.MinIdShortCodeServiceImpl;
+import icu.easyj.core.util.shortcode.impls.MinLengthShortCodeServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link DefaultShortCodeServiceImpl} 及其子类的缓冲区和批量接口的测试类
+ *
+ * @author wangliang181230
+ */
+public class DefaultShortCodeServiceImplTest {
+
+	private static final long[] IDS = new long[]{0, 1, 61, 62, 63, 3843, 3844, 1_000_000_007L, System.currentTimeMillis(),
+			Long.MAX_VALUE / 62, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+
+
+	@Test
+	public void testDefault() {
+		DefaultShortCodeServiceImpl service = new DefaultShortCodeServiceImpl();
+		Assertions.assertEquals(11, service.getMaxCodeLength());
+		Assertions.assertEquals("A", service.toCode(0L));
+		Assertions.assertEquals("BA", service.toCode(62L));
+		Assertions.assertEquals(11, service.toCode(Long.MAX_VALUE).length());
+
+		innerTest(service, IDS);
+
+		// 无效字符
+		Assertions.assertThrows(IllegalArgumentException.class, () -> service.toId("AB-C"));
+		// 超出long的最大值
+		Assertions.assertThrows(IllegalArgumentException.class, () -> service.toId("9999999999999"));
+	}
+
+	@Test
+	public void testMinLength() {
+		MinLengthShortCodeServiceImpl service = new MinLengthShortCodeServiceImpl();
+
+		innerTest(service, IDS);
+		Assertions.assertEquals(5, service.toCode(0L).length());
+		Assertions.assertEquals(5, service.appendCode(new StringBuilder(), 1L).length());
+		Assertions.assertEquals(0L, service.toId(""));
+	}
+
+	@Test
+	public void testMinId() {
+		long minId = 1_000_000L;
+		MinIdShortCodeServiceImpl service = new MinIdShortCodeServiceImpl(minId);
+
+		long[] ids = new long[]{minId, minId + 1, minId + 62, System.currentTimeMillis(), Long.MAX_VALUE};
+		innerTest(service, ids);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> service.toCodes(new long[]{minId - 1}));
+	}
+
+
+	private void innerTest(IShortCodeService service, long[] ids) {
+		String[] codes = service.toCodes(ids);
+		Assertions.assertEquals(ids.length, codes.length);
+
+		char[] buf = new char[32];
+		StringBuilder sb = new StringBuilder("prefix/");
+		for (int i = 0; i < ids.length; i++) {
+			String code = codes[i];
+			Assertions.assertEquals(ids[i], service.toId(code));
+
+			// 写入字符数组
+			int length = service.toCode(ids[i], buf, 3);
+			Assertions.assertEquals(code.length(), length);
+			Assertions.assertEquals(ids[i], service.toId(new String(buf, 3, length)));
+
+			// 追加到StringBuilder，并从区间中解析
+			sb.setLength(7);
+			service.appendCode(sb, ids[i]).append("?a=1");
+			Assertions.assertEquals(ids[i], service.toId(sb, 7, sb.length() - 4));
+		}
+	}
+}
@@ -64,6 +64,11 @@ public class DbDialectAdapter implements IDbDialect {
 		return this.dbDialect.getSeqNextValSql(seqName);
 	}
 
+	@Override
+	public String getSeqNextValsSql(String seqName, int count) {
+		return this.dbDialect.getSeqNextValsSql(seqName, count);
+	}
+
 	@Override
 	public String getSeqSetValSql(String seqName, long newVal) {
 		return this.dbDialect.getSeqSetValSql(seqName, newVal);
@@ -61,6 +61,23 @@ public interface IDbDialect extends IDialect {
 	 */
 	String getSeqNextValSql(String seqName);
 
+	/**
+	 * 获取 批量获取下一批序列值的SQL（一条SQL预留多个序列值）
+	 * <p>
+	 * SQL的返回结果，必须是以下两种之一：<br>
+	 * 1）返回count行数据，每行为一个序列值；<br>
+	 * 2）返回1行数据，第1列为预留的一段序列值中的第一个值（预留的序列值个数不能少于count个），
+	 * 第2列（可选）为序列的步长，不返回时按步长为1处理。
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数
+	 * @return 批量获取下一批序列值的SQL
+	 * @throws NotSupportedException 部分实现无法批量获取序列值，将抛出该异常
+	 */
+	default String getSeqNextValsSql(String seqName, int count) {
+		throw new NotSupportedException("暂不支持" + this.getDbType() + "批量获取序列值");
+	}
+
 	/**
 	 * 获取 设置序列值的SQL
 	 *
@@ -20,6 +20,7 @@ import icu.easyj.core.loader.LoadLevel;
 import icu.easyj.core.loader.condition.DependsOnClass;
 import icu.easyj.core.loader.condition.ValidateStrategy;
 import icu.easyj.db.dialect.IDbDialect;
+import icu.easyj.db.util.SqlUtils;
 import org.springframework.lang.NonNull;
 
 import static icu.easyj.db.constant.DbDriverConstants.DM_DRIVER;
@@ -56,8 +57,12 @@ class DmDbDialect implements IDbDialect {
 
 	@Override
 	public String getSeqNextValSql(String seqName) {
-		// TODO: 待开发
-		throw new NotSupportedException("暂不支持DM设置序列值");
+		return "SELECT " + SqlUtils.removeDangerousCharsForSeqName(seqName).toUpperCase() + ".NEXTVAL FROM DUAL";
+	}
+
+	@Override
+	public String getSeqNextValsSql(String seqName, int count) {
+		return "SELECT " + SqlUtils.removeDangerousCharsForSeqName(seqName).toUpperCase() + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= " + count;
 	}
 
 	@Override
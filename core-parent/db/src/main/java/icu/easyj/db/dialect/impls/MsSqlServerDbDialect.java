@@ -58,6 +58,16 @@ class MsSqlServerDbDialect implements IDbDialect {
 		return "SELECT NEXT VALUE FOR " + SqlUtils.removeDangerousCharsForSeqName(seqName);
 	}
 
+	@Override
+	public String getSeqNextValsSql(String seqName, int count) {
+		// 通过系统存储过程 sp_sequence_get_range 一次预留一段序列值，返回第一个值和序列的步长
+		return "SET NOCOUNT ON;"
+				+ " DECLARE @first_value SQL_VARIANT, @increment SQL_VARIANT;"
+				+ " EXEC sys.sp_sequence_get_range @sequence_name = N'" + SqlUtils.removeDangerousCharsForSeqName(seqName) + "',"
+				+ " @range_size = " + count + ", @range_first_value = @first_value OUTPUT, @sequence_increment = @increment OUTPUT;"
+				+ " SELECT CAST(@first_value AS BIGINT), CAST(@increment AS BIGINT)";
+	}
+
 	@Override
 	public String getSeqSetValSql(String seqName, long newVal) {
 		// TODO: 待开发
@@ -60,6 +60,13 @@ class MySqlDbDialect implements IDbDialect {
 		return "SELECT func_nextval('" + SqlUtils.removeDangerousCharsForSeqName(seqName) + "')";
 	}
 
+	@Override
+	public String getSeqNextValsSql(String seqName, int count) {
+		// 返回预留的第一个序列值和序列的步长
+		seqName = SqlUtils.removeDangerousCharsForSeqName(seqName);
+		return "SELECT func_nextvals('" + seqName + "', " + count + "), func_incval('" + seqName + "')";
+	}
+
 	@Override
 	public String getSeqSetValSql(String seqName, long newVal) {
 		return "SELECT func_setval('" + SqlUtils.removeDangerousCharsForSeqName(seqName) + "', " + newVal + ")";
@@ -59,6 +59,11 @@ class OracleDbDialect implements IDbDialect {
 		return "SELECT " + SqlUtils.removeDangerousCharsForSeqName(seqName).toUpperCase() + ".NEXTVAL FROM DUAL";
 	}
 
+	@Override
+	public String getSeqNextValsSql(String seqName, int count) {
+		return "SELECT " + SqlUtils.removeDangerousCharsForSeqName(seqName).toUpperCase() + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= " + count;
+	}
+
 	@Override
 	public String getSeqSetValSql(String seqName, long newVal) {
 		// TODO: 待开发，参考：https://www.cnblogs.com/mq0036/p/13151770.html
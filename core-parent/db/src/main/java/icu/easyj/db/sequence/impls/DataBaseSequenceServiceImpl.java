@@ -17,11 +17,15 @@ package icu.easyj.db.sequence.impls;
 
 import javax.sql.DataSource;
 
+import icu.easyj.core.exception.NotSupportedException;
 import icu.easyj.core.sequence.ISequenceService;
 import icu.easyj.db.util.DbUtils;
 import icu.easyj.db.util.PrimaryDbUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * 基于 {@link PrimaryDbUtils} 实现的序列服务
@@ -30,9 +34,17 @@ import org.springframework.lang.Nullable;
  */
 public class DataBaseSequenceServiceImpl implements ISequenceService {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataBaseSequenceServiceImpl.class);
+
+
 	@Nullable
 	private final DataSource dataSource;
 
+	/**
+	 * 数据库是否支持批量获取序列值，不支持时不再尝试，直接循环获取
+	 */
+	private volatile boolean nextValsSupported = true;
+
 
 	public DataBaseSequenceServiceImpl() {
 		this(null);
@@ -52,6 +64,28 @@ public class DataBaseSequenceServiceImpl implements ISequenceService {
 		}
 	}
 
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		if (this.nextValsSupported) {
+			try {
+				if (this.dataSource != null) {
+					return DbUtils.seqNextVals(this.dataSource, seqName, count);
+				} else {
+					return PrimaryDbUtils.seqNextVals(seqName, count);
+				}
+			} catch (NotSupportedException e) {
+				this.nextValsSupported = false;
+				LOGGER.warn("当前数据库不支持批量获取序列值，将改为循环获取序列值：{}", e.getMessage());
+			}
+		}
+
+		// 当前数据库不支持批量获取序列值时，循环获取
+		return ISequenceService.super.nextVals(seqName, count);
+	}
+
 	@Override
 	public long currVal(@NonNull String seqName) {
 		if (this.dataSource != null) {
@@ -19,10 +19,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
 import java.util.Date;
 import javax.sql.DataSource;
 
 import icu.easyj.core.exception.NotSupportedException;
+import icu.easyj.core.sequence.SequenceUtils;
 import icu.easyj.core.util.IOUtils;
 import icu.easyj.db.dialect.IDbDialect;
 import icu.easyj.db.exception.DbDataNotFoundException;
@@ -190,6 +192,65 @@ public interface IDbService extends IDbDialect {
 		}
 	}
 
+	/**
+	 * 批量获取下一批序列值（一次数据库调用）
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数
+	 * @return 序列值数组
+	 * @throws NotSupportedException 部分实现无法批量获取序列值，或数据库中未创建批量获取序列值的函数时，将抛出该异常
+	 */
+	default long[] seqNextVals(String seqName, int count) {
+		String sql = this.getSeqNextValsSql(seqName, count);
+
+		Connection conn = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			conn = this.getDataSource().getConnection();
+			conn.setAutoCommit(true);
+
+			// 执行查询
+			ps = conn.prepareStatement(sql);
+			rs = ps.executeQuery();
+
+			// 获取结果
+			long[] vals = new long[count];
+			int rowCount = 0;
+			long increment = 1;
+			while (rs.next()) {
+				if (rowCount == count) {
+					throw new DbException("批量获取序列值时，返回的序列值个数大于 " + count + "：" + seqName);
+				}
+				if (rowCount == 0 && rs.getMetaData().getColumnCount() > 1) {
+					// 第2列为序列的步长
+					increment = rs.getLong(2);
+				}
+				vals[rowCount++] = rs.getLong(1);
+			}
+
+			if (rowCount == count) {
+				// 每行一个序列值
+				return vals;
+			} else if (rowCount == 1) {
+				// 只返回了预留的第一个序列值（及序列的步长）
+				return SequenceUtils.toRange(vals[0], count, increment);
+			} else if (rowCount == 0) {
+				throw new DbDataNotFoundException("没有返回下一批序列值：" + seqName);
+			} else {
+				throw new DbException("批量获取序列值时，返回的序列值个数 " + rowCount + " 与期望的个数 " + count + " 不一致：" + seqName);
+			}
+		} catch (SQLException e) {
+			if (e instanceof SQLSyntaxErrorException || (e.getSQLState() != null && e.getSQLState().startsWith("42"))) {
+				// 语法错误或对象不存在，一般是数据库中未创建批量获取序列值的函数（如：MySQL旧版本的脚本中没有 func_nextvals 函数）
+				throw new NotSupportedException("数据库不支持批量获取序列值，请检查是否已执行序列的升级脚本：" + seqName, e);
+			}
+			throw new DbException("批量获取序列值失败：" + seqName, e);
+		} finally {
+			IOUtils.close(rs, ps, conn);
+		}
+	}
+
 	/**
 	 * 设置序列值，并返回原序列值
 	 *
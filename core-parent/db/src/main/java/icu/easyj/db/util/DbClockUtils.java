@@ -18,6 +18,7 @@ package icu.easyj.db.util;
 import java.util.Date;
 import javax.sql.DataSource;
 
+import icu.easyj.core.clock.CalibratedTickClock;
 import icu.easyj.core.clock.IAutoRefreshTickClock;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
@@ -44,6 +45,19 @@ public abstract class DbClockUtils extends PrimaryDbClockUtils {
 	//endregion
 
 
+	/**
+	 * 设置是否启用数据库时钟的校准模式（默认不启用）
+	 * <p>
+	 * 启用后，新创建的数据库时钟为 {@link CalibratedTickClock}：补偿往返耗时、根据漂移率自适应校准间隔，
+	 * 但校准时会多次查询数据库时间，且校准间隔最短为1分钟；未启用时，每10分钟刷新一次。<br>
+	 * 注意：只影响之后新创建的时钟，已创建的时钟需销毁后重新获取才会切换。
+	 *
+	 * @param enabled 是否启用
+	 */
+	public static void setCalibratedClockEnabled(boolean enabled) {
+		getFactory().setCalibratedClockEnabled(enabled);
+	}
+
 	/**
 	 * 获取数据库时钟
 	 *
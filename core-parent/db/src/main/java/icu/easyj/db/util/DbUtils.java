@@ -168,6 +168,21 @@ public abstract class DbUtils extends PrimaryDbUtils {
 		return dbService.seqNextVal(seqName);
 	}
 
+	/**
+	 * 批量获取下一批序列值
+	 *
+	 * @param dataSource 数据源
+	 * @param seqName    序列名
+	 * @param count      获取的序列值个数
+	 * @return 序列值数组
+	 * @throws NotSupportedException 部分实现无法批量获取序列值，将抛出该异常
+	 */
+	public static long[] seqNextVals(DataSource dataSource, String seqName, int count) {
+		Assert.notNull(dataSource, "'dataSource' must not be null");
+		IDbService dbService = DbServiceFactory.getDbService(dataSource);
+		return dbService.seqNextVals(seqName, count);
+	}
+
 	/**
 	 * 设置序列值，并返回原序列值
 	 * <p>
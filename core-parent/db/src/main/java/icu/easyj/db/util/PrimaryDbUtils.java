@@ -112,6 +112,18 @@ public abstract class PrimaryDbUtils {
 		return DbUtils.seqNextVal(PrimaryDataSourceHolder.get(), seqName);
 	}
 
+	/**
+	 * 批量获取下一批序列值
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数
+	 * @return 序列值数组
+	 * @throws NotSupportedException 部分实现无法批量获取序列值，将抛出该异常
+	 */
+	public static long[] seqNextVals(String seqName, int count) {
+		return DbUtils.seqNextVals(PrimaryDataSourceHolder.get(), seqName, count);
+	}
+
 	/**
 	 * 设置序列值，并返回原序列值
 	 * <p>
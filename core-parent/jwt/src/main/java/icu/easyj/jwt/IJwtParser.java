@@ -17,6 +17,8 @@ package icu.easyj.jwt;
 
 import java.util.Date;
 
+import icu.easyj.core.clock.ClockManager;
+
 /**
  * JWT解析器
  *
@@ -57,7 +59,7 @@ public interface IJwtParser {
 		// 使用新的过期时间重新校验一次时间
 		if (currentExpiredTime > 0) {
 			Date issuedAt = jwtInfo.getIssuedAt();
-			if (issuedAt.getTime() + currentExpiredTime * 1000 <= System.currentTimeMillis()) {
+			if (issuedAt.getTime() + currentExpiredTime * 1000 <= ClockManager.currentTimeMillis()) {
 				throw new RuntimeException("JWT已过期");
 			}
 		}
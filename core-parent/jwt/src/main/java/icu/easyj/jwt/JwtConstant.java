@@ -15,6 +15,7 @@
  */
 package icu.easyj.jwt;
 
+import icu.easyj.core.clock.ClockManager;
 import io.jsonwebtoken.Claims;
 import org.springframework.util.Assert;
 
@@ -180,7 +181,7 @@ public interface JwtConstant {
 		// 使用新的过期时间重新校验一次时间
 		if (currentExpiredTime > 0) {
 			Date issuedAt = jwtInfo.getIssuedAt();
-			if (issuedAt.getTime() + currentExpiredTime * 1000 <= System.currentTimeMillis()) {
+			if (issuedAt.getTime() + currentExpiredTime * 1000 <= ClockManager.currentTimeMillis()) {
 				throw new RuntimeException("JWT已过期");
 			}
 		}
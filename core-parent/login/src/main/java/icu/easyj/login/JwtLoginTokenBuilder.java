@@ -21,6 +21,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import icu.easyj.core.clock.ClockManager;
 import icu.easyj.core.util.StringUtils;
 import icu.easyj.jwt.IJwt;
 import icu.easyj.jwt.JwtInfo;
@@ -91,7 +92,7 @@ public class JwtLoginTokenBuilder implements ILoginTokenBuilder {
 		}
 
 		// 从token生成到现在，经过的秒数。生成新的token和refreshToken时，增加到过期时间中
-		int passSeconds = (int)(System.currentTimeMillis() - jwtInfo.getIssuedAt().getTime()) / 1000;
+		int passSeconds = (int)(ClockManager.currentTimeMillis() - jwtInfo.getIssuedAt().getTime()) / 1000;
 
 		// 生成新的token和refreshToken
 		String newToken = jwt.create(jwtInfo.getJwtId(), jwtInfo.getClaims(), jwtInfo.getIssuedAt(), passSeconds + properties.getTokenExpiredTime());
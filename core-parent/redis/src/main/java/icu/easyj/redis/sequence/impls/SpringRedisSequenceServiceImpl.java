@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.SequenceUtils;
 import icu.easyj.core.util.MapUtils;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -70,6 +71,22 @@ public class SpringRedisSequenceServiceImpl implements ISequenceService {
 		return this.getRedisAtomicLong(seqName).incrementAndGet();
 	}
 
+	/**
+	 * 批量获取下一批序列值，通过一次 {@code INCRBY} 命令预留一段连续的序列值
+	 *
+	 * @param seqName 序列名
+	 * @param count   获取的序列值个数
+	 * @return 序列值数组
+	 */
+	@NonNull
+	@Override
+	public long[] nextVals(@NonNull String seqName, int count) {
+		Assert.isTrue(count > 0, "'count' must be greater than 0");
+
+		long last = this.getRedisAtomicLong(seqName).addAndGet(count);
+		return SequenceUtils.toRange(last - count + 1, count);
+	}
+
 	@Override
 	public long currVal(@NonNull String seqName) {
 		return this.getRedisAtomicLong(seqName).get();
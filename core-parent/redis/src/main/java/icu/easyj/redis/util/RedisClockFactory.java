@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.redis.util;
+
+import icu.easyj.core.clock.factory.AbstractRemotingClockFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * Redis时钟工厂
+ * <p>
+ * 通过 Redis 的 {@code TIME} 命令获取远端时间，相比数据库时钟，往返耗时更小，也不会占用主数据库的资源。
+ *
+ * @author wangliang181230
+ * @see AbstractRemotingClockFactory
+ */
+final class RedisClockFactory extends AbstractRemotingClockFactory<RedisConnectionFactory> {
+
+	//region Redis时钟工厂单例持有者（设计模式-创建型模式-单例模式：枚举实现单例）
+
+	private RedisClockFactory() {
+	}
+
+	private enum SingletonHolder {
+		// 单例
+		INSTANCE;
+
+		private final RedisClockFactory redisClockFactory = new RedisClockFactory();
+
+		public RedisClockFactory getRedisClockFactory() {
+			return redisClockFactory;
+		}
+	}
+
+	/**
+	 * 获取Redis时钟工厂
+	 *
+	 * @return Redis时钟工厂
+	 */
+	public static RedisClockFactory getInstance() {
+		return SingletonHolder.INSTANCE.getRedisClockFactory();
+	}
+
+	//endregion
+
+
+	/**
+	 * 获取Redis时间，单位：毫秒
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return Redis时间
+	 */
+	@Override
+	@NonNull
+	public long getRemotingTime(@NonNull RedisConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+
+		RedisConnection connection = connectionFactory.getConnection();
+		try {
+			// 执行 TIME 命令
+			Long time = connection.time();
+			Assert.notNull(time, "Redis 'TIME' command returned null");
+			return time;
+		} finally {
+			connection.close();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.redis.util;
+
+import java.util.Date;
+
+import icu.easyj.core.clock.CalibratedTickClock;
+import icu.easyj.core.clock.IAutoRefreshTickClock;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * Redis时钟工具类
+ *
+ * @author wangliang181230
+ * @see IAutoRefreshTickClock
+ */
+public abstract class RedisClockUtils {
+
+	//region 私有方法
+
+	/**
+	 * 获取Redis时钟工厂
+	 *
+	 * @return redisClockFactory Redis时钟工厂
+	 */
+	private static RedisClockFactory getFactory() {
+		return RedisClockFactory.getInstance();
+	}
+
+	//endregion
+
+
+	/**
+	 * 设置是否启用Redis时钟的校准模式（默认不启用）
+	 * <p>
+	 * 启用后，新创建的Redis时钟为 {@link CalibratedTickClock}：补偿往返耗时、根据漂移率自适应校准间隔，
+	 * 但校准时会多次查询Redis时间，且校准间隔最短为1分钟；未启用时，每10分钟刷新一次。<br>
+	 * 注意：只影响之后新创建的时钟，已创建的时钟需销毁后重新获取才会切换。
+	 *
+	 * @param enabled 是否启用
+	 */
+	public static void setCalibratedClockEnabled(boolean enabled) {
+		getFactory().setCalibratedClockEnabled(enabled);
+	}
+
+	/**
+	 * 获取Redis时钟
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return 时钟
+	 */
+	@NonNull
+	public static IAutoRefreshTickClock getClock(@NonNull RedisConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+		return getFactory().getClock(connectionFactory);
+	}
+
+	/**
+	 * 刷新Redis时钟并返回该时钟
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return clock 时钟
+	 */
+	@NonNull
+	public static IAutoRefreshTickClock refreshClock(@NonNull RedisConnectionFactory connectionFactory) {
+		IAutoRefreshTickClock clock = getClock(connectionFactory);
+		clock.refreshTickClock();
+		return clock;
+	}
+
+	/**
+	 * 销毁Redis时钟
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 */
+	public static void destroyClock(@NonNull RedisConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+		getFactory().destroyClock(connectionFactory);
+	}
+
+	/**
+	 * Redis的当前时间
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return now 当前时间
+	 */
+	@NonNull
+	public static Date now(@NonNull RedisConnectionFactory connectionFactory) {
+		return getClock(connectionFactory).now();
+	}
+
+	/**
+	 * Redis的当前毫秒数
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return timeMillis 毫秒数
+	 */
+	public static long currentTimeMillis(@NonNull RedisConnectionFactory connectionFactory) {
+		return getClock(connectionFactory).currentTimeMillis();
+	}
+
+	/**
+	 * Redis的当前微秒数
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return timeMicros 微秒数
+	 */
+	public static long currentTimeMicros(@NonNull RedisConnectionFactory connectionFactory) {
+		return getClock(connectionFactory).currentTimeMicros();
+	}
+
+	/**
+	 * Redis的当前纳秒数<br>
+	 * 注意：值格式与 {@link System#nanoTime()} 并不相同
+	 *
+	 * @param connectionFactory Redis连接工厂
+	 * @return timeNanos 纳秒数
+	 */
+	public static long currentTimeNanos(@NonNull RedisConnectionFactory connectionFactory) {
+		return getClock(connectionFactory).currentTimeNanos();
+	}
+}
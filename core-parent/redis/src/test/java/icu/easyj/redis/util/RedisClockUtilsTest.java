@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.redis.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icu.easyj.core.clock.ICalibratedTickClock;
+import icu.easyj.core.clock.IAutoRefreshTickClock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * {@link RedisClockUtils} 测试类
+ *
+ * @author wangliang181230
+ */
+public class RedisClockUtilsTest {
+
+	@Test
+	public void test() {
+		// 模拟Redis：时间比本地快3秒
+		AtomicInteger timeCount = new AtomicInteger();
+		RedisConnection connection = Mockito.mock(RedisConnection.class);
+		Mockito.when(connection.time()).then(invocation -> {
+			timeCount.incrementAndGet();
+			return System.currentTimeMillis() + 3000;
+		});
+		RedisConnectionFactory connectionFactory = Mockito.mock(RedisConnectionFactory.class);
+		Mockito.when(connectionFactory.getConnection()).thenReturn(connection);
+
+		// 启用校准模式，补偿往返耗时
+		RedisClockUtils.setCalibratedClockEnabled(true);
+		IAutoRefreshTickClock clock = RedisClockUtils.getClock(connectionFactory);
+		try {
+			Assertions.assertSame(clock, RedisClockUtils.getClock(connectionFactory));
+			Assertions.assertTrue(clock instanceof ICalibratedTickClock);
+			Assertions.assertTrue(clock.isAutoRefreshing());
+			Assertions.assertTrue(timeCount.get() > 0);
+			// 每次获取时间后都关闭了连接
+			Mockito.verify(connection, Mockito.times(timeCount.get())).close();
+
+			long diff = RedisClockUtils.currentTimeMillis(connectionFactory) - System.currentTimeMillis() - 3000;
+			Assertions.assertTrue(diff >= -5 && diff <= 5, "时钟偏差值：" + diff);
+
+			int count = timeCount.get();
+			Assertions.assertSame(clock, RedisClockUtils.refreshClock(connectionFactory));
+			Assertions.assertTrue(timeCount.get() > count);
+		} finally {
+			RedisClockUtils.destroyClock(connectionFactory);
+			RedisClockUtils.setCalibratedClockEnabled(false);
+		}
+		Assertions.assertTrue(clock.isDestroyed());
+		// 默认不启用校准模式
+		IAutoRefreshTickClock defaultClock = RedisClockUtils.getClock(connectionFactory);
+		Assertions.assertNotSame(clock, defaultClock);
+		Assertions.assertFalse(defaultClock instanceof ICalibratedTickClock);
+		RedisClockUtils.destroyClock(connectionFactory);
+	}
+}
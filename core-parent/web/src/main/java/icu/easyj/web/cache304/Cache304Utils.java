@@ -20,6 +20,7 @@ import java.util.function.Supplier;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import icu.easyj.core.clock.ClockManager;
 import icu.easyj.core.util.DateUtils;
 import icu.easyj.core.util.StringUtils;
 import icu.easyj.core.util.ThrowableUtils;
@@ -81,7 +82,7 @@ public abstract class Cache304Utils {
 		}
 
 		// 判断缓存是否已过期
-		long passedTime = System.currentTimeMillis() - lastModified.getTime(); // 缓存已过时间，单位：毫秒
+		long passedTime = ClockManager.currentTimeMillis() - lastModified.getTime(); // 缓存已过时间，单位：毫秒
 		long cacheTime = CacheTimeComputer.computeTime(lastModified, config); // 缓存有效时间
 		if (passedTime < cacheTime) {
 			// 存在缓存且未过期，设置304响应状态，并返回null
@@ -150,7 +151,7 @@ public abstract class Cache304Utils {
 			// 已经计算过，无需再重复计算，直接除以1000就是缓存有效秒数
 			cacheSeconds = cacheTime / 1000;
 		} else {
-			cacheSeconds = CacheTimeComputer.computeTime(new Date(), config) / 1000;
+			cacheSeconds = CacheTimeComputer.computeTime(ClockManager.now(), config) / 1000;
 		}
 
 		// 先执行业务代码
@@ -168,7 +169,7 @@ public abstract class Cache304Utils {
 			}
 		}
 
-		Date now = new Date();
+		Date now = ClockManager.now();
 
 		// 业务代码未出现异常，设置304缓存所需的响应头
 		response.addDateHeader(HttpHeaders.LAST_MODIFIED, now.getTime());
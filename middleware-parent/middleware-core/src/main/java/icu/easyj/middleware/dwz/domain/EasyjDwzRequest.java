@@ -26,6 +26,11 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 public class EasyjDwzRequest implements Serializable {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * 批量生成短链接时，单次请求的最大数量
+	 */
+	public static final int MAX_BATCH_SIZE = 1000;
+
 	/**
 	 * 长链接
 	 */
@@ -15,6 +15,8 @@
  */
 package icu.easyj.middleware.dwz.template.impls.feign;
 
+import java.util.List;
+
 import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
 import icu.easyj.sdk.dwz.DwzResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -37,4 +39,8 @@ public interface EasyjDwzRestControllerFeignClient {
 	@NonNull
 	@PostMapping("/create-short-url")
 	DwzResponse createShortUrl(@NonNull @RequestBody EasyjDwzRequest param);
+
+	@NonNull
+	@PostMapping("/create-short-urls")
+	List<DwzResponse> createShortUrls(@NonNull @RequestBody List<EasyjDwzRequest> params);
 }
@@ -15,7 +15,9 @@
  */
 package icu.easyj.middleware.dwz.template.impls.feign;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
 import icu.easyj.sdk.dwz.DwzRequest;
@@ -53,21 +55,61 @@ public class SpringCloudFeignEasyjMiddleWareDwzTemplateImpl implements IDwzTempl
 	@Override
 	public DwzResponse createShortUrl(@NonNull DwzRequest request) {
 		try {
-			Date termOfValidity = request.getConfig("term-of-validity");
-			EasyjDwzRequest req = new EasyjDwzRequest(request.getLongUrl(), termOfValidity);
-			return feignClient.createShortUrl(req);
+			return feignClient.createShortUrl(this.convert(request));
 		} catch (RuntimeException ex) {
-			try {
-				if (this.exceptionHandler != null) {
-					this.exceptionHandler.handle(ex);
+			throw this.handleException(ex);
+		}
+	}
+
+	@Override
+	public List<DwzResponse> createShortUrls(@NonNull List<DwzRequest> requests) {
+		List<DwzResponse> responses = new ArrayList<>(requests.size());
+
+		// 按服务端允许的单次最大数量，分批请求
+		List<EasyjDwzRequest> reqs = new ArrayList<>(Math.min(requests.size(), EasyjDwzRequest.MAX_BATCH_SIZE));
+		for (int i = 0; i < requests.size(); i++) {
+			reqs.add(this.convert(requests.get(i)));
+			if (reqs.size() == EasyjDwzRequest.MAX_BATCH_SIZE || i == requests.size() - 1) {
+				try {
+					responses.addAll(feignClient.createShortUrls(reqs));
+				} catch (RuntimeException ex) {
+					throw this.handleException(ex);
 				}
-			} catch (DwzSdkException e) {
-				throw e;
-			} catch (Exception e) {
-				throw new DwzSdkException("调用EasyJ短链接服务失败", e);
+				reqs.clear();
 			}
+		}
+
+		return responses;
+	}
 
-			throw new DwzSdkException("调用EasyJ短链接服务失败", ex);
+	@Override
+	public int getMaxBatchSize() {
+		return EasyjDwzRequest.MAX_BATCH_SIZE;
+	}
+
+
+	private EasyjDwzRequest convert(DwzRequest request) {
+		Date termOfValidity = request.getConfig("term-of-validity");
+		return new EasyjDwzRequest(request.getLongUrl(), termOfValidity);
+	}
+
+	/**
+	 * 处理调用异常，转换为 {@link DwzSdkException}
+	 *
+	 * @param ex 调用异常
+	 * @return SDK异常
+	 */
+	private DwzSdkException handleException(RuntimeException ex) {
+		try {
+			if (this.exceptionHandler != null) {
+				this.exceptionHandler.handle(ex);
+			}
+		} catch (DwzSdkException e) {
+			return e;
+		} catch (Exception e) {
+			return new DwzSdkException("调用EasyJ短链接服务失败", e);
 		}
+
+		return new DwzSdkException("调用EasyJ短链接服务失败", ex);
 	}
 }
@@ -27,6 +27,11 @@ public class HttpEasyjMiddleWareDwzTemplateConfig {
 	 */
 	private String serviceUrl = "http://127.0.0.1:3001/api/v1/create-short-url";
 
+	/**
+	 * 批量生成短链接的服务地址
+	 */
+	private String batchServiceUrl = "http://127.0.0.1:3001/api/v1/create-short-urls";
+
 
 	public String getServiceUrl() {
 		return serviceUrl;
@@ -35,4 +40,12 @@ public class HttpEasyjMiddleWareDwzTemplateConfig {
 	public void setServiceUrl(String serviceUrl) {
 		this.serviceUrl = serviceUrl;
 	}
+
+	public String getBatchServiceUrl() {
+		return batchServiceUrl;
+	}
+
+	public void setBatchServiceUrl(String batchServiceUrl) {
+		this.batchServiceUrl = batchServiceUrl;
+	}
 }
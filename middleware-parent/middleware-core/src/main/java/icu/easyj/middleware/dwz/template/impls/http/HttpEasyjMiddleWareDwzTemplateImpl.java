@@ -15,7 +15,10 @@
  */
 package icu.easyj.middleware.dwz.template.impls.http;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
 import icu.easyj.sdk.dwz.DwzRequest;
@@ -59,8 +62,40 @@ public class HttpEasyjMiddleWareDwzTemplateImpl implements IDwzTemplate {
 
 	@Override
 	public DwzResponse createShortUrl(@NonNull DwzRequest request) {
+		return httpClientService.post(this.config.getServiceUrl(), this.convert(request), DwzResponse.class);
+	}
+
+	@Override
+	public List<DwzResponse> createShortUrls(@NonNull List<DwzRequest> requests) {
+		List<DwzResponse> responses = new ArrayList<>(requests.size());
+
+		// 按服务端允许的单次最大数量，分批请求
+		List<EasyjDwzRequest> reqs = new ArrayList<>(Math.min(requests.size(), EasyjDwzRequest.MAX_BATCH_SIZE));
+		for (int i = 0; i < requests.size(); i++) {
+			reqs.add(this.convert(requests.get(i)));
+			if (reqs.size() == EasyjDwzRequest.MAX_BATCH_SIZE || i == requests.size() - 1) {
+				responses.addAll(Arrays.asList(httpClientService.post(this.config.getBatchServiceUrl(), reqs, DwzResponse[].class)));
+				reqs.clear();
+			}
+		}
+
+		return responses;
+	}
+
+	@Override
+	public int getMaxBatchSize() {
+		return EasyjDwzRequest.MAX_BATCH_SIZE;
+	}
+
+	@Override
+	public String getCacheNamespace() {
+		// 不同的服务端，生成的短链接不同
+		return "easyj-middleware:" + this.config.getServiceUrl();
+	}
+
+
+	private EasyjDwzRequest convert(DwzRequest request) {
 		Date termOfValidity = request.getConfig("term-of-validity");
-		EasyjDwzRequest req = new EasyjDwzRequest(request.getLongUrl(), termOfValidity);
-		return httpClientService.post(this.config.getServiceUrl(), req, DwzResponse.class);
+		return new EasyjDwzRequest(request.getLongUrl(), termOfValidity);
 	}
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.lang.NonNull;
+
+/**
+ * 性能测试工具的命令行参数，格式：{@code key=value}
+ *
+ * @author wangliang181230
+ */
+class BenchmarkArgs {
+
+	private final Map<String, String> args;
+
+
+	private BenchmarkArgs(Map<String, String> args) {
+		this.args = args;
+	}
+
+	@NonNull
+	static BenchmarkArgs parse(String[] args) {
+		Map<String, String> map = new LinkedHashMap<>();
+		int idx;
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				continue; // Spring Boot的参数，交给应用处理
+			}
+			if ((idx = arg.indexOf('=')) <= 0) {
+				throw new IllegalArgumentException("参数格式有误，正确格式为 'key=value'：" + arg);
+			}
+			map.put(arg.substring(0, idx).trim(), arg.substring(idx + 1).trim());
+		}
+		return new BenchmarkArgs(map);
+	}
+
+
+	String get(String key, String defaultValue) {
+		return this.args.getOrDefault(key, defaultValue);
+	}
+
+	int getInt(String key, int defaultValue) {
+		String value = this.args.get(key);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	long getLong(String key, long defaultValue) {
+		String value = this.args.get(key);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
+	double getDouble(String key, double defaultValue) {
+		String value = this.args.get(key);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	boolean getBoolean(String key, boolean defaultValue) {
+		String value = this.args.get(key);
+		return value == null ? defaultValue : Boolean.parseBoolean(value);
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.lang.NonNull;
+
+/**
+ * 性能测试用的H2嵌入式数据库
+ *
+ * @author wangliang181230
+ */
+public abstract class DwzBenchmarkDatabase {
+
+	/**
+	 * 建表脚本（与 {@code application-benchmark.yml} 中的 {@code spring.sql.init.schema-locations} 相同）
+	 */
+	public static final String SCHEMA_LOCATION = "dwz-benchmark/h2__dwz.sql";
+
+	/**
+	 * 默认的最大连接数
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS = 32;
+
+
+	/**
+	 * 创建内存数据库的数据源，并创建短链接记录表
+	 *
+	 * @param name 数据库名，不同的名称对应不同的数据库
+	 * @return 数据源（不再使用时，需调用 {@link JdbcConnectionPool#dispose()} 释放连接）
+	 */
+	@NonNull
+	public static JdbcConnectionPool createInMemory(@NonNull String name) {
+		JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		dataSource.setMaxConnections(DEFAULT_MAX_CONNECTIONS);
+		initSchema(dataSource);
+		return dataSource;
+	}
+
+	/**
+	 * 创建短链接记录表（已存在时跳过）
+	 *
+	 * @param dataSource 数据源
+	 */
+	public static void initSchema(@NonNull DataSource dataSource) {
+		new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_LOCATION)).execute(dataSource);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.lang.NonNull;
+
+/**
+ * 性能测试用的DWZ（短链接）服务端
+ * <p>
+ * 与 {@code DwzServerApplication} 使用相同的starter和自动装配，激活 {@code benchmark} 环境：
+ * 使用H2嵌入式数据库和内存序列，无需外部环境。可通过命令行参数调整存储方式，例：
+ * {@code --easyj.middleware.dwz.server.log-store.type=memory}、{@code --easyj.middleware.dwz.server.cache.enabled=true}。
+ *
+ * @author wangliang181230
+ * @see DwzLoadDriver
+ */
+@SpringBootApplication
+public class DwzBenchmarkServer {
+
+	/**
+	 * 性能测试环境
+	 */
+	public static final String PROFILE = "benchmark";
+
+
+	/**
+	 * 启动服务端
+	 *
+	 * @param args 命令行参数
+	 * @return 应用上下文
+	 */
+	@NonNull
+	public static ConfigurableApplicationContext start(String... args) {
+		SpringApplication application = new SpringApplication(DwzBenchmarkServer.class);
+		application.setAdditionalProfiles(PROFILE);
+		return application.run(args);
+	}
+
+	public static void main(String[] args) {
+		start(args);
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 短链接测试数据集生成器
+ * <p>
+ * 1）长链接：由序号确定性地生成，同一序号总是生成相同的长链接，不同序号的长链接互不相同，长度与真实链接相近；<br>
+ * 2）点击序列：按 {@link ZipfianGenerator Zipfian分布} 生成被点击的长链接序号，模拟热门短链接。
+ * <p>
+ * 运行 {@link #main(String[])} 方法，可将数据集写入文件，供其他压测工具（如：wrk、JMeter）使用。
+ *
+ * @author wangliang181230
+ */
+public class DwzDataSetGenerator {
+
+	/**
+	 * 默认的长链接前缀
+	 */
+	public static final String DEFAULT_LONG_URL_PREFIX = "https://benchmark.easyj.icu/";
+
+
+	/**
+	 * 长链接前缀
+	 */
+	private final String longUrlPrefix;
+
+	/**
+	 * 点击分布生成器
+	 */
+	private final ZipfianGenerator clickGenerator;
+
+
+	public DwzDataSetGenerator(@NonNull String longUrlPrefix, @NonNull ZipfianGenerator clickGenerator) {
+		Assert.notNull(longUrlPrefix, "'longUrlPrefix' must not be null");
+		Assert.notNull(clickGenerator, "'clickGenerator' must not be null");
+
+		this.longUrlPrefix = longUrlPrefix;
+		this.clickGenerator = clickGenerator;
+	}
+
+	/**
+	 * 构造函数
+	 *
+	 * @param items 长链接个数
+	 * @param theta Zipfian分布的偏斜系数
+	 */
+	public DwzDataSetGenerator(int items, double theta) {
+		this(DEFAULT_LONG_URL_PREFIX, new ZipfianGenerator(items, theta, true));
+	}
+
+
+	//region Public
+
+	/**
+	 * 生成长链接
+	 *
+	 * @param index 序号
+	 * @return 长链接
+	 */
+	@NonNull
+	public String longUrl(long index) {
+		// 路径和参数的长度随序号变化，避免所有长链接的长度都相同
+		long h = mix(index);
+		StringBuilder sb = new StringBuilder(this.longUrlPrefix.length() + 80)
+				.append(this.longUrlPrefix)
+				.append("article/").append(h >>> 48).append('/').append(index)
+				.append("?from=dwz-benchmark&token=").append(Long.toHexString(h));
+		for (int i = (int)(h & 0x3); i > 0; i--) {
+			sb.append("&p").append(i).append('=').append(Long.toString(h >>> (i * 8), 36));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 批量生成创建短链接的请求
+	 *
+	 * @param fromIndex 起始序号（包含）
+	 * @param toIndex   结束序号（不包含）
+	 * @return 请求列表
+	 */
+	@NonNull
+	public List<EasyjDwzRequest> requests(long fromIndex, long toIndex) {
+		List<EasyjDwzRequest> requests = new ArrayList<>((int)(toIndex - fromIndex));
+		for (long i = fromIndex; i < toIndex; i++) {
+			requests.add(new EasyjDwzRequest(this.longUrl(i), null));
+		}
+		return requests;
+	}
+
+	/**
+	 * 生成下一次点击的长链接序号
+	 *
+	 * @param random 随机数生成器
+	 * @return 长链接序号
+	 */
+	public int nextClick(@NonNull Random random) {
+		return this.clickGenerator.nextInt(random);
+	}
+
+	/**
+	 * 将数据集写入目录：{@code long-urls.txt}（每行一个长链接）、{@code clicks.txt}（每行一个被点击的长链接的行号，从0开始）
+	 *
+	 * @param dir    目录
+	 * @param clicks 点击次数
+	 * @param random 随机数生成器
+	 * @throws IOException IO异常
+	 */
+	public void writeTo(@NonNull File dir, long clicks, @NonNull Random random) throws IOException {
+		Files.createDirectories(dir.toPath());
+
+		try (BufferedWriter writer = Files.newBufferedWriter(new File(dir, "long-urls.txt").toPath(), StandardCharsets.UTF_8)) {
+			for (long i = 0; i < this.clickGenerator.getItems(); i++) {
+				writer.write(this.longUrl(i));
+				writer.newLine();
+			}
+		}
+
+		try (BufferedWriter writer = Files.newBufferedWriter(new File(dir, "clicks.txt").toPath(), StandardCharsets.UTF_8)) {
+			for (long i = 0; i < clicks; i++) {
+				writer.write(Integer.toString(this.nextClick(random)));
+				writer.newLine();
+			}
+		}
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * SplitMix64的混合函数
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public long getItems() {
+		return this.clickGenerator.getItems();
+	}
+
+	//endregion
+
+
+	/**
+	 * 生成数据集文件
+	 * <p>
+	 * 参数：{@code dir=./target/dwz-data-set items=100000 clicks=1000000 theta=0.99 seed=1}
+	 *
+	 * @param args 参数
+	 * @throws IOException IO异常
+	 */
+	public static void main(String[] args) throws IOException {
+		BenchmarkArgs a = BenchmarkArgs.parse(args);
+		File dir = new File(a.get("dir", "./target/dwz-data-set"));
+		int items = a.getInt("items", 100_000);
+		long clicks = a.getLong("clicks", 1_000_000L);
+
+		DwzDataSetGenerator generator = new DwzDataSetGenerator(items, a.getDouble("theta", ZipfianGenerator.DEFAULT_THETA));
+		generator.writeTo(dir, clicks, new Random(a.getLong("seed", 1L)));
+
+		System.out.println("已生成 " + items + " 个长链接、" + clicks + " 次点击的数据集：" + dir.getCanonicalPath());
+	}
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * DWZ（短链接）服务端的HTTP压测驱动
+ * <p>
+ * 压测流程：<br>
+ * 1）准备：通过批量接口 {@code POST /api/v1/create-short-urls} 创建 {@code items} 个短链接；<br>
+ * 2）预热：多个线程持续发送请求 {@code warmup} 秒，不统计；<br>
+ * 3）压测：持续发送请求 {@code duration} 秒，按操作类型统计吞吐量和延迟分位数（p50、p99、p999）；
+ * 失败的请求（如：404、连接被拒绝）单独统计数量和延迟，不计入成功请求的吞吐量和延迟分位数，避免快速失败的请求美化压测结果。
+ * <p>
+ * 发送模式：<br>
+ * 1）闭环模式（{@code rate=0}，默认）：每个线程收到响应后立即发送下一个请求。服务端变慢时，压测端也随之少发请求，
+ * 停顿期间本应发出的请求没有被计时（即：协调遗漏，coordinated omission），p99、p999会明显偏低，只适合对比吞吐量；<br>
+ * 2）固定速率模式（{@code rate>0}）：按固定速率安排每个请求的发送时间，延迟从计划发送时间开始计算，
+ * 服务端停顿期间积压的请求的等待时间也会计入延迟，适合评估延迟分位数。速率超出服务端的处理能力时，延迟会持续增长。
+ * <p>
+ * 每次请求按 {@code create-ratio} 的比例选择操作：创建新的短链接（{@code POST /api/v1/create-short-url}），
+ * 或者按Zipfian分布点击已创建的短链接（{@code GET /{shortUrlCode}}，不跟随重定向，响应302视为成功）。
+ * <p>
+ * 参数（格式：{@code key=value}，以 {@code --} 开头的参数传给嵌入式服务端）：
+ * <ul>
+ *     <li>url：服务端地址，例：{@code http://127.0.0.1:3001}，为空时启动嵌入式服务端 {@link DwzBenchmarkServer}</li>
+ *     <li>threads：压测线程数，默认：16</li>
+ *     <li>warmup：预热秒数，默认：10</li>
+ *     <li>duration：压测秒数，默认：30</li>
+ *     <li>items：预先创建的短链接数，默认：10000</li>
+ *     <li>theta：点击分布的偏斜系数，默认：0.99</li>
+ *     <li>create-ratio：创建短链接的请求比例，默认：0（只压测重定向）</li>
+ *     <li>rate：固定速率模式下，所有线程每秒发送的总请求数，默认：0（闭环模式）</li>
+ * </ul>
+ * 注意：JDK的 {@link HttpURLConnection} 默认每个地址只保持5个空闲连接，{@link #main(String[])} 中已按线程数调整了
+ * {@code http.maxConnections}，避免压测时频繁创建连接。
+ *
+ * @author wangliang181230
+ * @see DwzBenchmarkServer
+ */
+public class DwzLoadDriver {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final TypeReference<List<Map<String, Object>>> RESPONSE_LIST_TYPE = new TypeReference<List<Map<String, Object>>>() {
+	};
+
+	/**
+	 * 连接和读取超时时间（毫秒）
+	 */
+	private static final int TIMEOUT_MILLIS = 10_000;
+
+
+	/**
+	 * 服务端地址
+	 */
+	private final String baseUrl;
+
+	/**
+	 * 压测线程数
+	 */
+	private final int threads;
+
+	/**
+	 * 预热毫秒数
+	 */
+	private final long warmupMillis;
+
+	/**
+	 * 压测毫秒数
+	 */
+	private final long durationMillis;
+
+	/**
+	 * 创建短链接的请求比例
+	 */
+	private final double createRatio;
+
+	/**
+	 * 每秒发送的总请求数，0表示闭环模式
+	 */
+	private final double rate;
+
+	/**
+	 * 测试数据集
+	 */
+	private final DwzDataSetGenerator dataSet;
+
+	/**
+	 * 已创建的短链接码，下标为长链接的序号
+	 */
+	private String[] shortUrlCodes;
+
+	/**
+	 * 压测时新创建的长链接的序号
+	 */
+	private final AtomicLong createIndex;
+
+
+	public DwzLoadDriver(@NonNull String baseUrl, int threads, long warmupMillis, long durationMillis, double createRatio,
+						 double rate, @NonNull DwzDataSetGenerator dataSet) {
+		Assert.hasText(baseUrl, "'baseUrl' must not be empty");
+		Assert.isTrue(threads > 0, "'threads' must be greater than 0");
+		Assert.isTrue(warmupMillis >= 0, "'warmupMillis' must not be less than 0");
+		Assert.isTrue(durationMillis > 0, "'durationMillis' must be greater than 0");
+		Assert.isTrue(createRatio >= 0 && createRatio <= 1, "'createRatio' must be between 0 and 1");
+		Assert.isTrue(rate >= 0, "'rate' must not be less than 0");
+		Assert.notNull(dataSet, "'dataSet' must not be null");
+
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		this.threads = threads;
+		this.warmupMillis = warmupMillis;
+		this.durationMillis = durationMillis;
+		this.createRatio = createRatio;
+		this.rate = rate;
+		this.dataSet = dataSet;
+		this.createIndex = new AtomicLong(dataSet.getItems());
+	}
+
+	public DwzLoadDriver(@NonNull String baseUrl, int threads, long warmupMillis, long durationMillis, double createRatio,
+						 @NonNull DwzDataSetGenerator dataSet) {
+		this(baseUrl, threads, warmupMillis, durationMillis, createRatio, 0D, dataSet);
+	}
+
+
+	//region Public
+
+	/**
+	 * 准备数据：批量创建数据集中的所有短链接
+	 *
+	 * @throws IOException 请求失败
+	 */
+	public void prepare() throws IOException {
+		int items = (int)this.dataSet.getItems();
+		String[] codes = new String[items];
+
+		List<Map<String, Object>> responses;
+		for (int from = 0; from < items; from += EasyjDwzRequest.MAX_BATCH_SIZE) {
+			int to = Math.min(items, from + EasyjDwzRequest.MAX_BATCH_SIZE);
+			responses = OBJECT_MAPPER.readValue(this.post("/api/v1/create-short-urls", this.dataSet.requests(from, to)), RESPONSE_LIST_TYPE);
+			for (int i = 0; i < responses.size(); i++) {
+				codes[from + i] = toShortUrlCode((String)responses.get(i).get("shortUrl"));
+			}
+		}
+
+		this.shortUrlCodes = codes;
+	}
+
+	/**
+	 * 执行压测
+	 *
+	 * @return 压测报告
+	 * @throws InterruptedException 等待压测线程时被中断
+	 */
+	@NonNull
+	public Report run() throws InterruptedException {
+		Assert.state(this.shortUrlCodes != null || this.createRatio == 1, "请先调用 prepare() 方法准备数据");
+
+		long start = System.nanoTime();
+		long measureStart = start + TimeUnit.MILLISECONDS.toNanos(this.warmupMillis);
+		long end = measureStart + TimeUnit.MILLISECONDS.toNanos(this.durationMillis);
+
+		// 固定速率模式下，每个线程的发送间隔，各线程错开发送时间
+		long intervalNanos = this.rate > 0 ? Math.max(1L, (long)(TimeUnit.SECONDS.toNanos(1) * this.threads / this.rate)) : 0L;
+
+		List<Worker> workers = new ArrayList<>(this.threads);
+		CountDownLatch latch = new CountDownLatch(this.threads);
+		for (int i = 0; i < this.threads; i++) {
+			Worker worker = new Worker(start + intervalNanos * i / this.threads, intervalNanos, measureStart, end, latch);
+			workers.add(worker);
+			Thread thread = new Thread(worker, "DwzLoadDriver-" + (i + 1));
+			thread.setDaemon(true);
+			thread.start();
+		}
+		latch.await();
+
+		Report report = new Report(this.durationMillis);
+		for (Worker worker : workers) {
+			report.redirect.merge(worker.redirect);
+			report.create.merge(worker.create);
+			report.redirectErrors.merge(worker.redirectErrors);
+			report.createErrors.merge(worker.createErrors);
+		}
+		return report;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private void redirect() throws IOException {
+		String code = this.shortUrlCodes[this.dataSet.nextClick(ThreadLocalRandom.current())];
+
+		HttpURLConnection conn = this.open("/" + code, "GET");
+		conn.setInstanceFollowRedirects(false);
+		int status = conn.getResponseCode();
+		drain(conn, status);
+		if (status != HttpURLConnection.HTTP_MOVED_TEMP && status != HttpURLConnection.HTTP_MOVED_PERM) {
+			throw new IOException("重定向失败，响应状态码：" + status);
+		}
+	}
+
+	private void create() throws IOException {
+		EasyjDwzRequest request = new EasyjDwzRequest(this.dataSet.longUrl(this.createIndex.getAndIncrement()), null);
+		this.post("/api/v1/create-short-url", request);
+	}
+
+	private String post(String path, Object body) throws IOException {
+		HttpURLConnection conn = this.open(path, "POST");
+		conn.setDoOutput(true);
+		conn.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+		try (OutputStream out = conn.getOutputStream()) {
+			OBJECT_MAPPER.writeValue(out, body);
+		}
+
+		int status = conn.getResponseCode();
+		String response = drain(conn, status);
+		if (status != HttpURLConnection.HTTP_OK) {
+			throw new IOException("请求 '" + path + "' 失败，响应状态码：" + status + "，响应内容：" + response);
+		}
+		return response;
+	}
+
+	private HttpURLConnection open(String path, String method) throws IOException {
+		HttpURLConnection conn = (HttpURLConnection)new URL(this.baseUrl + path).openConnection();
+		conn.setRequestMethod(method);
+		conn.setConnectTimeout(TIMEOUT_MILLIS);
+		conn.setReadTimeout(TIMEOUT_MILLIS);
+		return conn;
+	}
+
+	/**
+	 * 读完并关闭响应流，使连接可以被复用
+	 */
+	private static String drain(HttpURLConnection conn, int status) throws IOException {
+		InputStream in = status >= HttpURLConnection.HTTP_BAD_REQUEST ? conn.getErrorStream() : conn.getInputStream();
+		if (in == null) {
+			return "";
+		}
+		try {
+			return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static String toShortUrlCode(String shortUrl) {
+		// 短链接 = 域名 + '/' + 短链接码，域名可能未配置，只取最后一个'/'之后的部分
+		return shortUrl.substring(shortUrl.lastIndexOf('/') + 1);
+	}
+
+	//endregion
+
+
+	/**
+	 * 压测线程
+	 */
+	private final class Worker implements Runnable {
+
+		/**
+		 * 首个请求的计划发送时间（固定速率模式）
+		 */
+		private final long firstSendTime;
+
+		/**
+		 * 发送间隔（纳秒），0表示闭环模式
+		 */
+		private final long intervalNanos;
+
+		private final long measureStart;
+
+		private final long end;
+
+		private final CountDownLatch latch;
+
+		private final LatencyHistogram redirect = new LatencyHistogram();
+
+		private final LatencyHistogram create = new LatencyHistogram();
+
+		private final LatencyHistogram redirectErrors = new LatencyHistogram();
+
+		private final LatencyHistogram createErrors = new LatencyHistogram();
+
+
+		private Worker(long firstSendTime, long intervalNanos, long measureStart, long end, CountDownLatch latch) {
+			this.firstSendTime = firstSendTime;
+			this.intervalNanos = intervalNanos;
+			this.measureStart = measureStart;
+			this.end = end;
+			this.latch = latch;
+		}
+
+		@Override
+		public void run() {
+			try {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long nextSendTime = this.firstSendTime;
+				long begin, now;
+				boolean isCreate, success;
+				while (true) {
+					if (this.intervalNanos > 0) {
+						// 固定速率模式：等待到计划发送时间，延迟从计划发送时间开始计算（已落后时立即发送）
+						begin = nextSendTime;
+						nextSendTime += this.intervalNanos;
+						while ((now = System.nanoTime()) < begin) {
+							LockSupport.parkNanos(begin - now);
+						}
+					} else {
+						begin = System.nanoTime();
+					}
+					if (begin >= this.end) {
+						break;
+					}
+
+					isCreate = createRatio > 0 && random.nextDouble() < createRatio;
+					try {
+						if (isCreate) {
+							create();
+						} else {
+							redirect();
+						}
+						success = true;
+					} catch (IOException | RuntimeException e) {
+						success = false;
+					}
+					now = System.nanoTime();
+
+					// 预热阶段不统计
+					if (begin < this.measureStart) {
+						continue;
+					}
+					// 失败的请求单独统计，不计入成功请求的吞吐量和延迟
+					if (isCreate) {
+						(success ? this.create : this.createErrors).record(now - begin);
+					} else {
+						(success ? this.redirect : this.redirectErrors).record(now - begin);
+					}
+				}
+			} finally {
+				this.latch.countDown();
+			}
+		}
+	}
+
+	/**
+	 * 压测报告
+	 */
+	public static final class Report {
+
+		private final long durationMillis;
+
+		private final LatencyHistogram redirect = new LatencyHistogram();
+
+		private final LatencyHistogram create = new LatencyHistogram();
+
+		private final LatencyHistogram redirectErrors = new LatencyHistogram();
+
+		private final LatencyHistogram createErrors = new LatencyHistogram();
+
+
+		private Report(long durationMillis) {
+			this.durationMillis = durationMillis;
+		}
+
+		/**
+		 * 打印报告
+		 *
+		 * @param out 输出流
+		 */
+		public void print(@NonNull PrintStream out) {
+			out.printf("%-16s %12s %14s %10s %10s %10s %10s %10s%n",
+					"操作", "请求数", "吞吐量(次/秒)", "平均(ms)", "p50(ms)", "p99(ms)", "p999(ms)", "最大(ms)");
+			this.printLine(out, "redirect", this.redirect);
+			this.printLine(out, "redirect-error", this.redirectErrors);
+			this.printLine(out, "create", this.create);
+			this.printLine(out, "create-error", this.createErrors);
+		}
+
+		private void printLine(PrintStream out, String name, LatencyHistogram histogram) {
+			if (histogram.getCount() == 0) {
+				return;
+			}
+			out.printf("%-16s %12d %14.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+					name, histogram.getCount(), histogram.getCount() * 1000.0D / this.durationMillis,
+					histogram.getMeanNanos() / 1e6, histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+					histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxNanos() / 1e6);
+		}
+
+		/**
+		 * @return 成功的重定向请求的延迟统计
+		 */
+		public LatencyHistogram getRedirect() {
+			return redirect;
+		}
+
+		/**
+		 * @return 成功的创建请求的延迟统计
+		 */
+		public LatencyHistogram getCreate() {
+			return create;
+		}
+
+		/**
+		 * @return 失败的重定向请求的延迟统计
+		 */
+		public LatencyHistogram getRedirectErrorLatency() {
+			return redirectErrors;
+		}
+
+		/**
+		 * @return 失败的创建请求的延迟统计
+		 */
+		public LatencyHistogram getCreateErrorLatency() {
+			return createErrors;
+		}
+
+		public long getRedirectErrors() {
+			return redirectErrors.getCount();
+		}
+
+		public long getCreateErrors() {
+			return createErrors.getCount();
+		}
+	}
+
+
+	/**
+	 * 执行压测，参数见类注释
+	 *
+	 * @param args 参数
+	 * @throws Exception 准备数据或压测失败
+	 */
+	public static void main(String[] args) throws Exception {
+		BenchmarkArgs a = BenchmarkArgs.parse(args);
+		int threads = a.getInt("threads", 16);
+		System.setProperty("http.maxConnections", String.valueOf(threads));
+
+		ConfigurableApplicationContext context = null;
+		String url = a.get("url", null);
+		if (url == null) {
+			// 未指定服务端地址时，启动嵌入式服务端（随机端口）
+			List<String> serverArgs = new ArrayList<>();
+			Collections.addAll(serverArgs, args);
+			serverArgs.removeIf(arg -> !arg.startsWith("--"));
+			if (serverArgs.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+				serverArgs.add("--server.port=0");
+			}
+			context = DwzBenchmarkServer.start(serverArgs.toArray(new String[0]));
+			url = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+		}
+
+		try {
+			double rate = a.getDouble("rate", 0D);
+			DwzDataSetGenerator dataSet = new DwzDataSetGenerator(a.getInt("items", 10_000), a.getDouble("theta", ZipfianGenerator.DEFAULT_THETA));
+			DwzLoadDriver driver = new DwzLoadDriver(url, threads, a.getLong("warmup", 10L) * 1000, a.getLong("duration", 30L) * 1000,
+					a.getDouble("create-ratio", 0D), rate, dataSet);
+
+			System.out.println("压测地址：" + url + "，线程数：" + threads + "，短链接数：" + dataSet.getItems()
+					+ "，发送模式：" + (rate > 0 ? "固定速率：" + rate + " 次/秒" : "闭环"));
+			driver.prepare();
+			driver.run().print(System.out);
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 延迟直方图（对数线性分桶），用于统计p50、p99、p999等延迟分位数
+ * <p>
+ * 小于 {@link #SUB_BUCKET_COUNT} 纳秒的值逐个计数，更大的值按2的幂分段，每段再等分为 {@link #SUB_BUCKET_HALF_COUNT} 个子桶，
+ * 相对误差不超过 {@code 1/64}，内存占用固定（约30KB），记录一次只需几次位运算。
+ * <p>
+ * 非线程安全：每个压测线程使用独立的直方图，结束后通过 {@link #merge(LatencyHistogram)} 合并。
+ *
+ * @author wangliang181230
+ */
+public class LatencyHistogram {
+
+	/**
+	 * 子桶位数
+	 */
+	private static final int SUB_BUCKET_BITS = 7;
+
+	/**
+	 * 逐个计数的值的个数：128
+	 */
+	static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * 每个2的幂区间的子桶数：64
+	 */
+	static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	/**
+	 * 桶的总数：覆盖 {@link Long#MAX_VALUE} 范围内的所有值
+	 */
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+
+	private final long[] counts = new long[BUCKET_COUNT];
+
+	private long totalCount;
+
+	private long totalNanos;
+
+	private long minNanos = Long.MAX_VALUE;
+
+	private long maxNanos;
+
+
+	//region Public
+
+	/**
+	 * 记录一次延迟
+	 *
+	 * @param nanos 延迟纳秒数（小于0时按0记录）
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+
+		this.counts[bucketIndex(nanos)]++;
+		this.totalCount++;
+		this.totalNanos += nanos;
+		if (nanos < this.minNanos) {
+			this.minNanos = nanos;
+		}
+		if (nanos > this.maxNanos) {
+			this.maxNanos = nanos;
+		}
+	}
+
+	/**
+	 * 合并另一个直方图的数据
+	 *
+	 * @param other 另一个直方图
+	 */
+	public void merge(@NonNull LatencyHistogram other) {
+		Assert.notNull(other, "'other' must not be null");
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.counts[i] += other.counts[i];
+		}
+		this.totalCount += other.totalCount;
+		this.totalNanos += other.totalNanos;
+		this.minNanos = Math.min(this.minNanos, other.minNanos);
+		this.maxNanos = Math.max(this.maxNanos, other.maxNanos);
+	}
+
+	/**
+	 * 获取分位数对应的延迟
+	 *
+	 * @param percentile 百分位，例：50、99、99.9
+	 * @return 延迟纳秒数（所在子桶的中间值，不超过最大值），没有数据时返回0
+	 */
+	public long getValueAtPercentile(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 100, "'percentile' must be between 0 and 100");
+		if (this.totalCount == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1L, (long)Math.ceil(percentile / 100.0D * this.totalCount));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulative += this.counts[i];
+			if (cumulative >= rank) {
+				return Math.max(this.minNanos, Math.min(this.maxNanos, bucketMiddleValue(i)));
+			}
+		}
+		return this.maxNanos;
+	}
+
+	public long getCount() {
+		return this.totalCount;
+	}
+
+	public long getMinNanos() {
+		return this.totalCount == 0 ? 0 : this.minNanos;
+	}
+
+	public long getMaxNanos() {
+		return this.maxNanos;
+	}
+
+	public double getMeanNanos() {
+		return this.totalCount == 0 ? 0 : (double)this.totalNanos / this.totalCount;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int)value;
+		}
+
+		// 保留最高的 SUB_BUCKET_BITS 位，其中最高位固定为1，所以每个区间有 SUB_BUCKET_HALF_COUNT 个子桶
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		int subBucket = (int)(value >>> shift) - SUB_BUCKET_HALF_COUNT;
+		return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + subBucket;
+	}
+
+	static long bucketMiddleValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+		long lowest = (long)((index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT) << shift;
+		return lowest + ((1L << shift) >> 1);
+	}
+
+	//endregion
+}
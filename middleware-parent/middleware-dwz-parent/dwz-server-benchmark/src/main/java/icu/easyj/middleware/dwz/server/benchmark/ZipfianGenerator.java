@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.util.Random;
+
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * Zipfian分布生成器，用于模拟短链接的点击分布：少数热门短链接占据大部分点击
+ * <p>
+ * 算法来自 Jim Gray 等人的 "Quickly Generating Billion-Record Synthetic Databases"（与YCSB相同），
+ * 构造时计算一次 zeta(n, theta)，之后每次生成只需常数时间。
+ * <p>
+ * 生成的序号为 {@code [0, items)}，序号越小越热门。打散模式下，对序号进行哈希，使热门元素分散在整个范围内，
+ * 避免热门元素集中在最先创建的那一批数据上（如：数据库中相邻的页）。
+ * <p>
+ * 生成器本身是无状态的，可被多个线程共享，随机数由调用方提供（建议使用 {@link java.util.concurrent.ThreadLocalRandom}）。
+ *
+ * @author wangliang181230
+ */
+public class ZipfianGenerator {
+
+	/**
+	 * 默认的偏斜系数（与YCSB相同），越接近1越偏斜
+	 */
+	public static final double DEFAULT_THETA = 0.99D;
+
+
+	/**
+	 * 元素个数
+	 */
+	private final long items;
+
+	/**
+	 * 偏斜系数
+	 */
+	private final double theta;
+
+	/**
+	 * 是否打散
+	 */
+	private final boolean scrambled;
+
+	private final double zetaN;
+
+	private final double alpha;
+
+	private final double eta;
+
+	/**
+	 * 序号1的累积概率上限（乘以zetaN后的值）
+	 */
+	private final double secondThreshold;
+
+
+	public ZipfianGenerator(long items, double theta, boolean scrambled) {
+		Assert.isTrue(items > 0, "'items' must be greater than 0");
+		Assert.isTrue(theta > 0 && theta < 1, "'theta' must be between 0 and 1 (exclusive)");
+
+		this.items = items;
+		this.theta = theta;
+		this.scrambled = scrambled;
+
+		this.zetaN = zeta(items, theta);
+		this.alpha = 1.0D / (1.0D - theta);
+		this.eta = (1.0D - Math.pow(2.0D / items, 1.0D - theta)) / (1.0D - zeta(2, theta) / this.zetaN);
+		this.secondThreshold = 1.0D + Math.pow(0.5D, theta);
+	}
+
+	public ZipfianGenerator(long items, double theta) {
+		this(items, theta, false);
+	}
+
+	public ZipfianGenerator(long items) {
+		this(items, DEFAULT_THETA);
+	}
+
+
+	//region Public
+
+	/**
+	 * 生成下一个序号
+	 *
+	 * @param random 随机数生成器
+	 * @return 序号，范围：{@code [0, items)}
+	 */
+	public long next(@NonNull Random random) {
+		long index = this.nextRank(random.nextDouble());
+		if (this.scrambled) {
+			index = Math.floorMod(fnv64(index), this.items);
+		}
+		return index;
+	}
+
+	/**
+	 * 生成下一个序号（int型，适用于数组下标）
+	 *
+	 * @param random 随机数生成器
+	 * @return 序号，范围：{@code [0, items)}
+	 */
+	public int nextInt(@NonNull Random random) {
+		return (int)this.next(random);
+	}
+
+	/**
+	 * 计算指定排名的元素被选中的概率
+	 *
+	 * @param rank 排名（从0开始）
+	 * @return 概率
+	 */
+	public double probability(long rank) {
+		Assert.isTrue(rank >= 0 && rank < this.items, "'rank' must be between 0 and " + (this.items - 1));
+		return 1.0D / Math.pow(rank + 1, this.theta) / this.zetaN;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private long nextRank(double u) {
+		double uz = u * this.zetaN;
+		if (uz < 1.0D) {
+			return 0;
+		}
+		if (uz < this.secondThreshold) {
+			return Math.min(1, this.items - 1);
+		}
+		long rank = (long)(this.items * Math.pow(this.eta * u - this.eta + 1.0D, this.alpha));
+		return Math.min(rank, this.items - 1);
+	}
+
+	private static double zeta(long n, double theta) {
+		double sum = 0;
+		for (long i = 1; i <= n; i++) {
+			sum += 1.0D / Math.pow(i, theta);
+		}
+		return sum;
+	}
+
+	/**
+	 * 64位FNV-1a哈希
+	 */
+	private static long fnv64(long value) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < 8; i++) {
+			hash ^= value & 0xFF;
+			hash *= 0x100000001B3L;
+			value >>>= 8;
+		}
+		return hash;
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public long getItems() {
+		return items;
+	}
+
+	public double getTheta() {
+		return theta;
+	}
+
+	public boolean isScrambled() {
+		return scrambled;
+	}
+
+	//endregion
+}
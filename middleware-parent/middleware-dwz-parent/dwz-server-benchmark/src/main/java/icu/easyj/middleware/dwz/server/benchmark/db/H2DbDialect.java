@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark.db;
+
+import icu.easyj.core.exception.NotSupportedException;
+import icu.easyj.core.loader.LoadLevel;
+import icu.easyj.core.loader.condition.DependsOnClass;
+import icu.easyj.db.dialect.IDbDialect;
+import org.springframework.lang.NonNull;
+
+/**
+ * H2数据库方言（仅用于性能测试，提供 {@link icu.easyj.db.util.DbClockUtils} 获取数据库时间所需的SQL）
+ * <p>
+ * 不支持数据库序列，性能测试时请使用其他的序列服务。
+ *
+ * @author wangliang181230
+ */
+@LoadLevel(name = H2DbDialect.H2)
+@DependsOnClass(name = "org.h2.Driver")
+class H2DbDialect implements IDbDialect {
+
+	/**
+	 * H2的数据库类型，即：{@link java.sql.DatabaseMetaData#getDatabaseProductName()} 转为小写
+	 */
+	static final String H2 = "h2";
+
+
+	@Override
+	public String getVersionSql() {
+		return "SELECT H2VERSION()";
+	}
+
+	@Override
+	public String getTimeSql() {
+		return "SELECT CURRENT_TIMESTAMP(3)";
+	}
+
+
+	//region 序列相关SQL（不支持）
+
+	@Override
+	public String getSeqCurrValSql(String seqName) {
+		throw new NotSupportedException("性能测试用的H2数据库不支持序列");
+	}
+
+	@Override
+	public String getSeqNextValSql(String seqName) {
+		throw new NotSupportedException("性能测试用的H2数据库不支持序列");
+	}
+
+	@Override
+	public String getSeqSetValSql(String seqName, long newVal) {
+		throw new NotSupportedException("性能测试用的H2数据库不支持序列");
+	}
+
+	//endregion
+
+
+	@NonNull
+	@Override
+	public String getDbType() {
+		return H2;
+	}
+}
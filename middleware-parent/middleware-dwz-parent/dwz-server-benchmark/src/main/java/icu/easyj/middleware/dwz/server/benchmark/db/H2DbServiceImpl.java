@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark.db;
+
+import javax.sql.DataSource;
+
+import icu.easyj.core.loader.LoadLevel;
+import icu.easyj.core.loader.condition.DependsOnClass;
+import icu.easyj.db.service.impls.CommonDbServiceImpl;
+
+/**
+ * H2数据库服务（仅用于性能测试）
+ *
+ * @author wangliang181230
+ * @see H2DbDialect
+ */
+@LoadLevel(name = H2DbDialect.H2)
+@DependsOnClass(name = "org.h2.Driver")
+class H2DbServiceImpl extends CommonDbServiceImpl {
+
+	public H2DbServiceImpl(DataSource dataSource) {
+		super(dataSource);
+	}
+}
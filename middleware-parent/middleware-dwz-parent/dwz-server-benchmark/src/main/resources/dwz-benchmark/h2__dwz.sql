@@ -0,0 +1,19 @@
+-- 短链接记录表（H2，MySQL兼容模式），与 `src/script/middleware/dwz-server/mysql/mysql__dwz.sql` 保持一致
+CREATE TABLE IF NOT EXISTS easyj_dwz_log
+(
+	id               bigint       NOT NULL,
+	short_url_code   varchar(16)  NOT NULL,
+	long_url         varchar(255) NOT NULL,
+	long_url_hash    char(32)     NULL,
+	term_of_validity datetime     NULL,
+	status           tinyint      NOT NULL DEFAULT 1,
+	click_count      bigint       NOT NULL DEFAULT 0,
+	create_time      datetime     NOT NULL,
+	update_time      datetime     NOT NULL,
+	version          int          NOT NULL,
+	PRIMARY KEY (id),
+	UNIQUE (short_url_code),
+	UNIQUE (long_url_hash)
+);
+CREATE INDEX IF NOT EXISTS idx_long_url_status ON easyj_dwz_log (long_url, status);
+CREATE INDEX IF NOT EXISTS idx_term_of_validity_status ON easyj_dwz_log (term_of_validity, status);
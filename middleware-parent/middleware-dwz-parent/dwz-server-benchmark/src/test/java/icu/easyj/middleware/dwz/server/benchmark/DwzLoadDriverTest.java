@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link DwzLoadDriver} 测试类：对嵌入式服务端 {@link DwzBenchmarkServer} 进行一次简短的压测
+ *
+ * @author wangliang181230
+ */
+public class DwzLoadDriverTest {
+
+	private static ConfigurableApplicationContext context;
+
+	private static String url;
+
+
+	@BeforeAll
+	public static void beforeAll() {
+		context = DwzBenchmarkServer.start("--server.port=0");
+		url = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	@AfterAll
+	public static void afterAll() {
+		context.close();
+	}
+
+
+	@Test
+	public void testRun() throws Exception {
+		DwzLoadDriver driver = new DwzLoadDriver(url, 2, 0, 1000, 0.2D, new DwzDataSetGenerator(500, ZipfianGenerator.DEFAULT_THETA));
+		driver.prepare();
+		DwzLoadDriver.Report report = driver.run();
+		report.print(System.out);
+
+		Assertions.assertTrue(report.getRedirect().getCount() > 0);
+		Assertions.assertTrue(report.getCreate().getCount() > 0);
+		Assertions.assertEquals(0, report.getRedirectErrors());
+		Assertions.assertEquals(0, report.getCreateErrors());
+	}
+
+	@Test
+	public void testFixedRate() throws Exception {
+		// 固定速率：每秒200次，压测1秒
+		DwzLoadDriver driver = new DwzLoadDriver(url, 2, 0, 1000, 0D, 200D, new DwzDataSetGenerator(100, ZipfianGenerator.DEFAULT_THETA));
+		driver.prepare();
+		DwzLoadDriver.Report report = driver.run();
+		report.print(System.out);
+
+		long count = report.getRedirect().getCount() + report.getRedirectErrors();
+		Assertions.assertTrue(count >= 150 && count <= 250, "count = " + count);
+		Assertions.assertEquals(0, report.getRedirectErrors());
+	}
+}
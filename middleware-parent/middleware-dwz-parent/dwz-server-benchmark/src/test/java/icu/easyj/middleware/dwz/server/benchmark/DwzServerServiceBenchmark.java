@@ -0,0 +1,234 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cn.hutool.core.io.FileUtil;
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.SegmentSequenceService;
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.sequence.impls.MmapSequenceServiceImpl;
+import icu.easyj.core.sequence.impls.SnowflakeSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMemoryStoreConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMmapStoreConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerWriteBehindConfig;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzServerServiceImpl;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.store.impls.cache.CachingDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.db.DataBaseDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.MemoryDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.mmap.MmapDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.writebehind.WriteBehindDwzLogStoreImpl;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link DefaultDwzServerServiceImpl} 的创建短链接、重定向（查询长链接）的性能测试，覆盖各种存储方式和序列服务的组合
+ * <p>
+ * 存储方式（store）：<br>
+ * mock=模拟存储、memory=内存存储、mmap=内存映射文件存储、db=H2数据库存储、db-cache=数据库存储+重定向缓存、db-write-behind=数据库存储+写后模式
+ * <p>
+ * 序列服务（sequence）：<br>
+ * atomic-long=内存原子序列、segment=号段缓存（包装内存原子序列）、snowflake=雪花算法、mmap=内存映射文件序列
+ * <p>
+ * 重定向时，按Zipfian分布点击预先创建的 {@code rows} 个短链接。
+ * 运行方式：执行 {@link #main(String[])} 方法。组合较多，可通过JMH参数只运行部分组合，例：{@code -p store=db,db-cache -p sequence=atomic-long}。
+ *
+ * @author wangliang181230
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class DwzServerServiceBenchmark {
+
+	@Param({"mock", "memory", "mmap", "db", "db-cache", "db-write-behind"})
+	private String store;
+
+	@Param({"atomic-long", "segment", "snowflake", "mmap"})
+	private String sequence;
+
+	@Param({"100000"})
+	private int rows;
+
+	@Param({"0.99"})
+	private double theta;
+
+
+	private File tempDir;
+
+	private JdbcConnectionPool dataSource;
+
+	private final List<AutoCloseable> closeables = new ArrayList<>();
+
+	private DwzDataSetGenerator dataSet;
+
+	private DefaultDwzServerServiceImpl service;
+
+	private String[] shortUrlCodes;
+
+	/**
+	 * 新创建的长链接的序号
+	 */
+	private AtomicLong createIndex;
+
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		tempDir = Files.createTempDirectory("dwz-benchmark").toFile();
+
+		ISequenceService sequenceService = this.createSequenceService();
+		IDwzLogStore logStore = this.createLogStore(sequenceService);
+		service = new DefaultDwzServerServiceImpl(logStore, DwzDedupStrategy.HASH);
+
+		// 预先创建短链接
+		dataSet = new DwzDataSetGenerator(rows, theta);
+		shortUrlCodes = new String[rows];
+		for (int from = 0; from < rows; from += EasyjDwzRequest.MAX_BATCH_SIZE) {
+			int to = Math.min(rows, from + EasyjDwzRequest.MAX_BATCH_SIZE);
+			List<DwzLogEntity> dwzLogs = service.createShortUrlCodes(dataSet.requests(from, to));
+			for (int i = 0; i < dwzLogs.size(); i++) {
+				shortUrlCodes[from + i] = dwzLogs.get(i).getShortUrlCode();
+			}
+		}
+		createIndex = new AtomicLong(rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		for (int i = closeables.size() - 1; i >= 0; i--) {
+			closeables.get(i).close();
+		}
+		closeables.clear();
+		if (dataSource != null) {
+			dataSource.dispose();
+		}
+		FileUtil.del(tempDir);
+	}
+
+
+	private ISequenceService createSequenceService() throws IOException {
+		switch (sequence) {
+			case "atomic-long":
+				return new AtomicLongSequenceServiceImpl();
+			case "segment":
+				return new SegmentSequenceService(new AtomicLongSequenceServiceImpl());
+			case "snowflake":
+				return new SnowflakeSequenceServiceImpl(1);
+			case "mmap":
+				return this.register(new MmapSequenceServiceImpl(new File(tempDir, "sequence.dat"), 1000, 16));
+			default:
+				throw new IllegalArgumentException("不支持的序列服务：" + sequence);
+		}
+	}
+
+	private IDwzLogStore createLogStore(ISequenceService sequenceService) throws IOException {
+		switch (store) {
+			case "mock":
+				return new MockDwzLogStoreImpl(sequenceService);
+			case "memory":
+				return new MemoryDwzLogStoreImpl(sequenceService, ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH, rows * 2);
+			case "mmap":
+				DwzServerMmapStoreConfig mmapConfig = new DwzServerMmapStoreConfig();
+				mmapConfig.setDir(new File(tempDir, "dwz").getPath());
+				return this.register(new MmapDwzLogStoreImpl(sequenceService, ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH,
+						new DwzServerMemoryStoreConfig(), mmapConfig));
+			case "db":
+				return this.createDataBaseLogStore(sequenceService);
+			case "db-cache":
+				return this.register(new CachingDwzLogStoreImpl(this.createDataBaseLogStore(sequenceService)));
+			case "db-write-behind":
+				TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource()));
+				return this.register(new WriteBehindDwzLogStoreImpl(this.createDataBaseLogStore(sequenceService), transactionTemplate,
+						new DwzServerWriteBehindConfig()));
+			default:
+				throw new IllegalArgumentException("不支持的存储方式：" + store);
+		}
+	}
+
+	private IDwzLogStore createDataBaseLogStore(ISequenceService sequenceService) {
+		return new DataBaseDwzLogStoreImpl(new JdbcTemplate(this.dataSource()), sequenceService, ShortCodeUtils.DEFAULT,
+				false, DwzDedupStrategy.HASH, DataBaseDwzLogStoreImpl.DEFAULT_BATCH_SIZE);
+	}
+
+	private JdbcConnectionPool dataSource() {
+		if (dataSource == null) {
+			// 每次运行使用新的内存数据库
+			dataSource = DwzBenchmarkDatabase.createInMemory("dwz-benchmark-" + System.nanoTime());
+		}
+		return dataSource;
+	}
+
+	private <T extends AutoCloseable> T register(T closeable) {
+		closeables.add(closeable);
+		return closeable;
+	}
+
+
+	@Benchmark
+	public String create() {
+		return service.createShortUrlCode(dataSet.longUrl(createIndex.getAndIncrement()), null).getShortUrlCode();
+	}
+
+	@Benchmark
+	public String redirect() {
+		return service.getLongUrlByShortUrlCode(shortUrlCodes[dataSet.nextClick(ThreadLocalRandom.current())]);
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DwzServerServiceBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link LatencyHistogram} 测试类
+ *
+ * @author wangliang181230
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+
+		// 1微秒 ~ 10毫秒，均匀分布
+		for (long micros = 1; micros <= 10_000; micros++) {
+			histogram.record(micros * 1000);
+		}
+
+		Assertions.assertEquals(10_000, histogram.getCount());
+		Assertions.assertEquals(1000, histogram.getMinNanos());
+		Assertions.assertEquals(10_000_000, histogram.getMaxNanos());
+		Assertions.assertEquals(5_000_500, histogram.getMeanNanos(), 0.001D);
+
+		// 相对误差不超过1/64
+		assertAround(5_000_000, histogram.getValueAtPercentile(50));
+		assertAround(9_900_000, histogram.getValueAtPercentile(99));
+		assertAround(9_990_000, histogram.getValueAtPercentile(99.9));
+		Assertions.assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testMerge() {
+		LatencyHistogram a = new LatencyHistogram();
+		LatencyHistogram b = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			a.record(100);
+		}
+		b.record(1_000_000_000L);
+		b.record(-1); // 按0记录
+
+		a.merge(b);
+		Assertions.assertEquals(101, a.getCount());
+		Assertions.assertEquals(0, a.getMinNanos());
+		Assertions.assertEquals(100, a.getValueAtPercentile(50));
+		assertAround(1_000_000_000L, a.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testBucketIndex() {
+		// 桶的序号随值单调递增，桶的中间值与原值的误差不超过1/64
+		int last = -1;
+		for (long value = 0; value < 10_000_000; value += 7) {
+			int index = LatencyHistogram.bucketIndex(value);
+			Assertions.assertTrue(index >= last, "value = " + value);
+			last = index;
+			Assertions.assertTrue(Math.abs(LatencyHistogram.bucketMiddleValue(index) - value) <= Math.max(1, value / 64), "value = " + value);
+		}
+		LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+	}
+
+
+	private static void assertAround(long expected, long actual) {
+		Assertions.assertEquals(expected, actual, expected / 64.0D, "actual = " + actual);
+	}
+}
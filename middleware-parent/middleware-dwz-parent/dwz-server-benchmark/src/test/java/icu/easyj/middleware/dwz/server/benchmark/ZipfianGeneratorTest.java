@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.benchmark;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link ZipfianGenerator} 测试类
+ *
+ * @author wangliang181230
+ */
+public class ZipfianGeneratorTest {
+
+	private static final int ITEMS = 1000;
+
+	private static final int SAMPLES = 1_000_000;
+
+
+	@Test
+	public void testDistribution() {
+		ZipfianGenerator generator = new ZipfianGenerator(ITEMS);
+		Random random = new Random(1);
+
+		int[] counts = new int[ITEMS];
+		for (int i = 0; i < SAMPLES; i++) {
+			counts[generator.nextInt(random)]++;
+		}
+
+		// 排名前两位的元素的频率与理论概率接近（之后的排名由近似公式计算，只保证整体的偏斜程度）
+		for (int rank = 0; rank < 2; rank++) {
+			double expected = generator.probability(rank) * SAMPLES;
+			Assertions.assertEquals(expected, counts[rank], expected * 0.05D, "rank = " + rank);
+		}
+		// 越靠前越热门
+		Assertions.assertTrue(counts[0] > counts[1] && counts[1] > counts[10] && counts[10] > counts[500]);
+
+		// 前1%的元素占据了大部分点击
+		int top = 0;
+		for (int rank = 0; rank < ITEMS / 100; rank++) {
+			top += counts[rank];
+		}
+		Assertions.assertTrue(top > SAMPLES * 0.35D, "top = " + top);
+	}
+
+	@Test
+	public void testScrambled() {
+		ZipfianGenerator generator = new ZipfianGenerator(ITEMS, ZipfianGenerator.DEFAULT_THETA, true);
+		Random random = new Random(1);
+
+		int[] counts = new int[ITEMS];
+		for (int i = 0; i < SAMPLES; i++) {
+			counts[generator.nextInt(random)]++;
+		}
+
+		// 最热门的元素不再是序号0，但分布依然是偏斜的
+		int hottest = 0;
+		for (int i = 1; i < ITEMS; i++) {
+			if (counts[i] > counts[hottest]) {
+				hottest = i;
+			}
+		}
+		Assertions.assertNotEquals(0, hottest);
+		Assertions.assertTrue(counts[hottest] > SAMPLES * generator.probability(0) * 0.9D);
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+/**
+ * 短链接服务端布隆过滤器配置
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.bloom.BloomFilterDwzLogStoreImpl
+ */
+public class DwzServerBloomFilterConfig {
+
+	/**
+	 * 默认预期元素数
+	 */
+	public static final long DEFAULT_EXPECTED_INSERTIONS = 1_000_000L;
+
+	/**
+	 * 默认误判率
+	 */
+	public static final double DEFAULT_FPP = 0.01D;
+
+	/**
+	 * 默认最大内存：64MB
+	 */
+	public static final long DEFAULT_MAX_MEMORY_BYTES = 64 * 1024 * 1024L;
+
+	/**
+	 * 默认重建间隔（毫秒）：1小时
+	 */
+	public static final long DEFAULT_REBUILD_INTERVAL_MILLIS = 60 * 60 * 1000L;
+
+	/**
+	 * 默认安全窗口：100000，可覆盖100个实例、每个实例缓存了默认步长（1000）号段的情况
+	 */
+	public static final long DEFAULT_SAFETY_WINDOW = 100_000L;
+
+
+	/**
+	 * 是否启用布隆过滤器
+	 * <p>
+	 * 注意：过滤器只包含重建时已存在的短链接码和当前实例创建的短链接码，ID大于 {@code 重建开始时的最大ID - 安全窗口} 的短链接码视为可能存在，
+	 * 所以多实例部署时，安全窗口需覆盖其他实例已取得、但尚未提交的ID，否则其他实例新创建的短链接码可能被误拒。
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 预期元素数（第一级过滤器的容量），元素数超过该值时自动扩容
+	 */
+	private long expectedInsertions = DEFAULT_EXPECTED_INSERTIONS;
+
+	/**
+	 * 误判率，即：不存在的短链接码被误判为可能存在、继续查询存储器的概率
+	 */
+	private double fpp = DEFAULT_FPP;
+
+	/**
+	 * 最大内存（字节），扩容后将超出该值时，不再扩容，误判率将随元素数的增加而升高
+	 */
+	private long maxMemoryBytes = DEFAULT_MAX_MEMORY_BYTES;
+
+	/**
+	 * 重建间隔（毫秒），用于清除已删除的短链接码，小于等于0时只在启动时构建一次
+	 */
+	private long rebuildIntervalMillis = DEFAULT_REBUILD_INTERVAL_MILLIS;
+
+	/**
+	 * 安全窗口：ID大于 {@code 重建开始时的最大ID - 安全窗口} 的短链接码，不由过滤器判断，直接查询存储器
+	 * <p>
+	 * 用于覆盖重建开始时其他实例已取得ID、但尚未提交的记录，应大于 {@code 实例数 × 号段步长 + 并发中的事务数}。
+	 */
+	private long safetyWindow = DEFAULT_SAFETY_WINDOW;
+
+
+	//region Getter、Setter
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getExpectedInsertions() {
+		return expectedInsertions;
+	}
+
+	public void setExpectedInsertions(long expectedInsertions) {
+		this.expectedInsertions = expectedInsertions;
+	}
+
+	public double getFpp() {
+		return fpp;
+	}
+
+	public void setFpp(double fpp) {
+		this.fpp = fpp;
+	}
+
+	public long getMaxMemoryBytes() {
+		return maxMemoryBytes;
+	}
+
+	public void setMaxMemoryBytes(long maxMemoryBytes) {
+		this.maxMemoryBytes = maxMemoryBytes;
+	}
+
+	public long getRebuildIntervalMillis() {
+		return rebuildIntervalMillis;
+	}
+
+	public void setRebuildIntervalMillis(long rebuildIntervalMillis) {
+		this.rebuildIntervalMillis = rebuildIntervalMillis;
+	}
+
+	public long getSafetyWindow() {
+		return safetyWindow;
+	}
+
+	public void setSafetyWindow(long safetyWindow) {
+		this.safetyWindow = safetyWindow;
+	}
+
+	//endregion
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+/**
+ * 短链接服务端重定向缓存配置
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.cache.CachingDwzLogStoreImpl
+ */
+public class DwzServerCacheConfig {
+
+	/**
+	 * 默认最大缓存数量
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+	/**
+	 * 默认缓存有效时长（毫秒）：10分钟
+	 */
+	public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+
+	/**
+	 * 默认不存在的短链接码的缓存有效时长（毫秒）：5秒
+	 */
+	public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 5 * 1000L;
+
+
+	/**
+	 * 是否启用缓存
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * 最大缓存数量（缓存已满时，根据访问频率决定淘汰旧数据还是放弃缓存新数据）
+	 */
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	/**
+	 * 缓存有效时长（毫秒），实际有效时长不会超过短链接记录的有效期
+	 */
+	private long ttlMillis = DEFAULT_TTL_MILLIS;
+
+	/**
+	 * 不存在的短链接码的缓存有效时长（毫秒），用于避免无效的短链接码频繁穿透到存储器，小于等于0时不缓存
+	 */
+	private long negativeTtlMillis = DEFAULT_NEGATIVE_TTL_MILLIS;
+
+
+	//region Getter、Setter
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	public void setTtlMillis(long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+	}
+
+	public long getNegativeTtlMillis() {
+		return negativeTtlMillis;
+	}
+
+	public void setNegativeTtlMillis(long negativeTtlMillis) {
+		this.negativeTtlMillis = negativeTtlMillis;
+	}
+
+	//endregion
+}
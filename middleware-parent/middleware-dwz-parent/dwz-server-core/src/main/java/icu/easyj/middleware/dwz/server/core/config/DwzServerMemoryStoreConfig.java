@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+/**
+ * 短链接服务端基于内存的存储配置（同样适用于基于内存映射文件的存储）
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.memory.MemoryDwzLogStoreImpl
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.mmap.MmapDwzLogStoreImpl
+ */
+public class DwzServerMemoryStoreConfig {
+
+	/**
+	 * 默认初始容量
+	 */
+	public static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+	/**
+	 * 默认堆外存储区的分片大小：4MB
+	 */
+	public static final int DEFAULT_OFF_HEAP_SLAB_SIZE = 4 * 1024 * 1024;
+
+
+	/**
+	 * 初始容量（预估的记录数，避免频繁扩容）
+	 */
+	private int initialCapacity = DEFAULT_INITIAL_CAPACITY;
+
+	/**
+	 * 是否将长链接保存在堆外（数据量达到千万级时建议启用，可显著减少堆内存和GC停顿，需要确保 -XX:MaxDirectMemorySize 足够大）
+	 */
+	private boolean offHeap = false;
+
+	/**
+	 * 堆外存储区的分片大小（字节）
+	 */
+	private int offHeapSlabSize = DEFAULT_OFF_HEAP_SLAB_SIZE;
+
+
+	//region Getter、Setter
+
+	public int getInitialCapacity() {
+		return initialCapacity;
+	}
+
+	public void setInitialCapacity(int initialCapacity) {
+		this.initialCapacity = initialCapacity;
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	public int getOffHeapSlabSize() {
+		return offHeapSlabSize;
+	}
+
+	public void setOffHeapSlabSize(int offHeapSlabSize) {
+		this.offHeapSlabSize = offHeapSlabSize;
+	}
+
+	//endregion
+}
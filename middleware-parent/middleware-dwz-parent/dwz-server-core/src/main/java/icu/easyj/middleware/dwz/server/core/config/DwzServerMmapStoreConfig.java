@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+/**
+ * 短链接服务端基于内存映射文件的存储配置
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.mmap.MmapDwzLogStoreImpl
+ */
+public class DwzServerMmapStoreConfig {
+
+	/**
+	 * 默认数据目录
+	 */
+	public static final String DEFAULT_DIR = "./data/dwz";
+
+	/**
+	 * 默认段文件大小：64MB
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * 默认刷盘间隔（毫秒）
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+
+	/**
+	 * 默认检查点间隔（毫秒）
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
+
+	/**
+	 * 数据目录，保存日志段文件和索引快照文件
+	 */
+	private String dir = DEFAULT_DIR;
+
+	/**
+	 * 段文件大小（字节），当前段写满后，滚动到新的段文件
+	 */
+	private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+	/**
+	 * 是否每次写入后立即刷盘（为false时，由后台线程按刷盘间隔定时刷盘，进程崩溃不会丢数据，操作系统崩溃可能丢失最近的数据）
+	 */
+	private boolean syncOnWrite = false;
+
+	/**
+	 * 刷盘间隔（毫秒）
+	 */
+	private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
+	/**
+	 * 检查点间隔（毫秒）：定时保存索引快照，并删除快照已包含的旧段文件（同时清理了已删除和已过期的记录）
+	 */
+	private long checkpointIntervalMillis = DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+
+
+	//region Getter、Setter
+
+	public String getDir() {
+		return dir;
+	}
+
+	public void setDir(String dir) {
+		this.dir = dir;
+	}
+
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public boolean isSyncOnWrite() {
+		return syncOnWrite;
+	}
+
+	public void setSyncOnWrite(boolean syncOnWrite) {
+		this.syncOnWrite = syncOnWrite;
+	}
+
+	public long getFlushIntervalMillis() {
+		return flushIntervalMillis;
+	}
+
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	public long getCheckpointIntervalMillis() {
+		return checkpointIntervalMillis;
+	}
+
+	public void setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+	}
+
+	//endregion
+}
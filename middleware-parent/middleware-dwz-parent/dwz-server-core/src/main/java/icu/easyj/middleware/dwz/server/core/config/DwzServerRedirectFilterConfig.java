@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 短链接服务端重定向过滤器配置
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.filter.DwzRedirectFilter
+ */
+public class DwzServerRedirectFilterConfig {
+
+	/**
+	 * 默认短链接码的最大长度
+	 */
+	public static final int DEFAULT_MAX_CODE_LENGTH = 16;
+
+
+	/**
+	 * 是否启用重定向过滤器
+	 * <p>
+	 * 启用后，短链接的重定向请求在过滤器中直接处理，不再经过SpringMVC的分发流程；
+	 * 短链接码不存在时，直接在过滤器中响应404，不创建异常（宿主应用中SpringMVC的单级路径会在启动时自动排除，不会被遮蔽）。
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 过滤器的执行顺序，为空时在其他过滤器之前执行
+	 */
+	private Integer order;
+
+	/**
+	 * 短链接码的最大长度，超出该长度的请求交给SpringMVC处理
+	 */
+	private int maxCodeLength = DEFAULT_MAX_CODE_LENGTH;
+
+	/**
+	 * 需排除的请求路径（不含contextPath，例：/favicon），这些请求交给SpringMVC处理
+	 * <p>
+	 * 自动配置会在启动时，将SpringMVC中不含变量的单级路径（如：/login）加入排除列表，无需在此配置；
+	 * 不经过SpringMVC的单级路径（如：其他Servlet的路径），需在此配置，否则将被响应404。
+	 */
+	private List<String> exclusions = new ArrayList<>();
+
+
+	//region Getter、Setter
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Integer getOrder() {
+		return order;
+	}
+
+	public void setOrder(Integer order) {
+		this.order = order;
+	}
+
+	public int getMaxCodeLength() {
+		return maxCodeLength;
+	}
+
+	public void setMaxCodeLength(int maxCodeLength) {
+		this.maxCodeLength = maxCodeLength;
+	}
+
+	public List<String> getExclusions() {
+		return exclusions;
+	}
+
+	public void setExclusions(List<String> exclusions) {
+		this.exclusions = exclusions;
+	}
+
+	//endregion
+}
@@ -34,6 +34,36 @@ public class DwzServerTaskConfig {
 	 */
 	private OvertimeHandleStrategy overtimeHandleStrategy = OvertimeHandleStrategy.DELETE;
 
+	/**
+	 * 分批处理超时短链接记录时，每批数据量
+	 */
+	private int overtimeBatchSize = 1000;
+
+	/**
+	 * 分批处理超时短链接记录时，批次之间的暂停毫秒数（小于等于0时不暂停）
+	 */
+	private long overtimeBatchPauseMillis = 100;
+
+	/**
+	 * 每次处理超时短链接记录的时间预算（毫秒），超出后剩余的数据留到下次处理（小于等于0时不限制）
+	 */
+	private long overtimeTimeBudgetMillis = 2 * 60 * 1000;
+
+	/**
+	 * 是否统计短链接的点击次数（需要先执行添加 `click_count` 字段的升级脚本）
+	 */
+	private boolean clickCountEnabled = false;
+
+	/**
+	 * 将内存中的点击次数写入数据库的间隔（毫秒）
+	 */
+	private long clickCountFlushIntervalMillis = 5 * 1000;
+
+	/**
+	 * 批量写入点击次数时，每批数据量
+	 */
+	private int clickCountBatchSize = 1000;
+
 
 	public boolean isEnabled() {
 		return enabled;
@@ -50,4 +80,52 @@ public class DwzServerTaskConfig {
 	public void setOvertimeHandleStrategy(OvertimeHandleStrategy overtimeHandleStrategy) {
 		this.overtimeHandleStrategy = overtimeHandleStrategy;
 	}
+
+	public int getOvertimeBatchSize() {
+		return overtimeBatchSize;
+	}
+
+	public void setOvertimeBatchSize(int overtimeBatchSize) {
+		this.overtimeBatchSize = overtimeBatchSize;
+	}
+
+	public long getOvertimeBatchPauseMillis() {
+		return overtimeBatchPauseMillis;
+	}
+
+	public void setOvertimeBatchPauseMillis(long overtimeBatchPauseMillis) {
+		this.overtimeBatchPauseMillis = overtimeBatchPauseMillis;
+	}
+
+	public long getOvertimeTimeBudgetMillis() {
+		return overtimeTimeBudgetMillis;
+	}
+
+	public void setOvertimeTimeBudgetMillis(long overtimeTimeBudgetMillis) {
+		this.overtimeTimeBudgetMillis = overtimeTimeBudgetMillis;
+	}
+
+	public boolean isClickCountEnabled() {
+		return clickCountEnabled;
+	}
+
+	public void setClickCountEnabled(boolean clickCountEnabled) {
+		this.clickCountEnabled = clickCountEnabled;
+	}
+
+	public long getClickCountFlushIntervalMillis() {
+		return clickCountFlushIntervalMillis;
+	}
+
+	public void setClickCountFlushIntervalMillis(long clickCountFlushIntervalMillis) {
+		this.clickCountFlushIntervalMillis = clickCountFlushIntervalMillis;
+	}
+
+	public int getClickCountBatchSize() {
+		return clickCountBatchSize;
+	}
+
+	public void setClickCountBatchSize(int clickCountBatchSize) {
+		this.clickCountBatchSize = clickCountBatchSize;
+	}
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.config;
+
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzWriteBehindDurability;
+
+/**
+ * 短链接服务端写后（write-behind）模式配置
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.writebehind.WriteBehindDwzLogStoreImpl
+ */
+public class DwzServerWriteBehindConfig {
+
+	/**
+	 * 默认每批最大写入数量
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+	/**
+	 * 默认最大等待时长（毫秒）
+	 */
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 10L;
+
+	/**
+	 * 默认写入队列容量
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 100_000;
+
+	/**
+	 * 默认等待写入完成的超时时长（毫秒）
+	 */
+	public static final long DEFAULT_FLUSH_TIMEOUT_MILLIS = 5000L;
+
+
+	/**
+	 * 是否启用写后模式
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 持久化保证：wait-for-flush=等待写入后返回、fire-and-forget=放入队列后立即返回
+	 */
+	private DwzWriteBehindDurability durability = DwzWriteBehindDurability.WAIT_FOR_FLUSH;
+
+	/**
+	 * 每批最大写入数量
+	 */
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * 最大等待时长（毫秒）：从批次中第一条记录入队开始计算，达到该时长或每批最大写入数量时，立即写入
+	 */
+	private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+	/**
+	 * 写入队列容量，队列已满时，直接在调用线程中同步写入
+	 */
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	/**
+	 * 等待写入完成的超时时长（毫秒），超时后调用方收到异常，记录仍可能在稍后写入
+	 */
+	private long flushTimeoutMillis = DEFAULT_FLUSH_TIMEOUT_MILLIS;
+
+
+	//region Getter、Setter
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public DwzWriteBehindDurability getDurability() {
+		return durability;
+	}
+
+	public void setDurability(DwzWriteBehindDurability durability) {
+		this.durability = durability;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	public void setMaxDelayMillis(long maxDelayMillis) {
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getFlushTimeoutMillis() {
+		return flushTimeoutMillis;
+	}
+
+	public void setFlushTimeoutMillis(long flushTimeoutMillis) {
+		this.flushTimeoutMillis = flushTimeoutMillis;
+	}
+
+	//endregion
+}
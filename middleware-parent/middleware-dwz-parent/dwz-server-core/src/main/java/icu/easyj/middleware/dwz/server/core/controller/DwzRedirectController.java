@@ -16,10 +16,15 @@
 package icu.easyj.middleware.dwz.server.core.controller;
 
 import java.io.IOException;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import icu.easyj.core.util.StringUtils;
+import icu.easyj.middleware.dwz.server.core.filter.DwzRedirectFilter;
 import icu.easyj.middleware.dwz.server.core.service.IDwzServerService;
+import icu.easyj.middleware.dwz.server.core.task.DwzClickCounter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -35,23 +40,42 @@ public class DwzRedirectController {
 
 	private final IDwzServerService dwzServerService;
 
+	/**
+	 * 点击次数计数器，为空表示未启用点击次数统计
+	 */
+	@Nullable
+	private final DwzClickCounter clickCounter;
 
-	public DwzRedirectController(IDwzServerService dwzServerService) {
+
+	public DwzRedirectController(IDwzServerService dwzServerService, ObjectProvider<DwzClickCounter> clickCounter) {
 		this.dwzServerService = dwzServerService;
+		this.clickCounter = clickCounter.getIfAvailable();
 	}
 
 
 	@GetMapping("/{shortUrlCode}")
-	public void redirect(@PathVariable String shortUrlCode, HttpServletResponse response) throws IOException {
+	public void redirect(@PathVariable String shortUrlCode, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		// 重定向过滤器已查询过长链接，但未找到，直接响应404，避免再次查询
+		if (request.getAttribute(DwzRedirectFilter.NOT_FOUND_ATTRIBUTE) != null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
 		if (StringUtils.isBlank(shortUrlCode)) {
 			throw new IllegalArgumentException("短链接码不能为空");
 		}
 
-		String longUrl = dwzServerService.getLongUrlByShortUrlCode(shortUrlCode.trim());
+		shortUrlCode = shortUrlCode.trim();
+		String longUrl = dwzServerService.getLongUrlByShortUrlCode(shortUrlCode);
 		if (StringUtils.isBlank(longUrl)) {
 			throw new IllegalArgumentException("未找到对应的长链接");
 		}
 
+		// 统计点击次数（只在内存中累加，由定时任务批量写入数据库）
+		if (clickCounter != null) {
+			clickCounter.increment(shortUrlCode);
+		}
+
 		response.sendRedirect(longUrl.trim());
 	}
 
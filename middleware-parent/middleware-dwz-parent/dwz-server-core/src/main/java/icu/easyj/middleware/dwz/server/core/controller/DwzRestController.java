@@ -15,6 +15,9 @@
  */
 package icu.easyj.middleware.dwz.server.core.controller;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import icu.easyj.config.ServerConfigs;
 import icu.easyj.core.util.StringUtils;
 import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
@@ -63,9 +66,32 @@ public class DwzRestController {
 		// 生成短链接码
 		DwzLogEntity dwzLog = dwzServerService.createShortUrlCode(param.getLongUrl(), param.getTermOfValidity());
 
-		// 拼接公网域名后，就是短链接了
-		String shortUrl = ServerConfigs.getDomain() + "/" + dwzLog.getShortUrlCode();
-		return new EasyjDwzResponse(shortUrl, dwzLog.getCreateTime(), dwzLog.getTermOfValidity());
+		return this.toResponse(dwzLog);
+	}
+
+	/**
+	 * 批量生成短链接
+	 *
+	 * @param params 长链接、过期时间、...等等的参数列表（最多 {@link EasyjDwzRequest#MAX_BATCH_SIZE} 个）
+	 * @return responses 短链接响应列表，顺序与入参一致
+	 */
+	@PostMapping("/create-short-urls")
+	public List<EasyjDwzResponse> createShortUrls(@RequestBody List<EasyjDwzRequest> params) {
+		Assert.notEmpty(params, "长链接列表不能为空");
+		Assert.isTrue(params.size() <= EasyjDwzRequest.MAX_BATCH_SIZE, "单次最多生成 " + EasyjDwzRequest.MAX_BATCH_SIZE + " 个短链接");
+		for (EasyjDwzRequest param : params) {
+			Assert.notNull(param, "参数不能为空");
+			Assert.notNull(param.getLongUrl(), "长链接不能为空");
+		}
+
+		// 批量生成短链接码
+		List<DwzLogEntity> dwzLogs = dwzServerService.createShortUrlCodes(params);
+
+		List<EasyjDwzResponse> responses = new ArrayList<>(dwzLogs.size());
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			responses.add(this.toResponse(dwzLog));
+		}
+		return responses;
 	}
 
 	/**
@@ -97,4 +123,11 @@ public class DwzRestController {
 
 		return dwzServerService.getLongUrlByShortUrlCode(shortUrlCode);
 	}
+
+
+	private EasyjDwzResponse toResponse(DwzLogEntity dwzLog) {
+		// 拼接公网域名后，就是短链接了
+		String shortUrl = ServerConfigs.getDomain() + "/" + dwzLog.getShortUrlCode();
+		return new EasyjDwzResponse(shortUrl, dwzLog.getCreateTime(), dwzLog.getTermOfValidity());
+	}
 }
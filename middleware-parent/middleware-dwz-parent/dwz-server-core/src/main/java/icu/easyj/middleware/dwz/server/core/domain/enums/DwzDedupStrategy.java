@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.domain.enums;
+
+/**
+ * 创建短链接时，同一长链接的去重策略
+ *
+ * @author wangliang181230
+ */
+public enum DwzDedupStrategy {
+
+	/**
+	 * 悲观锁策略：通过 {@code SELECT ... WHERE long_url = ? FOR UPDATE} 加锁查询已有记录，不存在时再创建。
+	 * <p>
+	 * 同一长链接的并发创建请求会串行执行。适用于未添加 `long_url_hash` 字段的旧表，为默认策略。
+	 */
+	LOCK,
+
+	/**
+	 * 哈希策略：对规范化后的长链接计算128位哈希值，保存在带唯一索引的 `long_url_hash` 字段中。
+	 * <p>
+	 * 先无锁查询已有记录，不存在时直接插入，插入时违反唯一索引，说明其他请求已并发创建，再读取已有记录（乐观策略）。
+	 * 需要先执行 `/src/script/middleware/dwz-server/` 下对应数据库的升级脚本，再通过配置 `easyj.middleware.dwz.server.dedup-strategy=hash` 启用。
+	 */
+	HASH
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.domain.enums;
+
+/**
+ * 写后（write-behind）模式下，创建短链接记录的持久化保证
+ *
+ * @author wangliang181230
+ * @see icu.easyj.middleware.dwz.server.core.store.impls.writebehind.WriteBehindDwzLogStoreImpl
+ */
+public enum DwzWriteBehindDurability {
+
+	/**
+	 * 等待写入：记录放入写入队列后，等待后台线程批量写入并提交事务后再返回。
+	 * <p>
+	 * 写入失败时，异常会抛给调用方。并发的创建请求共用一次事务提交（组提交），单个请求的耗时不会减少，但可提高吞吐量。
+	 */
+	WAIT_FOR_FLUSH,
+
+	/**
+	 * 不等待写入：记录放入写入队列后立即返回，由后台线程异步批量写入。
+	 * <p>
+	 * 写入完成前，当前实例可以正常重定向该短链接，但其他实例无法查询到该记录；
+	 * 写入失败或应用异常退出时，记录会丢失，已返回的短链接将无法访问，只适用于可以容忍少量数据丢失的场景。
+	 */
+	FIRE_AND_FORGET
+}
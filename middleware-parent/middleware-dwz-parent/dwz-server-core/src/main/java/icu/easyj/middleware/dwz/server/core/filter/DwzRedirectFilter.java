@@ -0,0 +1,285 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.filter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import icu.easyj.middleware.dwz.server.core.config.DwzServerRedirectFilterConfig;
+import icu.easyj.middleware.dwz.server.core.controller.DwzRedirectController;
+import icu.easyj.middleware.dwz.server.core.service.IDwzServerService;
+import icu.easyj.middleware.dwz.server.core.task.DwzClickCounter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 短链接重定向过滤器（重定向的快速通道）
+ * <p>
+ * 直接在过滤器中匹配 {@code GET /{shortUrlCode}} 请求并响应，跳过SpringMVC的处理器映射、参数解析和异常解析器链：<br>
+ * 1）找到长链接时，直接设置302状态码和 {@code Location} 响应头，不经过 {@link HttpServletResponse#sendRedirect(String)} 的地址转换；<br>
+ * 2）短链接码不存在或已过期时，如果已启用404响应（见 {@link #setNotFoundResponseEnabled(boolean)}），直接响应404，不创建异常；
+ * 未启用时，交给后续的过滤器和SpringMVC处理，并通过请求属性 {@link #NOT_FOUND_ATTRIBUTE} 告知 {@link DwzRedirectController} 无需再次查询；<br>
+ * 3）不匹配的请求（非GET/HEAD请求、多级路径、包含非字母数字的字符、超出最大长度、在排除列表中的路径），交给后续的过滤器和SpringMVC处理。
+ * <p>
+ * 注意：<br>
+ * 1）短链接码只匹配字母和数字，使用了自定义字符集的短链接码，如果包含其他字符，将由 {@link DwzRedirectController} 处理；<br>
+ * 2）宿主应用中的单级路径，需通过 {@link #addExclusions(Collection)} 加入排除列表，否则启用404响应后将被遮蔽。
+ * 自动配置会在启动完成后加入SpringMVC中的单级路径，然后再启用404响应。
+ *
+ * @author wangliang181230
+ * @see DwzRedirectController
+ * @see DwzServerRedirectFilterConfig
+ */
+public class DwzRedirectFilter implements Filter {
+
+	/**
+	 * 请求属性名：过滤器已查询过长链接，但未找到
+	 */
+	public static final String NOT_FOUND_ATTRIBUTE = DwzRedirectFilter.class.getName() + ".NOT_FOUND";
+
+
+	private final IDwzServerService dwzServerService;
+
+	/**
+	 * 点击次数计数器，为空表示未启用点击次数统计
+	 */
+	@Nullable
+	private final DwzClickCounter clickCounter;
+
+	/**
+	 * 短链接码的最大长度
+	 */
+	private final int maxCodeLength;
+
+	/**
+	 * 需排除的请求路径（写时复制）
+	 */
+	private volatile Set<String> exclusions;
+
+	/**
+	 * 未找到长链接时，是否直接响应404
+	 * <p>
+	 * 需在宿主应用的单级路径都加入排除列表后再启用，否则这些路径将被遮蔽。
+	 */
+	private volatile boolean notFoundResponseEnabled = false;
+
+	//region 统计数据
+
+	/**
+	 * 重定向次数
+	 */
+	private final LongAdder redirectCount = new LongAdder();
+
+	/**
+	 * 未找到长链接的次数
+	 */
+	private final LongAdder notFoundCount = new LongAdder();
+
+	//endregion
+
+
+	public DwzRedirectFilter(@NonNull IDwzServerService dwzServerService, @Nullable DwzClickCounter clickCounter,
+							 int maxCodeLength, @Nullable Collection<String> exclusions) {
+		Assert.notNull(dwzServerService, "'dwzServerService' must not be null");
+		Assert.isTrue(maxCodeLength > 0, "'maxCodeLength' must be greater than 0");
+
+		this.dwzServerService = dwzServerService;
+		this.clickCounter = clickCounter;
+		this.maxCodeLength = maxCodeLength;
+		this.exclusions = exclusions == null || exclusions.isEmpty() ? Collections.emptySet() : new HashSet<>(exclusions);
+	}
+
+	public DwzRedirectFilter(@NonNull IDwzServerService dwzServerService, @Nullable DwzClickCounter clickCounter,
+							 @NonNull DwzServerRedirectFilterConfig config) {
+		this(dwzServerService, clickCounter, config.getMaxCodeLength(), config.getExclusions());
+	}
+
+	public DwzRedirectFilter(@NonNull IDwzServerService dwzServerService, @Nullable DwzClickCounter clickCounter) {
+		this(dwzServerService, clickCounter, DwzServerRedirectFilterConfig.DEFAULT_MAX_CODE_LENGTH, null);
+	}
+
+
+	//region Override Filter
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		if (request instanceof HttpServletRequest && response instanceof HttpServletResponse) {
+			String shortUrlCode = this.matchShortUrlCode((HttpServletRequest)request);
+			if (shortUrlCode != null) {
+				if (this.redirect(shortUrlCode, (HttpServletResponse)response)) {
+					return;
+				}
+
+				// 未找到长链接
+				if (this.notFoundResponseEnabled) {
+					this.notFound((HttpServletResponse)response);
+					return;
+				}
+				request.setAttribute(NOT_FOUND_ATTRIBUTE, Boolean.TRUE);
+			}
+		}
+
+		chain.doFilter(request, response);
+	}
+
+	//endregion
+
+
+	//region Public
+
+	/**
+	 * 添加需排除的请求路径
+	 *
+	 * @param paths 请求路径（不含contextPath，例：/login）
+	 */
+	public synchronized void addExclusions(@Nullable Collection<String> paths) {
+		if (paths == null || paths.isEmpty()) {
+			return;
+		}
+
+		Set<String> exclusions = new HashSet<>(this.exclusions);
+		exclusions.addAll(paths);
+		this.exclusions = exclusions;
+	}
+
+	//endregion
+
+
+	//region Protected
+
+	/**
+	 * 匹配短链接码
+	 *
+	 * @param request 请求
+	 * @return 短链接码，返回null表示不是短链接的重定向请求
+	 */
+	@Nullable
+	protected String matchShortUrlCode(HttpServletRequest request) {
+		String method = request.getMethod();
+		if (!"GET".equals(method) && !"HEAD".equals(method)) {
+			return null;
+		}
+
+		// 路径格式：contextPath + '/' + shortUrlCode
+		String uri = request.getRequestURI();
+		int start = request.getContextPath().length();
+		int codeLength = uri.length() - start - 1;
+		if (codeLength <= 0 || codeLength > this.maxCodeLength || uri.charAt(start) != '/') {
+			return null;
+		}
+		for (int i = start + 1; i < uri.length(); i++) {
+			if (!isCodeChar(uri.charAt(i))) {
+				return null;
+			}
+		}
+
+		Set<String> exclusions = this.exclusions;
+		if (!exclusions.isEmpty() && exclusions.contains(uri.substring(start))) {
+			return null;
+		}
+
+		return uri.substring(start + 1);
+	}
+
+	/**
+	 * 重定向到长链接
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @param response     响应
+	 * @return 是否已重定向，返回false表示未找到长链接
+	 */
+	protected boolean redirect(String shortUrlCode, HttpServletResponse response) {
+		String longUrl = this.dwzServerService.getLongUrlByShortUrlCode(shortUrlCode);
+		if (longUrl == null || (longUrl = longUrl.trim()).isEmpty()) {
+			this.notFoundCount.increment();
+			return false;
+		}
+
+		// 统计点击次数（只在内存中累加，由定时任务批量写入数据库）
+		if (this.clickCounter != null) {
+			this.clickCounter.increment(shortUrlCode);
+		}
+
+		this.redirectCount.increment();
+		response.setStatus(HttpServletResponse.SC_FOUND);
+		response.setHeader(HttpHeaders.LOCATION, longUrl);
+		response.setContentLength(0);
+		return true;
+	}
+
+	/**
+	 * 响应404：只设置状态码，不创建异常，也不转发到错误页
+	 *
+	 * @param response 响应
+	 */
+	protected void notFound(HttpServletResponse response) {
+		response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		response.setContentLength(0);
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private static boolean isCodeChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	//endregion
+
+
+	//region Getter、Setter
+
+	public int getMaxCodeLength() {
+		return maxCodeLength;
+	}
+
+	public Set<String> getExclusions() {
+		return Collections.unmodifiableSet(exclusions);
+	}
+
+	public boolean isNotFoundResponseEnabled() {
+		return notFoundResponseEnabled;
+	}
+
+	public void setNotFoundResponseEnabled(boolean notFoundResponseEnabled) {
+		this.notFoundResponseEnabled = notFoundResponseEnabled;
+	}
+
+	public long getRedirectCount() {
+		return redirectCount.sum();
+	}
+
+	public long getNotFoundCount() {
+		return notFoundCount.sum();
+	}
+
+	//endregion
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.listener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import icu.easyj.middleware.dwz.server.core.filter.DwzRedirectFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.handler.AbstractUrlHandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+
+/**
+ * 重定向过滤器排除路径的监听器
+ * <p>
+ * 项目启动完成后，将SpringMVC中不含变量的单级路径（如：{@code /login}）加入 {@link DwzRedirectFilter} 的排除列表，
+ * 使宿主应用中的这些路径不会被同名的短链接码遮蔽，也不会多查询一次长链接；
+ * 然后启用过滤器的404响应，使未找到长链接的请求直接在过滤器中响应404。
+ * <p>
+ * 路径来源：所有 {@link RequestMappingInfoHandlerMapping}（包括 {@code @RequestMapping} 接口和Actuator端点）
+ * 和 {@link AbstractUrlHandlerMapping}（如：视图控制器、静态资源映射）。
+ *
+ * @author wangliang181230
+ * @see DwzRedirectFilter#addExclusions(java.util.Collection)
+ */
+public class DwzRedirectFilterExclusionsApplicationListener implements ApplicationListener<ContextRefreshedEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DwzRedirectFilterExclusionsApplicationListener.class);
+
+
+	private final DwzRedirectFilter filter;
+
+
+	public DwzRedirectFilterExclusionsApplicationListener(@NonNull DwzRedirectFilter filter) {
+		Assert.notNull(filter, "'filter' must not be null");
+		this.filter = filter;
+	}
+
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		ApplicationContext context = event.getApplicationContext();
+
+		Set<String> paths = new HashSet<>();
+		for (RequestMappingInfoHandlerMapping handlerMapping : context.getBeansOfType(RequestMappingInfoHandlerMapping.class).values()) {
+			for (RequestMappingInfo mappingInfo : handlerMapping.getHandlerMethods().keySet()) {
+				for (String pattern : mappingInfo.getPatternValues()) {
+					if (isLiteralSingleLevelPath(pattern)) {
+						paths.add(pattern);
+					}
+				}
+			}
+		}
+		for (AbstractUrlHandlerMapping handlerMapping : context.getBeansOfType(AbstractUrlHandlerMapping.class).values()) {
+			for (String pattern : handlerMapping.getHandlerMap().keySet()) {
+				if (isLiteralSingleLevelPath(pattern)) {
+					paths.add(pattern);
+				}
+			}
+		}
+
+		if (!paths.isEmpty()) {
+			filter.addExclusions(paths);
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("短链接重定向过滤器已排除SpringMVC中的单级路径：{}", paths);
+			}
+		}
+
+		// 宿主应用的单级路径都已排除，启用404响应
+		filter.setNotFoundResponseEnabled(true);
+	}
+
+	/**
+	 * 判断是否为不含变量和通配符的单级路径
+	 *
+	 * @param pattern 路径表达式
+	 * @return 是否为不含变量和通配符的单级路径
+	 */
+	static boolean isLiteralSingleLevelPath(String pattern) {
+		if (pattern.length() < 2 || pattern.charAt(0) != '/') {
+			return false;
+		}
+
+		char c;
+		for (int i = 1; i < pattern.length(); i++) {
+			c = pattern.charAt(i);
+			if (c == '/' || c == '{' || c == '*' || c == '?') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -15,7 +15,11 @@
  */
 package icu.easyj.middleware.dwz.server.core.listener;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import icu.easyj.middleware.dwz.server.core.service.IDwzCorrectErrorDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 
@@ -26,8 +30,16 @@ import org.springframework.context.event.ContextRefreshedEvent;
  */
 public class DwzServerStartupApplicationListener implements ApplicationListener<ContextRefreshedEvent> {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(DwzServerStartupApplicationListener.class);
+
+
 	private final IDwzCorrectErrorDataService dwzCorrectErrorDataService;
 
+	/**
+	 * 是否已开始补全长链接哈希值（上下文可能多次刷新，只需执行一次）
+	 */
+	private final AtomicBoolean fillLongUrlHashStarted = new AtomicBoolean(false);
+
 
 	public DwzServerStartupApplicationListener(IDwzCorrectErrorDataService dwzCorrectErrorDataService) {
 		this.dwzCorrectErrorDataService = dwzCorrectErrorDataService;
@@ -38,5 +50,19 @@ public class DwzServerStartupApplicationListener implements ApplicationListener<
 	public void onApplicationEvent(ContextRefreshedEvent event) {
 		// 执行一次纠正序列值的服务
 		dwzCorrectErrorDataService.correctSequence();
+		// 补全旧数据的长链接哈希值：可能需要扫描整张表，在后台线程中执行，不阻塞项目启动
+		if (fillLongUrlHashStarted.compareAndSet(false, true)) {
+			Thread thread = new Thread(this::fillLongUrlHash, "easyj-dwz-fill-long-url-hash");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private void fillLongUrlHash() {
+		try {
+			dwzCorrectErrorDataService.fillLongUrlHash();
+		} catch (RuntimeException e) {
+			LOGGER.error("补全旧数据的长链接哈希值失败，将在下次启动时继续补全：{}", e.getMessage(), e);
+		}
 	}
 }
@@ -30,4 +30,15 @@ public interface IDwzCorrectErrorDataService {
 	 * @return result 纠正结果 1=纠正成功 | 0=无需纠正 | -1=纠正失败或无法纠正
 	 */
 	int correctSequence();
+
+	/**
+	 * 补全旧数据的长链接哈希值
+	 * <p>
+	 * 说明：为已有的表添加 `long_url_hash` 字段后，升级前创建的数据没有哈希值，无法参与去重
+	 *
+	 * @return result 补全的数据量，-1=当前存储器不支持
+	 */
+	default int fillLongUrlHash() {
+		return 0;
+	}
 }
@@ -15,9 +15,12 @@
  */
 package icu.easyj.middleware.dwz.server.core.service;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import icu.easyj.data.store.StoreException;
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
 import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
@@ -40,6 +43,22 @@ public interface IDwzServerService {
 	@NonNull
 	DwzLogEntity createShortUrlCode(@NonNull String longUrl, @Nullable Date termOfValidity);
 
+	/**
+	 * 根据多个长链接，批量生成短链接
+	 *
+	 * @param requests 请求列表（长链接、有效期截止时间）
+	 * @return 短链接记录列表，顺序与入参一致（同一长链接对应同一条记录）
+	 * @throws StoreException 存储接口异常
+	 */
+	@NonNull
+	default List<DwzLogEntity> createShortUrlCodes(@NonNull List<EasyjDwzRequest> requests) {
+		List<DwzLogEntity> result = new ArrayList<>(requests.size());
+		for (EasyjDwzRequest request : requests) {
+			result.add(this.createShortUrlCode(request.getLongUrl(), request.getTermOfValidity()));
+		}
+		return result;
+	}
+
 	/**
 	 * 查找短链接码对应的长链接
 	 *
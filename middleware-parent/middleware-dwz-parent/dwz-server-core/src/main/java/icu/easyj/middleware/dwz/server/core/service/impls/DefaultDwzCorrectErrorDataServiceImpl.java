@@ -33,6 +33,11 @@ public class DefaultDwzCorrectErrorDataServiceImpl implements IDwzCorrectErrorDa
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DefaultDwzCorrectErrorDataServiceImpl.class);
 
+	/**
+	 * 补全长链接哈希值时，每批处理的数据量
+	 */
+	private static final int FILL_LONG_URL_HASH_BATCH_SIZE = 1000;
+
 
 	private final IDwzLogStore dwzLogStore;
 
@@ -84,6 +89,22 @@ public class DefaultDwzCorrectErrorDataServiceImpl implements IDwzCorrectErrorDa
 		}
 	}
 
+	@Override
+	public int fillLongUrlHash() {
+		int count;
+		try {
+			count = dwzLogStore.fillLongUrlHash(FILL_LONG_URL_HASH_BATCH_SIZE);
+		} catch (NotSupportedException e) {
+			LOGGER.debug("当前短链接记录存取服务不支持补全长链接哈希值。");
+			return -1;
+		}
+
+		if (count > 0) {
+			LOGGER.info("已补全 {} 条短链接记录的长链接哈希值。", count);
+		}
+		return count;
+	}
+
 
 	/**
 	 * 获取当前序列值或下一序列值
@@ -139,9 +160,11 @@ public class DefaultDwzCorrectErrorDataServiceImpl implements IDwzCorrectErrorDa
 			return -1;
 		}
 
-		// 循环递增，慢慢纠正序列值
+		// 批量递增纠正序列值（支持批量获取的序列服务，只需一次调用）
 		while (currVal0 < maxId) {
-			currVal0 = sequenceService.nextVal(SEQ_NAME__DWZ_LOG_ID);
+			for (long val : sequenceService.nextVals(SEQ_NAME__DWZ_LOG_ID, (int)(maxId - currVal0))) {
+				currVal0 = Math.max(currVal0, val);
+			}
 		}
 
 		LOGGER.warn("序列[{}]的当前值已达到 [{}]，服务已经可以继续服务可继续运行了！", SEQ_NAME__DWZ_LOG_ID, currVal);
@@ -15,19 +15,30 @@
  */
 package icu.easyj.middleware.dwz.server.core.service.impls;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import icu.easyj.core.clock.ClockManager;
 import icu.easyj.core.util.DateUtils;
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
 import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
 import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
 import icu.easyj.middleware.dwz.server.core.service.IDwzServerService;
 import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.util.LongUrlUtils;
 import icu.easyj.web.util.HttpUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
 /**
  * {@link IDwzServerService} 默认实现
@@ -40,9 +51,20 @@ public class DefaultDwzServerServiceImpl implements IDwzServerService {
 
 	private final IDwzLogStore logStore;
 
+	/**
+	 * 同一长链接的去重策略
+	 */
+	private final DwzDedupStrategy dedupStrategy;
 
-	public DefaultDwzServerServiceImpl(IDwzLogStore logStore) {
+
+	public DefaultDwzServerServiceImpl(IDwzLogStore logStore, DwzDedupStrategy dedupStrategy) {
+		Assert.notNull(dedupStrategy, "'dedupStrategy' must not be null");
 		this.logStore = logStore;
+		this.dedupStrategy = dedupStrategy;
+	}
+
+	public DefaultDwzServerServiceImpl(IDwzLogStore logStore) {
+		this(logStore, DwzDedupStrategy.LOCK);
 	}
 
 
@@ -51,50 +73,245 @@ public class DefaultDwzServerServiceImpl implements IDwzServerService {
 	@Transactional
 	public DwzLogEntity createShortUrlCode(@NonNull String longUrl, @Nullable Date termOfValidity) {
 		// 先校验参数
+		this.checkParams(longUrl, termOfValidity);
+
+		if (this.dedupStrategy == DwzDedupStrategy.HASH) {
+			return this.createByHash(longUrl, termOfValidity);
+		}
+
+		// 先获取一次数据库中的数据是否存在，如果存在，则复用数据
+		DwzLogEntity dwzLog = logStore.getByLongUrlForUpdate(longUrl);
+		if (dwzLog != null) {
+			if (this.prepareForReuse(dwzLog, termOfValidity)) {
+				logStore.update(dwzLog);
+			}
+			return dwzLog;
+		}
+
+		return logStore.save(longUrl, termOfValidity);
+	}
+
+	@NonNull
+	@Override
+	@Transactional
+	public List<DwzLogEntity> createShortUrlCodes(@NonNull List<EasyjDwzRequest> requests) {
+		Assert.notEmpty(requests, "'requests' must not be empty");
+
+		// 先校验所有参数，并合并同一长链接的请求（有效期取更久的那个）
+		String[] keys = new String[requests.size()];
+		Map<String, EasyjDwzRequest> mergedRequests = new LinkedHashMap<>();
+		EasyjDwzRequest request;
+		for (int i = 0; i < requests.size(); i++) {
+			request = requests.get(i);
+			Assert.notNull(request, "'requests[" + i + "]' must not be null");
+			this.checkParams(request.getLongUrl(), request.getTermOfValidity());
+
+			keys[i] = this.toDedupKey(request.getLongUrl());
+			mergedRequests.merge(keys[i], request,
+					(r1, r2) -> new EasyjDwzRequest(r1.getLongUrl(), longerTerm(r1.getTermOfValidity(), r2.getTermOfValidity())));
+		}
+
+		Map<String, DwzLogEntity> dwzLogs;
+		if (this.dedupStrategy == DwzDedupStrategy.HASH) {
+			dwzLogs = this.createAllByHash(mergedRequests);
+		} else {
+			// 加锁去重时，逐条创建
+			dwzLogs = new HashMap<>(mergedRequests.size() * 4 / 3 + 1);
+			for (Map.Entry<String, EasyjDwzRequest> entry : mergedRequests.entrySet()) {
+				request = entry.getValue();
+				dwzLogs.put(entry.getKey(), this.createShortUrlCode(request.getLongUrl(), request.getTermOfValidity()));
+			}
+		}
+
+		// 按入参的顺序返回
+		List<DwzLogEntity> result = new ArrayList<>(keys.length);
+		for (String key : keys) {
+			result.add(dwzLogs.get(key));
+		}
+		return result;
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		return logStore.getLongUrlByShortUrlCode(shortUrlCode);
+	}
+
+
+	//region Private
+
+	/**
+	 * 校验参数
+	 *
+	 * @param longUrl        长链接
+	 * @param termOfValidity 有效期截止时间
+	 * @throws IllegalArgumentException 参数有误
+	 */
+	private void checkParams(String longUrl, Date termOfValidity) {
 		if (!HttpUtils.isHttpOrHttps(longUrl)) {
 			LOGGER.warn("长链接不是有效的http(s)地址，longUrl = {}", longUrl);
 			throw new IllegalArgumentException("长链接不是有效的http(s)地址：" + longUrl);
 		}
-		if (termOfValidity != null && termOfValidity.getTime() <= System.currentTimeMillis()) {
+		if (termOfValidity != null && termOfValidity.getTime() <= ClockManager.currentTimeMillis()) {
 			String termOfValidityStr = DateUtils.toString(termOfValidity);
 			LOGGER.warn("termOfValidity不能小于等于当前时间, termOfValidity = {}，longUrl = {}", termOfValidityStr, longUrl);
 			throw new IllegalArgumentException("termOfValidity不能小于等于当前时间：" + termOfValidityStr);
 		}
+	}
 
-		// 先获取一次数据库中的数据是否存在，如果存在，则复用数据
-		DwzLogEntity dwzLog = logStore.getByLongUrlForUpdate(longUrl);
-		if (dwzLog != null) {
-			// 标记是否需要更新数据
-			boolean needUpdate = false;
+	/**
+	 * 取更久的有效期截止时间
+	 *
+	 * @param term1 有效期截止时间1（为空表示永久有效）
+	 * @param term2 有效期截止时间2（为空表示永久有效）
+	 * @return 更久的有效期截止时间
+	 */
+	@Nullable
+	private static Date longerTerm(@Nullable Date term1, @Nullable Date term2) {
+		if (term1 == null || term2 == null) {
+			return null;
+		}
+		return term1.compareTo(term2) >= 0 ? term1 : term2;
+	}
 
-			// 状态不为有效时，更新为有效
-			if (dwzLog.isNotStatus(DwzLogStatus.EFFECTIVE)) {
-				dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
-				needUpdate = true;
+	/**
+	 * 获取长链接的去重键：按哈希去重时为规范化后的长链接，否则为长链接本身
+	 *
+	 * @param longUrl 长链接
+	 * @return 去重键
+	 */
+	private String toDedupKey(String longUrl) {
+		return this.dedupStrategy == DwzDedupStrategy.HASH ? LongUrlUtils.normalize(longUrl) : longUrl;
+	}
+
+	/**
+	 * 基于长链接哈希值的唯一索引去重，批量创建短链接记录：批量查询已存在的记录，其余的批量插入
+	 *
+	 * @param requests 去重键 -> 请求（已合并同一长链接的请求）
+	 * @return 去重键 -> 短链接记录
+	 * @see #createByHash(String, Date)
+	 */
+	private Map<String, DwzLogEntity> createAllByHash(Map<String, EasyjDwzRequest> requests) {
+		Map<String, DwzLogEntity> result = new HashMap<>(requests.size() * 4 / 3 + 1);
+
+		// 批量查询已存在的记录，并复用
+		List<String> longUrls = new ArrayList<>(requests.size());
+		requests.values().forEach(request -> longUrls.add(request.getLongUrl()));
+		String key;
+		EasyjDwzRequest request;
+		for (DwzLogEntity dwzLog : logStore.getByLongUrls(longUrls)) {
+			key = this.toDedupKey(dwzLog.getLongUrl());
+			request = requests.get(key);
+			if (request == null) {
+				continue;
+			}
+
+			if (this.prepareForReuse(dwzLog, request.getTermOfValidity()) && !logStore.updateIfUnchanged(dwzLog)) {
+				// 已被其他请求并发修改，走单条创建的流程
+				dwzLog = this.createByHash(request.getLongUrl(), request.getTermOfValidity());
+			}
+			result.put(key, dwzLog);
+		}
+
+		// 批量插入不存在的记录
+		List<String> newKeys = new ArrayList<>(requests.size() - result.size());
+		List<DwzLogEntity> newDwzLogs = new ArrayList<>(requests.size() - result.size());
+		for (Map.Entry<String, EasyjDwzRequest> entry : requests.entrySet()) {
+			if (!result.containsKey(entry.getKey())) {
+				DwzLogEntity dwzLog = new DwzLogEntity();
+				dwzLog.setLongUrl(entry.getValue().getLongUrl());
+				dwzLog.setTermOfValidity(entry.getValue().getTermOfValidity());
+				newKeys.add(entry.getKey());
+				newDwzLogs.add(dwzLog);
+			}
+		}
+		if (newDwzLogs.isEmpty()) {
+			return result;
+		}
+
+		try {
+			List<DwzLogEntity> savedDwzLogs = logStore.saveAll(newDwzLogs);
+			for (int i = 0; i < newKeys.size(); i++) {
+				result.put(newKeys.get(i), savedDwzLogs.get(i));
+			}
+		} catch (DataIntegrityViolationException e) {
+			// 其他请求已并发创建了部分相同长链接的记录，逐条创建
+			LOGGER.debug("批量创建短链接记录时，部分长链接已被并发创建，改为逐条创建：{}", e.getMessage());
+			for (int i = 0; i < newKeys.size(); i++) {
+				request = requests.get(newKeys.get(i));
+				result.put(newKeys.get(i), this.createByHash(request.getLongUrl(), request.getTermOfValidity()));
 			}
+		}
+
+		return result;
+	}
 
-			// 查看超时时间哪个更久，就用哪个，以兼容之前请求该数据的业务
-			if (dwzLog.getTermOfValidity() != null) {
-				if (termOfValidity == null
-						|| dwzLog.getTermOfValidity().compareTo(termOfValidity) < 0) {
-					dwzLog.setTermOfValidity(null);
-					needUpdate = true;
+	/**
+	 * 基于长链接哈希值的唯一索引去重（乐观策略），创建短链接记录
+	 *
+	 * @param longUrl        长链接
+	 * @param termOfValidity 有效期截止时间
+	 * @return 短链接记录
+	 * @see DwzDedupStrategy#HASH
+	 */
+	private DwzLogEntity createByHash(String longUrl, Date termOfValidity) {
+		// 先无锁读取，重复创建的请求大多在这里直接返回
+		DwzLogEntity dwzLog = logStore.getByLongUrl(longUrl);
+		if (dwzLog == null) {
+			try {
+				return logStore.save(longUrl, termOfValidity);
+			} catch (DataIntegrityViolationException e) {
+				// 其他请求已并发创建了相同长链接的记录，加锁读取（加锁读取可以读到其他事务最新提交的数据）
+				dwzLog = logStore.getByLongUrlForUpdate(longUrl);
+				if (dwzLog == null) {
+					throw e; // 不是长链接重复导致的，如：ID重复
 				}
+				LOGGER.debug("长链接已被并发创建，复用已有记录，longUrl = {}", longUrl);
 			}
+		}
 
-			if (needUpdate) {
+		if (this.prepareForReuse(dwzLog, termOfValidity) && !logStore.updateIfUnchanged(dwzLog)) {
+			// 已被其他请求并发修改，加锁读取后再更新
+			dwzLog = logStore.getByLongUrlForUpdate(longUrl);
+			if (dwzLog == null) {
+				return logStore.save(longUrl, termOfValidity); // 已被定时任务删除
+			}
+			if (this.prepareForReuse(dwzLog, termOfValidity)) {
 				logStore.update(dwzLog);
 			}
-
-			return dwzLog;
 		}
 
-		return logStore.save(longUrl, termOfValidity);
+		return dwzLog;
 	}
 
-	@Nullable
-	@Override
-	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
-		return logStore.getLongUrlByShortUrlCode(shortUrlCode);
+	/**
+	 * 复用已有记录前，合并状态与有效期
+	 *
+	 * @param dwzLog         已有的短链接记录
+	 * @param termOfValidity 此次请求的有效期截止时间
+	 * @return 是否需要更新数据
+	 */
+	private boolean prepareForReuse(DwzLogEntity dwzLog, Date termOfValidity) {
+		// 标记是否需要更新数据
+		boolean needUpdate = false;
+
+		// 状态不为有效时，更新为有效
+		if (dwzLog.isNotStatus(DwzLogStatus.EFFECTIVE)) {
+			dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
+			needUpdate = true;
+		}
+
+		// 查看超时时间哪个更久，就用哪个，以兼容之前请求该数据的业务
+		if (dwzLog.getTermOfValidity() != null) {
+			if (termOfValidity == null
+					|| dwzLog.getTermOfValidity().compareTo(termOfValidity) < 0) {
+				dwzLog.setTermOfValidity(termOfValidity);
+				needUpdate = true;
+			}
+		}
+
+		return needUpdate;
 	}
+
+	//endregion
 }
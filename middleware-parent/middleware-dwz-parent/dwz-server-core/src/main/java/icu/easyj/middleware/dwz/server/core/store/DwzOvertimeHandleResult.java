@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store;
+
+/**
+ * 超时短链接记录的处理结果（一次分批处理的统计信息）
+ *
+ * @author wangliang181230
+ * @see IDwzLogStore#deleteOvertime(int, long, long)
+ * @see IDwzLogStore#updateOvertime(int, long, long)
+ */
+public class DwzOvertimeHandleResult {
+
+	/**
+	 * 处理的数据量
+	 */
+	private final int count;
+
+	/**
+	 * 处理的批次数
+	 */
+	private final int batchCount;
+
+	/**
+	 * 耗时（毫秒）
+	 */
+	private final long elapsedMillis;
+
+	/**
+	 * 是否已处理完成（为false时，表示因超出时间预算或线程中断而提前结束，剩余的数据将在下次处理）
+	 */
+	private final boolean finished;
+
+
+	public DwzOvertimeHandleResult(int count, int batchCount, long elapsedMillis, boolean finished) {
+		this.count = count;
+		this.batchCount = batchCount;
+		this.elapsedMillis = elapsedMillis;
+		this.finished = finished;
+	}
+
+
+	//region Getter
+
+	public int getCount() {
+		return count;
+	}
+
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	//endregion
+}
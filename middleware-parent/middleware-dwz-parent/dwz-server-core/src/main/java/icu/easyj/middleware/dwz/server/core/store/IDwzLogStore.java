@@ -15,11 +15,18 @@
  */
 package icu.easyj.middleware.dwz.server.core.store;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
 
 import icu.easyj.core.exception.NotSupportedException;
 import icu.easyj.data.store.StoreException;
 import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
@@ -42,11 +49,56 @@ public interface IDwzLogStore {
 	 * @param longUrl        长链接
 	 * @param termOfValidity 有效期截止时间（为空表示永久有效）
 	 * @return 保存是否成功
-	 * @throws StoreException 存储接口异常
+	 * @throws DataIntegrityViolationException 违反唯一约束，如：按哈希去重时，相同的长链接已存在
+	 * @throws StoreException                  存储接口异常
 	 */
 	@NonNull
 	DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity);
 
+	/**
+	 * 批量保存短链接记录
+	 * <p>
+	 * 默认实现逐条调用 {@link #save(String, Date)}，建议各存储器重写该方法：一次性获取所有ID，并批量插入。
+	 *
+	 * @param dwzLogs 短链接记录列表（只需设置 longUrl 和 termOfValidity）
+	 * @return 保存后的短链接记录列表，顺序与入参一致
+	 * @throws DataIntegrityViolationException 违反唯一约束，如：按哈希去重时，相同的长链接已存在
+	 * @throws StoreException                  存储接口异常
+	 */
+	@NonNull
+	default List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		List<DwzLogEntity> result = new ArrayList<>(dwzLogs.size());
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			result.add(this.save(dwzLog.getLongUrl(), dwzLog.getTermOfValidity()));
+		}
+		return result;
+	}
+
+	/**
+	 * 预留ID，并补全新记录的其他字段（不保存），稍后通过 {@link #insertAll(List)} 保存。主要用于写后（write-behind）模式。
+	 *
+	 * @param dwzLogs 新的短链接记录列表（只需设置 longUrl 和 termOfValidity）
+	 * @return 补全字段后的短链接记录列表（即入参本身）
+	 * @throws NotSupportedException 如果当前存储器不支持分开预留ID与保存，请抛出该异常
+	 * @throws StoreException        存储接口异常
+	 */
+	@NonNull
+	default List<DwzLogEntity> prepareAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		throw new NotSupportedException(this.getClass().getSimpleName() + " 不支持预留短链接记录的ID");
+	}
+
+	/**
+	 * 批量插入已通过 {@link #prepareAll(List)} 补全字段的短链接记录
+	 *
+	 * @param dwzLogs 短链接记录列表
+	 * @throws NotSupportedException           如果当前存储器不支持分开预留ID与保存，请抛出该异常
+	 * @throws DataIntegrityViolationException 违反唯一约束，如：按哈希去重时，相同的长链接已存在
+	 * @throws StoreException                  存储接口异常
+	 */
+	default void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		throw new NotSupportedException(this.getClass().getSimpleName() + " 不支持插入已预留ID的短链接记录");
+	}
+
 	/**
 	 * 根据长链接，获取有效的短链接记录数据。主要用于避免同一长链接重复创建多条数据。
 	 *
@@ -57,6 +109,41 @@ public interface IDwzLogStore {
 	@Nullable
 	DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl);
 
+	/**
+	 * 根据长链接，获取短链接记录数据（不加锁）。用于乐观去重，未找到或并发冲突时，再调用 {@link #getByLongUrlForUpdate(String)}。
+	 *
+	 * @param longUrl 长链接
+	 * @return 短链接记录
+	 * @throws StoreException 存储接口异常
+	 * @see DwzDedupStrategy#HASH
+	 */
+	@Nullable
+	default DwzLogEntity getByLongUrl(@NonNull String longUrl) {
+		return this.getByLongUrlForUpdate(longUrl);
+	}
+
+	/**
+	 * 根据多个长链接，批量获取短链接记录数据（不加锁）
+	 * <p>
+	 * 默认实现逐条调用 {@link #getByLongUrl(String)}，建议各存储器重写该方法。
+	 *
+	 * @param longUrls 长链接集合
+	 * @return 已存在的短链接记录列表（顺序不定，不存在的长链接没有对应的记录）
+	 * @throws StoreException 存储接口异常
+	 */
+	@NonNull
+	default List<DwzLogEntity> getByLongUrls(@NonNull Collection<String> longUrls) {
+		List<DwzLogEntity> result = new ArrayList<>();
+		DwzLogEntity dwzLog;
+		for (String longUrl : longUrls) {
+			dwzLog = this.getByLongUrl(longUrl);
+			if (dwzLog != null) {
+				result.add(dwzLog);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * 更新成功
 	 *
@@ -65,6 +152,18 @@ public interface IDwzLogStore {
 	 */
 	void update(@NonNull DwzLogEntity dwzLog);
 
+	/**
+	 * 乐观更新：只有数据版本号与 {@link DwzLogEntity#getVersion()} 一致时才更新，更新成功后版本号加1
+	 *
+	 * @param dwzLog 短链接记录
+	 * @return 是否更新成功，返回false表示数据已被其他请求修改
+	 * @throws StoreException 存储接口异常
+	 */
+	default boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		this.update(dwzLog);
+		return true;
+	}
+
 	/**
 	 * 根据短链接码，获取长链接
 	 *
@@ -75,6 +174,57 @@ public interface IDwzLogStore {
 	@Nullable
 	String getLongUrlByShortUrlCode(@NonNull String shortUrlCode);
 
+	/**
+	 * 根据短链接码，获取有效的短链接记录（至少包含：shortUrlCode、longUrl、termOfValidity）。主要用于缓存，以便根据有效期设置缓存的过期时间。
+	 * <p>
+	 * 默认实现基于 {@link #getLongUrlByShortUrlCode(String)}，无法获取有效期，建议各存储器重写该方法。
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @return 短链接记录
+	 * @throws StoreException 存储接口异常
+	 */
+	@Nullable
+	default DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		String longUrl = this.getLongUrlByShortUrlCode(shortUrlCode);
+		if (longUrl == null) {
+			return null;
+		}
+
+		DwzLogEntity dwzLog = new DwzLogEntity();
+		dwzLog.setShortUrlCode(shortUrlCode);
+		dwzLog.setLongUrl(longUrl);
+		dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
+		return dwzLog;
+	}
+
+	/**
+	 * 根据ID，获取短链接记录（不论状态）
+	 * <p>
+	 * 短链接码由ID转换而来，可通过 {@link icu.easyj.core.util.shortcode.IShortCodeService#toId(String)} 转换回ID，再根据主键查询，避免字符串索引的查询开销。
+	 *
+	 * @param id ID
+	 * @return 短链接记录
+	 * @throws NotSupportedException 如果当前存储器无法根据ID获取记录，请抛出该异常
+	 * @throws StoreException        存储接口异常
+	 */
+	@Nullable
+	default DwzLogEntity getById(long id) {
+		throw new NotSupportedException(this.getClass().getSimpleName() + " 不支持根据ID获取短链接记录");
+	}
+
+	/**
+	 * 遍历所有有效的短链接码。主要用于重建布隆过滤器等需要全量短链接码的场景。
+	 * <p>
+	 * 遍历期间新增的记录，可能遍历到，也可能遍历不到。
+	 *
+	 * @param consumer 短链接码的消费者
+	 * @throws NotSupportedException 如果当前存储器无法遍历短链接码，请抛出该异常
+	 * @throws StoreException        存储接口异常
+	 */
+	default void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		throw new NotSupportedException(this.getClass().getSimpleName() + " 不支持遍历短链接码");
+	}
+
 	/**
 	 * 获取当前存储器中保存的短链接记录的最大ID值
 	 *
@@ -84,6 +234,18 @@ public interface IDwzLogStore {
 	@Nullable
 	Long getMaxId();
 
+	/**
+	 * 补全旧数据的长链接哈希值（添加 `long_url_hash` 字段后，用于处理升级前创建的数据）
+	 *
+	 * @param batchSize 每批处理的数据量
+	 * @return 此次补全的数据量
+	 * @throws NotSupportedException 如果当前存储器不需要或不支持补全哈希值，请抛出该异常
+	 * @see DwzDedupStrategy#HASH
+	 */
+	default int fillLongUrlHash(int batchSize) {
+		throw new NotSupportedException(this.getClass().getSimpleName() + " 不支持补全长链接哈希值");
+	}
+
 	/**
 	 * 删除超时的短链接数据
 	 *
@@ -97,4 +259,38 @@ public interface IDwzLogStore {
 	 * @return 此次更新的数据量
 	 */
 	int updateOvertime();
+
+	/**
+	 * 分批删除超时的短链接数据
+	 * <p>
+	 * 每批数据单独执行（单独提交），批次之间暂停一段时间，避免长时间锁定大量数据、影响重定向等在线请求。
+	 * 默认实现：不分批，直接调用 {@link #deleteOvertime()}。
+	 *
+	 * @param batchSize        每批数据量
+	 * @param pauseMillis      批次之间的暂停毫秒数（小于等于0时不暂停）
+	 * @param timeBudgetMillis 此次处理的时间预算（毫秒），超出后不再处理下一批，剩余数据留到下次处理（小于等于0时不限制）
+	 * @return 此次处理的结果
+	 */
+	default DwzOvertimeHandleResult deleteOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		long startTime = System.currentTimeMillis();
+		int count = this.deleteOvertime();
+		return new DwzOvertimeHandleResult(count, 1, System.currentTimeMillis() - startTime, true);
+	}
+
+	/**
+	 * 分批更新超时的短链接数据状态
+	 * <p>
+	 * 每批数据单独执行（单独提交），批次之间暂停一段时间，避免长时间锁定大量数据、影响重定向等在线请求。
+	 * 默认实现：不分批，直接调用 {@link #updateOvertime()}。
+	 *
+	 * @param batchSize        每批数据量
+	 * @param pauseMillis      批次之间的暂停毫秒数（小于等于0时不暂停）
+	 * @param timeBudgetMillis 此次处理的时间预算（毫秒），超出后不再处理下一批，剩余数据留到下次处理（小于等于0时不限制）
+	 * @return 此次处理的结果
+	 */
+	default DwzOvertimeHandleResult updateOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		long startTime = System.currentTimeMillis();
+		int count = this.updateOvertime();
+		return new DwzOvertimeHandleResult(count, 1, System.currentTimeMillis() - startTime, true);
+	}
 }
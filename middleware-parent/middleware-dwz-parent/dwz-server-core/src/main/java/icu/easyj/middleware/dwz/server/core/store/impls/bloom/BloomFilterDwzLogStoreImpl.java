@@ -0,0 +1,568 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.bloom;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.exception.NotSupportedException;
+import icu.easyj.core.util.shortcode.IShortCodeService;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerBloomFilterConfig;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 带布隆过滤器的 {@link IDwzLogStore}（包装其他存储器的装饰器）
+ * <p>
+ * 布隆过滤器中保存所有有效的短链接码，{@link #getLongUrlByShortUrlCode(String)} 和 {@link #getByShortUrlCode(String)} 时，
+ * 过滤器判断一定不存在的短链接码直接返回null，不再查询存储器，避免扫描器和爬虫随机访问的短链接码穿透到数据库。
+ * <p>
+ * 实现说明：<br>
+ * 1）启动后在后台线程中从存储器构建过滤器，构建完成之前，所有请求都直接查询存储器；<br>
+ * 2）保存和更新记录时，将短链接码添加到过滤器中，存在事务时，事务提交后再添加一次，避免与重建过滤器并发时漏掉；<br>
+ * 3）布隆过滤器不支持删除元素，已删除的短链接码只会导致误判（继续查询存储器），由定时重建清除；<br>
+ * 4）重建开始时记录存储器中的最大ID，短链接码对应的ID大于 {@code 最大ID - 安全窗口} 时，视为可能存在，继续查询存储器。
+ * 所以多实例部署时，其他实例新创建的短链接码不会被误拒，过滤器只拦截ID不超过该范围的短链接码；<br>
+ * 5）安全窗口用于覆盖重建开始时其他实例已取得ID、但尚未提交的记录（包括号段缓存中尚未使用的ID），
+ * 这些记录的ID可能小于最大ID，但提交时间晚于重建。安全窗口应大于 {@code 实例数 × 号段步长 + 并发中的事务数}；
+ * ID不按生成时间整体递增时（如：雪花算法的多个节点），安全窗口需覆盖各节点之间的ID差距，否则建议不启用过滤器；<br>
+ * 6）被包装的存储器不支持获取最大ID时，所有短链接码都由过滤器判断，只建议在单实例部署时使用。
+ *
+ * @author wangliang181230
+ * @see DwzServerBloomFilterConfig
+ * @see ScalableBloomFilter
+ */
+public class BloomFilterDwzLogStoreImpl implements IDwzLogStore, AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterDwzLogStoreImpl.class);
+
+
+	/**
+	 * 被包装的存储器
+	 */
+	private final IDwzLogStore logStore;
+
+	/**
+	 * 预期元素数
+	 */
+	private final long expectedInsertions;
+
+	/**
+	 * 误判率
+	 */
+	private final double fpp;
+
+	/**
+	 * 最大内存（字节）
+	 */
+	private final long maxMemoryBytes;
+
+	/**
+	 * 安全窗口：ID大于 {@code 重建开始时的最大ID - 安全窗口} 的短链接码，不由过滤器判断
+	 */
+	private final long safetyWindow;
+
+	/**
+	 * 短链接码服务，用于将短链接码转换为ID
+	 */
+	private final IShortCodeService shortCodeService;
+
+	/**
+	 * 重建过滤器的定时任务执行器
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * 当前使用的过滤器，为空表示还未构建完成
+	 */
+	private volatile ScalableBloomFilter filter;
+
+	/**
+	 * 当前过滤器重建开始时的最大ID，ID大于该值的短链接码视为可能存在（必须在 {@link #filter} 之后赋值，在其之前读取）
+	 */
+	private volatile long filterMaxId = Long.MAX_VALUE;
+
+	/**
+	 * 正在重建的过滤器，重建期间新增的短链接码同时添加到该过滤器中
+	 */
+	private volatile ScalableBloomFilter building;
+
+	//region 统计数据
+
+	private final LongAdder rejectionCount = new LongAdder();
+	private final LongAdder passCount = new LongAdder();
+	private final LongAdder falsePositiveCount = new LongAdder();
+	private volatile long rebuildCount;
+	private volatile long lastRebuildMillis;
+
+	//endregion
+
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @NonNull IShortCodeService shortCodeService,
+									  long expectedInsertions, double fpp, long maxMemoryBytes, long rebuildIntervalMillis,
+									  long safetyWindow) {
+		Assert.notNull(logStore, "'logStore' must not be null");
+		Assert.notNull(shortCodeService, "'shortCodeService' must not be null");
+		Assert.isTrue(expectedInsertions > 0, "'expectedInsertions' must be greater than 0");
+		Assert.isTrue(fpp > 0 && fpp < 1, "'fpp' must be between 0 and 1");
+		Assert.isTrue(maxMemoryBytes > 0, "'maxMemoryBytes' must be greater than 0");
+		Assert.isTrue(safetyWindow >= 0, "'safetyWindow' must not be less than 0");
+
+		this.logStore = logStore;
+		this.expectedInsertions = expectedInsertions;
+		this.fpp = fpp;
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.safetyWindow = safetyWindow;
+		this.shortCodeService = shortCodeService;
+
+		this.scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("DwzBloomFilter-", true));
+		this.scheduler.execute(this::runRebuild);
+		if (rebuildIntervalMillis > 0) {
+			this.scheduler.scheduleWithFixedDelay(this::runRebuild, rebuildIntervalMillis, rebuildIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @NonNull IShortCodeService shortCodeService,
+									  long expectedInsertions, double fpp, long maxMemoryBytes, long rebuildIntervalMillis) {
+		this(logStore, shortCodeService, expectedInsertions, fpp, maxMemoryBytes, rebuildIntervalMillis,
+				DwzServerBloomFilterConfig.DEFAULT_SAFETY_WINDOW);
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, long expectedInsertions, double fpp, long maxMemoryBytes,
+									  long rebuildIntervalMillis, long safetyWindow) {
+		this(logStore, ShortCodeUtils.DEFAULT, expectedInsertions, fpp, maxMemoryBytes, rebuildIntervalMillis, safetyWindow);
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, long expectedInsertions, double fpp, long maxMemoryBytes,
+									  long rebuildIntervalMillis) {
+		this(logStore, ShortCodeUtils.DEFAULT, expectedInsertions, fpp, maxMemoryBytes, rebuildIntervalMillis);
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @NonNull IShortCodeService shortCodeService,
+									  @NonNull DwzServerBloomFilterConfig config) {
+		this(logStore, shortCodeService, config.getExpectedInsertions(), config.getFpp(), config.getMaxMemoryBytes(),
+				config.getRebuildIntervalMillis(), config.getSafetyWindow());
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @NonNull DwzServerBloomFilterConfig config) {
+		this(logStore, ShortCodeUtils.DEFAULT, config);
+	}
+
+	public BloomFilterDwzLogStoreImpl(@NonNull IDwzLogStore logStore) {
+		this(logStore, new DwzServerBloomFilterConfig());
+	}
+
+
+	//region Override IDwzLogStore
+
+	@NonNull
+	@Override
+	public DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity) {
+		DwzLogEntity dwzLog = this.logStore.save(longUrl, termOfValidity);
+		this.putOnCommit(Collections.singletonList(dwzLog));
+		return dwzLog;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		List<DwzLogEntity> result = this.logStore.saveAll(dwzLogs);
+		this.putOnCommit(result);
+		return result;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> prepareAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		List<DwzLogEntity> result = this.logStore.prepareAll(dwzLogs);
+		// 插入之前就添加到过滤器中，插入失败时只会导致误判
+		this.putAll(result);
+		return result;
+	}
+
+	@Override
+	public void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		this.logStore.insertAll(dwzLogs);
+		this.putOnCommit(dwzLogs);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl) {
+		return this.logStore.getByLongUrlForUpdate(longUrl);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrl(@NonNull String longUrl) {
+		return this.logStore.getByLongUrl(longUrl);
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> getByLongUrls(@NonNull Collection<String> longUrls) {
+		return this.logStore.getByLongUrls(longUrls);
+	}
+
+	@Override
+	public void update(@NonNull DwzLogEntity dwzLog) {
+		this.logStore.update(dwzLog);
+		// 已过期的记录续期后重新生效，需要添加到过滤器中
+		this.putOnCommit(Collections.singletonList(dwzLog));
+	}
+
+	@Override
+	public boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		if (this.logStore.updateIfUnchanged(dwzLog)) {
+			this.putOnCommit(Collections.singletonList(dwzLog));
+			return true;
+		}
+		return false;
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		ScalableBloomFilter filter = this.getFilterFor(shortUrlCode);
+		if (filter != null && !filter.mightContain(shortUrlCode)) {
+			this.rejectionCount.increment();
+			return null;
+		}
+
+		String longUrl = this.logStore.getLongUrlByShortUrlCode(shortUrlCode);
+		this.afterPass(filter, longUrl == null);
+		return longUrl;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		ScalableBloomFilter filter = this.getFilterFor(shortUrlCode);
+		if (filter != null && !filter.mightContain(shortUrlCode)) {
+			this.rejectionCount.increment();
+			return null;
+		}
+
+		DwzLogEntity dwzLog = this.logStore.getByShortUrlCode(shortUrlCode);
+		this.afterPass(filter, dwzLog == null);
+		return dwzLog;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		return this.logStore.getById(id);
+	}
+
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		this.logStore.forEachShortUrlCode(consumer);
+	}
+
+	@Nullable
+	@Override
+	public Long getMaxId() {
+		return this.logStore.getMaxId();
+	}
+
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		return this.logStore.fillLongUrlHash(batchSize);
+	}
+
+	@Override
+	public int deleteOvertime() {
+		return this.logStore.deleteOvertime();
+	}
+
+	@Override
+	public int updateOvertime() {
+		return this.logStore.updateOvertime();
+	}
+
+	@Override
+	public DwzOvertimeHandleResult deleteOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.logStore.deleteOvertime(batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+	@Override
+	public DwzOvertimeHandleResult updateOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.logStore.updateOvertime(batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+	//endregion
+
+
+	//region Override AutoCloseable
+
+	/**
+	 * 停止重建过滤器的定时任务，并关闭被包装的存储器（如果需要关闭的话）
+	 *
+	 * @throws Exception 关闭失败
+	 */
+	@Override
+	public void close() throws Exception {
+		this.scheduler.shutdownNow();
+		if (this.logStore instanceof AutoCloseable) {
+			((AutoCloseable)this.logStore).close();
+		}
+	}
+
+	//endregion
+
+
+	//region Public
+
+	/**
+	 * 从存储器中重建过滤器（遍历所有有效的短链接码），重建完成后替换当前的过滤器
+	 */
+	public synchronized void rebuild() {
+		long startTime = System.currentTimeMillis();
+
+		// 先记录最大ID，再遍历存储器：之后创建的记录，ID都大于该值（或在重建期间被添加到了新的过滤器中）
+		long maxId = this.getLogStoreMaxId();
+
+		ScalableBloomFilter newFilter = new ScalableBloomFilter(this.expectedInsertions, this.fpp, this.maxMemoryBytes);
+		this.building = newFilter;
+		try {
+			this.logStore.forEachShortUrlCode(newFilter::put);
+			// 先替换过滤器，再替换最大ID（读取时顺序相反），保证不会用旧的过滤器判断新的最大ID范围内的短链接码
+			this.filter = newFilter;
+			this.filterMaxId = maxId;
+		} finally {
+			this.building = null;
+		}
+
+		this.rebuildCount++;
+		this.lastRebuildMillis = System.currentTimeMillis() - startTime;
+		LOGGER.info("重建短链接码的布隆过滤器完成，元素数：{}，级数：{}，内存：{} 字节，预估误判率：{}，耗时：{} ms",
+				newFilter.getApproximateCount(), newFilter.getStageCount(), newFilter.getMemoryBytes(),
+				newFilter.getExpectedFpp(), this.lastRebuildMillis);
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 获取用于判断短链接码的过滤器
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @return 过滤器，为空表示不使用过滤器（还未构建完成，或短链接码的ID在重建开始时的最大ID附近的安全窗口内，或大于最大ID）
+	 */
+	@Nullable
+	private ScalableBloomFilter getFilterFor(String shortUrlCode) {
+		long maxId = this.filterMaxId;
+		ScalableBloomFilter filter = this.filter;
+		if (filter != null && maxId != Long.MAX_VALUE) {
+			long id;
+			try {
+				id = this.shortCodeService.toId(shortUrlCode);
+			} catch (IllegalArgumentException e) {
+				return filter; // 无效的短链接码，交由过滤器判断
+			}
+			if (id > maxId - this.safetyWindow) {
+				return null; // 重建之后提交的短链接码（包括其他实例在重建之前取得ID的记录），可能存在
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * 获取存储器中的最大ID
+	 *
+	 * @return 最大ID，被包装的存储器不支持时，返回 {@link Long#MAX_VALUE}，即：所有短链接码都由过滤器判断
+	 */
+	private long getLogStoreMaxId() {
+		try {
+			Long maxId = this.logStore.getMaxId();
+			return maxId != null ? maxId : 0L;
+		} catch (NotSupportedException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private void runRebuild() {
+		try {
+			this.rebuild();
+		} catch (RuntimeException e) {
+			LOGGER.warn("重建短链接码的布隆过滤器失败，{}：{}", (this.filter == null ? "所有请求将直接查询存储器" : "继续使用旧的过滤器"), e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 通过过滤器后，统计误判次数
+	 *
+	 * @param filter   过滤器，为空表示还未构建完成
+	 * @param notFound 存储器中是否不存在
+	 */
+	private void afterPass(@Nullable ScalableBloomFilter filter, boolean notFound) {
+		if (filter != null) {
+			this.passCount.increment();
+			if (notFound) {
+				this.falsePositiveCount.increment();
+			}
+		}
+	}
+
+	/**
+	 * 将短链接码添加到当前的过滤器和正在重建的过滤器中
+	 *
+	 * @param dwzLogs 短链接记录列表
+	 */
+	private void putAll(Collection<DwzLogEntity> dwzLogs) {
+		// 先读取正在重建的过滤器，再读取当前的过滤器（与重建时的赋值顺序相反），保证至少添加到重建后的过滤器中
+		ScalableBloomFilter building = this.building;
+		ScalableBloomFilter filter = this.filter;
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			if (filter != null) {
+				filter.put(dwzLog.getShortUrlCode());
+			}
+			if (building != null) {
+				building.put(dwzLog.getShortUrlCode());
+			}
+		}
+	}
+
+	/**
+	 * 将短链接码添加到过滤器中，存在事务时，事务提交后再添加一次
+	 * <p>
+	 * 重建过滤器时，提交前添加的短链接码，可能只添加到了旧的过滤器中，而遍历存储器时又读取不到未提交的记录，
+	 * 提交后再添加一次，保证新的过滤器中不会漏掉。
+	 *
+	 * @param dwzLogs 短链接记录列表
+	 */
+	private void putOnCommit(Collection<DwzLogEntity> dwzLogs) {
+		this.putAll(dwzLogs);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					putAll(dwzLogs);
+				}
+			});
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzLogStore getLogStore() {
+		return logStore;
+	}
+
+	/**
+	 * @return 过滤器是否已构建完成
+	 */
+	public boolean isReady() {
+		return this.filter != null;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 被过滤器直接拒绝（未查询存储器）的次数
+	 */
+	public long getRejectionCount() {
+		return this.rejectionCount.sum();
+	}
+
+	/**
+	 * @return 通过过滤器（继续查询存储器）的次数，不包含过滤器构建完成之前的请求
+	 */
+	public long getPassCount() {
+		return this.passCount.sum();
+	}
+
+	/**
+	 * @return 通过过滤器、但存储器中不存在的次数（包含误判和已删除的短链接码）
+	 */
+	public long getFalsePositiveCount() {
+		return this.falsePositiveCount.sum();
+	}
+
+	/**
+	 * @return 过滤器中的元素数（近似值）
+	 */
+	public long getApproximateCount() {
+		ScalableBloomFilter filter = this.filter;
+		return filter != null ? filter.getApproximateCount() : 0L;
+	}
+
+	/**
+	 * @return 过滤器占用的内存（字节）
+	 */
+	public long getMemoryBytes() {
+		ScalableBloomFilter filter = this.filter;
+		return filter != null ? filter.getMemoryBytes() : 0L;
+	}
+
+	/**
+	 * @return 根据元素数估算的当前误判率
+	 */
+	public double getExpectedFpp() {
+		ScalableBloomFilter filter = this.filter;
+		return filter != null ? filter.getExpectedFpp() : 1.0D;
+	}
+
+	/**
+	 * @return 过滤器是否因超出最大内存而停止扩容
+	 */
+	public boolean isSaturated() {
+		ScalableBloomFilter filter = this.filter;
+		return filter != null && filter.isSaturated();
+	}
+
+	/**
+	 * @return 重建过滤器的次数
+	 */
+	public long getRebuildCount() {
+		return rebuildCount;
+	}
+
+	/**
+	 * @return 最近一次重建过滤器的耗时（毫秒）
+	 */
+	public long getLastRebuildMillis() {
+		return lastRebuildMillis;
+	}
+
+	//endregion
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.bloom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * 可扩容的布隆过滤器（Scalable Bloom Filter）
+ * <p>
+ * 由多级布隆过滤器组成：当前级的元素数达到容量后，新增一级容量翻倍、误判率减半的过滤器，
+ * 各级误判率之和收敛于初始误判率的2倍，因此第一级的误判率取目标误判率的一半。
+ * 判断元素是否存在时，任意一级命中即视为可能存在；所有级都未命中，则一定不存在。
+ * <p>
+ * 实现说明：<br>
+ * 1）位数组基于 {@link AtomicLongArray}，写入通过CAS无锁置位，读取无锁；<br>
+ * 2）每个元素只计算两个64位哈希值，第i个哈希函数取 {@code h1 + i * h2}（Kirsch-Mitzenmacher），避免多次遍历字符串；<br>
+ * 3）扩容后的总内存将超过最大内存时，不再扩容，继续写入最后一级，误判率随之升高，但不会漏判。
+ *
+ * @author wangliang181230
+ */
+class ScalableBloomFilter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ScalableBloomFilter.class);
+
+	/**
+	 * 每级容量的增长倍数
+	 */
+	private static final int GROWTH_FACTOR = 2;
+
+	/**
+	 * 每级误判率的收紧比例
+	 */
+	private static final double TIGHTENING_RATIO = 0.5D;
+
+	/**
+	 * 两个哈希值的初始值与乘数（FNV-1a的变体，分别使用不同的参数）
+	 */
+	private static final long SEED1 = 0xcbf29ce484222325L;
+	private static final long SEED2 = 0x9ae16a3b2f90404fL;
+	private static final long PRIME1 = 0x100000001b3L;
+	private static final long PRIME2 = 0xc2b2ae3d27d4eb4fL;
+
+
+	/**
+	 * 第一级的误判率
+	 */
+	private final double initialFpp;
+
+	/**
+	 * 最大内存（字节）
+	 */
+	private final long maxMemoryBytes;
+
+	/**
+	 * 各级过滤器（扩容时整体替换）
+	 */
+	private volatile Stage[] stages;
+
+	/**
+	 * 是否因超出最大内存而停止扩容
+	 */
+	private volatile boolean saturated;
+
+
+	ScalableBloomFilter(long initialCapacity, double fpp, long maxMemoryBytes) {
+		Assert.isTrue(initialCapacity > 0, "'initialCapacity' must be greater than 0");
+		Assert.isTrue(fpp > 0 && fpp < 1, "'fpp' must be between 0 and 1");
+		Assert.isTrue(maxMemoryBytes > 0, "'maxMemoryBytes' must be greater than 0");
+
+		this.initialFpp = fpp * (1 - TIGHTENING_RATIO);
+		this.maxMemoryBytes = maxMemoryBytes;
+
+		// 第一级超出最大内存时，缩小第一级的容量
+		Stage first = new Stage(initialCapacity, this.initialFpp);
+		if (first.memoryBytes() > maxMemoryBytes) {
+			long capacity = Math.max(1L, (long)(initialCapacity * ((double)maxMemoryBytes / first.memoryBytes())));
+			first = new Stage(capacity, this.initialFpp);
+			LOGGER.warn("布隆过滤器的预期元素数 {} 所需的内存超出了最大内存 {} 字节，第一级的容量缩小为 {}", initialCapacity, maxMemoryBytes, capacity);
+		}
+		this.stages = new Stage[]{first};
+	}
+
+
+	/**
+	 * 判断元素是否可能存在
+	 *
+	 * @param key 元素
+	 * @return 返回false表示一定不存在；返回true表示可能存在
+	 */
+	boolean mightContain(String key) {
+		long h1 = hash(key, SEED1, PRIME1);
+		long h2 = hash(key, SEED2, PRIME2);
+		for (Stage stage : this.stages) {
+			if (stage.mightContain(h1, h2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 添加元素
+	 *
+	 * @param key 元素
+	 * @return 是否为新元素（已可能存在的元素不会重复添加，避免占用容量）
+	 */
+	boolean put(String key) {
+		long h1 = hash(key, SEED1, PRIME1);
+		long h2 = hash(key, SEED2, PRIME2);
+
+		Stage[] stages = this.stages;
+		for (Stage stage : stages) {
+			if (stage.mightContain(h1, h2)) {
+				return false;
+			}
+		}
+
+		Stage last = stages[stages.length - 1];
+		last.put(h1, h2);
+		if (last.count.incrementAndGet() == last.capacity) {
+			this.grow(last);
+		}
+		return true;
+	}
+
+
+	//region 统计数据
+
+	/**
+	 * @return 级数
+	 */
+	int getStageCount() {
+		return this.stages.length;
+	}
+
+	/**
+	 * @return 已添加的元素数（近似值）
+	 */
+	long getApproximateCount() {
+		long count = 0;
+		for (Stage stage : this.stages) {
+			count += stage.count.get();
+		}
+		return count;
+	}
+
+	/**
+	 * @return 占用的内存（字节）
+	 */
+	long getMemoryBytes() {
+		long bytes = 0;
+		for (Stage stage : this.stages) {
+			bytes += stage.memoryBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return 根据各级的元素数估算的当前误判率
+	 */
+	double getExpectedFpp() {
+		double notFalsePositive = 1.0D;
+		for (Stage stage : this.stages) {
+			notFalsePositive *= 1 - stage.expectedFpp();
+		}
+		return 1 - notFalsePositive;
+	}
+
+	/**
+	 * @return 是否因超出最大内存而停止扩容
+	 */
+	boolean isSaturated() {
+		return this.saturated;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 扩容：新增一级过滤器
+	 *
+	 * @param full 已写满的一级
+	 */
+	private synchronized void grow(Stage full) {
+		Stage[] stages = this.stages;
+		if (this.saturated || stages[stages.length - 1] != full) {
+			return;
+		}
+
+		Stage next = new Stage(full.capacity * GROWTH_FACTOR, full.fpp * TIGHTENING_RATIO);
+		if (this.getMemoryBytes() + next.memoryBytes() > this.maxMemoryBytes) {
+			this.saturated = true;
+			LOGGER.warn("布隆过滤器的内存即将超出最大内存 {} 字节，停止扩容，误判率将随元素数的增加而升高，请调大最大内存或预期元素数。", this.maxMemoryBytes);
+			return;
+		}
+
+		Stage[] newStages = new Stage[stages.length + 1];
+		System.arraycopy(stages, 0, newStages, 0, stages.length);
+		newStages[stages.length] = next;
+		this.stages = newStages;
+	}
+
+	private static long hash(String key, long seed, long prime) {
+		long h = seed;
+		for (int i = 0; i < key.length(); i++) {
+			h = (h ^ key.charAt(i)) * prime;
+		}
+		// MurmurHash3 的 fmix64，使各位充分混合
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	//endregion
+
+
+	/**
+	 * 一级布隆过滤器
+	 */
+	private static final class Stage {
+
+		/**
+		 * 容量（预期元素数）
+		 */
+		private final long capacity;
+
+		/**
+		 * 目标误判率
+		 */
+		private final double fpp;
+
+		/**
+		 * 位数（64的倍数）
+		 */
+		private final long bitSize;
+
+		/**
+		 * 哈希函数个数
+		 */
+		private final int hashCount;
+
+		/**
+		 * 位数组
+		 */
+		private final AtomicLongArray words;
+
+		/**
+		 * 已添加的元素数
+		 */
+		private final AtomicLong count = new AtomicLong();
+
+
+		private Stage(long capacity, double fpp) {
+			// 最优位数：m = -n * ln(p) / (ln2)^2；最优哈希函数个数：k = m / n * ln2
+			long bits = (long)Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+			long wordCount = Math.max(1L, (bits + 63) >>> 6);
+			Assert.isTrue(wordCount <= Integer.MAX_VALUE, "布隆过滤器单级的位数过大，请减小预期元素数或调大误判率");
+
+			this.capacity = capacity;
+			this.fpp = fpp;
+			this.bitSize = wordCount << 6;
+			this.hashCount = Math.max(1, (int)Math.round((double)this.bitSize / capacity * Math.log(2)));
+			this.words = new AtomicLongArray((int)wordCount);
+		}
+
+		private boolean mightContain(long h1, long h2) {
+			long combined = h1;
+			long index;
+			for (int i = 0; i < this.hashCount; i++) {
+				index = (combined & Long.MAX_VALUE) % this.bitSize;
+				if ((this.words.get((int)(index >>> 6)) & (1L << index)) == 0) {
+					return false;
+				}
+				combined += h2;
+			}
+			return true;
+		}
+
+		private void put(long h1, long h2) {
+			long combined = h1;
+			long index, mask, word;
+			int wordIndex;
+			for (int i = 0; i < this.hashCount; i++) {
+				index = (combined & Long.MAX_VALUE) % this.bitSize;
+				wordIndex = (int)(index >>> 6);
+				mask = 1L << index;
+				do {
+					word = this.words.get(wordIndex);
+				} while ((word & mask) == 0 && !this.words.compareAndSet(wordIndex, word, word | mask));
+				combined += h2;
+			}
+		}
+
+		private long memoryBytes() {
+			return (long)this.words.length() << 3;
+		}
+
+		/**
+		 * @return 根据当前元素数估算的误判率：(1 - e^(-kn/m))^k
+		 */
+		private double expectedFpp() {
+			return Math.pow(1 - Math.exp(-(double)this.hashCount * this.count.get() / this.bitSize), this.hashCount);
+		}
+	}
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import icu.easyj.core.clock.ClockManager;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerCacheConfig;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * 带重定向缓存的 {@link IDwzLogStore}（包装其他存储器的装饰器）
+ * <p>
+ * 缓存 {@link #getLongUrlByShortUrlCode(String)} 的结果，其他方法直接调用被包装的存储器，并在数据变更时清除相关缓存。
+ * <p>
+ * 实现说明：<br>
+ * 1）读取缓存无锁，只有写入和清除缓存时才加锁（只在未命中缓存时写入，不在热点路径上）；<br>
+ * 2）缓存已满时，采用类似TinyLFU的准入策略：用 {@link FrequencySketch} 估算访问频率，
+ * 新数据的访问频率高于最早写入的数据时才淘汰它，否则放弃缓存新数据，并将旧数据移到队尾，避免热点数据被偶发的访问挤出缓存；<br>
+ * 3）缓存的有效时长不超过短链接记录的有效期，已过期的记录视为不存在；<br>
+ * 4）不存在的短链接码也会缓存一小段时间，避免无效的短链接码频繁穿透到存储器；<br>
+ * 5）清除缓存时，只递增短链接码所在分段的版本号，未命中时从存储器读取的数据，只有在同一分段的版本号未变时才写入缓存，
+ * 避免大量创建短链接时，并发读取的数据全部被丢弃；<br>
+ * 6）多实例部署时，其他实例的数据变更不会清除当前实例的缓存，数据最多延迟一个缓存有效时长生效。
+ *
+ * @author wangliang181230
+ * @see DwzServerCacheConfig
+ */
+public class CachingDwzLogStoreImpl implements IDwzLogStore, AutoCloseable {
+
+	/**
+	 * 清除缓存版本号的分段数（2的幂）
+	 */
+	private static final int VERSION_STRIPES = 1024;
+
+
+	/**
+	 * 被包装的存储器
+	 */
+	private final IDwzLogStore logStore;
+
+	/**
+	 * 最大缓存数量
+	 */
+	private final int maximumSize;
+
+	/**
+	 * 缓存有效时长（毫秒）
+	 */
+	private final long ttlMillis;
+
+	/**
+	 * 不存在的短链接码的缓存有效时长（毫秒）
+	 */
+	private final long negativeTtlMillis;
+
+	/**
+	 * 缓存Map
+	 */
+	private final Map<String, CacheEntry> cacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 缓存的写入顺序，用于选择淘汰的候选数据（只在持有 {@link #lock} 时访问）
+	 */
+	private final Set<String> writeOrder = new LinkedHashSet<>();
+
+	/**
+	 * 访问频率估算器
+	 */
+	private final FrequencySketch sketch;
+
+	/**
+	 * 写入和清除缓存的锁
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * 各分段清除缓存的次数（版本号），用于丢弃清除缓存前从存储器中读取的数据
+	 */
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+	//region 统计数据
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder negativeHitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder rejectionCount = new LongAdder();
+
+	//endregion
+
+
+	public CachingDwzLogStoreImpl(@NonNull IDwzLogStore logStore, int maximumSize, long ttlMillis, long negativeTtlMillis) {
+		Assert.notNull(logStore, "'logStore' must not be null");
+		Assert.isTrue(maximumSize > 0, "'maximumSize' must be greater than 0");
+		Assert.isTrue(ttlMillis > 0, "'ttlMillis' must be greater than 0");
+
+		this.logStore = logStore;
+		this.maximumSize = maximumSize;
+		this.ttlMillis = ttlMillis;
+		this.negativeTtlMillis = negativeTtlMillis;
+		this.sketch = new FrequencySketch(maximumSize);
+	}
+
+	public CachingDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @NonNull DwzServerCacheConfig config) {
+		this(logStore, config.getMaximumSize(), config.getTtlMillis(), config.getNegativeTtlMillis());
+	}
+
+	public CachingDwzLogStoreImpl(@NonNull IDwzLogStore logStore) {
+		this(logStore, new DwzServerCacheConfig());
+	}
+
+
+	//region Override IDwzLogStore
+
+	@NonNull
+	@Override
+	public DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity) {
+		DwzLogEntity dwzLog = this.logStore.save(longUrl, termOfValidity);
+		// 清除该短链接码可能存在的不存在缓存
+		this.invalidateOnCommit(dwzLog.getShortUrlCode());
+		return dwzLog;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		List<DwzLogEntity> result = this.logStore.saveAll(dwzLogs);
+
+		// 清除这些短链接码可能存在的不存在缓存
+		List<String> shortUrlCodes = new ArrayList<>(result.size());
+		for (DwzLogEntity dwzLog : result) {
+			shortUrlCodes.add(dwzLog.getShortUrlCode());
+		}
+		this.invalidateOnCommit(shortUrlCodes);
+
+		return result;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl) {
+		return this.logStore.getByLongUrlForUpdate(longUrl);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrl(@NonNull String longUrl) {
+		return this.logStore.getByLongUrl(longUrl);
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> getByLongUrls(@NonNull Collection<String> longUrls) {
+		return this.logStore.getByLongUrls(longUrls);
+	}
+
+	@Override
+	public void update(@NonNull DwzLogEntity dwzLog) {
+		this.logStore.update(dwzLog);
+		this.invalidateOnCommit(dwzLog.getShortUrlCode());
+	}
+
+	@Override
+	public boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		if (this.logStore.updateIfUnchanged(dwzLog)) {
+			this.invalidateOnCommit(dwzLog.getShortUrlCode());
+			return true;
+		}
+		return false;
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		this.sketch.increment(shortUrlCode);
+
+		long now = ClockManager.currentTimeMillis();
+		CacheEntry entry = this.cacheMap.get(shortUrlCode);
+		if (entry != null && entry.expireTime > now) {
+			if (entry.longUrl != null) {
+				this.hitCount.increment();
+			} else {
+				this.negativeHitCount.increment();
+			}
+			return entry.longUrl;
+		}
+
+		this.missCount.increment();
+		int stripe = stripeOf(shortUrlCode);
+		long readVersion = this.versions.get(stripe);
+		DwzLogEntity dwzLog = this.logStore.getByShortUrlCode(shortUrlCode);
+
+		now = ClockManager.currentTimeMillis();
+		Date termOfValidity = dwzLog != null ? dwzLog.getTermOfValidity() : null;
+		if (dwzLog == null || (termOfValidity != null && termOfValidity.getTime() <= now)) {
+			// 不存在或已过期
+			if (this.negativeTtlMillis > 0) {
+				this.put(shortUrlCode, new CacheEntry(null, now + this.negativeTtlMillis), stripe, readVersion, now);
+			}
+			return null;
+		}
+
+		long expireTime = now + this.ttlMillis;
+		if (termOfValidity != null) {
+			expireTime = Math.min(expireTime, termOfValidity.getTime());
+		}
+		this.put(shortUrlCode, new CacheEntry(dwzLog.getLongUrl(), expireTime), stripe, readVersion, now);
+		return dwzLog.getLongUrl();
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		return this.logStore.getByShortUrlCode(shortUrlCode);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		return this.logStore.getById(id);
+	}
+
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		this.logStore.forEachShortUrlCode(consumer);
+	}
+
+	@Nullable
+	@Override
+	public Long getMaxId() {
+		return this.logStore.getMaxId();
+	}
+
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		return this.logStore.fillLongUrlHash(batchSize);
+	}
+
+	@Override
+	public int deleteOvertime() {
+		int count = this.logStore.deleteOvertime();
+		// 缓存的有效时长不超过记录的有效期，这里只需清理已过期的缓存，释放空间
+		this.invalidateExpired();
+		return count;
+	}
+
+	@Override
+	public int updateOvertime() {
+		int count = this.logStore.updateOvertime();
+		this.invalidateExpired();
+		return count;
+	}
+
+	@Override
+	public DwzOvertimeHandleResult deleteOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		DwzOvertimeHandleResult result = this.logStore.deleteOvertime(batchSize, pauseMillis, timeBudgetMillis);
+		this.invalidateExpired();
+		return result;
+	}
+
+	@Override
+	public DwzOvertimeHandleResult updateOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		DwzOvertimeHandleResult result = this.logStore.updateOvertime(batchSize, pauseMillis, timeBudgetMillis);
+		this.invalidateExpired();
+		return result;
+	}
+
+	//endregion
+
+
+	//region Override AutoCloseable
+
+	/**
+	 * 关闭被包装的存储器（如果需要关闭的话，如：{@link icu.easyj.middleware.dwz.server.core.store.impls.writebehind.WriteBehindDwzLogStoreImpl}）
+	 *
+	 * @throws Exception 关闭失败
+	 */
+	@Override
+	public void close() throws Exception {
+		if (this.logStore instanceof AutoCloseable) {
+			((AutoCloseable)this.logStore).close();
+		}
+	}
+
+	//endregion
+
+
+	//region 清除缓存
+
+	/**
+	 * 清除短链接码对应的缓存
+	 *
+	 * @param shortUrlCode 短链接码
+	 */
+	public void invalidate(@NonNull String shortUrlCode) {
+		synchronized (this.lock) {
+			this.versions.incrementAndGet(stripeOf(shortUrlCode));
+			if (this.cacheMap.remove(shortUrlCode) != null) {
+				this.writeOrder.remove(shortUrlCode);
+			}
+		}
+	}
+
+	/**
+	 * 清除所有缓存
+	 */
+	public void invalidateAll() {
+		synchronized (this.lock) {
+			for (int i = 0; i < VERSION_STRIPES; i++) {
+				this.versions.incrementAndGet(i);
+			}
+			this.cacheMap.clear();
+			this.writeOrder.clear();
+		}
+	}
+
+	/**
+	 * 清除已过期的缓存
+	 */
+	public void invalidateExpired() {
+		long now = ClockManager.currentTimeMillis();
+		synchronized (this.lock) {
+			Iterator<String> iterator = this.writeOrder.iterator();
+			String shortUrlCode;
+			while (iterator.hasNext()) {
+				shortUrlCode = iterator.next();
+				if (this.cacheMap.get(shortUrlCode).expireTime <= now) {
+					this.cacheMap.remove(shortUrlCode);
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 清除短链接码对应的缓存，存在事务时，事务提交后再清除一次，避免其他线程在事务提交前读取到旧数据并缓存
+	 *
+	 * @param shortUrlCode 短链接码
+	 */
+	private void invalidateOnCommit(String shortUrlCode) {
+		this.invalidateOnCommit(Collections.singletonList(shortUrlCode));
+	}
+
+	/**
+	 * 批量清除短链接码对应的缓存，存在事务时，事务提交后再清除一次
+	 *
+	 * @param shortUrlCodes 短链接码列表
+	 * @see #invalidateOnCommit(String)
+	 */
+	private void invalidateOnCommit(Collection<String> shortUrlCodes) {
+		shortUrlCodes.forEach(this::invalidate);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					shortUrlCodes.forEach(CachingDwzLogStoreImpl.this::invalidate);
+				}
+			});
+		}
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 写入缓存
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @param entry        缓存数据
+	 * @param stripe       短链接码所在的版本号分段
+	 * @param readVersion  从存储器读取数据前，该分段的版本号
+	 * @param now          当前时间
+	 */
+	private void put(String shortUrlCode, CacheEntry entry, int stripe, long readVersion, long now) {
+		synchronized (this.lock) {
+			if (readVersion != this.versions.get(stripe)) {
+				return; // 读取数据期间，该分段的缓存被清除过，读取到的数据可能已过时，不缓存
+			}
+
+			if (this.cacheMap.replace(shortUrlCode, entry) != null) {
+				return; // 已缓存，直接覆盖（保留原写入顺序）
+			}
+
+			if (this.cacheMap.size() >= this.maximumSize && !this.evict(shortUrlCode, now)) {
+				this.rejectionCount.increment();
+				return;
+			}
+
+			this.cacheMap.put(shortUrlCode, entry);
+			this.writeOrder.add(shortUrlCode);
+		}
+	}
+
+	/**
+	 * 淘汰一条缓存数据，为新数据腾出空间
+	 *
+	 * @param candidate 新数据的短链接码
+	 * @param now       当前时间
+	 * @return 是否淘汰成功，淘汰失败时，不缓存新数据
+	 */
+	private boolean evict(String candidate, long now) {
+		Iterator<String> iterator = this.writeOrder.iterator();
+		String victim = iterator.next();
+		iterator.remove();
+
+		// 已过期或访问频率低于新数据时，淘汰旧数据
+		if (this.cacheMap.get(victim).expireTime <= now
+				|| this.sketch.frequency(candidate) > this.sketch.frequency(victim)) {
+			this.cacheMap.remove(victim);
+			this.evictionCount.increment();
+			return true;
+		}
+
+		// 旧数据访问更频繁，移到队尾，下次优先比较其他数据
+		this.writeOrder.add(victim);
+		return false;
+	}
+
+	private static int stripeOf(String shortUrlCode) {
+		int hash = shortUrlCode.hashCode();
+		return ((hash >>> 16) ^ hash) & (VERSION_STRIPES - 1);
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzLogStore getLogStore() {
+		return logStore;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return 当前缓存数量（包含不存在的短链接码的缓存）
+	 */
+	public int size() {
+		return this.cacheMap.size();
+	}
+
+	/**
+	 * @return 命中缓存的次数
+	 */
+	public long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * @return 命中不存在的短链接码的缓存的次数
+	 */
+	public long getNegativeHitCount() {
+		return this.negativeHitCount.sum();
+	}
+
+	/**
+	 * @return 未命中缓存（即：访问存储器）的次数
+	 */
+	public long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * @return 缓存命中率（包含不存在的短链接码的缓存）
+	 */
+	public double getHitRate() {
+		long hits = this.getHitCount() + this.getNegativeHitCount();
+		long total = hits + this.getMissCount();
+		return total == 0 ? 1.0D : (double)hits / total;
+	}
+
+	/**
+	 * @return 因缓存已满而被淘汰的数据量
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	/**
+	 * @return 因访问频率低而未被缓存的数据量
+	 */
+	public long getRejectionCount() {
+		return this.rejectionCount.sum();
+	}
+
+	//endregion
+
+
+	/**
+	 * 缓存数据
+	 */
+	private static final class CacheEntry {
+
+		/**
+		 * 长链接，为空表示短链接码不存在或已过期
+		 */
+		private final String longUrl;
+
+		/**
+		 * 缓存过期时间（毫秒数）
+		 */
+		private final long expireTime;
+
+
+		private CacheEntry(String longUrl, long expireTime) {
+			this.longUrl = longUrl;
+			this.expireTime = expireTime;
+		}
+	}
+}
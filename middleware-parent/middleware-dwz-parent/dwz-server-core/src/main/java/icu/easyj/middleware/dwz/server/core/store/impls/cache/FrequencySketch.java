@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.cache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问频率估算器（Count-Min Sketch）
+ * <p>
+ * 每个键对应 {@link #DEPTH} 行中各一个计数器，频率取这些计数器的最小值。计数器最大为15，
+ * 累计访问次数达到采样数后，所有计数器减半，使频率随时间衰减，旧的热点数据可以被新的热点数据替换。
+ * <p>
+ * 实现说明：<br>
+ * 1）计数器为4位，每个long中存放16个计数器，计数时通过CAS更新，无锁且不丢弃计数；<br>
+ * 2）累计访问次数使用 {@link LongAdder} 统计，只在部分访问中检查是否达到采样数，避免每次访问都汇总；<br>
+ * 3）减半在 {@link #resetExecutor} 中异步执行，不占用重定向请求的线程，减半期间的计数同样通过CAS与减半合并，不会丢失。
+ *
+ * @author wangliang181230
+ */
+class FrequencySketch {
+
+	/**
+	 * 行数（哈希函数个数）
+	 */
+	private static final int DEPTH = 4;
+
+	/**
+	 * 计数器最大值
+	 */
+	private static final int MAX_COUNT = 15;
+
+	/**
+	 * 每个long中，所有计数器的最低位都清零后的掩码，用于减半
+	 */
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	/**
+	 * 平均每隔多少次计数（随机采样），检查一次累计访问次数
+	 */
+	private static final int CHECK_MASK = 0x3F;
+
+	/**
+	 * 各行的哈希种子
+	 */
+	private static final long[] SEEDS = {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+	};
+
+
+	/**
+	 * 计数器表，共 {@link #DEPTH} 行，每行 {@link #width} 个4位计数器，每个long存放16个计数器
+	 */
+	private final AtomicLongArray table;
+
+	/**
+	 * 每行的计数器个数（2的幂）
+	 */
+	private final int width;
+
+	/**
+	 * 累计访问次数达到该值后，所有计数器减半
+	 */
+	private final int sampleSize;
+
+	/**
+	 * 累计访问次数
+	 */
+	private final LongAdder additions = new LongAdder();
+
+	/**
+	 * 是否正在减半
+	 */
+	private final AtomicBoolean resetting = new AtomicBoolean(false);
+
+	/**
+	 * 执行减半的执行器
+	 */
+	private final Executor resetExecutor;
+
+
+	FrequencySketch(int maximumSize, Executor resetExecutor) {
+		int size = Math.max(16, Math.min(maximumSize, 1 << 24));
+		this.width = Integer.highestOneBit(size - 1) << 1;
+		this.table = new AtomicLongArray(this.width * DEPTH / 16);
+		this.sampleSize = 10 * size;
+		this.resetExecutor = resetExecutor;
+	}
+
+	FrequencySketch(int maximumSize) {
+		this(maximumSize, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * 估算键的访问频率
+	 *
+	 * @param key 键
+	 * @return 访问频率（0~15）
+	 */
+	int frequency(String key) {
+		int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		int index;
+		for (int i = 0; i < DEPTH; i++) {
+			index = this.indexOf(hash, i);
+			frequency = Math.min(frequency, (int)(this.table.get(index >>> 4) >>> offsetOf(index)) & MAX_COUNT);
+		}
+		return frequency;
+	}
+
+	/**
+	 * 增加键的访问频率
+	 *
+	 * @param key 键
+	 */
+	void increment(String key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < DEPTH; i++) {
+			added |= this.incrementAt(this.indexOf(hash, i));
+		}
+
+		if (added) {
+			this.additions.increment();
+			// 随机采样检查，避免每次计数都汇总LongAdder
+			if ((ThreadLocalRandom.current().nextInt() & CHECK_MASK) == 0 && this.additions.sum() >= this.sampleSize) {
+				this.scheduleReset();
+			}
+		}
+	}
+
+	/**
+	 * 计数器加1
+	 *
+	 * @param index 计数器下标
+	 * @return 是否已加1，计数器已达到最大值时返回false
+	 */
+	private boolean incrementAt(int index) {
+		int i = index >>> 4;
+		int offset = offsetOf(index);
+		long value;
+		do {
+			value = this.table.get(i);
+			if (((value >>> offset) & MAX_COUNT) == MAX_COUNT) {
+				return false;
+			}
+		} while (!this.table.compareAndSet(i, value, value + (1L << offset)));
+		return true;
+	}
+
+	/**
+	 * 异步执行减半，同一时间只执行一个减半任务
+	 */
+	private void scheduleReset() {
+		if (!this.resetting.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			this.resetExecutor.execute(this::reset);
+		} catch (RejectedExecutionException e) {
+			this.resetting.set(false);
+		}
+	}
+
+	/**
+	 * 所有计数器减半
+	 */
+	void reset() {
+		try {
+			// 先扣除采样数，减半期间的访问次数计入下一轮
+			this.additions.add(-this.sampleSize);
+
+			long value;
+			for (int i = 0; i < this.table.length(); i++) {
+				do {
+					value = this.table.get(i);
+				} while (value != 0 && !this.table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+			}
+		} finally {
+			this.resetting.set(false);
+		}
+	}
+
+	private int indexOf(int hash, int row) {
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+		h += h >>> 32;
+		return row * this.width + ((int)h & (this.width - 1));
+	}
+
+	/**
+	 * 计数器在long中的位偏移量
+	 *
+	 * @param index 计数器下标
+	 * @return 位偏移量
+	 */
+	private static int offsetOf(int index) {
+		return (index & 15) << 2;
+	}
+
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+}
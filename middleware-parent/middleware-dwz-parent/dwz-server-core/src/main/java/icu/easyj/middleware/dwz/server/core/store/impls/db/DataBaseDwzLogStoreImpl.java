@@ -15,23 +15,38 @@
  */
 package icu.easyj.middleware.dwz.server.core.store.impls.db;
 
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import javax.sql.DataSource;
 
 import cn.hutool.core.util.StrUtil;
 import icu.easyj.core.sequence.ISequenceService;
 import icu.easyj.core.util.StringUtils;
+import icu.easyj.core.util.shortcode.IShortCodeService;
 import icu.easyj.core.util.shortcode.ShortCodeUtils;
 import icu.easyj.data.store.DbStoreException;
 import icu.easyj.db.util.DbClockUtils;
 import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
 import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
 import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.util.LongUrlUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -45,6 +60,16 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DataBaseDwzLogStoreImpl.class);
 
+	/**
+	 * 默认的批量操作每批数据量
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * IN条件中的最大参数个数（Oracle限制为1000）
+	 */
+	private static final int MAX_IN_SIZE = 1000;
+
 
 	//region SQL相关常量 start
 
@@ -63,7 +88,14 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 	 *
 	 * @see #getByLongUrlForUpdate(String) // 用于查询功能
 	 */
-	private static final String PARTIAL_FIELDS = "id, short_url_code, term_of_validity, status, create_time";
+	private static final String PARTIAL_FIELDS = "id, short_url_code, long_url, term_of_validity, status, create_time, version";
+
+	/**
+	 * 短链接记录表的部分字段，用逗号隔开
+	 *
+	 * @see #getByShortUrlCode(String) // 用于缓存功能
+	 */
+	private static final String CACHE_FIELDS = "id, short_url_code, long_url, term_of_validity, status";
 
 	/**
 	 * 对应字段数量的INSERT语句的参数占位符
@@ -77,6 +109,13 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 	 */
 	private static final String INSERT_DWZ_LOG_SQL = "INSERT INTO " + DWZ_LOG_TABLE_NAME + " (" + ALL_FIELDS + ") VALUES (" + ALL_PLACEHOLDER + ")";
 
+	/**
+	 * 创建记录的SQL（包含长链接哈希值）
+	 *
+	 * @see DwzDedupStrategy#HASH
+	 */
+	private static final String INSERT_DWZ_LOG_WITH_HASH_SQL = "INSERT INTO " + DWZ_LOG_TABLE_NAME + " (" + ALL_FIELDS + ", long_url_hash) VALUES (" + ALL_PLACEHOLDER + ", ?)";
+
 	/**
 	 * 根据long_url获取记录的SQL（只查询部分需要用到的字段）
 	 */
@@ -86,6 +125,42 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 			" WHERE t.long_url = ?" +
 			"   FOR UPDATE";
 
+	/**
+	 * 根据long_url获取记录的SQL（不加锁）
+	 */
+	private static final String GET_DWZ_LOG_NO_LOCK_SQL = "" +
+			"SELECT " + PARTIAL_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.long_url = ?";
+
+	/**
+	 * 根据long_url_hash获取记录的SQL（唯一索引上的点查询）
+	 *
+	 * @see DwzDedupStrategy#HASH
+	 */
+	private static final String GET_DWZ_LOG_BY_HASH_SQL = "" +
+			"SELECT " + PARTIAL_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.long_url_hash = ?";
+
+	/**
+	 * 根据多个long_url_hash获取记录的SQL前缀，后面拼接参数占位符和右括号
+	 *
+	 * @see #getByLongUrls(Collection)
+	 */
+	private static final String GET_DWZ_LOGS_BY_HASHES_SQL_PREFIX = "" +
+			"SELECT " + PARTIAL_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.long_url_hash IN (";
+
+	/**
+	 * 根据long_url_hash获取记录并加锁的SQL（只锁定唯一索引上的一条记录，可读取到其他事务最新提交的数据）
+	 *
+	 * @see DwzDedupStrategy#HASH
+	 */
+	private static final String GET_DWZ_LOG_BY_HASH_FOR_UPDATE_SQL = GET_DWZ_LOG_BY_HASH_SQL +
+			"   FOR UPDATE";
+
 	/**
 	 * 更新记录的SQL
 	 */
@@ -97,6 +172,30 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 			"       t.version = t.version + 1" +
 			" WHERE t.id = ?";
 
+	/**
+	 * 乐观更新记录的SQL
+	 */
+	private static final String UPDATE_DWZ_LOG_IF_UNCHANGED_SQL = UPDATE_DWZ_LOG_SQL +
+			"   AND t.version = ?";
+
+	/**
+	 * 根据id获取记录的SQL
+	 */
+	private static final String GET_BY_ID_SQL = "" +
+			"SELECT " + ALL_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.id = ?";
+
+	/**
+	 * 根据id获取long_url的SQL（主键查询，同时校验short_url_code，避免其他短字符串服务配置生成的短链接码解析出相同的ID）
+	 */
+	private static final String GET_LONG_URL_BY_ID_SQL = "" +
+			"SELECT long_url" +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.id = ?" +
+			"   AND t.short_url_code = ?" +
+			"   AND t.status = 1";
+
 	/**
 	 * 根据short_url_code获取long_url的SQL
 	 */
@@ -106,6 +205,25 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 			" WHERE t.short_url_code = ?" +
 			"   AND t.status = 1";
 
+	/**
+	 * 根据id获取有效记录的SQL（只查询部分需要用到的字段，同时校验short_url_code）
+	 */
+	private static final String GET_BY_ID_AND_SHORT_URL_CODE_SQL = "" +
+			"SELECT " + CACHE_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.id = ?" +
+			"   AND t.short_url_code = ?" +
+			"   AND t.status = 1";
+
+	/**
+	 * 根据short_url_code获取有效记录的SQL（只查询部分需要用到的字段）
+	 */
+	private static final String GET_BY_SHORT_URL_CODE_SQL = "" +
+			"SELECT " + CACHE_FIELDS +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.short_url_code = ?" +
+			"   AND t.status = 1";
+
 	/**
 	 * 获取最大ID值的SQL
 	 */
@@ -113,27 +231,94 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 			"SELECT MAX(id) FROM " + DWZ_LOG_TABLE_NAME;
 
 	/**
-	 * 删除所有超时记录的SQL
+	 * 分批获取有效的短链接码的SQL（按主键分页）
+	 *
+	 * @see #forEachShortUrlCode(Consumer)
+	 */
+	private static final String GET_EFFECTIVE_SHORT_URL_CODES_SQL = "" +
+			"SELECT id, short_url_code" +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.id > ?" +
+			"   AND t.status = 1" +
+			" ORDER BY t.id";
+
+	/**
+	 * 获取未计算长链接哈希值的记录的SQL
+	 *
+	 * @see #fillLongUrlHash(int)
+	 */
+	private static final String GET_NO_HASH_DWZ_LOG_SQL = "" +
+			"SELECT id, long_url" +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.id > ?" +
+			"   AND t.id <= ?" +
+			"   AND t.long_url_hash IS NULL" +
+			" ORDER BY t.id";
+
+	/**
+	 * 补全长链接哈希值的SQL
+	 *
+	 * @see #fillLongUrlHash(int)
+	 */
+	private static final String UPDATE_LONG_URL_HASH_SQL = "" +
+			"UPDATE " + DWZ_LOG_TABLE_NAME +
+			"   SET long_url_hash = ?" +
+			" WHERE id = ?" +
+			"   AND long_url_hash IS NULL";
+
+	/**
+	 * 分批获取超时记录的SQL前缀（通过 term_of_validity 索引按 (term_of_validity, id) 的顺序分页）
+	 *
+	 * @see #handleOvertime(boolean, int, long, long)
+	 */
+	private static final String GET_OVERTIME_SQL_PREFIX = "" +
+			"SELECT id, term_of_validity" +
+			"  FROM " + DWZ_LOG_TABLE_NAME + " AS t" +
+			" WHERE t.term_of_validity < ?";
+
+	/**
+	 * 分批获取超时记录时，从上一批的最后一条记录之后继续获取的条件（键集分页，避免OFFSET越往后越慢）
+	 */
+	private static final String OVERTIME_KEYSET_CONDITION = "" +
+			"   AND (t.term_of_validity > ? OR (t.term_of_validity = ? AND t.id > ?))";
+
+	/**
+	 * 分批获取超时记录时，排除已过期记录的条件
+	 * 注：超时策略为UPDATE时，会用到
+	 */
+	private static final String NOT_EXPIRED_CONDITION = "" +
+			"   AND t.status <> 2";
+
+	/**
+	 * 分批获取超时记录的排序
+	 */
+	private static final String OVERTIME_ORDER_BY = "" +
+			" ORDER BY t.term_of_validity, t.id";
+
+	/**
+	 * 删除一批超时记录的SQL前缀，后面拼接参数占位符和右括号（再次校验过期时间，避免删除期间被续期的记录）
 	 * 注：超时策略为DELETE时，会用到
 	 * <p>
 	 * 注意：MySql数据库 DELETE 语句不支持设置表别名
 	 */
-	private static final String DELETE_OVERTIME_SQL = "" +
+	private static final String DELETE_OVERTIME_SQL_PREFIX = "" +
 			"DELETE" +
 			"  FROM " + DWZ_LOG_TABLE_NAME +
-			" WHERE term_of_validity < ?";
+			" WHERE term_of_validity < ?" +
+			"   AND id IN (";
 
 	/**
-	 * 更新所有超时记录的SQL
+	 * 更新一批超时记录的SQL前缀，后面拼接参数占位符和右括号（再次校验过期时间，避免更新期间被续期的记录）
 	 * 注：超时策略为UPDATE时，会用到
 	 */
-	private static final String UPDATE_OVERTIME_SQL = "" +
+	private static final String UPDATE_OVERTIME_SQL_PREFIX = "" +
 			"UPDATE " + DWZ_LOG_TABLE_NAME + " AS t" +
 			"   SET t.status = 2," +
 			"       t.update_time = ?," +
-			"       t.version = t.verion + 1" +
+			"       t.version = t.version + 1" +
 			" WHERE t.term_of_validity < ?" +
-			"   AND t.status <> 2";
+			"   AND t.status <> 2" +
+			"   AND t.id IN (";
 
 	//endregion SQL相关常量 end
 
@@ -143,57 +328,74 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 
 	private final ISequenceService sequenceService;
 
+	/**
+	 * 短字符串服务，用于ID与短链接码的互相转换
+	 */
+	private final IShortCodeService shortCodeService;
 
-	public DataBaseDwzLogStoreImpl(JdbcTemplate jdbcTemplate, ISequenceService sequenceService) {
+	/**
+	 * 根据ID未找到记录时，是否再根据短链接码字段查询（用于兼容其他短字符串服务配置生成的短链接码）
+	 */
+	private final boolean codeLookupFallback;
+
+	/**
+	 * 去重策略
+	 */
+	private final DwzDedupStrategy dedupStrategy;
+
+	/**
+	 * 批量插入和批量查询时，每批数据量
+	 */
+	private final int batchSize;
+
+
+	public DataBaseDwzLogStoreImpl(JdbcTemplate jdbcTemplate, ISequenceService sequenceService, IShortCodeService shortCodeService,
+								   boolean codeLookupFallback, DwzDedupStrategy dedupStrategy, int batchSize) {
 		Assert.notNull(jdbcTemplate, "'jdbcTemplate' must not be null");
 		Assert.notNull(jdbcTemplate.getDataSource(), "'jdbcTemplate.getDataSource()' must not be null");
 		Assert.notNull(sequenceService, "'sequenceService' must not be null");
+		Assert.notNull(shortCodeService, "'shortCodeService' must not be null");
+		Assert.notNull(dedupStrategy, "'dedupStrategy' must not be null");
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
 
 		this.jdbcTemplate = jdbcTemplate;
 		this.dataSource = jdbcTemplate.getDataSource();
 		this.sequenceService = sequenceService;
+		this.shortCodeService = shortCodeService;
+		this.codeLookupFallback = codeLookupFallback;
+		this.dedupStrategy = dedupStrategy;
+		this.batchSize = batchSize;
 
 		LOGGER.info("当前用于生成短链接记录ID的序列服务的为：{}，对应的序列名：{}。", sequenceService.getClass().getSimpleName(), SEQ_NAME__DWZ_LOG_ID);
 	}
 
+	public DataBaseDwzLogStoreImpl(JdbcTemplate jdbcTemplate, ISequenceService sequenceService,
+								   IShortCodeService shortCodeService, boolean codeLookupFallback, DwzDedupStrategy dedupStrategy) {
+		this(jdbcTemplate, sequenceService, shortCodeService, codeLookupFallback, dedupStrategy, DEFAULT_BATCH_SIZE);
+	}
+
+	public DataBaseDwzLogStoreImpl(JdbcTemplate jdbcTemplate, ISequenceService sequenceService) {
+		this(jdbcTemplate, sequenceService, ShortCodeUtils.DEFAULT, true, DwzDedupStrategy.LOCK);
+	}
+
 
 	@NonNull
 	@Override
 	public DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity) {
-		// 通过序列服务，获取下一序列值，作为ID
-		long id = this.sequenceService.nextVal(SEQ_NAME__DWZ_LOG_ID);
-		// ID 转换为 短字符串，即：短链接码（注：可通过 `ShortCodeUtils.toId(code)` 方法转换回ID）
-		String shortUrlCode = ShortCodeUtils.toCode(id);
-
-		// 使用TickClock快速获取数据库时间
-		Date now = DbClockUtils.now(this.dataSource);
-
 		// 数据创建成功，创建entity并返回
 		DwzLogEntity dwzLog = new DwzLogEntity();
-		dwzLog.setId(id);
-		dwzLog.setShortUrlCode(shortUrlCode);
 		dwzLog.setLongUrl(longUrl);
 		dwzLog.setTermOfValidity(termOfValidity);
-		dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
-		dwzLog.setCreateTime(now);
-		dwzLog.setUpdateTime(now);
-		dwzLog.setVersion(1);
+
+		// 通过序列服务，获取下一序列值，作为ID；使用TickClock快速获取数据库时间
+		this.fillNewDwzLog(dwzLog, this.sequenceService.nextVal(SEQ_NAME__DWZ_LOG_ID), this.now());
 
 		int rowCount;
 		try {
-			// 准备SQL参数
-			Object[] args = new Object[]{
-					dwzLog.getId(),
-					dwzLog.getShortUrlCode(),
-					dwzLog.getLongUrl(),
-					dwzLog.getTermOfValidity(),
-					dwzLog.getStatus(),
-					dwzLog.getCreateTime(),
-					dwzLog.getUpdateTime(),
-					dwzLog.getVersion()
-			};
-
-			rowCount = jdbcTemplate.update(INSERT_DWZ_LOG_SQL, args);
+			rowCount = jdbcTemplate.update(this.getInsertSql(), this.toInsertArgs(dwzLog));
+		} catch (DataIntegrityViolationException e) {
+			// 违反唯一约束，直接抛出，由调用方判断是否为长链接重复
+			throw e;
 		} catch (Exception e) {
 			throw new DbStoreException("数据库异常，创建短链接记录失败", e);
 		}
@@ -205,10 +407,71 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 		return dwzLog;
 	}
 
+	@NonNull
+	@Override
+	public List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		this.insertAll(this.prepareAll(dwzLogs));
+		return dwzLogs;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> prepareAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		Assert.notNull(dwzLogs, "'dwzLogs' must not be null");
+		if (dwzLogs.isEmpty()) {
+			return dwzLogs;
+		}
+
+		// 一次性获取所有ID，只需一次序列服务的调用
+		long[] ids = this.sequenceService.nextVals(SEQ_NAME__DWZ_LOG_ID, dwzLogs.size());
+		Date now = this.now();
+
+		for (int i = 0; i < dwzLogs.size(); i++) {
+			this.fillNewDwzLog(dwzLogs.get(i), ids[i], now);
+		}
+		return dwzLogs;
+	}
+
+	@Override
+	public void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		Assert.notNull(dwzLogs, "'dwzLogs' must not be null");
+
+		List<Object[]> batchArgs = new ArrayList<>(dwzLogs.size());
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			batchArgs.add(this.toInsertArgs(dwzLog));
+		}
+
+		// 分批插入
+		String sql = this.getInsertSql();
+		int[] rowCounts;
+		for (int from = 0; from < batchArgs.size(); from += this.batchSize) {
+			try {
+				rowCounts = jdbcTemplate.batchUpdate(sql, batchArgs.subList(from, Math.min(from + this.batchSize, batchArgs.size())));
+			} catch (DataIntegrityViolationException e) {
+				// 违反唯一约束，直接抛出，由调用方判断是否为长链接重复
+				throw e;
+			} catch (Exception e) {
+				throw new DbStoreException("数据库异常，批量创建短链接记录失败", e);
+			}
+
+			for (int rowCount : rowCounts) {
+				// 部分数据库驱动批量执行时，返回 SUCCESS_NO_INFO（-2），无法得知具体的更新行数
+				if (rowCount != 1 && rowCount != Statement.SUCCESS_NO_INFO) {
+					LOGGER.error("数据库未知异常，短链接记录未批量创建成功！rowCounts = {}", Arrays.toString(rowCounts));
+					throw new DbStoreException("数据库未知异常，短链接记录未批量创建成功！");
+				}
+			}
+		}
+	}
+
 	@Nullable
 	@Override
 	public DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl) {
 		Assert.notNull(longUrl, "'longUrl' must not be null");
+		if (this.dedupStrategy == DwzDedupStrategy.HASH) {
+			return this.getByLongUrlHash(GET_DWZ_LOG_BY_HASH_FOR_UPDATE_SQL, longUrl);
+		}
+
 		try {
 			return jdbcTemplate.queryForObject(GET_DWZ_LOG_SQL, new BeanPropertyRowMapper<>(DwzLogEntity.class), longUrl);
 		} catch (Exception e) {
@@ -219,9 +482,57 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 		}
 	}
 
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrl(@NonNull String longUrl) {
+		Assert.notNull(longUrl, "'longUrl' must not be null");
+		if (this.dedupStrategy == DwzDedupStrategy.HASH) {
+			return this.getByLongUrlHash(GET_DWZ_LOG_BY_HASH_SQL, longUrl);
+		}
+		return this.queryForObject(GET_DWZ_LOG_NO_LOCK_SQL, new BeanPropertyRowMapper<>(DwzLogEntity.class), "根据长链接获取短链接记录失败", longUrl);
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> getByLongUrls(@NonNull Collection<String> longUrls) {
+		Assert.notNull(longUrls, "'longUrls' must not be null");
+		if (this.dedupStrategy != DwzDedupStrategy.HASH) {
+			// long_url 字段没有索引，逐条查询
+			return IDwzLogStore.super.getByLongUrls(longUrls);
+		}
+
+		// 哈希值 -> 长链接
+		Map<String, String> hashMap = new LinkedHashMap<>(longUrls.size() * 4 / 3 + 1);
+		for (String longUrl : longUrls) {
+			hashMap.put(LongUrlUtils.hash(longUrl), longUrl);
+		}
+
+		List<DwzLogEntity> result = new ArrayList<>();
+		List<String> hashes = new ArrayList<>(hashMap.keySet());
+		int inSize = Math.min(this.batchSize, MAX_IN_SIZE);
+		List<String> subHashes;
+		for (int from = 0; from < hashes.size(); from += inSize) {
+			subHashes = hashes.subList(from, Math.min(from + inSize, hashes.size()));
+
+			String sql = GET_DWZ_LOGS_BY_HASHES_SQL_PREFIX + StringUtils.join('?', ',', subHashes.size()) + ")";
+			List<DwzLogEntity> dwzLogs;
+			try {
+				dwzLogs = jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(DwzLogEntity.class), subHashes.toArray());
+			} catch (Exception e) {
+				throw new DbStoreException("根据长链接批量获取短链接记录失败", e);
+			}
+
+			for (DwzLogEntity dwzLog : dwzLogs) {
+				this.checkHashCollision(dwzLog, hashMap.get(LongUrlUtils.hash(dwzLog.getLongUrl())));
+				result.add(dwzLog);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void update(@NonNull DwzLogEntity dwzLog) {
-		Date now = DbClockUtils.now(this.dataSource);
+		Date now = this.now();
 
 		int result;
 
@@ -236,17 +547,71 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 		}
 	}
 
-	@Nullable
 	@Override
-	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+	public boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		Date now = this.now();
+
+		int result;
 		try {
-			return jdbcTemplate.queryForObject(GET_LONG_URL_SQL, String.class, shortUrlCode);
+			result = jdbcTemplate.update(UPDATE_DWZ_LOG_IF_UNCHANGED_SQL, dwzLog.getTermOfValidity(), now, dwzLog.getId(), dwzLog.getVersion());
 		} catch (Exception e) {
-			if (e instanceof EmptyResultDataAccessException && ((EmptyResultDataAccessException)e).getActualSize() == 0) {
-				return null;
+			throw new DbStoreException("更新短链接记录失败", e);
+		}
+
+		if (result == 1) {
+			dwzLog.setUpdateTime(now);
+			dwzLog.setVersion(dwzLog.getVersion() + 1);
+			return true;
+		}
+		return false;
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		String errorMessage = "根据短链接码获取长链接失败";
+
+		// 先将短链接码转换回ID，根据主键查询
+		Long id = this.decodeId(shortUrlCode);
+		if (id != null) {
+			String longUrl = this.queryForObject(GET_LONG_URL_BY_ID_SQL, new SingleColumnRowMapper<>(String.class), errorMessage, id, shortUrlCode);
+			if (longUrl != null) {
+				return longUrl;
 			}
-			throw new DbStoreException("根据短链接码获取长链接失败", e);
 		}
+
+		// 回退：根据短链接码字段查询
+		if (this.codeLookupFallback) {
+			return this.queryForObject(GET_LONG_URL_SQL, new SingleColumnRowMapper<>(String.class), errorMessage, shortUrlCode);
+		}
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		String errorMessage = "根据短链接码获取短链接记录失败";
+
+		// 先将短链接码转换回ID，根据主键查询
+		Long id = this.decodeId(shortUrlCode);
+		if (id != null) {
+			DwzLogEntity dwzLog = this.queryForObject(GET_BY_ID_AND_SHORT_URL_CODE_SQL, new BeanPropertyRowMapper<>(DwzLogEntity.class), errorMessage, id, shortUrlCode);
+			if (dwzLog != null) {
+				return dwzLog;
+			}
+		}
+
+		// 回退：根据短链接码字段查询
+		if (this.codeLookupFallback) {
+			return this.queryForObject(GET_BY_SHORT_URL_CODE_SQL, new BeanPropertyRowMapper<>(DwzLogEntity.class), errorMessage, shortUrlCode);
+		}
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		return this.queryForObject(GET_BY_ID_SQL, new BeanPropertyRowMapper<>(DwzLogEntity.class), "根据ID获取短链接记录失败", id);
 	}
 
 	@Nullable
@@ -262,14 +627,323 @@ public class DataBaseDwzLogStoreImpl implements IDwzLogStore {
 		}
 	}
 
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		// 限制每次查询的数据量（通过JDBC的maxRows实现，避免不同数据库的分页语法差异）
+		JdbcTemplate queryTemplate = new JdbcTemplate(this.dataSource);
+		queryTemplate.setMaxRows(this.batchSize);
+
+		long lastId = Long.MIN_VALUE;
+		List<Object[]> rows;
+		do {
+			try {
+				rows = queryTemplate.query(GET_EFFECTIVE_SHORT_URL_CODES_SQL,
+						(rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, lastId);
+			} catch (Exception e) {
+				throw new DbStoreException("遍历有效的短链接码失败", e);
+			}
+			if (rows.isEmpty()) {
+				break;
+			}
+			lastId = (long)rows.get(rows.size() - 1)[0];
+
+			for (Object[] row : rows) {
+				consumer.accept((String)row[1]);
+			}
+		} while (rows.size() == this.batchSize);
+	}
+
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		if (this.dedupStrategy != DwzDedupStrategy.HASH) {
+			return 0; // 未使用哈希策略时，表中可能没有 long_url_hash 字段
+		}
+
+		// 哈希策略下新创建的记录都有哈希值，只需处理当前最大ID及之前的记录
+		Long maxId = this.getMaxId();
+		if (maxId == null) {
+			return 0;
+		}
+
+		// 限制每次查询的数据量（通过JDBC的maxRows实现，避免不同数据库的分页语法差异）
+		JdbcTemplate queryTemplate = new JdbcTemplate(this.dataSource);
+		queryTemplate.setMaxRows(batchSize);
+
+		int count = 0;
+		long lastId = Long.MIN_VALUE;
+		List<Object[]> batchArgs;
+		do {
+			batchArgs = queryTemplate.query(GET_NO_HASH_DWZ_LOG_SQL,
+					(rs, rowNum) -> new Object[]{LongUrlUtils.hash(rs.getString(2)), rs.getLong(1)}, lastId, maxId);
+			if (batchArgs.isEmpty()) {
+				break;
+			}
+			lastId = (long)batchArgs.get(batchArgs.size() - 1)[1];
+
+			try {
+				for (int rowCount : jdbcTemplate.batchUpdate(UPDATE_LONG_URL_HASH_SQL, batchArgs)) {
+					count += Math.max(rowCount, 0);
+				}
+			} catch (DataIntegrityViolationException e) {
+				// 批次中存在重复的长链接，逐条更新，跳过重复的记录
+				// 注：部分数据库驱动在批量更新失败时，其他记录已更新成功，逐条更新时更新行数为0，同样计入补全的数据量
+				for (Object[] args : batchArgs) {
+					try {
+						jdbcTemplate.update(UPDATE_LONG_URL_HASH_SQL, args);
+						count++;
+					} catch (DataIntegrityViolationException ex) {
+						LOGGER.warn("短链接记录 [id={}] 的长链接与其他记录重复，无法补全哈希值，该记录将不参与去重。", args[1]);
+					}
+				}
+			}
+		} while (batchArgs.size() == batchSize);
+
+		return count;
+	}
+
 	@Override
 	public int deleteOvertime() {
-		return jdbcTemplate.update(DELETE_OVERTIME_SQL, DbClockUtils.now(this.dataSource));
+		return this.deleteOvertime(this.batchSize, 0L, 0L).getCount();
 	}
 
 	@Override
 	public int updateOvertime() {
-		Date now = DbClockUtils.now(this.dataSource);
-		return jdbcTemplate.update(UPDATE_OVERTIME_SQL, now, now);
+		return this.updateOvertime(this.batchSize, 0L, 0L).getCount();
+	}
+
+	@Override
+	public DwzOvertimeHandleResult deleteOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.handleOvertime(false, batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+	@Override
+	public DwzOvertimeHandleResult updateOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.handleOvertime(true, batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+
+	//region Protected
+
+	/**
+	 * 获取当前时间（使用TickClock快速获取数据库时间）
+	 *
+	 * @return 当前时间
+	 */
+	protected Date now() {
+		return DbClockUtils.now(this.dataSource);
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 分批处理超时的记录
+	 * <p>
+	 * 按 (term_of_validity, id) 的顺序键集分页，每批先查询出ID，再根据ID删除或更新，每批单独执行，
+	 * 避免一条SQL锁定大范围的数据、产生大量的undo/redo日志，阻塞重定向等在线请求。
+	 *
+	 * @param isUpdate         是否为更新策略，为false时删除记录
+	 * @param batchSize        每批数据量（不超过IN条件中的最大参数个数）
+	 * @param pauseMillis      批次之间的暂停毫秒数
+	 * @param timeBudgetMillis 此次处理的时间预算（毫秒）
+	 * @return 此次处理的结果
+	 */
+	private DwzOvertimeHandleResult handleOvertime(boolean isUpdate, int batchSize, long pauseMillis, long timeBudgetMillis) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+
+		long startTime = System.currentTimeMillis();
+		Date now = this.now();
+
+		// 限制每次查询的数据量（通过JDBC的maxRows实现，避免不同数据库的分页语法差异）
+		int inSize = Math.min(batchSize, MAX_IN_SIZE);
+		JdbcTemplate queryTemplate = new JdbcTemplate(this.dataSource);
+		queryTemplate.setMaxRows(inSize);
+
+		String condition = isUpdate ? NOT_EXPIRED_CONDITION : "";
+		String firstQuerySql = GET_OVERTIME_SQL_PREFIX + condition + OVERTIME_ORDER_BY;
+		String nextQuerySql = GET_OVERTIME_SQL_PREFIX + condition + OVERTIME_KEYSET_CONDITION + OVERTIME_ORDER_BY;
+		RowMapper<Object[]> rowMapper = (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)};
+
+		int count = 0;
+		int batchCount = 0;
+		boolean finished = false;
+		Object[] lastRow = null;
+		List<Object[]> rows;
+		while (true) {
+			if (lastRow == null) {
+				rows = queryTemplate.query(firstQuerySql, rowMapper, now);
+			} else {
+				rows = queryTemplate.query(nextQuerySql, rowMapper, now, lastRow[1], lastRow[1], lastRow[0]);
+			}
+			if (rows.isEmpty()) {
+				finished = true;
+				break;
+			}
+			lastRow = rows.get(rows.size() - 1);
+
+			// 根据ID删除或更新此批记录
+			List<Object> args = new ArrayList<>(rows.size() + 2);
+			if (isUpdate) {
+				args.add(now);
+			}
+			args.add(now);
+			for (Object[] row : rows) {
+				args.add(row[0]);
+			}
+			String sql = (isUpdate ? UPDATE_OVERTIME_SQL_PREFIX : DELETE_OVERTIME_SQL_PREFIX) + StringUtils.join('?', ',', rows.size()) + ")";
+			count += jdbcTemplate.update(sql, args.toArray());
+			batchCount++;
+
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("已{}第 {} 批超时短链接记录，累计 {} 条，耗时 {} ms", (isUpdate ? "更新" : "删除"),
+						batchCount, count, System.currentTimeMillis() - startTime);
+			}
+
+			if (rows.size() < inSize) {
+				finished = true;
+				break;
+			}
+
+			// 暂停一段时间，让出数据库资源给在线请求
+			if (pauseMillis > 0) {
+				try {
+					Thread.sleep(pauseMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			// 超出时间预算，剩余的数据留到下次处理
+			if (timeBudgetMillis > 0 && System.currentTimeMillis() - startTime >= timeBudgetMillis) {
+				break;
+			}
+		}
+
+		return new DwzOvertimeHandleResult(count, batchCount, System.currentTimeMillis() - startTime, finished);
+	}
+
+	/**
+	 * 根据长链接哈希值获取记录
+	 *
+	 * @param sql     SQL
+	 * @param longUrl 长链接
+	 * @return 短链接记录
+	 */
+	@Nullable
+	private DwzLogEntity getByLongUrlHash(String sql, String longUrl) {
+		DwzLogEntity dwzLog = this.queryForObject(sql, new BeanPropertyRowMapper<>(DwzLogEntity.class),
+				"根据长链接获取短链接记录失败", LongUrlUtils.hash(longUrl));
+		if (dwzLog != null) {
+			this.checkHashCollision(dwzLog, longUrl);
+		}
+		return dwzLog;
 	}
+
+	/**
+	 * 校验根据哈希值查询到的记录的长链接，防止哈希冲突（128位哈希值，理论上不会发生）
+	 *
+	 * @param dwzLog  根据哈希值查询到的短链接记录
+	 * @param longUrl 用于计算哈希值的长链接
+	 * @throws DbStoreException 哈希冲突
+	 */
+	private void checkHashCollision(DwzLogEntity dwzLog, @Nullable String longUrl) {
+		if (longUrl == null || !LongUrlUtils.normalize(dwzLog.getLongUrl()).equals(LongUrlUtils.normalize(longUrl))) {
+			LOGGER.error("长链接哈希冲突：'{}' 与已有记录 [id={}] 的长链接 '{}' 的哈希值相同！", longUrl, dwzLog.getId(), dwzLog.getLongUrl());
+			throw new DbStoreException("长链接哈希冲突，无法创建短链接记录");
+		}
+	}
+
+	/**
+	 * 补全新记录的字段
+	 *
+	 * @param dwzLog 新的短链接记录（已设置 longUrl 和 termOfValidity）
+	 * @param id     ID
+	 * @param now    当前时间
+	 */
+	private void fillNewDwzLog(DwzLogEntity dwzLog, long id, Date now) {
+		dwzLog.setId(id);
+		// ID 转换为 短字符串，即：短链接码（注：可通过 `shortCodeService.toId(code)` 方法转换回ID）
+		dwzLog.setShortUrlCode(this.shortCodeService.toCode(id));
+		dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
+		dwzLog.setCreateTime(now);
+		dwzLog.setUpdateTime(now);
+		dwzLog.setVersion(1);
+	}
+
+	/**
+	 * @return 创建记录的SQL
+	 */
+	private String getInsertSql() {
+		return this.dedupStrategy == DwzDedupStrategy.HASH ? INSERT_DWZ_LOG_WITH_HASH_SQL : INSERT_DWZ_LOG_SQL;
+	}
+
+	/**
+	 * 准备创建记录的SQL参数
+	 *
+	 * @param dwzLog 短链接记录
+	 * @return SQL参数
+	 * @see #getInsertSql()
+	 */
+	private Object[] toInsertArgs(DwzLogEntity dwzLog) {
+		Object[] args = new Object[]{
+				dwzLog.getId(),
+				dwzLog.getShortUrlCode(),
+				dwzLog.getLongUrl(),
+				dwzLog.getTermOfValidity(),
+				dwzLog.getStatus(),
+				dwzLog.getCreateTime(),
+				dwzLog.getUpdateTime(),
+				dwzLog.getVersion()
+		};
+
+		if (this.dedupStrategy == DwzDedupStrategy.HASH) {
+			args = Arrays.copyOf(args, args.length + 1);
+			args[args.length - 1] = LongUrlUtils.hash(dwzLog.getLongUrl());
+		}
+		return args;
+	}
+
+	/**
+	 * 将短链接码转换回ID
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @return ID，短链接码不是当前短字符串服务生成的时，返回null
+	 */
+	@Nullable
+	private Long decodeId(String shortUrlCode) {
+		try {
+			return this.shortCodeService.toId(shortUrlCode);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 查询单条数据
+	 *
+	 * @param sql          SQL
+	 * @param rowMapper    行映射器
+	 * @param errorMessage 查询失败时的异常信息
+	 * @param args         SQL参数
+	 * @param <T>          数据类型
+	 * @return 数据，不存在时返回null
+	 * @throws DbStoreException 查询失败
+	 */
+	@Nullable
+	private <T> T queryForObject(String sql, RowMapper<T> rowMapper, String errorMessage, Object... args) {
+		try {
+			return jdbcTemplate.queryForObject(sql, rowMapper, args);
+		} catch (Exception e) {
+			if (e instanceof EmptyResultDataAccessException && ((EmptyResultDataAccessException)e).getActualSize() == 0) {
+				return null;
+			}
+			throw new DbStoreException(errorMessage, e);
+		}
+	}
+
+	//endregion
 }
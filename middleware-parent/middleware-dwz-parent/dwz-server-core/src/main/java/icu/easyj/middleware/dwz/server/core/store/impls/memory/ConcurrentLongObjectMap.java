@@ -0,0 +1,217 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 以基本类型long为键的并发哈希表
+ * <p>
+ * 按键分段，每段是一个 {@link LongObjectHashMap}，由一把 {@link StampedLock} 保护：<br>
+ * 1）读取时先乐观读，无需加锁，只有在读取期间该段被修改了，才会加读锁重新读取；<br>
+ * 2）修改时加写锁，不同段之间互不影响。
+ *
+ * @param <V> 值的类型
+ * @author wangliang181230
+ */
+public class ConcurrentLongObjectMap<V> {
+
+	/**
+	 * 最大段数
+	 */
+	private static final int MAX_SEGMENTS = 1 << 16;
+
+
+	private final Segment<V>[] segments;
+
+	private final int segmentMask;
+
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentLongObjectMap(int concurrencyLevel, int initialCapacity) {
+		Assert.isTrue(concurrencyLevel > 0, "'concurrencyLevel' must be greater than 0");
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be less than 0");
+
+		int segmentCount = 1;
+		while (segmentCount < concurrencyLevel && segmentCount < MAX_SEGMENTS) {
+			segmentCount <<= 1;
+		}
+
+		this.segments = new Segment[segmentCount];
+		this.segmentMask = segmentCount - 1;
+		int segmentCapacity = initialCapacity / segmentCount + 1;
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment<>(segmentCapacity);
+		}
+	}
+
+	public ConcurrentLongObjectMap() {
+		this(Runtime.getRuntime().availableProcessors() * 4, 0);
+	}
+
+
+	/**
+	 * 获取值
+	 *
+	 * @param key 键
+	 * @return 值，不存在时返回null
+	 */
+	@Nullable
+	public V get(long key) {
+		Segment<V> segment = this.segmentFor(key);
+
+		long stamp = segment.tryOptimisticRead();
+		if (stamp != 0L) {
+			V value = segment.map.get(key);
+			if (segment.validate(stamp)) {
+				return value;
+			}
+		}
+
+		// 乐观读期间被修改了，加读锁重新读取
+		stamp = segment.readLock();
+		try {
+			return segment.map.get(key);
+		} finally {
+			segment.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * 设置值
+	 *
+	 * @param key   键
+	 * @param value 值
+	 * @return 原来的值，不存在时返回null
+	 */
+	@Nullable
+	public V put(long key, @NonNull V value) {
+		Segment<V> segment = this.segmentFor(key);
+		long stamp = segment.writeLock();
+		try {
+			return segment.map.put(key, value);
+		} finally {
+			segment.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * 删除值
+	 *
+	 * @param key 键
+	 * @return 被删除的值，不存在时返回null
+	 */
+	@Nullable
+	public V remove(long key) {
+		Segment<V> segment = this.segmentFor(key);
+		long stamp = segment.writeLock();
+		try {
+			return segment.map.remove(key);
+		} finally {
+			segment.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * 在写锁内计算新值，同一个键的计算是串行的
+	 *
+	 * @param key               键
+	 * @param remappingFunction 计算函数，入参为原来的值（可能为null），返回null时删除该键
+	 * @return 新的值
+	 */
+	@Nullable
+	public V compute(long key, @NonNull UnaryOperator<V> remappingFunction) {
+		Segment<V> segment = this.segmentFor(key);
+		long stamp = segment.writeLock();
+		try {
+			V oldValue = segment.map.get(key);
+			V newValue = remappingFunction.apply(oldValue);
+			if (newValue != null) {
+				if (newValue != oldValue) {
+					segment.map.put(key, newValue);
+				}
+			} else if (oldValue != null) {
+				segment.map.remove(key);
+			}
+			return newValue;
+		} finally {
+			segment.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * 遍历所有数据（逐段加读锁，不是整个表的快照）
+	 *
+	 * @param consumer 消费者，不能在其中修改当前表
+	 */
+	public void forEach(@NonNull LongObjectHashMap.LongObjectConsumer<? super V> consumer) {
+		long stamp;
+		for (Segment<V> segment : this.segments) {
+			stamp = segment.readLock();
+			try {
+				segment.map.forEach(consumer);
+			} finally {
+				segment.unlockRead(stamp);
+			}
+		}
+	}
+
+	/**
+	 * 获取数据量（逐段统计，并发修改时为近似值）
+	 *
+	 * @return 数据量
+	 */
+	public int size() {
+		int size = 0;
+		long stamp;
+		for (Segment<V> segment : this.segments) {
+			stamp = segment.readLock();
+			try {
+				size += segment.map.size();
+			} finally {
+				segment.unlockRead(stamp);
+			}
+		}
+		return size;
+	}
+
+
+	private Segment<V> segmentFor(long key) {
+		// 使用与段内哈希表不同的乘数，避免同一段内的键在段内哈希表中聚集
+		return this.segments[(int)((key * 0xC2B2AE3D27D4EB4FL) >>> 40) & this.segmentMask];
+	}
+
+
+	/**
+	 * 段
+	 *
+	 * @param <V> 值的类型
+	 */
+	private static final class Segment<V> extends StampedLock {
+
+		private final LongObjectHashMap<V> map;
+
+
+		private Segment(int initialCapacity) {
+			this.map = new LongObjectHashMap<>(initialCapacity);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.util.Arrays;
+
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 分层时间轮，用于记录ID的过期调度
+ * <p>
+ * 共 {@link #LEVELS} 层，每层 {@link #WHEEL_SIZE} 个槽位，第 n 层每个槽位的跨度为 {@code tickMillis * 64^n}。
+ * 过期时间离当前时间越远，放在越高的层；时间推进到高层槽位的起始时刻时，将该槽位中的数据降级到低层，
+ * 最终在第0层到期。添加和到期都是O(1)的，推进时只处理到期的槽位，无需扫描所有数据。
+ * <p>
+ * 注意事项：<br>
+ * 1）到期精度为 {@code tickMillis}，到期时一定已过了过期时间；<br>
+ * 2）不支持删除，记录续期或删除后，旧的过期任务仍会到期，由使用方自行校验记录的当前状态；<br>
+ * 3）超出时间轮范围（约 {@code tickMillis * 2^42}）的过期时间，视为不过期。
+ *
+ * @author wangliang181230
+ */
+public class HierarchicalTimingWheel {
+
+	/**
+	 * 每层槽位数的位数
+	 */
+	private static final int WHEEL_BITS = 6;
+
+	/**
+	 * 每层的槽位数
+	 */
+	public static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	/**
+	 * 层数
+	 */
+	public static final int LEVELS = 7;
+
+
+	/**
+	 * 每个刻度的毫秒数
+	 */
+	private final long tickMillis;
+
+	/**
+	 * 各层的槽位
+	 */
+	private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+
+	/**
+	 * 添加时已到期、等待下次推进时返回的数据
+	 */
+	private final Bucket dueBucket = new Bucket();
+
+	/**
+	 * 当前刻度
+	 */
+	private long currentTick;
+
+	/**
+	 * 数据量
+	 */
+	private int size;
+
+
+	public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+		Assert.isTrue(tickMillis > 0, "'tickMillis' must be greater than 0");
+
+		this.tickMillis = tickMillis;
+		this.currentTick = Math.floorDiv(startMillis, tickMillis);
+		for (Bucket[] wheel : this.wheels) {
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				wheel[i] = new Bucket();
+			}
+		}
+	}
+
+
+	/**
+	 * 添加过期任务
+	 *
+	 * @param id           记录ID
+	 * @param expireMillis 过期时间（毫秒数），当前时间大于该时间时到期
+	 */
+	public synchronized void add(long id, long expireMillis) {
+		// 到期刻度：该刻度的起始时刻一定大于过期时间
+		long dueTick = Math.floorDiv(expireMillis, this.tickMillis) + 1;
+		if (dueTick <= this.currentTick) {
+			this.dueBucket.add(id, dueTick);
+			this.size++;
+		} else if (this.place(id, dueTick)) {
+			this.size++;
+		}
+	}
+
+	/**
+	 * 推进时间轮，返回所有到期的记录ID
+	 *
+	 * @param nowMillis 当前时间（毫秒数）
+	 * @return 到期的记录ID（可能有重复）
+	 */
+	@NonNull
+	public synchronized long[] advance(long nowMillis) {
+		long targetTick = Math.floorDiv(nowMillis, this.tickMillis);
+
+		LongList expired = new LongList();
+		this.dueBucket.drainTo(expired);
+
+		while (this.currentTick < targetTick) {
+			if (this.size == expired.size) {
+				// 时间轮中已没有数据，直接跳到目标刻度
+				this.currentTick = targetTick;
+				break;
+			}
+
+			this.currentTick++;
+
+			// 从高层到低层，将起始时刻为当前刻度的槽位降级
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((this.currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+					this.cascade(this.wheels[level][(int)(this.currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK], expired);
+				}
+			}
+
+			// 第0层当前刻度的槽位，全部到期
+			this.wheels[0][(int)this.currentTick & WHEEL_MASK].drainTo(expired);
+		}
+
+		this.size -= expired.size;
+		return expired.toArray();
+	}
+
+	/**
+	 * @return 时间轮中的数据量（包含已续期或删除的记录的旧任务）
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	public long getTickMillis() {
+		return tickMillis;
+	}
+
+
+	//region Private
+
+	/**
+	 * 根据到期刻度与当前刻度的最高不同位，将数据放到对应的层和槽位
+	 *
+	 * @return 是否已放入时间轮
+	 */
+	private boolean place(long id, long dueTick) {
+		int highestBit = 63 - Long.numberOfLeadingZeros(dueTick ^ this.currentTick);
+		int level = highestBit / WHEEL_BITS;
+		if (level >= LEVELS) {
+			return false; // 超出时间轮范围，视为不过期
+		}
+		this.wheels[level][(int)(dueTick >>> (WHEEL_BITS * level)) & WHEEL_MASK].add(id, dueTick);
+		return true;
+	}
+
+	/**
+	 * 将高层槽位中的数据降级到低层，已到期的直接放入到期列表
+	 */
+	private void cascade(Bucket bucket, LongList expired) {
+		int count = bucket.size;
+		if (count == 0) {
+			return;
+		}
+
+		long[] ids = bucket.ids;
+		long[] dueTicks = bucket.dueTicks;
+		bucket.reset();
+		for (int i = 0; i < count; i++) {
+			if (dueTicks[i] <= this.currentTick) {
+				expired.add(ids[i]);
+			} else {
+				this.place(ids[i], dueTicks[i]);
+			}
+		}
+	}
+
+	//endregion
+
+
+	/**
+	 * 槽位（使用基本类型数组保存数据，避免装箱）
+	 */
+	private static final class Bucket {
+
+		private static final long[] EMPTY = new long[0];
+
+		private long[] ids = EMPTY;
+
+		private long[] dueTicks = EMPTY;
+
+		private int size;
+
+
+		private void add(long id, long dueTick) {
+			if (this.size == this.ids.length) {
+				int newLength = Math.max(8, this.size << 1);
+				this.ids = Arrays.copyOf(this.ids, newLength);
+				this.dueTicks = Arrays.copyOf(this.dueTicks, newLength);
+			}
+			this.ids[this.size] = id;
+			this.dueTicks[this.size] = dueTick;
+			this.size++;
+		}
+
+		private void drainTo(LongList list) {
+			for (int i = 0; i < this.size; i++) {
+				list.add(this.ids[i]);
+			}
+			this.reset();
+		}
+
+		private void reset() {
+			// 释放数组，槽位可能很久之后才会再次使用
+			this.ids = EMPTY;
+			this.dueTicks = EMPTY;
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * 基本类型long的列表
+	 */
+	private static final class LongList {
+
+		private long[] values = new long[16];
+
+		private int size;
+
+
+		private void add(long value) {
+			if (this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size << 1);
+			}
+			this.values[this.size++] = value;
+		}
+
+		private long[] toArray() {
+			return Arrays.copyOf(this.values, this.size);
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 以基本类型long为键的哈希表（开放寻址、线性探测，键不装箱）
+ * <p>
+ * 非线程安全，并发访问由 {@link ConcurrentLongObjectMap} 分段加锁保证。<br>
+ * 数组表通过不可变的 {@link Table} 整体替换，读取方法不会因并发修改而出现数组越界或死循环，
+ * 因此可配合 {@link java.util.concurrent.locks.StampedLock} 的乐观读使用（读取结果以校验为准）。
+ * <p>
+ * 删除数据时，采用向后移位的方式删除，不留下墓碑，探测长度不会随删除次数增加。
+ *
+ * @param <V> 值的类型
+ * @author wangliang181230
+ */
+public class LongObjectHashMap<V> {
+
+	/**
+	 * 最小容量
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * 最大容量
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * 最大负载因子
+	 */
+	private static final float MAX_LOAD_FACTOR = 0.75F;
+
+
+	/**
+	 * 数组表
+	 */
+	private Table table;
+
+	/**
+	 * 数据量
+	 */
+	private int size;
+
+	/**
+	 * 扩容阈值
+	 */
+	private int resizeThreshold;
+
+
+	public LongObjectHashMap(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be less than 0");
+		this.setTable(new Table(tableSizeFor((int)Math.min(MAX_CAPACITY, (long)(initialCapacity / MAX_LOAD_FACTOR) + 1))));
+	}
+
+	public LongObjectHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+
+	/**
+	 * 获取值
+	 *
+	 * @param key 键
+	 * @return 值，不存在时返回null
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		Table t = this.table;
+		int mask = t.mask;
+		int i = hash(key) & mask;
+		Object value;
+		// 最多探测一圈，避免并发修改时出现死循环
+		for (int n = 0; n <= mask; n++) {
+			value = t.values[i];
+			if (value == null) {
+				return null;
+			}
+			if (t.keys[i] == key) {
+				return (V)value;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * 设置值
+	 *
+	 * @param key   键
+	 * @param value 值
+	 * @return 原来的值，不存在时返回null
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V put(long key, @NonNull V value) {
+		Assert.notNull(value, "'value' must not be null");
+
+		Table t = this.table;
+		int i = hash(key) & t.mask;
+		Object old;
+		while ((old = t.values[i]) != null) {
+			if (t.keys[i] == key) {
+				t.values[i] = value;
+				return (V)old;
+			}
+			i = (i + 1) & t.mask;
+		}
+
+		// 先写键，再写值，值不为null时表示槽位已被使用
+		t.keys[i] = key;
+		t.values[i] = value;
+		if (++this.size > this.resizeThreshold) {
+			this.resize();
+		}
+		return null;
+	}
+
+	/**
+	 * 删除值
+	 *
+	 * @param key 键
+	 * @return 被删除的值，不存在时返回null
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		Table t = this.table;
+		int mask = t.mask;
+		int i = hash(key) & mask;
+		Object old;
+		while ((old = t.values[i]) != null) {
+			if (t.keys[i] == key) {
+				this.shiftBackward(t, i);
+				this.size--;
+				return (V)old;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * 遍历所有数据
+	 *
+	 * @param consumer 消费者
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(@NonNull LongObjectConsumer<? super V> consumer) {
+		Table t = this.table;
+		Object value;
+		for (int i = 0; i < t.values.length; i++) {
+			value = t.values[i];
+			if (value != null) {
+				consumer.accept(t.keys[i], (V)value);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	//region Private
+
+	/**
+	 * 删除槽位上的数据，并将后续同一探测链上的数据向前移动，保证探测链不断开
+	 *
+	 * @param t 数组表
+	 * @param i 被删除的槽位
+	 */
+	private void shiftBackward(Table t, int i) {
+		int mask = t.mask;
+		int j = i;
+		int home;
+		while (true) {
+			j = (j + 1) & mask;
+			if (t.values[j] == null) {
+				break;
+			}
+
+			// 数据的理想槽位在 (i, j] 区间内时，不能移动到 i
+			home = hash(t.keys[j]) & mask;
+			if (i <= j ? (i < home && home <= j) : (i < home || home <= j)) {
+				continue;
+			}
+
+			t.keys[i] = t.keys[j];
+			t.values[i] = t.values[j];
+			i = j;
+		}
+		t.values[i] = null;
+	}
+
+	private void resize() {
+		Table oldTable = this.table;
+		if (oldTable.values.length >= MAX_CAPACITY) {
+			return;
+		}
+
+		Table newTable = new Table(oldTable.values.length << 1);
+		int i;
+		for (int j = 0; j < oldTable.values.length; j++) {
+			if (oldTable.values[j] != null) {
+				i = hash(oldTable.keys[j]) & newTable.mask;
+				while (newTable.values[i] != null) {
+					i = (i + 1) & newTable.mask;
+				}
+				newTable.keys[i] = oldTable.keys[j];
+				newTable.values[i] = oldTable.values[j];
+			}
+		}
+		this.setTable(newTable);
+	}
+
+	private void setTable(Table table) {
+		this.table = table;
+		this.resizeThreshold = (int)(table.values.length * MAX_LOAD_FACTOR);
+	}
+
+	/**
+	 * 计算哈希值（斐波那契散列，使连续的ID均匀分布）
+	 *
+	 * @param key 键
+	 * @return 哈希值
+	 */
+	static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int n = Math.max(MIN_CAPACITY, capacity);
+		return n >= MAX_CAPACITY ? MAX_CAPACITY : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	//endregion
+
+
+	/**
+	 * 数组表（不可变的数组引用，扩容时整体替换）
+	 */
+	private static final class Table {
+
+		private final long[] keys;
+
+		private final Object[] values;
+
+		private final int mask;
+
+
+		private Table(int capacity) {
+			this.keys = new long[capacity];
+			this.values = new Object[capacity];
+			this.mask = capacity - 1;
+		}
+	}
+
+	/**
+	 * 以基本类型long为键的消费者
+	 *
+	 * @param <V> 值的类型
+	 */
+	@FunctionalInterface
+	public interface LongObjectConsumer<V> {
+
+		void accept(long key, V value);
+	}
+}
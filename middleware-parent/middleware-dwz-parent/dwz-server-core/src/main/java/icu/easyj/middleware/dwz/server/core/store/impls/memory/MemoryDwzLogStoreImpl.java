@@ -0,0 +1,812 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.util.shortcode.IShortCodeService;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.data.store.StoreException;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMemoryStoreConfig;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.util.LongUrlUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 基于内存实现的 {@link IDwzLogStore}
+ * <p>
+ * 适用于单节点部署、集成测试等场景，数据只保存在内存中，应用重启后丢失。
+ * <p>
+ * 实现说明：<br>
+ * 1）主键索引：ID → 记录，使用以基本类型long为键的并发哈希表 {@link ConcurrentLongObjectMap}，读取无锁；<br>
+ * 2）短链接码索引：短链接码都是由ID转换而来的，直接转换回ID后查询主键索引，无需额外的索引；<br>
+ * 3）长链接索引：长链接的64位哈希值 → ID数组（哈希冲突时数组中有多个ID），查询后再比较长链接；<br>
+ * 4）过期处理：有过期时间的记录加入 {@link HierarchicalTimingWheel}，处理超时记录时只处理到期的记录，无需全量扫描；<br>
+ * 5）记录是不可变的，修改时整体替换，读取时返回新的 {@link DwzLogEntity}，调用方修改返回的对象不会影响存储的数据；<br>
+ * 6）堆外存储（可选）：指定了 {@link OffHeapStringArena} 时，长链接保存在堆外，记录中只保存long类型的引用，
+ * 只在重定向或返回 {@link DwzLogEntity} 时才解码为字符串。数据量达到千万级时，可显著减少堆内存和GC停顿。
+ * <p>
+ * 注意：{@link #getByLongUrlForUpdate(String)} 不加锁，并发创建同一长链接时，由长链接索引的唯一性校验抛出 {@link DuplicateKeyException}。
+ * <p>
+ * 扩展：子类可通过 {@link #afterPut(MemoryDwzLog)}、{@link #afterRemove(long)} 持久化数据的变更，
+ * 通过 {@link #load(MemoryDwzLog)}、{@link #unload(long)} 恢复数据。
+ *
+ * @author wangliang181230
+ */
+public class MemoryDwzLogStoreImpl implements IDwzLogStore {
+
+	/**
+	 * 默认的时间轮刻度毫秒数
+	 */
+	public static final long DEFAULT_TICK_MILLIS = 1000L;
+
+	/**
+	 * 没有过期时间时，{@link MemoryDwzLog#getTermMillis()} 的值
+	 */
+	public static final long NO_TERM = Long.MIN_VALUE;
+
+
+	private final ISequenceService sequenceService;
+
+	/**
+	 * 短字符串服务，用于ID与短链接码的互相转换
+	 */
+	private final IShortCodeService shortCodeService;
+
+	/**
+	 * 去重策略：HASH策略下，按规范化后的长链接去重，否则按原始长链接去重
+	 */
+	private final DwzDedupStrategy dedupStrategy;
+
+	/**
+	 * 主键索引：ID → 记录
+	 */
+	private final ConcurrentLongObjectMap<MemoryDwzLog> idIndex;
+
+	/**
+	 * 长链接索引：长链接的64位哈希值 → ID数组
+	 */
+	private final ConcurrentLongObjectMap<long[]> urlIndex;
+
+	/**
+	 * 过期时间轮
+	 */
+	private final HierarchicalTimingWheel timingWheel;
+
+	/**
+	 * 长链接的堆外存储区，为null时长链接保存在堆内
+	 */
+	@Nullable
+	private final OffHeapStringArena urlArena;
+
+	/**
+	 * 最大ID（不因删除记录而减小）
+	 */
+	private final AtomicLong maxId = new AtomicLong(Long.MIN_VALUE);
+
+
+	public MemoryDwzLogStoreImpl(ISequenceService sequenceService, IShortCodeService shortCodeService, DwzDedupStrategy dedupStrategy,
+								 int initialCapacity, long tickMillis, @Nullable OffHeapStringArena urlArena) {
+		Assert.notNull(sequenceService, "'sequenceService' must not be null");
+		Assert.notNull(shortCodeService, "'shortCodeService' must not be null");
+		Assert.notNull(dedupStrategy, "'dedupStrategy' must not be null");
+
+		int concurrencyLevel = Runtime.getRuntime().availableProcessors() * 4;
+
+		this.sequenceService = sequenceService;
+		this.shortCodeService = shortCodeService;
+		this.dedupStrategy = dedupStrategy;
+		this.idIndex = new ConcurrentLongObjectMap<>(concurrencyLevel, initialCapacity);
+		this.urlIndex = new ConcurrentLongObjectMap<>(concurrencyLevel, initialCapacity);
+		this.timingWheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis());
+		this.urlArena = urlArena;
+	}
+
+	public MemoryDwzLogStoreImpl(ISequenceService sequenceService, IShortCodeService shortCodeService, DwzDedupStrategy dedupStrategy,
+								 int initialCapacity, long tickMillis) {
+		this(sequenceService, shortCodeService, dedupStrategy, initialCapacity, tickMillis, null);
+	}
+
+	public MemoryDwzLogStoreImpl(ISequenceService sequenceService, IShortCodeService shortCodeService, DwzDedupStrategy dedupStrategy,
+								 int initialCapacity) {
+		this(sequenceService, shortCodeService, dedupStrategy, initialCapacity, DEFAULT_TICK_MILLIS);
+	}
+
+	public MemoryDwzLogStoreImpl(ISequenceService sequenceService, IShortCodeService shortCodeService, DwzDedupStrategy dedupStrategy,
+								 @NonNull DwzServerMemoryStoreConfig config) {
+		this(sequenceService, shortCodeService, dedupStrategy, config.getInitialCapacity(), DEFAULT_TICK_MILLIS,
+				config.isOffHeap() ? new OffHeapStringArena(config.getOffHeapSlabSize()) : null);
+	}
+
+	public MemoryDwzLogStoreImpl(ISequenceService sequenceService) {
+		this(sequenceService, ShortCodeUtils.DEFAULT, DwzDedupStrategy.LOCK, 0);
+	}
+
+
+	//region Override IDwzLogStore
+
+	@NonNull
+	@Override
+	public DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity) {
+		DwzLogEntity dwzLog = new DwzLogEntity();
+		dwzLog.setLongUrl(longUrl);
+		dwzLog.setTermOfValidity(termOfValidity);
+
+		this.insertAll(this.prepareAll(Collections.singletonList(dwzLog)));
+		return dwzLog;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		this.insertAll(this.prepareAll(dwzLogs));
+		return dwzLogs;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> prepareAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		if (dwzLogs.isEmpty()) {
+			return dwzLogs;
+		}
+
+		// 一次性获取所有ID，只需一次序列服务的调用
+		long[] ids = this.sequenceService.nextVals(SEQ_NAME__DWZ_LOG_ID, dwzLogs.size());
+		Date now = new Date();
+
+		DwzLogEntity dwzLog;
+		for (int i = 0; i < dwzLogs.size(); i++) {
+			dwzLog = dwzLogs.get(i);
+			dwzLog.setId(ids[i]);
+			dwzLog.setShortUrlCode(this.shortCodeService.toCode(ids[i]));
+			dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
+			dwzLog.setCreateTime(now);
+			dwzLog.setUpdateTime(now);
+			dwzLog.setVersion(1);
+		}
+		return dwzLogs;
+	}
+
+	/**
+	 * 插入已预留ID的记录，其中任意一条记录的ID或长链接已存在时，整批失败
+	 *
+	 * @param dwzLogs 已预留ID的短链接记录
+	 * @throws DuplicateKeyException ID或长链接已存在
+	 */
+	@Override
+	public void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		List<MemoryDwzLog> inserted = new ArrayList<>(dwzLogs.size());
+		try {
+			MemoryDwzLog record;
+			for (DwzLogEntity dwzLog : dwzLogs) {
+				record = this.toRecord(dwzLog);
+				try {
+					this.insert(record, dwzLog.getLongUrl(), true);
+				} catch (RuntimeException e) {
+					this.freeLongUrl(record);
+					throw e;
+				}
+				inserted.add(record);
+			}
+		} catch (RuntimeException e) {
+			// 回滚此批已插入的记录
+			for (MemoryDwzLog record : inserted) {
+				try {
+					this.remove(record.id, true);
+				} catch (RuntimeException ex) {
+					e.addSuppressed(ex);
+				}
+			}
+			throw e;
+		}
+
+		for (MemoryDwzLog record : inserted) {
+			this.maxId.accumulateAndGet(record.id, Math::max);
+			if (record.termMillis != NO_TERM) {
+				this.timingWheel.add(record.id, record.termMillis);
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl) {
+		MemoryDwzLog record = this.findByLongUrl(longUrl);
+		return record != null ? this.toEntity(record) : null;
+	}
+
+	@Override
+	public void update(@NonNull DwzLogEntity dwzLog) {
+		this.doUpdate(dwzLog, false);
+	}
+
+	@Override
+	public boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		return this.doUpdate(dwzLog, true);
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		MemoryDwzLog record = this.findEffectiveByShortUrlCode(shortUrlCode);
+		return record != null ? this.getLongUrl(record) : null;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		MemoryDwzLog record = this.findEffectiveByShortUrlCode(shortUrlCode);
+		return record != null ? this.toEntity(record) : null;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		MemoryDwzLog record = this.idIndex.get(id);
+		return record != null ? this.toEntity(record) : null;
+	}
+
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		int effective = DwzLogStatus.EFFECTIVE.getStatus();
+		this.forEachRecord(record -> {
+			if (record.status == effective) {
+				consumer.accept(record.shortUrlCode);
+			}
+		});
+	}
+
+	/**
+	 * 获取最大ID，O(1)
+	 *
+	 * @return 最大ID，没有数据时返回null
+	 */
+	@Nullable
+	@Override
+	public Long getMaxId() {
+		long id = this.maxId.get();
+		return id == Long.MIN_VALUE ? null : id;
+	}
+
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		return 0; // 不保存哈希值，长链接索引在插入时维护
+	}
+
+	@Override
+	public int deleteOvertime() {
+		long now = System.currentTimeMillis();
+
+		int count = 0;
+		MemoryDwzLog record;
+		for (long id : this.timingWheel.advance(now)) {
+			// 时间轮中可能有已续期或已删除的记录的旧任务，需要校验记录的当前状态
+			record = this.idIndex.get(id);
+			if (record != null && record.isOvertime(now) && this.remove(id, true) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int updateOvertime() {
+		long now = System.currentTimeMillis();
+
+		int count = 0;
+		boolean[] updated = new boolean[1];
+		for (long id : this.timingWheel.advance(now)) {
+			updated[0] = false;
+			this.idIndex.compute(id, old -> {
+				if (old == null || !old.isOvertime(now) || old.status == DwzLogStatus.Expired.getStatus()) {
+					return old;
+				}
+				updated[0] = true;
+				MemoryDwzLog record = old.update(old.termMillis, DwzLogStatus.Expired.getStatus(), now);
+				this.afterPut(record);
+				return record;
+			});
+			if (updated[0]) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	//endregion
+
+
+	//region Protected
+
+	/**
+	 * 记录写入后调用（在该记录的写锁内调用，同一记录的变更按顺序调用；抛出异常时，此次变更不生效）
+	 *
+	 * @param record 写入的记录
+	 */
+	protected void afterPut(MemoryDwzLog record) {
+	}
+
+	/**
+	 * 记录删除后调用（在该记录的写锁内调用，同一记录的变更按顺序调用）
+	 *
+	 * @param id 被删除的记录ID
+	 */
+	protected void afterRemove(long id) {
+	}
+
+	/**
+	 * 加载记录（用于恢复数据，不调用 {@link #afterPut(MemoryDwzLog)}）：ID已存在时替换，否则插入
+	 *
+	 * @param record 记录（通过公开的构造函数创建，包含长链接）
+	 */
+	protected void load(@NonNull MemoryDwzLog record) {
+		boolean[] replaced = new boolean[1];
+		this.idIndex.compute(record.id, old -> {
+			if (old == null) {
+				return null;
+			}
+			replaced[0] = true;
+			// 同一ID的长链接不会变，沿用已有记录的长链接，无需再次保存到堆外
+			return record.withLongUrlOf(old);
+		});
+		if (!replaced[0]) {
+			MemoryDwzLog newRecord = this.toOffHeapIfEnabled(record);
+			try {
+				this.insert(newRecord, record.longUrl, false);
+			} catch (RuntimeException e) {
+				this.freeLongUrl(newRecord);
+				throw e;
+			}
+		}
+
+		this.maxId.accumulateAndGet(record.id, Math::max);
+		if (record.termMillis != NO_TERM) {
+			this.timingWheel.add(record.id, record.termMillis);
+		}
+	}
+
+	/**
+	 * 卸载记录（用于恢复数据，不调用 {@link #afterRemove(long)}）
+	 *
+	 * @param id 记录ID
+	 */
+	protected void unload(long id) {
+		this.remove(id, false);
+	}
+
+	/**
+	 * 加载最大ID（用于恢复数据，最大的记录可能已被删除）
+	 *
+	 * @param id 最大ID
+	 */
+	protected void loadMaxId(long id) {
+		this.maxId.accumulateAndGet(id, Math::max);
+	}
+
+	/**
+	 * 遍历所有记录（逐段加读锁，遍历期间的变更可能遍历到，也可能遍历不到）
+	 *
+	 * @param consumer 消费者
+	 */
+	protected void forEachRecord(@NonNull Consumer<MemoryDwzLog> consumer) {
+		this.idIndex.forEach((id, record) -> consumer.accept(record));
+	}
+
+	/**
+	 * 获取记录的长链接（长链接保存在堆外时，解码为字符串）
+	 *
+	 * @param record 记录
+	 * @return 长链接，堆外的长链接已被释放（记录已被并发删除）时返回null
+	 */
+	@Nullable
+	protected String getLongUrl(@NonNull MemoryDwzLog record) {
+		if (record.longUrl != null) {
+			return record.longUrl;
+		}
+		return this.urlArena != null ? this.urlArena.get(record.longUrlRef) : null;
+	}
+
+	/**
+	 * 获取记录的长链接的UTF-8字节（长链接保存在堆外时，直接复制，无需解码）
+	 *
+	 * @param record 记录
+	 * @return 长链接的UTF-8字节，堆外的长链接已被释放（记录已被并发删除）时返回null
+	 */
+	@Nullable
+	protected byte[] getLongUrlBytes(@NonNull MemoryDwzLog record) {
+		if (record.longUrl != null) {
+			return record.longUrl.getBytes(StandardCharsets.UTF_8);
+		}
+		return this.urlArena != null ? this.urlArena.getBytes(record.longUrlRef) : null;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 插入记录：在长链接索引的写锁内校验唯一性，并写入主键索引
+	 *
+	 * @param record    记录
+	 * @param longUrl   记录的长链接（长链接保存在堆外时，由调用方传入，避免再次解码）
+	 * @param fireEvent 是否调用 {@link #afterPut(MemoryDwzLog)}，为false时表示正在恢复数据，不校验长链接的唯一性
+	 *                  （恢复过程中，可能短暂地存在同一长链接的多条记录，例如：旧记录的删除操作还未重放）
+	 * @throws DuplicateKeyException ID或长链接已存在
+	 */
+	private void insert(MemoryDwzLog record, String longUrl, boolean fireEvent) {
+		String urlKey = this.toUrlKey(longUrl);
+		this.urlIndex.compute(hash(urlKey), ids -> {
+			if (ids != null && fireEvent) {
+				for (long id : ids) {
+					if (this.isSameUrl(this.idIndex.get(id), urlKey)) {
+						throw new DuplicateKeyException("长链接已经存在：" + longUrl);
+					}
+				}
+			}
+
+			this.idIndex.compute(record.id, old -> {
+				if (old != null) {
+					throw new DuplicateKeyException("ID已经存在：" + record.id);
+				}
+				if (fireEvent) {
+					this.afterPut(record);
+				}
+				return record;
+			});
+
+			if (ids == null) {
+				return new long[]{record.id};
+			}
+			long[] newIds = Arrays.copyOf(ids, ids.length + 1);
+			newIds[ids.length] = record.id;
+			return newIds;
+		});
+	}
+
+	/**
+	 * 删除记录：在长链接索引的写锁内，同时删除主键索引和长链接索引
+	 *
+	 * @param id        记录ID
+	 * @param fireEvent 是否调用 {@link #afterRemove(long)}
+	 * @return 被删除的记录，不存在时返回null
+	 */
+	@Nullable
+	private MemoryDwzLog remove(long id, boolean fireEvent) {
+		MemoryDwzLog record = this.idIndex.get(id);
+		if (record == null) {
+			return null;
+		}
+
+		String longUrl = this.getLongUrl(record);
+		if (longUrl == null) {
+			return null; // 已被并发删除
+		}
+
+		MemoryDwzLog[] removed = new MemoryDwzLog[1];
+		this.urlIndex.compute(hash(this.toUrlKey(longUrl)), ids -> {
+			this.idIndex.compute(id, old -> {
+				if (old != null && fireEvent) {
+					this.afterRemove(id);
+				}
+				removed[0] = old;
+				return null;
+			});
+			if (ids == null) {
+				return null;
+			}
+
+			int index = -1;
+			for (int i = 0; i < ids.length; i++) {
+				if (ids[i] == id) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) {
+				return ids;
+			}
+			if (ids.length == 1) {
+				return null;
+			}
+			long[] newIds = new long[ids.length - 1];
+			System.arraycopy(ids, 0, newIds, 0, index);
+			System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+			return newIds;
+		});
+
+		if (removed[0] != null) {
+			// 已从索引中删除，之后不会再有新的读取
+			this.freeLongUrl(removed[0]);
+		}
+		return removed[0];
+	}
+
+	/**
+	 * 更新记录（与数据库实现一致：更新过期时间，状态改为有效，版本号加1）
+	 *
+	 * @param dwzLog       短链接记录
+	 * @param checkVersion 是否校验版本号
+	 * @return 是否更新成功
+	 */
+	private boolean doUpdate(DwzLogEntity dwzLog, boolean checkVersion) {
+		long now = System.currentTimeMillis();
+		long termMillis = toMillis(dwzLog.getTermOfValidity());
+
+		MemoryDwzLog[] updated = new MemoryDwzLog[1];
+		this.idIndex.compute(dwzLog.getId(), old -> {
+			if (old == null || (checkVersion && old.version != dwzLog.getVersion())) {
+				return old;
+			}
+			updated[0] = old.update(termMillis, DwzLogStatus.EFFECTIVE.getStatus(), now);
+			this.afterPut(updated[0]);
+			return updated[0];
+		});
+
+		if (updated[0] == null) {
+			if (checkVersion) {
+				return false;
+			}
+			throw new StoreException("更新已有的短链接记录失败，记录不存在：" + dwzLog.getId());
+		}
+
+		if (termMillis != NO_TERM) {
+			this.timingWheel.add(dwzLog.getId(), termMillis);
+		}
+		if (checkVersion) {
+			dwzLog.setUpdateTime(new Date(now));
+			dwzLog.setVersion(updated[0].version);
+		}
+		return true;
+	}
+
+	@Nullable
+	private MemoryDwzLog findByLongUrl(String longUrl) {
+		String urlKey = this.toUrlKey(longUrl);
+		long[] ids = this.urlIndex.get(hash(urlKey));
+		if (ids != null) {
+			MemoryDwzLog record;
+			for (long id : ids) {
+				record = this.idIndex.get(id);
+				if (this.isSameUrl(record, urlKey)) {
+					return record;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 根据短链接码获取有效的记录（已过期但还未被定时任务处理的记录，同样视为无效）
+	 */
+	@Nullable
+	private MemoryDwzLog findEffectiveByShortUrlCode(String shortUrlCode) {
+		long id;
+		try {
+			id = this.shortCodeService.toId(shortUrlCode);
+		} catch (IllegalArgumentException e) {
+			return null; // 无效的短链接码
+		}
+
+		MemoryDwzLog record = this.idIndex.get(id);
+		if (record == null
+				|| record.status != DwzLogStatus.EFFECTIVE.getStatus()
+				|| record.isOvertime(System.currentTimeMillis())
+				|| !shortUrlCode.equals(record.shortUrlCode)) {
+			return null;
+		}
+		return record;
+	}
+
+	private boolean isSameUrl(@Nullable MemoryDwzLog record, String urlKey) {
+		if (record == null) {
+			return false;
+		}
+		String longUrl = this.getLongUrl(record);
+		return longUrl != null && urlKey.equals(this.toUrlKey(longUrl));
+	}
+
+	private MemoryDwzLog toRecord(DwzLogEntity dwzLog) {
+		Assert.notNull(dwzLog.getId(), "'id' must not be null");
+		return this.toOffHeapIfEnabled(new MemoryDwzLog(dwzLog.getId(), dwzLog.getShortUrlCode(), dwzLog.getLongUrl(),
+				toMillis(dwzLog.getTermOfValidity()), dwzLog.getStatus(),
+				dwzLog.getCreateTime().getTime(), dwzLog.getUpdateTime().getTime(), dwzLog.getVersion()));
+	}
+
+	/**
+	 * 启用了堆外存储时，将长链接保存到堆外
+	 */
+	private MemoryDwzLog toOffHeapIfEnabled(MemoryDwzLog record) {
+		if (this.urlArena == null || record.longUrl == null) {
+			return record;
+		}
+		return record.withLongUrlRef(this.urlArena.put(record.longUrl));
+	}
+
+	private void freeLongUrl(MemoryDwzLog record) {
+		if (this.urlArena != null && record.longUrlRef != OffHeapStringArena.NO_REF) {
+			this.urlArena.free(record.longUrlRef);
+		}
+	}
+
+	private DwzLogEntity toEntity(MemoryDwzLog record) {
+		return new DwzLogEntity(record.id, record.shortUrlCode, this.getLongUrl(record),
+				record.termMillis != NO_TERM ? new Date(record.termMillis) : null, record.status,
+				new Date(record.createTime), new Date(record.updateTime), record.version);
+	}
+
+	private String toUrlKey(String longUrl) {
+		return this.dedupStrategy == DwzDedupStrategy.HASH ? LongUrlUtils.normalize(longUrl) : longUrl;
+	}
+
+	private static long hash(String urlKey) {
+		return MurmurHash.hash64(urlKey);
+	}
+
+	private static long toMillis(@Nullable Date date) {
+		return date != null ? date.getTime() : NO_TERM;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 记录数
+	 */
+	public int size() {
+		return this.idIndex.size();
+	}
+
+	/**
+	 * @return 时间轮中的过期任务数
+	 */
+	public int getPendingExpirationCount() {
+		return this.timingWheel.size();
+	}
+
+	/**
+	 * @return 长链接的堆外存储区，未启用时返回null
+	 */
+	@Nullable
+	public OffHeapStringArena getUrlArena() {
+		return urlArena;
+	}
+
+	//endregion
+
+
+	/**
+	 * 不可变的内存记录（时间使用基本类型long保存，减少对象数量）
+	 */
+	public static final class MemoryDwzLog {
+
+		private final long id;
+
+		private final String shortUrlCode;
+
+		/**
+		 * 长链接，保存在堆外时为null
+		 */
+		@Nullable
+		private final String longUrl;
+
+		/**
+		 * 长链接在堆外存储区中的引用，保存在堆内时为 {@link OffHeapStringArena#NO_REF}
+		 */
+		private final long longUrlRef;
+
+		/**
+		 * 过期时间（毫秒数），没有过期时间时为 {@link #NO_TERM}
+		 */
+		private final long termMillis;
+
+		private final int status;
+
+		private final long createTime;
+
+		private final long updateTime;
+
+		private final int version;
+
+
+		public MemoryDwzLog(long id, String shortUrlCode, @NonNull String longUrl, long termMillis, int status,
+							long createTime, long updateTime, int version) {
+			this(id, shortUrlCode, longUrl, OffHeapStringArena.NO_REF, termMillis, status, createTime, updateTime, version);
+		}
+
+		private MemoryDwzLog(long id, String shortUrlCode, @Nullable String longUrl, long longUrlRef, long termMillis, int status,
+							 long createTime, long updateTime, int version) {
+			this.id = id;
+			this.shortUrlCode = shortUrlCode;
+			this.longUrl = longUrl;
+			this.longUrlRef = longUrlRef;
+			this.termMillis = termMillis;
+			this.status = status;
+			this.createTime = createTime;
+			this.updateTime = updateTime;
+			this.version = version;
+		}
+
+		private MemoryDwzLog update(long termMillis, int status, long updateTime) {
+			return new MemoryDwzLog(this.id, this.shortUrlCode, this.longUrl, this.longUrlRef, termMillis, status,
+					this.createTime, updateTime, this.version + 1);
+		}
+
+		private MemoryDwzLog withLongUrlRef(long longUrlRef) {
+			return new MemoryDwzLog(this.id, this.shortUrlCode, null, longUrlRef, this.termMillis, this.status,
+					this.createTime, this.updateTime, this.version);
+		}
+
+		private MemoryDwzLog withLongUrlOf(MemoryDwzLog other) {
+			return new MemoryDwzLog(this.id, this.shortUrlCode, other.longUrl, other.longUrlRef, this.termMillis, this.status,
+					this.createTime, this.updateTime, this.version);
+		}
+
+		private boolean isOvertime(long now) {
+			return this.termMillis != NO_TERM && this.termMillis < now;
+		}
+
+
+		//region Getter
+
+		public long getId() {
+			return id;
+		}
+
+		public String getShortUrlCode() {
+			return shortUrlCode;
+		}
+
+		public long getTermMillis() {
+			return termMillis;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public long getCreateTime() {
+			return createTime;
+		}
+
+		public long getUpdateTime() {
+			return updateTime;
+		}
+
+		public int getVersion() {
+			return version;
+		}
+
+		//endregion
+	}
+}
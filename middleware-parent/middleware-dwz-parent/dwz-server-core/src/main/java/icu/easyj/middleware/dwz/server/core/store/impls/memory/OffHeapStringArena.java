@@ -0,0 +1,345 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 堆外字符串存储区
+ * <p>
+ * 用于保存大量的长字符串（如：长链接），字符串以UTF-8字节保存在堆外的 {@link ByteBuffer#allocateDirect(int) 直接内存} 分片中，
+ * 调用方只需持有一个基本类型long的引用，堆内不再有大量的 {@link String} 和 byte[] 对象，可显著减少GC的扫描和复制开销。
+ * <p>
+ * 实现说明：<br>
+ * 1）写入：在当前分片中顺序追加（4字节长度 + UTF-8字节），当前分片写满后，新建一个分片，写入操作加锁；<br>
+ * 2）读取：无锁，根据引用找到分片和偏移量后直接读取；<br>
+ * 3）释放：只统计分片中的有效字节数，分片中的数据全部被释放后，才释放整个分片（由GC回收直接内存）。
+ * 分片被释放后，引用中的代数不再匹配，读取时返回null；释放前已开始的读取，读到的依然是原来的数据。
+ * <p>
+ * 引用的格式：20位分片槽位 + 12位分片代数 + 32位分片内偏移量。
+ * <p>
+ * 注意：不会整理碎片，分片中只要还有一个有效的字符串，整个分片就不会被释放。
+ * 字符串大多按写入顺序失效（如：有效期相同的短链接）时，碎片很少；否则请关注 {@link #getLiveBytes()} 与 {@link #getAllocatedBytes()} 的比例。
+ *
+ * @author wangliang181230
+ */
+public class OffHeapStringArena {
+
+	/**
+	 * 默认分片大小：4MB
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * 无效的引用
+	 */
+	public static final long NO_REF = -1L;
+
+	private static final int SLOT_BITS = 20;
+	private static final int GENERATION_BITS = 12;
+	private static final int MAX_SLABS = 1 << SLOT_BITS;
+	private static final int GENERATION_MASK = (1 << GENERATION_BITS) - 1;
+
+	/**
+	 * 每个字符串前的长度字段的字节数
+	 */
+	private static final int LENGTH_SIZE = 4;
+
+
+	/**
+	 * 分片大小
+	 */
+	private final int slabSize;
+
+	/**
+	 * 分片槽位（扩容时整体替换）
+	 */
+	private volatile AtomicReferenceArray<Slab> slabs = new AtomicReferenceArray<>(16);
+
+	//region 以下字段只在持有当前对象的锁时访问
+
+	/**
+	 * 各槽位的分片代数
+	 */
+	private int[] generations = new int[16];
+
+	/**
+	 * 已释放的槽位
+	 */
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+	/**
+	 * 下一个未使用过的槽位
+	 */
+	private int nextSlot;
+
+	/**
+	 * 当前正在写入的分片
+	 */
+	private Slab current;
+
+	//endregion
+
+	//region 统计数据
+
+	private volatile int slabCount;
+	private volatile long allocatedBytes;
+	private volatile long liveBytes;
+
+	//endregion
+
+
+	public OffHeapStringArena(int slabSize) {
+		Assert.isTrue(slabSize > LENGTH_SIZE, "'slabSize' must be greater than " + LENGTH_SIZE);
+		this.slabSize = slabSize;
+	}
+
+	public OffHeapStringArena() {
+		this(DEFAULT_SLAB_SIZE);
+	}
+
+
+	/**
+	 * 保存字符串
+	 *
+	 * @param str 字符串
+	 * @return 引用
+	 */
+	public long put(@NonNull String str) {
+		return this.put(str.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 保存UTF-8字节
+	 *
+	 * @param bytes UTF-8字节
+	 * @return 引用
+	 */
+	public synchronized long put(@NonNull byte[] bytes) {
+		int size = LENGTH_SIZE + bytes.length;
+
+		Slab slab = this.current;
+		if (slab == null || slab.buffer.capacity() - slab.position < size) {
+			if (slab != null && slab.liveBytes == 0) {
+				this.release(slab);
+			}
+			slab = this.allocate(Math.max(this.slabSize, size));
+			this.current = slab;
+		}
+
+		int offset = slab.position;
+		ByteBuffer buf = slab.buffer.duplicate();
+		buf.position(offset);
+		buf.putInt(bytes.length);
+		buf.put(bytes);
+
+		slab.position += size;
+		slab.liveBytes += size;
+		this.liveBytes += size;
+		return toRef(slab.slot, slab.generation, offset);
+	}
+
+	/**
+	 * 读取UTF-8字节
+	 *
+	 * @param ref 引用
+	 * @return UTF-8字节，已释放时返回null
+	 */
+	@Nullable
+	public byte[] getBytes(long ref) {
+		Slab slab = this.slabFor(ref);
+		if (slab == null) {
+			return null;
+		}
+
+		ByteBuffer buf = slab.buffer.duplicate();
+		buf.position((int)ref);
+		byte[] bytes = new byte[buf.getInt()];
+		buf.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * 读取字符串
+	 *
+	 * @param ref 引用
+	 * @return 字符串，已释放时返回null
+	 */
+	@Nullable
+	public String get(long ref) {
+		byte[] bytes = this.getBytes(ref);
+		return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+	}
+
+	/**
+	 * 释放字符串（同一个引用只能释放一次）
+	 *
+	 * @param ref 引用
+	 */
+	public synchronized void free(long ref) {
+		Slab slab = this.slabFor(ref);
+		if (slab == null) {
+			return;
+		}
+
+		int size = LENGTH_SIZE + slab.buffer.getInt((int)ref);
+		slab.liveBytes -= size;
+		this.liveBytes -= size;
+		if (slab.liveBytes == 0 && slab != this.current) {
+			this.release(slab);
+		}
+	}
+
+
+	//region Private
+
+	private static long toRef(int slot, int generation, int offset) {
+		return ((long)slot << (64 - SLOT_BITS)) | ((long)generation << 32) | (offset & 0xFFFFFFFFL);
+	}
+
+	@Nullable
+	private Slab slabFor(long ref) {
+		if (ref == NO_REF) {
+			return null;
+		}
+
+		int slot = (int)(ref >>> (64 - SLOT_BITS));
+		AtomicReferenceArray<Slab> slabs = this.slabs;
+		if (slot >= slabs.length()) {
+			return null;
+		}
+		Slab slab = slabs.get(slot);
+		if (slab == null || slab.generation != ((int)(ref >>> 32) & GENERATION_MASK)) {
+			return null; // 分片已释放
+		}
+		return slab;
+	}
+
+	private Slab allocate(int capacity) {
+		int slot;
+		if (!this.freeSlots.isEmpty()) {
+			slot = this.freeSlots.pollFirst();
+		} else {
+			if (this.nextSlot >= MAX_SLABS) {
+				throw new IllegalStateException("堆外字符串存储区的分片数已达到上限：" + MAX_SLABS);
+			}
+			slot = this.nextSlot++;
+		}
+
+		AtomicReferenceArray<Slab> slabs = this.slabs;
+		if (slot >= slabs.length()) {
+			int newLength = Math.min(MAX_SLABS, slabs.length() << 1);
+			AtomicReferenceArray<Slab> newSlabs = new AtomicReferenceArray<>(newLength);
+			for (int i = 0; i < slabs.length(); i++) {
+				newSlabs.set(i, slabs.get(i));
+			}
+			this.generations = Arrays.copyOf(this.generations, newLength);
+			this.slabs = slabs = newSlabs;
+		}
+
+		int generation = (this.generations[slot] + 1) & GENERATION_MASK;
+		this.generations[slot] = generation;
+
+		Slab slab = new Slab(slot, generation, ByteBuffer.allocateDirect(capacity));
+		slabs.set(slot, slab);
+		this.slabCount++;
+		this.allocatedBytes += capacity;
+		return slab;
+	}
+
+	private void release(Slab slab) {
+		this.slabs.set(slab.slot, null);
+		this.freeSlots.addLast(slab.slot);
+		this.slabCount--;
+		this.allocatedBytes -= slab.buffer.capacity();
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public int getSlabSize() {
+		return slabSize;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 分片数
+	 */
+	public int getSlabCount() {
+		return slabCount;
+	}
+
+	/**
+	 * @return 已分配的直接内存字节数
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return 有效的字节数（包含长度字段）
+	 */
+	public long getLiveBytes() {
+		return liveBytes;
+	}
+
+	//endregion
+
+
+	/**
+	 * 分片
+	 */
+	private static final class Slab {
+
+		private final int slot;
+
+		private final int generation;
+
+		private final ByteBuffer buffer;
+
+		/**
+		 * 下一个字符串的写入位置（只在持有存储区的锁时访问）
+		 */
+		private int position;
+
+		/**
+		 * 有效的字节数（只在持有存储区的锁时访问）
+		 */
+		private int liveBytes;
+
+
+		private Slab(int slot, int generation, ByteBuffer buffer) {
+			this.slot = slot;
+			this.generation = generation;
+			this.buffer = buffer;
+		}
+	}
+}
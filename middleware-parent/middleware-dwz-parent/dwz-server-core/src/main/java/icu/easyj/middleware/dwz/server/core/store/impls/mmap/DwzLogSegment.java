@@ -0,0 +1,251 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 日志段文件（基于内存映射文件，只追加）
+ * <p>
+ * 文件由若干条记录帧组成，每条记录帧：4字节的内容长度 + 4字节的内容CRC32 + 内容，长度为0时表示后面没有数据了。<br>
+ * 写入时，先写内容和CRC32，最后写长度，即：长度不为0时，记录帧才算写入完成。
+ * 读取时，遇到长度或CRC32校验不通过的记录帧（写入过程中进程崩溃或操作系统崩溃导致），视为数据的结尾，并截断其后的数据。
+ * <p>
+ * 注意：非线程安全，由 {@link MmapDwzLogStoreImpl} 负责同步。
+ *
+ * @author wangliang181230
+ */
+class DwzLogSegment {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DwzLogSegment.class);
+
+
+	/**
+	 * 段文件的扩展名
+	 */
+	static final String SUFFIX = ".log";
+
+	/**
+	 * 记录帧头的长度：4字节的内容长度 + 4字节的内容CRC32
+	 */
+	static final int FRAME_HEADER_SIZE = 8;
+
+
+	/**
+	 * 段序号，从0开始递增，也是文件名
+	 */
+	private final long seq;
+
+	private final File file;
+
+	private final RandomAccessFile randomAccessFile;
+
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * 下一条记录帧的写入位置
+	 */
+	private int position;
+
+
+	private DwzLogSegment(long seq, File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+		this.seq = seq;
+		this.file = file;
+		this.randomAccessFile = randomAccessFile;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * 打开段文件，文件不存在时创建
+	 *
+	 * @param dir  目录
+	 * @param seq  段序号
+	 * @param size 段文件大小，小于现有文件大小时，以现有文件大小为准
+	 * @return 段文件
+	 * @throws IOException 打开失败
+	 */
+	static DwzLogSegment open(File dir, long seq, int size) throws IOException {
+		File file = new File(dir, toFileName(seq));
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			long mapSize = Math.max(size, channel.size());
+			if (mapSize > Integer.MAX_VALUE) {
+				throw new IOException("段文件过大：" + file.getAbsolutePath());
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mapSize);
+			return new DwzLogSegment(seq, file, randomAccessFile, buffer);
+		} catch (IOException | RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	static String toFileName(long seq) {
+		return String.format("%020d", seq) + SUFFIX;
+	}
+
+	/**
+	 * 解析段文件的文件名
+	 *
+	 * @param fileName 文件名
+	 * @return 段序号，不是段文件时返回-1
+	 */
+	static long parseSeq(String fileName) {
+		if (fileName.length() != 20 + SUFFIX.length() || !fileName.endsWith(SUFFIX)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(fileName.substring(0, 20));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * 重放记录帧，并将写入位置移动到最后一条有效记录帧之后
+	 *
+	 * @param from    开始位置
+	 * @param visitor 记录帧内容的访问者
+	 * @return 重放的记录帧数
+	 */
+	int replay(int from, Consumer<ByteBuffer> visitor) {
+		CRC32 crc32 = new CRC32();
+		int pos = from;
+		int count = 0;
+		int length;
+		ByteBuffer payload;
+		while (pos + FRAME_HEADER_SIZE <= this.buffer.capacity()) {
+			length = this.buffer.getInt(pos);
+			if (length == 0) {
+				break; // 数据的结尾
+			}
+			if (length < 0 || length > this.buffer.capacity() - pos - FRAME_HEADER_SIZE) {
+				this.truncate(pos, "记录帧长度无效：" + length);
+				break;
+			}
+
+			payload = this.slice(pos + FRAME_HEADER_SIZE, length);
+			crc32.reset();
+			crc32.update(payload.duplicate());
+			if ((int)crc32.getValue() != this.buffer.getInt(pos + 4)) {
+				this.truncate(pos, "记录帧CRC32校验不通过");
+				break;
+			}
+
+			visitor.accept(payload);
+			pos += FRAME_HEADER_SIZE + length;
+			count++;
+		}
+		this.position = pos;
+		return count;
+	}
+
+	/**
+	 * 追加记录帧
+	 *
+	 * @param payload 记录帧内容
+	 * @return 是否追加成功，段文件剩余空间不足时返回false
+	 */
+	boolean append(byte[] payload) {
+		int pos = this.position;
+		if (payload.length > this.buffer.capacity() - pos - FRAME_HEADER_SIZE) {
+			return false;
+		}
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(payload, 0, payload.length);
+
+		ByteBuffer buf = this.buffer.duplicate();
+		buf.position(pos + FRAME_HEADER_SIZE);
+		buf.put(payload);
+		this.buffer.putInt(pos + 4, (int)crc32.getValue());
+		// 最后写长度，表示记录帧写入完成
+		this.buffer.putInt(pos, payload.length);
+
+		this.position = pos + FRAME_HEADER_SIZE + payload.length;
+		return true;
+	}
+
+	/**
+	 * 刷盘
+	 */
+	void force() {
+		this.buffer.force();
+	}
+
+	void close() {
+		try {
+			this.randomAccessFile.close();
+		} catch (IOException e) {
+			LOGGER.warn("关闭段文件失败：{}", this.file.getAbsolutePath(), e);
+		}
+	}
+
+
+	//region Private
+
+	private ByteBuffer slice(int from, int length) {
+		ByteBuffer buf = this.buffer.duplicate();
+		buf.position(from);
+		buf.limit(from + length);
+		return buf.slice();
+	}
+
+	/**
+	 * 截断无效的记录帧及其后的数据（填充为0）
+	 *
+	 * @param from   无效记录帧的位置
+	 * @param reason 原因
+	 */
+	private void truncate(int from, String reason) {
+		LOGGER.warn("段文件 '{}' 在位置 {} 处的数据无效（{}），已截断其后的数据。", this.file.getName(), from, reason);
+		for (int i = from; i < this.buffer.capacity(); i++) {
+			this.buffer.put(i, (byte)0);
+		}
+		this.buffer.force();
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	long getSeq() {
+		return seq;
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	int getPosition() {
+		return position;
+	}
+
+	//endregion
+}
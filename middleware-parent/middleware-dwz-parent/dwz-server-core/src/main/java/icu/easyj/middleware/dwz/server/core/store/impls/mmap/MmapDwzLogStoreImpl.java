@@ -0,0 +1,673 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.mmap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.util.shortcode.IShortCodeService;
+import icu.easyj.data.store.StoreException;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMemoryStoreConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMmapStoreConfig;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.MemoryDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.OffHeapStringArena;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 基于内存映射文件持久化的 {@link IDwzLogStore}
+ * <p>
+ * 主要用途：单节点部署时，无需依赖数据库，数据在应用重启后依然存在。
+ * <p>
+ * 实现说明：<br>
+ * 1）索引与查询：完全复用 {@link MemoryDwzLogStoreImpl}，所有查询都在内存中完成，{@link #getMaxId()} 为O(1)；<br>
+ * 2）变更日志：每次变更都以完整记录（或删除标记）追加到内存映射的段文件 {@link DwzLogSegment} 中，当前段写满后滚动到新的段文件；<br>
+ * 3）刷盘：默认由后台线程定时刷盘，进程崩溃不会丢失数据（数据已在操作系统的页缓存中），操作系统崩溃可能丢失最近一个刷盘间隔的数据；
+ * 开启 {@link #syncOnWrite} 后，每次写入后都刷盘；<br>
+ * 4）检查点：后台线程定时将索引中的所有记录保存为快照文件，并记下此时的日志位置，之后删除该位置之前的段文件。
+ * 已删除或已过期删除的记录不在快照中，所以检查点同时也是对变更日志的压缩；<br>
+ * 5）恢复：启动时先加载快照，再从快照记下的日志位置开始重放变更日志，无需重放全部日志。
+ * 由于日志中的每一条都是记录的完整状态，重放是幂等的，快照中已包含的变更被重放也不会有问题。
+ * <p>
+ * 文件：数据目录下的 {@code 00000000000000000000.log} 等段文件、{@code index.snapshot} 快照文件和 {@code lock} 锁文件。
+ * <p>
+ * 注意：同一个数据目录只能被一个进程打开。
+ *
+ * @author wangliang181230
+ * @see DwzServerMmapStoreConfig
+ */
+public class MmapDwzLogStoreImpl extends MemoryDwzLogStoreImpl implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MmapDwzLogStoreImpl.class);
+
+
+	//region 文件格式
+
+	private static final String LOCK_FILE_NAME = "lock";
+	private static final String SNAPSHOT_FILE_NAME = "index.snapshot";
+	private static final String SNAPSHOT_TMP_FILE_NAME = "index.snapshot.tmp";
+
+	private static final int SNAPSHOT_MAGIC = 0x45445A53; // "EDZS"
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final byte TYPE_PUT = 1;
+	private static final byte TYPE_REMOVE = 2;
+
+	/**
+	 * PUT记录的固定长度部分：类型、ID、过期时间、状态、创建时间、更新时间、版本号、短链接码长度、长链接长度
+	 */
+	private static final int PUT_FIXED_SIZE = 1 + 8 + 8 + 4 + 8 + 8 + 4 + 2 + 4;
+	private static final int REMOVE_SIZE = 1 + 8;
+
+	//endregion
+
+
+	/**
+	 * 数据目录
+	 */
+	private final File dir;
+
+	/**
+	 * 段文件大小
+	 */
+	private final int segmentSize;
+
+	/**
+	 * 是否每次写入后立即刷盘
+	 */
+	private final boolean syncOnWrite;
+
+	private final RandomAccessFile lockFile;
+	private final FileLock fileLock;
+
+	/**
+	 * 追加锁：所有段文件的写操作都在该锁内进行（该锁总是最后获取的锁，持有期间不获取其他锁）
+	 */
+	private final Object appendLock = new Object();
+
+	/**
+	 * 检查点锁：同一时间只能有一个检查点
+	 */
+	private final Object checkpointLock = new Object();
+
+	/**
+	 * 当前正在写入的段文件
+	 */
+	private volatile DwzLogSegment activeSegment;
+
+	/**
+	 * 已写满的段文件的序号（按序号递增）
+	 */
+	private final Deque<Long> sealedSegmentSeqs = new ArrayDeque<>();
+
+	/**
+	 * 刷盘和检查点的定时任务执行器，不需要时为null
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * 是否已关闭
+	 */
+	private volatile boolean closed = false;
+
+
+	//region 统计数据的字段
+
+	private volatile int checkpointCount;
+	private volatile long lastCheckpointTime;
+	private final int replayedCount;
+	private final long recoveryMillis;
+
+	//endregion
+
+
+	public MmapDwzLogStoreImpl(@NonNull File dir, ISequenceService sequenceService, IShortCodeService shortCodeService,
+							   DwzDedupStrategy dedupStrategy, int initialCapacity, @Nullable OffHeapStringArena urlArena,
+							   int segmentSize, boolean syncOnWrite, long flushIntervalMillis, long checkpointIntervalMillis) throws IOException {
+		super(sequenceService, shortCodeService, dedupStrategy, initialCapacity, DEFAULT_TICK_MILLIS, urlArena);
+
+		Assert.notNull(dir, "'dir' must not be null");
+		Assert.isTrue(segmentSize > DwzLogSegment.FRAME_HEADER_SIZE + PUT_FIXED_SIZE, "'segmentSize' is too small");
+
+		if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+			throw new IOException("创建短链接记录的数据目录失败：" + dir.getAbsolutePath());
+		}
+
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		this.syncOnWrite = syncOnWrite;
+		this.lockFile = new RandomAccessFile(new File(dir, LOCK_FILE_NAME), "rw");
+		try {
+			this.fileLock = this.lockFile.getChannel().tryLock();
+			if (this.fileLock == null) {
+				throw new IOException("短链接记录的数据目录已被其他进程打开：" + dir.getAbsolutePath());
+			}
+
+			long startTime = System.currentTimeMillis();
+			this.replayedCount = this.recover();
+			this.recoveryMillis = System.currentTimeMillis() - startTime;
+			LOGGER.info("已从数据目录 '{}' 恢复 {} 条短链接记录，重放了 {} 条变更日志，耗时 {} ms。",
+					dir.getAbsolutePath(), this.size(), this.replayedCount, this.recoveryMillis);
+		} catch (IOException | RuntimeException e) {
+			if (this.activeSegment != null) {
+				this.activeSegment.close();
+			}
+			this.lockFile.close();
+			throw e;
+		}
+
+		if ((!syncOnWrite && flushIntervalMillis > 0) || checkpointIntervalMillis > 0) {
+			this.scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("DwzMmapStore-", true));
+			if (!syncOnWrite && flushIntervalMillis > 0) {
+				this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+			}
+			if (checkpointIntervalMillis > 0) {
+				this.scheduler.scheduleWithFixedDelay(this::runCheckpoint, checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+			}
+		} else {
+			this.scheduler = null;
+		}
+	}
+
+	public MmapDwzLogStoreImpl(ISequenceService sequenceService, IShortCodeService shortCodeService, DwzDedupStrategy dedupStrategy,
+							   @NonNull DwzServerMemoryStoreConfig memoryConfig, @NonNull DwzServerMmapStoreConfig config) throws IOException {
+		this(new File(config.getDir()), sequenceService, shortCodeService, dedupStrategy, memoryConfig.getInitialCapacity(),
+				memoryConfig.isOffHeap() ? new OffHeapStringArena(memoryConfig.getOffHeapSlabSize()) : null,
+				config.getSegmentSize(), config.isSyncOnWrite(), config.getFlushIntervalMillis(), config.getCheckpointIntervalMillis());
+	}
+
+
+	//region Override MemoryDwzLogStoreImpl
+
+	@Override
+	protected void afterPut(MemoryDwzLog record) {
+		byte[] payload = this.encodePut(record);
+		if (payload == null) {
+			throw new StoreException("短链接记录的长链接已被释放：" + record.getId());
+		}
+		this.append(payload);
+	}
+
+	@Override
+	protected void afterRemove(long id) {
+		this.append(ByteBuffer.allocate(REMOVE_SIZE).put(TYPE_REMOVE).putLong(id).array());
+	}
+
+	//endregion
+
+
+	//region Override Closeable
+
+	/**
+	 * 保存检查点，并释放文件
+	 */
+	@Override
+	public void close() {
+		synchronized (this.checkpointLock) {
+			if (this.closed) {
+				return;
+			}
+
+			if (this.scheduler != null) {
+				this.scheduler.shutdownNow();
+			}
+
+			try {
+				this.checkpoint();
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("关闭前保存短链接记录的检查点失败，下次启动时将重放更多的变更日志：{}", this.dir.getAbsolutePath(), e);
+			}
+
+			synchronized (this.appendLock) {
+				this.closed = true;
+				this.activeSegment.force();
+				this.activeSegment.close();
+			}
+
+			try {
+				this.fileLock.release();
+				this.lockFile.close();
+			} catch (IOException e) {
+				LOGGER.warn("释放短链接记录的数据目录失败：{}", this.dir.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	//endregion
+
+
+	//region Public
+
+	/**
+	 * 保存检查点：保存索引快照，并删除快照已包含的旧段文件
+	 *
+	 * @throws IOException 保存快照失败
+	 */
+	public void checkpoint() throws IOException {
+		synchronized (this.checkpointLock) {
+			// 先记下日志位置，再遍历索引：此位置之前的变更都已在索引中（变更在记录的写锁内追加日志），之后的变更在恢复时重放
+			long seq;
+			int offset;
+			synchronized (this.appendLock) {
+				this.checkClosed();
+				seq = this.activeSegment.getSeq();
+				offset = this.activeSegment.getPosition();
+			}
+			Long maxId = this.getMaxId();
+
+			// 先复制出所有记录，避免在持有索引读锁期间写文件
+			List<MemoryDwzLog> records = new ArrayList<>(this.size());
+			this.forEachRecord(records::add);
+
+			this.writeSnapshot(seq, offset, maxId != null ? maxId : Long.MIN_VALUE, records);
+
+			// 删除快照已包含的旧段文件
+			List<Long> obsoleteSeqs = new ArrayList<>();
+			synchronized (this.appendLock) {
+				while (!this.sealedSegmentSeqs.isEmpty() && this.sealedSegmentSeqs.peekFirst() < seq) {
+					obsoleteSeqs.add(this.sealedSegmentSeqs.pollFirst());
+				}
+			}
+			for (Long obsoleteSeq : obsoleteSeqs) {
+				this.deleteSegmentFile(obsoleteSeq);
+			}
+
+			this.checkpointCount++;
+			this.lastCheckpointTime = System.currentTimeMillis();
+			LOGGER.debug("已保存短链接记录的检查点：{} 条记录，日志位置 {}:{}，删除了 {} 个旧段文件。", records.size(), seq, offset, obsoleteSeqs.size());
+		}
+	}
+
+	/**
+	 * 刷盘
+	 */
+	public void flush() {
+		DwzLogSegment segment = this.activeSegment;
+		if (!this.closed && segment != null) {
+			segment.force();
+		}
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private void checkClosed() {
+		if (this.closed) {
+			throw new IllegalStateException("短链接记录存储已关闭");
+		}
+	}
+
+	/**
+	 * 追加变更日志，当前段文件已写满时，滚动到新的段文件
+	 *
+	 * @param payload 日志内容
+	 * @throws StoreException 追加失败
+	 */
+	private void append(byte[] payload) {
+		if (payload.length > this.segmentSize - DwzLogSegment.FRAME_HEADER_SIZE) {
+			throw new StoreException("短链接记录过大，超出了段文件的大小：" + payload.length + " > " + this.segmentSize);
+		}
+
+		synchronized (this.appendLock) {
+			this.checkClosed();
+
+			DwzLogSegment segment = this.activeSegment;
+			if (!segment.append(payload)) {
+				DwzLogSegment newSegment;
+				try {
+					newSegment = DwzLogSegment.open(this.dir, segment.getSeq() + 1, this.segmentSize);
+				} catch (IOException e) {
+					throw new StoreException("创建新的段文件失败：" + this.dir.getAbsolutePath(), e);
+				}
+				newSegment.append(payload);
+
+				// 旧段文件写满后，立即刷盘并关闭
+				segment.force();
+				segment.close();
+				this.sealedSegmentSeqs.addLast(segment.getSeq());
+				this.activeSegment = newSegment;
+				segment = newSegment;
+			}
+
+			if (this.syncOnWrite) {
+				segment.force();
+			}
+		}
+	}
+
+	private void runCheckpoint() {
+		try {
+			this.checkpoint();
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("保存短链接记录的检查点失败：{}", this.dir.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * 恢复数据：加载快照，重放快照之后的变更日志，并打开最后一个段文件用于追加
+	 *
+	 * @return 重放的变更日志条数
+	 * @throws IOException 恢复失败
+	 */
+	private int recover() throws IOException {
+		// 加载快照
+		long snapshotSeq = -1;
+		int snapshotOffset = 0;
+		File snapshotFile = new File(this.dir, SNAPSHOT_FILE_NAME);
+		if (snapshotFile.exists()) {
+			// 先完整校验一遍，再加载，避免加载了损坏的快照
+			this.readSnapshot(snapshotFile, payload -> {
+			});
+			long[] header = this.readSnapshot(snapshotFile, this::apply);
+			snapshotSeq = header[0];
+			snapshotOffset = (int)header[1];
+			if (header[2] != Long.MIN_VALUE) {
+				this.loadMaxId(header[2]);
+			}
+		}
+
+		// 列出段文件
+		List<Long> segmentSeqs = new ArrayList<>();
+		File[] files = this.dir.listFiles();
+		if (files != null) {
+			long segmentSeq;
+			for (File file : files) {
+				segmentSeq = DwzLogSegment.parseSeq(file.getName());
+				if (segmentSeq < 0) {
+					continue;
+				}
+				if (segmentSeq < snapshotSeq) {
+					// 快照已包含的旧段文件（上次检查点保存快照后，还未删除旧段文件时，进程就退出了）
+					this.deleteSegmentFile(segmentSeq);
+				} else {
+					segmentSeqs.add(segmentSeq);
+				}
+			}
+		}
+		segmentSeqs.sort(null);
+
+		// 重放变更日志
+		int replayedCount = 0;
+		DwzLogSegment segment;
+		for (int i = 0; i < segmentSeqs.size(); i++) {
+			long segmentSeq = segmentSeqs.get(i);
+			boolean isLast = i == segmentSeqs.size() - 1;
+			segment = DwzLogSegment.open(this.dir, segmentSeq, isLast ? this.segmentSize : 0);
+			try {
+				replayedCount += segment.replay(segmentSeq == snapshotSeq ? snapshotOffset : 0, this::apply);
+			} catch (RuntimeException e) {
+				segment.close();
+				throw e;
+			}
+
+			if (isLast) {
+				this.activeSegment = segment;
+			} else {
+				segment.close();
+				this.sealedSegmentSeqs.addLast(segmentSeq);
+			}
+		}
+
+		if (this.activeSegment == null) {
+			// 不能复用快照记下的段序号，否则新写入的日志位于快照记下的位置之前，恢复时不会被重放
+			this.activeSegment = DwzLogSegment.open(this.dir, snapshotSeq + 1, this.segmentSize);
+		}
+		return replayedCount;
+	}
+
+	/**
+	 * 应用一条变更日志
+	 *
+	 * @param payload 日志内容
+	 */
+	private void apply(ByteBuffer payload) {
+		byte type = payload.get();
+		if (type == TYPE_PUT) {
+			this.load(decodePut(payload));
+		} else if (type == TYPE_REMOVE) {
+			this.unload(payload.getLong());
+		} else {
+			throw new StoreException("未知的短链接变更日志类型：" + type);
+		}
+	}
+
+	/**
+	 * 写快照：先写入临时文件并刷盘，再原子替换快照文件
+	 * <p>
+	 * 格式：魔数、版本号、段序号、段内位置、最大ID、若干条（4字节长度 + PUT记录）、4字节的0、8字节的CRC32
+	 */
+	private void writeSnapshot(long seq, int offset, long maxId, List<MemoryDwzLog> records) throws IOException {
+		File tmpFile = new File(this.dir, SNAPSHOT_TMP_FILE_NAME);
+		try (FileOutputStream fos = new FileOutputStream(tmpFile)) {
+			CheckedOutputStream cos = new CheckedOutputStream(new BufferedOutputStream(fos, 64 * 1024), new CRC32());
+			DataOutputStream out = new DataOutputStream(cos);
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			out.writeLong(seq);
+			out.writeInt(offset);
+			out.writeLong(maxId);
+
+			byte[] payload;
+			for (MemoryDwzLog record : records) {
+				payload = this.encodePut(record);
+				if (payload == null) {
+					continue; // 记录已被并发删除，删除操作位于快照记下的日志位置之后，恢复时会重放
+				}
+				out.writeInt(payload.length);
+				out.write(payload);
+			}
+			out.writeInt(0);
+			out.writeLong(cos.getChecksum().getValue());
+			out.flush();
+			fos.getFD().sync();
+		}
+
+		Files.move(tmpFile.toPath(), new File(this.dir, SNAPSHOT_FILE_NAME).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * 读快照
+	 *
+	 * @param file    快照文件
+	 * @param visitor 记录的访问者
+	 * @return 段序号、段内位置、最大ID
+	 * @throws IOException 读取失败，或快照文件已损坏
+	 */
+	private long[] readSnapshot(File file, Consumer<ByteBuffer> visitor) throws IOException {
+		try (FileInputStream fis = new FileInputStream(file)) {
+			CheckedInputStream cis = new CheckedInputStream(new BufferedInputStream(fis, 64 * 1024), new CRC32());
+			DataInputStream in = new DataInputStream(cis);
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+				throw new IOException("不是有效的短链接记录快照文件：" + file.getAbsolutePath());
+			}
+			long[] header = new long[]{in.readLong(), in.readInt(), in.readLong()};
+
+			byte[] payload = new byte[256];
+			int length;
+			while ((length = in.readInt()) != 0) {
+				if (length < 0) {
+					throw new IOException("短链接记录快照文件已损坏：" + file.getAbsolutePath());
+				}
+				if (length > payload.length) {
+					payload = new byte[Math.max(length, payload.length * 2)];
+				}
+				in.readFully(payload, 0, length);
+				visitor.accept(ByteBuffer.wrap(payload, 0, length));
+			}
+
+			long checksum = cis.getChecksum().getValue();
+			if (in.readLong() != checksum) {
+				throw new IOException("短链接记录快照文件的CRC32校验不通过：" + file.getAbsolutePath());
+			}
+			return header;
+		} catch (EOFException e) {
+			throw new IOException("短链接记录快照文件不完整：" + file.getAbsolutePath(), e);
+		}
+	}
+
+	private void deleteSegmentFile(long seq) {
+		File file = new File(this.dir, DwzLogSegment.toFileName(seq));
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			// 删除失败不影响数据的正确性，下次启动时会再次删除
+			LOGGER.warn("删除旧段文件失败：{}", file.getAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * 编码PUT记录
+	 *
+	 * @param record 记录
+	 * @return 编码后的字节，长链接已被释放（记录已被并发删除）时返回null
+	 */
+	@Nullable
+	private byte[] encodePut(MemoryDwzLog record) {
+		byte[] longUrl = this.getLongUrlBytes(record);
+		if (longUrl == null) {
+			return null;
+		}
+		byte[] shortUrlCode = record.getShortUrlCode().getBytes(StandardCharsets.UTF_8);
+		return ByteBuffer.allocate(PUT_FIXED_SIZE + shortUrlCode.length + longUrl.length)
+				.put(TYPE_PUT)
+				.putLong(record.getId())
+				.putLong(record.getTermMillis())
+				.putInt(record.getStatus())
+				.putLong(record.getCreateTime())
+				.putLong(record.getUpdateTime())
+				.putInt(record.getVersion())
+				.putShort((short)shortUrlCode.length).put(shortUrlCode)
+				.putInt(longUrl.length).put(longUrl)
+				.array();
+	}
+
+	/**
+	 * 解码PUT记录（类型字节已读取）
+	 */
+	private static MemoryDwzLog decodePut(ByteBuffer payload) {
+		long id = payload.getLong();
+		long termMillis = payload.getLong();
+		int status = payload.getInt();
+		long createTime = payload.getLong();
+		long updateTime = payload.getLong();
+		int version = payload.getInt();
+		String shortUrlCode = readString(payload, payload.getShort());
+		String longUrl = readString(payload, payload.getInt());
+		return new MemoryDwzLog(id, shortUrlCode, longUrl, termMillis, status, createTime, updateTime, version);
+	}
+
+	private static String readString(ByteBuffer payload, int length) {
+		byte[] bytes = new byte[length];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public File getDir() {
+		return dir;
+	}
+
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public boolean isSyncOnWrite() {
+		return syncOnWrite;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 段文件数
+	 */
+	public int getSegmentCount() {
+		synchronized (this.appendLock) {
+			return this.sealedSegmentSeqs.size() + 1;
+		}
+	}
+
+	/**
+	 * @return 检查点次数
+	 */
+	public int getCheckpointCount() {
+		return checkpointCount;
+	}
+
+	/**
+	 * @return 最近一次检查点的时间（毫秒数），还未保存过检查点时为0
+	 */
+	public long getLastCheckpointTime() {
+		return lastCheckpointTime;
+	}
+
+	/**
+	 * @return 启动时重放的变更日志条数
+	 */
+	public int getReplayedCount() {
+		return replayedCount;
+	}
+
+	/**
+	 * @return 启动时恢复数据的耗时（毫秒）
+	 */
+	public long getRecoveryMillis() {
+		return recoveryMillis;
+	}
+
+	//endregion
+}
@@ -15,9 +15,12 @@
  */
 package icu.easyj.middleware.dwz.server.core.store.impls.mock;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import icu.easyj.core.sequence.ISequenceService;
 import icu.easyj.core.util.shortcode.ShortCodeUtils;
@@ -48,32 +51,57 @@ public class MockDwzLogStoreImpl implements IDwzLogStore {
 	@NonNull
 	@Override
 	public synchronized DwzLogEntity save(@NonNull String longUrl, Date termOfValidity) {
-		// 通过序列服务，获取下一序列值，作为ID
-		long id = this.sequenceService.nextVal(SEQ_NAME__DWZ_LOG_ID);
-		if (dwzLogMap.containsKey(id)) {
-			throw new DuplicateKeyException("ID已经存在：" + id);
+		DwzLogEntity dwzLog = new DwzLogEntity();
+		dwzLog.setLongUrl(longUrl);
+		dwzLog.setTermOfValidity(termOfValidity);
+
+		this.insertAll(this.prepareAll(Collections.singletonList(dwzLog)));
+		return dwzLog;
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> prepareAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		if (dwzLogs.isEmpty()) {
+			return dwzLogs;
 		}
 
-		// ID 转换为 短字符串，即：短链接码（注：可通过 `ShortCodeUtils.toId(code)` 方法转换回ID）
-		String shortUrlCode = ShortCodeUtils.toCode(id);
+		// 通过序列服务，获取序列值，作为ID
+		long[] ids = this.sequenceService.nextVals(SEQ_NAME__DWZ_LOG_ID, dwzLogs.size());
 
 		// 获取当前时间
 		Date now = new Date();
 
-		// 数据创建成功，创建entity并返回
-		DwzLogEntity dwzLog = new DwzLogEntity();
-		dwzLog.setId(id);
-		dwzLog.setShortUrlCode(shortUrlCode);
-		dwzLog.setLongUrl(longUrl);
-		dwzLog.setTermOfValidity(termOfValidity);
-		dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
-		dwzLog.setCreateTime(now);
-		dwzLog.setUpdateTime(now);
-		dwzLog.setVersion(1);
+		DwzLogEntity dwzLog;
+		for (int i = 0; i < dwzLogs.size(); i++) {
+			dwzLog = dwzLogs.get(i);
+			dwzLog.setId(ids[i]);
+			// ID 转换为 短字符串，即：短链接码（注：可通过 `ShortCodeUtils.toId(code)` 方法转换回ID）
+			dwzLog.setShortUrlCode(ShortCodeUtils.toCode(ids[i]));
+			dwzLog.setStatus(DwzLogStatus.EFFECTIVE);
+			dwzLog.setCreateTime(now);
+			dwzLog.setUpdateTime(now);
+			dwzLog.setVersion(1);
+		}
+		return dwzLogs;
+	}
 
-		dwzLogMap.put(id, dwzLog);
+	@Override
+	public synchronized void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		// 先校验所有数据，模拟整批失败
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			if (dwzLogMap.containsKey(dwzLog.getId())) {
+				throw new DuplicateKeyException("ID已经存在：" + dwzLog.getId());
+			}
+			// 模拟长链接哈希值的唯一索引
+			if (this.getByLongUrlForUpdate(dwzLog.getLongUrl()) != null) {
+				throw new DuplicateKeyException("长链接已经存在：" + dwzLog.getLongUrl());
+			}
+		}
 
-		return dwzLog;
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			dwzLogMap.put(dwzLog.getId(), dwzLog);
+		}
 	}
 
 	@Nullable
@@ -95,12 +123,39 @@ public class MockDwzLogStoreImpl implements IDwzLogStore {
 	@Nullable
 	@Override
 	public synchronized String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		DwzLogEntity entity = this.getByShortUrlCode(shortUrlCode);
+		return entity != null ? entity.getLongUrl() : null;
+	}
+
+	@Nullable
+	@Override
+	public synchronized DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		// 短链接码都是由ID转换而来的，直接转换回ID获取数据
+		DwzLogEntity entity;
+		try {
+			entity = dwzLogMap.get(ShortCodeUtils.toId(shortUrlCode));
+		} catch (IllegalArgumentException e) {
+			return null; // 无效的短链接码
+		}
+		if (entity != null && entity.isStatus(DwzLogStatus.EFFECTIVE) && shortUrlCode.equals(entity.getShortUrlCode())) {
+			return entity;
+		}
+		return null;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		return dwzLogMap.get(id);
+	}
+
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
 		for (DwzLogEntity entity : dwzLogMap.values()) {
-			if (entity.isStatus(DwzLogStatus.EFFECTIVE) && shortUrlCode.equals(entity.getShortUrlCode())) {
-				return entity.getLongUrl();
+			if (entity.isStatus(DwzLogStatus.EFFECTIVE)) {
+				consumer.accept(entity.getShortUrlCode());
 			}
 		}
-		return null;
 	}
 
 	@Nullable
@@ -115,6 +170,11 @@ public class MockDwzLogStoreImpl implements IDwzLogStore {
 		return maxId;
 	}
 
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		return 0; // 不保存哈希值，直接比较长链接
+	}
+
 	@Override
 	public synchronized int deleteOvertime() {
 		int count = 0;
@@ -0,0 +1,768 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.writebehind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import icu.easyj.core.exception.NotSupportedException;
+import icu.easyj.data.store.DbStoreException;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerWriteBehindConfig;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzWriteBehindDurability;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.util.LongUrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * 写后（write-behind）模式的 {@link IDwzLogStore}（包装其他存储器的装饰器）
+ * <p>
+ * {@link #save(String, Date)} 只预留ID，并将记录放入内存中的写入队列，由后台写入线程批量插入，并在同一个事务中提交（组提交），
+ * 避免突发流量下，每个创建请求都单独提交一次事务。每批的数量或等待时长达到上限时，立即写入。
+ * <p>
+ * 实现说明：<br>
+ * 1）等待写入的记录，按短链接码和规范化后的长链接建立索引，当前实例可以直接重定向，也可以用于去重；<br>
+ * 2）相同的长链接正在等待写入时，{@link #save(String, Date)} 抛出 {@link DuplicateKeyException}，与违反唯一索引时的处理方式一致；<br>
+ * 3）更新正在等待写入的记录前，先等待其写入完成；<br>
+ * 4）写入队列已满时，直接在调用线程中同步写入；<br>
+ * 5）批量写入失败时，逐条重试，仍然失败的记录将被丢弃，等待写入的调用方会收到该异常；<br>
+ * 6）等待写入完成的时长超过 {@link #flushTimeoutMillis} 时，调用方收到异常，不会无限期等待。
+ * <p>
+ * 注意：被包装的存储器必须支持 {@link IDwzLogStore#prepareAll(List)} 和 {@link IDwzLogStore#insertAll(List)}。
+ * 写入线程在另一个事务中插入记录，如果调用方在事务中持有了长链接相关的锁（如：悲观锁去重策略的 {@code SELECT ... FOR UPDATE}），
+ * 等待写入完成时会与写入线程相互等待，所以只能与 {@link icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy#HASH} 一起使用。
+ *
+ * @author wangliang181230
+ * @see DwzServerWriteBehindConfig
+ * @see DwzWriteBehindDurability
+ */
+public class WriteBehindDwzLogStoreImpl implements IDwzLogStore, AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindDwzLogStoreImpl.class);
+
+	/**
+	 * 写入线程检查是否已关闭的间隔（毫秒）
+	 */
+	private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+
+	/**
+	 * 被包装的存储器
+	 */
+	private final IDwzLogStore logStore;
+
+	/**
+	 * 事务模板，为空时不开启事务
+	 */
+	@Nullable
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * 持久化保证
+	 */
+	private final DwzWriteBehindDurability durability;
+
+	/**
+	 * 每批最大写入数量
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * 最大等待时长（纳秒）
+	 */
+	private final long maxDelayNanos;
+
+	/**
+	 * 等待写入完成的超时时长（毫秒）
+	 */
+	private final long flushTimeoutMillis;
+
+	/**
+	 * 写入队列
+	 */
+	private final BlockingQueue<PendingWrite> queue;
+
+	/**
+	 * 等待写入的记录：短链接码 -> 记录
+	 */
+	private final Map<String, PendingWrite> pendingByCode = new ConcurrentHashMap<>();
+
+	/**
+	 * 等待写入的记录：规范化后的长链接 -> 记录
+	 */
+	private final Map<String, PendingWrite> pendingByUrl = new ConcurrentHashMap<>();
+
+	/**
+	 * 写入线程
+	 */
+	private final Thread writerThread;
+
+	/**
+	 * 是否已关闭
+	 */
+	private volatile boolean closed;
+
+	//region 统计数据
+
+	private final LongAdder flushCount = new LongAdder();
+	private final LongAdder flushNanos = new LongAdder();
+	private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0L);
+	private volatile long lastFlushNanos;
+	private final LongAdder flushedRecordCount = new LongAdder();
+	private final LongAdder failedRecordCount = new LongAdder();
+	private final LongAdder syncWriteCount = new LongAdder();
+
+	//endregion
+
+
+	public WriteBehindDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @Nullable TransactionTemplate transactionTemplate,
+									  @NonNull DwzWriteBehindDurability durability, int maxBatchSize, long maxDelayMillis, int queueCapacity,
+									  long flushTimeoutMillis) {
+		Assert.notNull(logStore, "'logStore' must not be null");
+		Assert.notNull(durability, "'durability' must not be null");
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		Assert.isTrue(maxDelayMillis >= 0, "'maxDelayMillis' must not be less than 0");
+		Assert.isTrue(queueCapacity > 0, "'queueCapacity' must be greater than 0");
+		Assert.isTrue(flushTimeoutMillis > 0, "'flushTimeoutMillis' must be greater than 0");
+
+		this.logStore = logStore;
+		this.transactionTemplate = transactionTemplate;
+		this.durability = durability;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+		this.flushTimeoutMillis = flushTimeoutMillis;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+		this.writerThread = new NamedThreadFactory("DwzWriteBehind-Writer-", true).newThread(this::runWriter);
+		this.writerThread.start();
+	}
+
+	public WriteBehindDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @Nullable TransactionTemplate transactionTemplate,
+									  @NonNull DwzWriteBehindDurability durability, int maxBatchSize, long maxDelayMillis, int queueCapacity) {
+		this(logStore, transactionTemplate, durability, maxBatchSize, maxDelayMillis, queueCapacity,
+				DwzServerWriteBehindConfig.DEFAULT_FLUSH_TIMEOUT_MILLIS);
+	}
+
+	public WriteBehindDwzLogStoreImpl(@NonNull IDwzLogStore logStore, @Nullable TransactionTemplate transactionTemplate,
+									  @NonNull DwzServerWriteBehindConfig config) {
+		this(logStore, transactionTemplate, config.getDurability(), config.getMaxBatchSize(), config.getMaxDelayMillis(), config.getQueueCapacity(),
+				config.getFlushTimeoutMillis());
+	}
+
+	public WriteBehindDwzLogStoreImpl(@NonNull IDwzLogStore logStore) {
+		this(logStore, null, new DwzServerWriteBehindConfig());
+	}
+
+
+	//region Override IDwzLogStore
+
+	@NonNull
+	@Override
+	public DwzLogEntity save(@NonNull String longUrl, @Nullable Date termOfValidity) {
+		DwzLogEntity dwzLog = new DwzLogEntity();
+		dwzLog.setLongUrl(longUrl);
+		dwzLog.setTermOfValidity(termOfValidity);
+		return this.saveAll(Collections.singletonList(dwzLog)).get(0);
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> saveAll(@NonNull List<DwzLogEntity> dwzLogs) {
+		if (this.closed) {
+			return this.logStore.saveAll(dwzLogs);
+		}
+
+		// 先检查一次，避免无谓地预留ID
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			if (this.pendingByUrl.containsKey(LongUrlUtils.normalize(dwzLog.getLongUrl()))) {
+				throw new DuplicateKeyException("长链接正在等待写入：" + dwzLog.getLongUrl());
+			}
+		}
+
+		// 预留ID
+		this.logStore.prepareAll(dwzLogs);
+
+		// 登记等待写入的记录
+		List<PendingWrite> pendingWrites = new ArrayList<>(dwzLogs.size());
+		PendingWrite pendingWrite;
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			pendingWrite = new PendingWrite(dwzLog);
+			if (this.pendingByUrl.putIfAbsent(pendingWrite.urlKey, pendingWrite) != null) {
+				pendingWrites.forEach(this::unregister);
+				throw new DuplicateKeyException("长链接正在等待写入：" + dwzLog.getLongUrl());
+			}
+			this.pendingByCode.put(dwzLog.getShortUrlCode(), pendingWrite);
+			pendingWrites.add(pendingWrite);
+		}
+
+		// 放入写入队列
+		List<PendingWrite> syncWrites = this.enqueue(pendingWrites);
+		this.await(this.durability == DwzWriteBehindDurability.WAIT_FOR_FLUSH ? pendingWrites : syncWrites);
+
+		// 返回副本，避免调用方修改正在等待写入的记录
+		List<DwzLogEntity> result = new ArrayList<>(dwzLogs.size());
+		for (DwzLogEntity dwzLog : dwzLogs) {
+			result.add(copy(dwzLog));
+		}
+		return result;
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrlForUpdate(@NonNull String longUrl) {
+		PendingWrite pendingWrite = this.pendingByUrl.get(LongUrlUtils.normalize(longUrl));
+		if (pendingWrite != null) {
+			return copy(pendingWrite.dwzLog);
+		}
+		return this.logStore.getByLongUrlForUpdate(longUrl);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByLongUrl(@NonNull String longUrl) {
+		PendingWrite pendingWrite = this.pendingByUrl.get(LongUrlUtils.normalize(longUrl));
+		if (pendingWrite != null) {
+			return copy(pendingWrite.dwzLog);
+		}
+		return this.logStore.getByLongUrl(longUrl);
+	}
+
+	@NonNull
+	@Override
+	public List<DwzLogEntity> getByLongUrls(@NonNull Collection<String> longUrls) {
+		List<DwzLogEntity> result = new ArrayList<>();
+		List<String> otherLongUrls = new ArrayList<>(longUrls.size());
+		PendingWrite pendingWrite;
+		for (String longUrl : longUrls) {
+			pendingWrite = this.pendingByUrl.get(LongUrlUtils.normalize(longUrl));
+			if (pendingWrite != null) {
+				result.add(copy(pendingWrite.dwzLog));
+			} else {
+				otherLongUrls.add(longUrl);
+			}
+		}
+
+		if (!otherLongUrls.isEmpty()) {
+			result.addAll(this.logStore.getByLongUrls(otherLongUrls));
+		}
+		return result;
+	}
+
+	@Override
+	public void update(@NonNull DwzLogEntity dwzLog) {
+		this.awaitPending(dwzLog.getShortUrlCode());
+		this.logStore.update(dwzLog);
+	}
+
+	@Override
+	public boolean updateIfUnchanged(@NonNull DwzLogEntity dwzLog) {
+		this.awaitPending(dwzLog.getShortUrlCode());
+		return this.logStore.updateIfUnchanged(dwzLog);
+	}
+
+	@Nullable
+	@Override
+	public String getLongUrlByShortUrlCode(@NonNull String shortUrlCode) {
+		PendingWrite pendingWrite = this.pendingByCode.get(shortUrlCode);
+		if (pendingWrite != null) {
+			return pendingWrite.dwzLog.getLongUrl();
+		}
+		return this.logStore.getLongUrlByShortUrlCode(shortUrlCode);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getByShortUrlCode(@NonNull String shortUrlCode) {
+		PendingWrite pendingWrite = this.pendingByCode.get(shortUrlCode);
+		if (pendingWrite != null) {
+			return copy(pendingWrite.dwzLog);
+		}
+		return this.logStore.getByShortUrlCode(shortUrlCode);
+	}
+
+	@Nullable
+	@Override
+	public DwzLogEntity getById(long id) {
+		DwzLogEntity dwzLog = this.logStore.getById(id);
+		if (dwzLog == null) {
+			for (PendingWrite pendingWrite : this.pendingByCode.values()) {
+				if (pendingWrite.dwzLog.getId() == id) {
+					return copy(pendingWrite.dwzLog);
+				}
+			}
+		}
+		return dwzLog;
+	}
+
+	/**
+	 * 遍历所有有效的短链接码（先遍历等待写入的记录，再遍历被包装的存储器，避免遍历期间刚写入的记录两边都遍历不到）
+	 *
+	 * @param consumer 短链接码的消费者
+	 */
+	@Override
+	public void forEachShortUrlCode(@NonNull Consumer<String> consumer) {
+		this.pendingByCode.keySet().forEach(consumer);
+		this.logStore.forEachShortUrlCode(consumer);
+	}
+
+	/**
+	 * 获取被包装的存储器中的最大ID值（不包含等待写入的记录，应用启动时，写入队列为空）
+	 *
+	 * @return 最大ID值
+	 */
+	@Nullable
+	@Override
+	public Long getMaxId() {
+		return this.logStore.getMaxId();
+	}
+
+	@Override
+	public int fillLongUrlHash(int batchSize) {
+		return this.logStore.fillLongUrlHash(batchSize);
+	}
+
+	@Override
+	public int deleteOvertime() {
+		return this.logStore.deleteOvertime();
+	}
+
+	@Override
+	public int updateOvertime() {
+		return this.logStore.updateOvertime();
+	}
+
+	@Override
+	public DwzOvertimeHandleResult deleteOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.logStore.deleteOvertime(batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+	@Override
+	public DwzOvertimeHandleResult updateOvertime(int batchSize, long pauseMillis, long timeBudgetMillis) {
+		return this.logStore.updateOvertime(batchSize, pauseMillis, timeBudgetMillis);
+	}
+
+	//endregion
+
+
+	//region Override AutoCloseable
+
+	/**
+	 * 关闭：停止接收新的记录，写入队列中剩余的记录后返回。关闭后，{@link #save(String, Date)} 直接同步写入。
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+
+		try {
+			this.writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// 写入线程退出后才放入队列的记录
+		this.flushRemaining();
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 放入写入队列，队列已满的记录直接同步写入
+	 *
+	 * @param pendingWrites 等待写入的记录
+	 * @return 已同步写入的记录
+	 */
+	private List<PendingWrite> enqueue(List<PendingWrite> pendingWrites) {
+		List<PendingWrite> syncWrites = Collections.emptyList();
+		for (PendingWrite pendingWrite : pendingWrites) {
+			if (!this.queue.offer(pendingWrite)) {
+				if (syncWrites.isEmpty()) {
+					syncWrites = new ArrayList<>();
+				}
+				syncWrites.add(pendingWrite);
+			}
+		}
+
+		if (!syncWrites.isEmpty()) {
+			this.syncWriteCount.add(syncWrites.size());
+			for (int from = 0; from < syncWrites.size(); from += this.maxBatchSize) {
+				this.flush(syncWrites.subList(from, Math.min(from + this.maxBatchSize, syncWrites.size())));
+			}
+		}
+
+		// 放入队列时，写入线程可能已退出
+		if (this.closed) {
+			this.flushRemaining();
+		}
+
+		return syncWrites;
+	}
+
+	/**
+	 * 写入线程
+	 */
+	private void runWriter() {
+		List<PendingWrite> batch = new ArrayList<>(this.maxBatchSize);
+		while (true) {
+			batch.clear();
+			try {
+				this.collectBatch(batch);
+			} catch (InterruptedException e) {
+				LOGGER.warn("短链接记录写入线程被中断，写入队列中剩余的记录后退出。");
+				this.closed = true;
+			}
+
+			if (!batch.isEmpty()) {
+				this.flush(batch);
+			} else if (this.closed && this.queue.isEmpty()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 收集一批记录：从第一条记录入队开始，直到数量或等待时长达到上限
+	 *
+	 * @param batch 批次
+	 * @throws InterruptedException 线程被中断
+	 */
+	private void collectBatch(List<PendingWrite> batch) throws InterruptedException {
+		PendingWrite first = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+
+		long deadline = first.enqueueNanos + this.maxDelayNanos;
+		long remaining;
+		PendingWrite next;
+		while (batch.size() < this.maxBatchSize) {
+			this.queue.drainTo(batch, this.maxBatchSize - batch.size());
+			if (batch.size() >= this.maxBatchSize || this.closed || (remaining = deadline - System.nanoTime()) <= 0) {
+				return;
+			}
+
+			next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (next == null) {
+				return;
+			}
+			batch.add(next);
+		}
+	}
+
+	/**
+	 * 在当前线程中，写入队列中剩余的记录
+	 */
+	private void flushRemaining() {
+		List<PendingWrite> batch = new ArrayList<>(this.maxBatchSize);
+		while (this.queue.drainTo(batch, this.maxBatchSize) > 0) {
+			this.flush(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * 批量写入，失败时逐条重试
+	 *
+	 * @param batch 批次
+	 */
+	private void flush(List<PendingWrite> batch) {
+		long start = System.nanoTime();
+
+		List<DwzLogEntity> dwzLogs = new ArrayList<>(batch.size());
+		for (PendingWrite pendingWrite : batch) {
+			dwzLogs.add(pendingWrite.dwzLog);
+		}
+
+		// 各记录写入失败的异常
+		RuntimeException[] errors = new RuntimeException[batch.size()];
+		try {
+			this.insertInTransaction(dwzLogs);
+		} catch (RuntimeException e) {
+			if (batch.size() == 1) {
+				errors[0] = e;
+			} else {
+				LOGGER.warn("批量写入 {} 条短链接记录失败，改为逐条写入：{}", batch.size(), e.getMessage());
+				for (int i = 0; i < batch.size(); i++) {
+					errors[i] = this.insertOne(batch.get(i).dwzLog);
+				}
+			}
+		}
+
+		// 先记录统计数据，再通知等待写入的调用方
+		long spendNanos = System.nanoTime() - start;
+		this.flushCount.increment();
+		this.flushNanos.add(spendNanos);
+		this.maxFlushNanos.accumulate(spendNanos);
+		this.lastFlushNanos = spendNanos;
+
+		for (int i = 0; i < batch.size(); i++) {
+			this.complete(batch.get(i), errors[i]);
+		}
+	}
+
+	/**
+	 * 在事务中批量插入
+	 *
+	 * @param dwzLogs 短链接记录列表
+	 */
+	private void insertInTransaction(List<DwzLogEntity> dwzLogs) {
+		if (this.transactionTemplate != null) {
+			this.transactionTemplate.executeWithoutResult(status -> this.logStore.insertAll(dwzLogs));
+		} else {
+			this.logStore.insertAll(dwzLogs);
+		}
+	}
+
+	/**
+	 * 插入单条记录
+	 *
+	 * @param dwzLog 短链接记录
+	 * @return 插入失败的异常，成功时返回null
+	 */
+	@Nullable
+	private RuntimeException insertOne(DwzLogEntity dwzLog) {
+		try {
+			this.insertInTransaction(Collections.singletonList(dwzLog));
+			return null;
+		} catch (DataIntegrityViolationException e) {
+			// 未开启事务时，批量插入失败前，该记录可能已经插入成功
+			try {
+				DwzLogEntity existing = this.logStore.getById(dwzLog.getId());
+				if (existing != null && dwzLog.getShortUrlCode().equals(existing.getShortUrlCode())) {
+					return null;
+				}
+			} catch (NotSupportedException ignore) {
+				// do nothing
+			}
+			return e;
+		} catch (RuntimeException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * 完成写入：移除等待写入的记录，并通知等待写入的调用方
+	 *
+	 * @param pendingWrite 等待写入的记录
+	 * @param error        写入失败的异常，成功时为null
+	 */
+	private void complete(PendingWrite pendingWrite, @Nullable RuntimeException error) {
+		this.unregister(pendingWrite);
+
+		if (error == null) {
+			this.flushedRecordCount.increment();
+			pendingWrite.flushed.complete(null);
+		} else {
+			this.failedRecordCount.increment();
+			if (this.durability == DwzWriteBehindDurability.FIRE_AND_FORGET) {
+				LOGGER.error("短链接记录写入失败，该记录已丢弃：id = {}, shortUrlCode = {}, longUrl = {}",
+						pendingWrite.dwzLog.getId(), pendingWrite.dwzLog.getShortUrlCode(), pendingWrite.dwzLog.getLongUrl(), error);
+			}
+			pendingWrite.flushed.completeExceptionally(error);
+		}
+	}
+
+	private void unregister(PendingWrite pendingWrite) {
+		this.pendingByUrl.remove(pendingWrite.urlKey, pendingWrite);
+		this.pendingByCode.remove(pendingWrite.dwzLog.getShortUrlCode(), pendingWrite);
+	}
+
+	/**
+	 * 等待写入完成
+	 *
+	 * @param pendingWrites 等待写入的记录
+	 * @throws RuntimeException 写入失败的异常
+	 */
+	private void await(List<PendingWrite> pendingWrites) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.flushTimeoutMillis);
+		for (PendingWrite pendingWrite : pendingWrites) {
+			try {
+				pendingWrite.flushed.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				throw new DbStoreException("等待短链接记录写入超时（" + this.flushTimeoutMillis + " 毫秒），该记录仍可能在稍后写入："
+						+ pendingWrite.dwzLog.getShortUrlCode(), e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DbStoreException("等待短链接记录写入时，线程被中断", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException)e.getCause();
+				}
+				throw new DbStoreException("短链接记录写入失败", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * 如果短链接码对应的记录正在等待写入，则等待其写入完成
+	 *
+	 * @param shortUrlCode 短链接码
+	 */
+	private void awaitPending(String shortUrlCode) {
+		PendingWrite pendingWrite = this.pendingByCode.get(shortUrlCode);
+		if (pendingWrite != null) {
+			this.await(Collections.singletonList(pendingWrite));
+		}
+	}
+
+	private static DwzLogEntity copy(DwzLogEntity dwzLog) {
+		return new DwzLogEntity(dwzLog.getId(), dwzLog.getShortUrlCode(), dwzLog.getLongUrl(), dwzLog.getTermOfValidity(),
+				dwzLog.getStatus(), dwzLog.getCreateTime(), dwzLog.getUpdateTime(), dwzLog.getVersion());
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 写入队列中的记录数
+	 */
+	public int getQueueSize() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return 等待写入的记录数（包含正在写入的记录）
+	 */
+	public int getPendingCount() {
+		return this.pendingByCode.size();
+	}
+
+	/**
+	 * @return 写入批次数
+	 */
+	public long getFlushCount() {
+		return this.flushCount.sum();
+	}
+
+	/**
+	 * @return 平均每批写入耗时（毫秒）
+	 */
+	public double getAverageFlushMillis() {
+		long count = this.flushCount.sum();
+		return count == 0 ? 0.0D : this.flushNanos.sum() / (double)count / 1_000_000;
+	}
+
+	/**
+	 * @return 最大的单批写入耗时（毫秒）
+	 */
+	public double getMaxFlushMillis() {
+		return this.maxFlushNanos.get() / 1_000_000D;
+	}
+
+	/**
+	 * @return 最近一批写入耗时（毫秒）
+	 */
+	public double getLastFlushMillis() {
+		return this.lastFlushNanos / 1_000_000D;
+	}
+
+	/**
+	 * @return 写入成功的记录数
+	 */
+	public long getFlushedRecordCount() {
+		return this.flushedRecordCount.sum();
+	}
+
+	/**
+	 * @return 写入失败的记录数
+	 */
+	public long getFailedRecordCount() {
+		return this.failedRecordCount.sum();
+	}
+
+	/**
+	 * @return 写入队列已满时，在调用线程中同步写入的记录数
+	 */
+	public long getSyncWriteCount() {
+		return this.syncWriteCount.sum();
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzLogStore getLogStore() {
+		return logStore;
+	}
+
+	public DwzWriteBehindDurability getDurability() {
+		return durability;
+	}
+
+	//endregion
+
+
+	/**
+	 * 等待写入的记录
+	 */
+	private static final class PendingWrite {
+
+		private final DwzLogEntity dwzLog;
+
+		/**
+		 * 规范化后的长链接
+		 */
+		private final String urlKey;
+
+		/**
+		 * 入队时间（纳秒）
+		 */
+		private final long enqueueNanos = System.nanoTime();
+
+		/**
+		 * 写入完成的通知
+		 */
+		private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+
+		private PendingWrite(DwzLogEntity dwzLog) {
+			this.dwzLog = dwzLog;
+			this.urlKey = LongUrlUtils.normalize(dwzLog.getLongUrl());
+		}
+	}
+}
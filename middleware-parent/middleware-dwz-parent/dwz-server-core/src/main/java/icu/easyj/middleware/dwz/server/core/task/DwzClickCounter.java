@@ -0,0 +1,405 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.task;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import icu.easyj.core.util.shortcode.IShortCodeService;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.LongObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 短链接点击次数计数器
+ * <p>
+ * 重定向时只在内存中累加点击次数，由定时任务 {@link EasyjDwzServerTask#flushClickCount()} 按ID汇总后，
+ * 通过 {@link JdbcTemplate#batchUpdate(String, List)} 批量累加到数据库中，避免每次重定向都执行一次UPDATE。
+ * <p>
+ * 实现说明：<br>
+ * 1）与 {@link LongAdder} 类似，按线程将计数分散到多个分段中，每个分段有独立的锁和以ID为键的计数表，
+ * 不同线程的计数基本不会竞争同一把锁；<br>
+ * 2）刷新时逐个分段整体替换计数表，汇总后批量写入，不会丢失刷新期间的计数；写入失败时，未写入的计数合并回分段中，下次重试；
+ * 驱动通过 {@link BatchUpdateException#getUpdateCounts()} 报告了已执行的行时，这些行不再重试，避免重复累加；<br>
+ * 3）读取点击次数时，合并数据库中已保存的次数与内存中未写入的次数；<br>
+ * 4）数据库中不存在的ID（如：已删除的记录），其计数会被丢弃。
+ *
+ * @author wangliang181230
+ * @see EasyjDwzServerTask#flushClickCount()
+ */
+public class DwzClickCounter implements AutoCloseable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DwzClickCounter.class);
+
+	/**
+	 * 默认每批数据量
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * 累加点击次数的SQL
+	 */
+	private static final String INCREASE_CLICK_COUNT_SQL = "" +
+			"UPDATE easyj_dwz_log" +
+			"   SET click_count = click_count + ?" +
+			" WHERE id = ?";
+
+	/**
+	 * 获取点击次数的SQL
+	 */
+	private static final String GET_CLICK_COUNT_SQL = "" +
+			"SELECT click_count" +
+			"  FROM easyj_dwz_log AS t" +
+			" WHERE t.id = ?";
+
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * 短字符串服务，用于将短链接码转换为ID
+	 */
+	private final IShortCodeService shortCodeService;
+
+	/**
+	 * 每批数据量
+	 */
+	private final int batchSize;
+
+	/**
+	 * 计数分段（个数为2的幂）
+	 */
+	private final Stripe[] stripes;
+
+	/**
+	 * 正在写入数据库的计数，写入期间读取点击次数时，需要合并该计数
+	 */
+	private volatile LongObjectHashMap<long[]> flushing;
+
+	/**
+	 * 刷新锁，保证同一时间只有一个线程在刷新
+	 */
+	private final Object flushLock = new Object();
+
+	//region 统计数据
+
+	private final LongAdder clickCount = new LongAdder();
+	private final LongAdder flushedClickCount = new LongAdder();
+	private final LongAdder droppedClickCount = new LongAdder();
+	private volatile long lastFlushMillis;
+
+	//endregion
+
+
+	public DwzClickCounter(@NonNull JdbcTemplate jdbcTemplate, @NonNull IShortCodeService shortCodeService, int batchSize) {
+		Assert.notNull(jdbcTemplate, "'jdbcTemplate' must not be null");
+		Assert.notNull(shortCodeService, "'shortCodeService' must not be null");
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+
+		this.jdbcTemplate = jdbcTemplate;
+		this.shortCodeService = shortCodeService;
+		this.batchSize = batchSize;
+
+		int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			this.stripes[i] = new Stripe();
+		}
+	}
+
+	public DwzClickCounter(@NonNull JdbcTemplate jdbcTemplate, @NonNull IShortCodeService shortCodeService) {
+		this(jdbcTemplate, shortCodeService, DEFAULT_BATCH_SIZE);
+	}
+
+
+	//region Public
+
+	/**
+	 * 点击次数加1
+	 *
+	 * @param id 短链接记录ID
+	 */
+	public void increment(long id) {
+		Stripe stripe = this.stripes[stripeIndex(Thread.currentThread().getId(), this.stripes.length)];
+		synchronized (stripe) {
+			long[] count = stripe.counts.get(id);
+			if (count == null) {
+				stripe.counts.put(id, new long[]{1L});
+			} else {
+				count[0]++;
+			}
+		}
+		this.clickCount.increment();
+	}
+
+	/**
+	 * 点击次数加1
+	 *
+	 * @param shortUrlCode 短链接码
+	 * @return 是否计数成功，短链接码无法转换为ID时返回false
+	 */
+	public boolean increment(@NonNull String shortUrlCode) {
+		long id;
+		try {
+			id = this.shortCodeService.toId(shortUrlCode);
+		} catch (RuntimeException e) {
+			return false; // 其他短字符串服务配置生成的短链接码，无法统计
+		}
+		this.increment(id);
+		return true;
+	}
+
+	/**
+	 * 获取点击次数（数据库中已保存的次数 + 内存中未写入的次数）
+	 * <p>
+	 * 注意：与刷新并发时，结果可能短暂地多算或少算一次刷新的次数。
+	 *
+	 * @param id 短链接记录ID
+	 * @return 点击次数，记录不存在时只返回内存中的次数
+	 */
+	public long getClickCount(long id) {
+		long persisted;
+		try {
+			Long value = this.jdbcTemplate.queryForObject(GET_CLICK_COUNT_SQL, Long.class, id);
+			persisted = value != null ? value : 0L;
+		} catch (EmptyResultDataAccessException e) {
+			persisted = 0L;
+		}
+		return persisted + this.getPendingClickCount(id);
+	}
+
+	/**
+	 * 获取内存中未写入数据库的点击次数
+	 *
+	 * @param id 短链接记录ID
+	 * @return 未写入的点击次数
+	 */
+	public long getPendingClickCount(long id) {
+		long pending = 0L;
+		long[] count;
+		for (Stripe stripe : this.stripes) {
+			// 计数数组会在锁内被累加，需在锁内读取
+			synchronized (stripe) {
+				count = stripe.counts.get(id);
+				if (count != null) {
+					pending += count[0];
+				}
+			}
+		}
+
+		// 正在写入的计数表已从分段中移除，不会再被修改，无需加锁
+		LongObjectHashMap<long[]> flushing = this.flushing;
+		if (flushing != null) {
+			count = flushing.get(id);
+			if (count != null) {
+				pending += count[0];
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * 将内存中的点击次数批量累加到数据库中
+	 *
+	 * @return 此次写入的ID数
+	 */
+	public int flush() {
+		synchronized (this.flushLock) {
+			long startTime = System.currentTimeMillis();
+
+			// 逐个分段替换计数表，并汇总
+			LongObjectHashMap<long[]> merged = new LongObjectHashMap<>();
+			LongObjectHashMap<long[]> counts;
+			for (Stripe stripe : this.stripes) {
+				synchronized (stripe) {
+					counts = stripe.counts;
+					if (counts.isEmpty()) {
+						continue;
+					}
+					stripe.counts = new LongObjectHashMap<>();
+				}
+				counts.forEach((id, count) -> addTo(merged, id, count[0]));
+			}
+			if (merged.isEmpty()) {
+				return 0;
+			}
+
+			List<Object[]> args = new ArrayList<>(merged.size());
+			merged.forEach((id, count) -> args.add(new Object[]{count[0], id}));
+
+			this.flushing = merged;
+			int from = 0;
+			int to = 0;
+			try {
+				while (from < args.size()) {
+					to = Math.min(from + this.batchSize, args.size());
+					this.batchUpdate(args.subList(from, to));
+					from = to;
+				}
+			} catch (RuntimeException e) {
+				// 写入失败，未写入的计数合并回分段中，下次重试
+				int[] updateCounts = getUpdateCounts(e);
+				int retryCount = 0;
+				Stripe stripe = this.stripes[0];
+				synchronized (stripe) {
+					Object[] arg;
+					for (int i = from; i < args.size(); i++) {
+						arg = args.get(i);
+						if (i < to && isApplied(updateCounts, i - from)) {
+							// 当前批次中，驱动报告已执行的行（自动提交时已生效），不再重试，避免重复累加
+							if (updateCounts[i - from] == 0) {
+								this.droppedClickCount.add((long)arg[0]);
+							} else {
+								this.flushedClickCount.add((long)arg[0]);
+							}
+							continue;
+						}
+						addTo(stripe.counts, (long)arg[1], (long)arg[0]);
+						retryCount++;
+					}
+				}
+				LOGGER.warn("批量写入短链接的点击次数失败，{} 条将在下次刷新时重试：{}", retryCount, e.getMessage(), e);
+				return 0;
+			} finally {
+				this.flushing = null;
+			}
+
+			this.lastFlushMillis = System.currentTimeMillis() - startTime;
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("已写入 {} 条短链接的点击次数，耗时 {} ms", merged.size(), this.lastFlushMillis);
+			}
+			return merged.size();
+		}
+	}
+
+	//endregion
+
+
+	//region Override AutoCloseable
+
+	/**
+	 * 关闭前，将内存中的点击次数写入数据库
+	 */
+	@Override
+	public void close() {
+		this.flush();
+	}
+
+	//endregion
+
+
+	//region Private
+
+	private void batchUpdate(List<Object[]> batchArgs) {
+		int[] rowCounts = this.jdbcTemplate.batchUpdate(INCREASE_CLICK_COUNT_SQL, batchArgs);
+		for (int i = 0; i < rowCounts.length; i++) {
+			if (rowCounts[i] == 0) {
+				// 记录已被删除（部分数据库驱动批量执行时不返回更新行数，视为写入成功）
+				this.droppedClickCount.add((long)batchArgs.get(i)[0]);
+			} else {
+				this.flushedClickCount.add((long)batchArgs.get(i)[0]);
+			}
+		}
+	}
+
+	/**
+	 * 从异常链中获取驱动报告的批量执行结果
+	 *
+	 * @param e 批量写入时的异常
+	 * @return 每行的执行结果，无法获取时返回null（视为整批未执行）
+	 */
+	private static int[] getUpdateCounts(Throwable e) {
+		while (e != null) {
+			if (e instanceof BatchUpdateException) {
+				return ((BatchUpdateException)e).getUpdateCounts();
+			}
+			e = e.getCause();
+		}
+		return null;
+	}
+
+	private static boolean isApplied(int[] updateCounts, int index) {
+		// 驱动在首个失败行处停止时，结果数组比批次短，后续行均未执行
+		return updateCounts != null && index < updateCounts.length && updateCounts[index] != Statement.EXECUTE_FAILED;
+	}
+
+	private static void addTo(LongObjectHashMap<long[]> counts, long id, long delta) {
+		long[] count = counts.get(id);
+		if (count == null) {
+			counts.put(id, new long[]{delta});
+		} else {
+			count[0] += delta;
+		}
+	}
+
+	private static int stripeIndex(long threadId, int stripeCount) {
+		long h = threadId * 0x9e3779b97f4a7c15L;
+		return (int)(h >>> 32) & (stripeCount - 1);
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	/**
+	 * @return 累计的点击次数（当前实例启动以来）
+	 */
+	public long getTotalClickCount() {
+		return this.clickCount.sum();
+	}
+
+	/**
+	 * @return 已写入数据库的点击次数
+	 */
+	public long getFlushedClickCount() {
+		return this.flushedClickCount.sum();
+	}
+
+	/**
+	 * @return 因记录不存在而丢弃的点击次数
+	 */
+	public long getDroppedClickCount() {
+		return this.droppedClickCount.sum();
+	}
+
+	/**
+	 * @return 最近一次刷新的耗时（毫秒）
+	 */
+	public long getLastFlushMillis() {
+		return lastFlushMillis;
+	}
+
+	//endregion
+
+
+	/**
+	 * 计数分段
+	 */
+	private static final class Stripe {
+
+		/**
+		 * 以ID为键的计数表（只在持有当前分段的锁时访问）
+		 */
+		private LongObjectHashMap<long[]> counts = new LongObjectHashMap<>();
+	}
+}
@@ -17,9 +17,11 @@ package icu.easyj.middleware.dwz.server.core.task;
 
 import icu.easyj.middleware.dwz.server.core.config.DwzServerTaskConfig;
 import icu.easyj.middleware.dwz.server.core.domain.enums.OvertimeHandleStrategy;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
 import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Scheduled;
 
 /**
@@ -36,10 +38,26 @@ public class EasyjDwzServerTask {
 
 	private final DwzServerTaskConfig dwzServerTaskConfig;
 
+	/**
+	 * 最近一次处理超时短链接记录的结果
+	 */
+	private volatile DwzOvertimeHandleResult lastOvertimeHandleResult;
 
-	public EasyjDwzServerTask(IDwzLogStore dwzLogStore, DwzServerTaskConfig dwzServerTaskConfig) {
+	/**
+	 * 点击次数计数器，为空表示未启用点击次数统计
+	 */
+	@Nullable
+	private final DwzClickCounter clickCounter;
+
+
+	public EasyjDwzServerTask(IDwzLogStore dwzLogStore, DwzServerTaskConfig dwzServerTaskConfig, @Nullable DwzClickCounter clickCounter) {
 		this.dwzLogStore = dwzLogStore;
 		this.dwzServerTaskConfig = dwzServerTaskConfig;
+		this.clickCounter = clickCounter;
+	}
+
+	public EasyjDwzServerTask(IDwzLogStore dwzLogStore, DwzServerTaskConfig dwzServerTaskConfig) {
+		this(dwzLogStore, dwzServerTaskConfig, null);
 	}
 
 	/**
@@ -49,14 +67,45 @@ public class EasyjDwzServerTask {
 	 */
 	@Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 5 * 1000)
 	public void handleOvertimeDwzLog() {
+		int batchSize = dwzServerTaskConfig.getOvertimeBatchSize();
+		long pauseMillis = dwzServerTaskConfig.getOvertimeBatchPauseMillis();
+		long timeBudgetMillis = dwzServerTaskConfig.getOvertimeTimeBudgetMillis();
+
+		DwzOvertimeHandleResult result;
 		if (dwzServerTaskConfig.getOvertimeHandleStrategy() == OvertimeHandleStrategy.DELETE) {
-			int count = this.dwzLogStore.deleteOvertime();
+			result = this.dwzLogStore.deleteOvertime(batchSize, pauseMillis, timeBudgetMillis);
 			// 打印此次删除的数据量
-			LOGGER.info("此次删除的超时短链接记录数据有 {} 条", count);
+			LOGGER.info("此次删除的超时短链接记录数据有 {} 条，分 {} 批，耗时 {} ms{}", result.getCount(), result.getBatchCount(),
+					result.getElapsedMillis(), (result.isFinished() ? "" : "，超出时间预算，剩余数据将在下次处理"));
 		} else {
-			int count = this.dwzLogStore.updateOvertime();
+			result = this.dwzLogStore.updateOvertime(batchSize, pauseMillis, timeBudgetMillis);
 			// 打印此次更新的数据量
-			LOGGER.info("此次更新的超时短链接记录数据有 {} 条", count);
+			LOGGER.info("此次更新的超时短链接记录数据有 {} 条，分 {} 批，耗时 {} ms{}", result.getCount(), result.getBatchCount(),
+					result.getElapsedMillis(), (result.isFinished() ? "" : "，超出时间预算，剩余数据将在下次处理"));
 		}
+		this.lastOvertimeHandleResult = result;
+	}
+
+	/**
+	 * 将内存中的点击次数批量写入数据库
+	 * <p>
+	 * 默认每5秒钟执行一次，间隔可通过 `easyj.middleware.dwz.server.task.click-count-flush-interval-millis` 配置。
+	 */
+	@Scheduled(fixedDelayString = "${easyj.middleware.dwz.server.task.click-count-flush-interval-millis:5000}", initialDelay = 5 * 1000)
+	public void flushClickCount() {
+		if (this.clickCounter != null) {
+			this.clickCounter.flush();
+		}
+	}
+
+
+	/**
+	 * 获取最近一次处理超时短链接记录的结果
+	 *
+	 * @return 最近一次的处理结果，未执行过时返回null
+	 */
+	@Nullable
+	public DwzOvertimeHandleResult getLastOvertimeHandleResult() {
+		return lastOvertimeHandleResult;
 	}
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import org.springframework.lang.NonNull;
+
+/**
+ * 长链接工具类
+ *
+ * @author wangliang181230
+ */
+public abstract class LongUrlUtils {
+
+	/**
+	 * 长链接哈希值的长度（128位，32个十六进制字符）
+	 */
+	public static final int HASH_LENGTH = 32;
+
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+
+	/**
+	 * 规范化长链接：去除首尾空白字符，协议和主机名转为小写（协议和主机名不区分大小写，路径和参数区分大小写，保持原样）
+	 *
+	 * @param longUrl 长链接
+	 * @return 规范化后的长链接
+	 */
+	@NonNull
+	public static String normalize(@NonNull String longUrl) {
+		String url = longUrl.trim();
+
+		int schemeEnd = url.indexOf("://");
+		if (schemeEnd < 0) {
+			return url;
+		}
+
+		// 主机部分结束的位置
+		int authorityStart = schemeEnd + 3;
+		int authorityEnd = url.length();
+		char c;
+		for (int i = authorityStart; i < url.length(); i++) {
+			c = url.charAt(i);
+			if (c == '/' || c == '?' || c == '#') {
+				authorityEnd = i;
+				break;
+			}
+		}
+
+		// 用户信息区分大小写，只转换 '@' 之后的主机名
+		int hostStart = url.lastIndexOf('@', authorityEnd - 1);
+		hostStart = hostStart < authorityStart ? authorityStart : hostStart + 1;
+
+		return url.substring(0, schemeEnd).toLowerCase(Locale.ROOT)
+				+ url.substring(schemeEnd, hostStart)
+				+ url.substring(hostStart, authorityEnd).toLowerCase(Locale.ROOT)
+				+ url.substring(authorityEnd);
+	}
+
+	/**
+	 * 计算长链接的哈希值：规范化后的长链接的128位MurmurHash3，转为32个十六进制字符
+	 *
+	 * @param longUrl 长链接
+	 * @return 哈希值
+	 */
+	@NonNull
+	public static String hash(@NonNull String longUrl) {
+		long[] hash = MurmurHash.hash128(normalize(longUrl).getBytes(StandardCharsets.UTF_8));
+
+		char[] chars = new char[HASH_LENGTH];
+		writeHex(hash[0], chars, 0);
+		writeHex(hash[1], chars, 16);
+		return new String(chars);
+	}
+
+	private static void writeHex(long value, char[] chars, int offset) {
+		for (int i = offset + 15; i >= offset; i--) {
+			chars[i] = HEX_CHARS[(int)(value & 0xF)];
+			value >>>= 4;
+		}
+	}
+}
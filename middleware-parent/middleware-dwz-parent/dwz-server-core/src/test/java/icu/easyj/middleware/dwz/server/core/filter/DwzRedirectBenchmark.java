@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.filter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.controller.DwzRedirectController;
+import icu.easyj.middleware.dwz.server.core.service.IDwzServerService;
+import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzServerServiceImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.MemoryDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.task.DwzClickCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 短链接重定向的性能对比：{@link DwzRedirectController}（SpringMVC分发） 与 {@link DwzRedirectFilter}（过滤器快速通道）
+ * <p>
+ * 运行方式：执行 {@link #main(String[])} 方法。两种方式都通过 {@link MockMvc} 执行请求，区别只在于是否添加了重定向过滤器，
+ * 可通过JMH参数 {@code hitRatio} 调整短链接码存在的比例。未找到时，控制器抛出的异常由异常处理器转换为404，
+ * 过滤器（已启用404响应）直接响应404，只查询一次长链接，且不创建异常。
+ * <p>
+ * 参考结果（单核环境，2个线程，误差较大，仅供参考）：<br>
+ * hitRatio=1.0：controller 约144 ops/ms，filter 约383 ops/ms（约2.5倍）；<br>
+ * hitRatio=0.5：controller 约47 ops/ms，filter 约420 ops/ms（约9倍）。
+ *
+ * @author wangliang181230
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class DwzRedirectBenchmark {
+
+	@Param({"100000"})
+	private int rows;
+
+	@Param({"1.0", "0.5"})
+	private double hitRatio;
+
+
+	private String[] hitCodes;
+
+	private String[] missCodes;
+
+	private MockMvc controllerMvc;
+
+	private MockMvc filterMvc;
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		IDwzServerService service = new DefaultDwzServerServiceImpl(new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl()));
+
+		hitCodes = new String[rows];
+		missCodes = new String[rows];
+		for (int i = 0; i < rows; i++) {
+			hitCodes[i] = service.createShortUrlCode("https://easyj.icu/long-url/" + i, null).getShortUrlCode();
+			missCodes[i] = ShortCodeUtils.toCode(Integer.MAX_VALUE + (long)i);
+		}
+
+		DwzRedirectController controller = new DwzRedirectController(service,
+				new StaticListableBeanFactory().getBeanProvider(DwzClickCounter.class));
+		controllerMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new NotFoundAdvice())
+				.build();
+		DwzRedirectFilter filter = new DwzRedirectFilter(service, null);
+		filter.setNotFoundResponseEnabled(true);
+		filterMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new NotFoundAdvice())
+				.addFilters(filter)
+				.build();
+	}
+
+	private String randomUri() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String[] codes = random.nextDouble() < hitRatio ? hitCodes : missCodes;
+		return "/" + codes[random.nextInt(rows)];
+	}
+
+
+	@Benchmark
+	public MvcResult controller() throws Exception {
+		return controllerMvc.perform(get(this.randomUri())).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult filter() throws Exception {
+		return filterMvc.perform(get(this.randomUri())).andReturn();
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DwzRedirectBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+
+	/**
+	 * 将控制器中未找到长链接的异常转换为404
+	 */
+	@RestControllerAdvice
+	public static class NotFoundAdvice {
+
+		@ExceptionHandler(IllegalArgumentException.class)
+		@ResponseStatus(HttpStatus.NOT_FOUND)
+		public String handle(IllegalArgumentException e) {
+			return e.getMessage();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.filter;
+
+import java.util.Collections;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzServerServiceImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * {@link DwzRedirectFilter} 测试类
+ *
+ * @author wangliang181230
+ */
+public class DwzRedirectFilterTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url?a=1";
+
+
+	private DefaultDwzServerServiceImpl service;
+
+	private String shortUrlCode;
+
+
+	@BeforeEach
+	public void before() {
+		service = new DefaultDwzServerServiceImpl(new MockDwzLogStoreImpl(new AtomicLongSequenceServiceImpl()));
+		shortUrlCode = service.createShortUrlCode(LONG_URL, null).getShortUrlCode();
+	}
+
+
+	@Test
+	public void testRedirect() throws Exception {
+		DwzRedirectFilter filter = new DwzRedirectFilter(service, null);
+
+		// 找到长链接：302
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/" + shortUrlCode), response, chain);
+		Assertions.assertEquals(302, response.getStatus());
+		Assertions.assertEquals(LONG_URL, response.getHeader("Location"));
+		Assertions.assertNull(chain.getRequest());
+
+		// 带有contextPath
+		MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/dwz/" + shortUrlCode);
+		request.setContextPath("/dwz");
+		response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		Assertions.assertEquals(302, response.getStatus());
+		Assertions.assertEquals(LONG_URL, response.getHeader("Location"));
+
+		// 未启用404响应时，未找到长链接：交给后续的过滤器和SpringMVC处理，并标记已查询过
+		response = new MockHttpServletResponse();
+		chain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/login"), response, chain);
+		Assertions.assertNotNull(chain.getRequest());
+		Assertions.assertEquals(Boolean.TRUE, chain.getRequest().getAttribute(DwzRedirectFilter.NOT_FOUND_ATTRIBUTE));
+		Assertions.assertNull(response.getHeader("Location"));
+
+		// 启用404响应后，未找到长链接：直接响应404
+		filter.setNotFoundResponseEnabled(true);
+		response = new MockHttpServletResponse();
+		chain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/notExists"), response, chain);
+		Assertions.assertNull(chain.getRequest());
+		Assertions.assertEquals(404, response.getStatus());
+		Assertions.assertNull(response.getHeader("Location"));
+
+		Assertions.assertEquals(2, filter.getRedirectCount());
+		Assertions.assertEquals(2, filter.getNotFoundCount());
+	}
+
+	@Test
+	public void testPassThrough() throws Exception {
+		DwzRedirectFilter filter = new DwzRedirectFilter(service, null, 8, Collections.singletonList("/excluded"));
+		filter.setNotFoundResponseEnabled(true);
+
+		String[][] requests = new String[][]{
+				{"POST", "/" + shortUrlCode},
+				{"GET", "/"},
+				{"GET", "/api/v1/get-long-url"},
+				{"GET", "/favicon.ico"},
+				{"GET", "/" + shortUrlCode + ";jsessionid=1"},
+				{"GET", "/TooLongCode"},
+				{"GET", "/excluded"}
+		};
+
+		MockHttpServletResponse response;
+		MockFilterChain chain;
+		for (String[] r : requests) {
+			response = new MockHttpServletResponse();
+			chain = new MockFilterChain();
+			filter.doFilter(new MockHttpServletRequest(r[0], r[1]), response, chain);
+			Assertions.assertNotNull(chain.getRequest(), r[0] + " " + r[1]);
+			Assertions.assertNull(response.getHeader("Location"));
+		}
+
+		Assertions.assertEquals(0, filter.getRedirectCount());
+		Assertions.assertEquals(0, filter.getNotFoundCount());
+	}
+
+	@Test
+	public void testAddExclusions() throws Exception {
+		DwzRedirectFilter filter = new DwzRedirectFilter(service, null);
+		filter.setNotFoundResponseEnabled(true);
+
+		// 排除与短链接码同名的路径后，交给SpringMVC处理
+		filter.addExclusions(Collections.singletonList("/" + shortUrlCode));
+		Assertions.assertTrue(filter.getExclusions().contains("/" + shortUrlCode));
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/" + shortUrlCode), response, chain);
+		Assertions.assertNotNull(chain.getRequest());
+		Assertions.assertNull(response.getHeader("Location"));
+		Assertions.assertEquals(0, filter.getRedirectCount());
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.service.impls;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.middleware.dwz.domain.EasyjDwzRequest;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link DefaultDwzServerServiceImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class DefaultDwzServerServiceImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@Test
+	public void testReuse() {
+		MockDwzLogStoreImpl logStore = new MockDwzLogStoreImpl(new AtomicLongSequenceServiceImpl());
+		DefaultDwzServerServiceImpl service = new DefaultDwzServerServiceImpl(logStore, DwzDedupStrategy.HASH);
+
+		Date termOfValidity = new Date(System.currentTimeMillis() + 60_000);
+		DwzLogEntity dwzLog = service.createShortUrlCode(LONG_URL, termOfValidity);
+		Assertions.assertEquals(termOfValidity, dwzLog.getTermOfValidity());
+
+		// 有效期更久的请求，延长有效期
+		Date longerTermOfValidity = new Date(termOfValidity.getTime() + 60_000);
+		Assertions.assertEquals(dwzLog.getId(), service.createShortUrlCode(LONG_URL, longerTermOfValidity).getId());
+		Assertions.assertEquals(longerTermOfValidity, logStore.getById(dwzLog.getId()).getTermOfValidity());
+
+		// 有效期更短的请求，不缩短有效期
+		service.createShortUrlCode(LONG_URL, termOfValidity);
+		Assertions.assertEquals(longerTermOfValidity, logStore.getById(dwzLog.getId()).getTermOfValidity());
+
+		// 已过期的记录，恢复为有效
+		logStore.getById(dwzLog.getId()).setStatus(DwzLogStatus.Expired);
+		service.createShortUrlCode(LONG_URL, null);
+		Assertions.assertTrue(logStore.getById(dwzLog.getId()).isStatus(DwzLogStatus.EFFECTIVE));
+		Assertions.assertNull(logStore.getById(dwzLog.getId()).getTermOfValidity());
+	}
+
+	@Test
+	public void testCreateShortUrlCodes() {
+		MockDwzLogStoreImpl logStore = new MockDwzLogStoreImpl(new AtomicLongSequenceServiceImpl());
+		DefaultDwzServerServiceImpl service = new DefaultDwzServerServiceImpl(logStore, DwzDedupStrategy.HASH);
+
+		Date termOfValidity = new Date(System.currentTimeMillis() + 60_000);
+		Date longerTermOfValidity = new Date(termOfValidity.getTime() + 60_000);
+		DwzLogEntity existing = service.createShortUrlCode(LONG_URL, termOfValidity);
+
+		List<DwzLogEntity> dwzLogs = service.createShortUrlCodes(Arrays.asList(
+				new EasyjDwzRequest(LONG_URL + "/1", termOfValidity),
+				new EasyjDwzRequest(LONG_URL, longerTermOfValidity),
+				new EasyjDwzRequest("HTTPS://EASYJ.ICU/long-url/1", longerTermOfValidity),
+				new EasyjDwzRequest(LONG_URL + "/2", null)
+		));
+
+		// 顺序与入参一致
+		Assertions.assertEquals(4, dwzLogs.size());
+		Assertions.assertEquals(LONG_URL + "/1", dwzLogs.get(0).getLongUrl());
+		Assertions.assertEquals(LONG_URL + "/2", dwzLogs.get(3).getLongUrl());
+
+		// 复用已存在的记录，并延长有效期
+		Assertions.assertEquals(existing.getId(), dwzLogs.get(1).getId());
+		Assertions.assertEquals(longerTermOfValidity, logStore.getById(existing.getId()).getTermOfValidity());
+
+		// 批次内的同一长链接，只创建一条记录，有效期取更久的那个
+		Assertions.assertSame(dwzLogs.get(0), dwzLogs.get(2));
+		Assertions.assertEquals(longerTermOfValidity, dwzLogs.get(0).getTermOfValidity());
+		Assertions.assertNotEquals(dwzLogs.get(0).getId(), dwzLogs.get(3).getId());
+
+		// 参数有误时，整批失败
+		Assertions.assertThrows(IllegalArgumentException.class, () -> service.createShortUrlCodes(Arrays.asList(
+				new EasyjDwzRequest(LONG_URL + "/3", null),
+				new EasyjDwzRequest("ftp://easyj.icu/file", null)
+		)));
+		Assertions.assertNull(logStore.getByLongUrl(LONG_URL + "/3"));
+	}
+
+	@Test
+	public void testConcurrentCreate() throws InterruptedException {
+		MockDwzLogStoreImpl logStore = new MockDwzLogStoreImpl(new AtomicLongSequenceServiceImpl());
+		DefaultDwzServerServiceImpl service = new DefaultDwzServerServiceImpl(logStore, DwzDedupStrategy.HASH);
+
+		int threadCount = 8;
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch endLatch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			new Thread(() -> {
+				try {
+					startLatch.await();
+					for (int j = 0; j < 100; j++) {
+						ids.add(service.createShortUrlCode(LONG_URL + "/" + j, null).getId());
+					}
+				} catch (InterruptedException ignore) {
+					// do nothing
+				} finally {
+					endLatch.countDown();
+				}
+			}).start();
+		}
+		startLatch.countDown();
+		endLatch.await();
+
+		// 同一长链接，只会创建一条记录
+		Assertions.assertEquals(100, ids.size());
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.bloom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link BloomFilterDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class BloomFilterDwzLogStoreImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@Test
+	public void testRejectUnknownCodes() throws Exception {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		List<String> codes = new ArrayList<>();
+		List<String> deletedCodes = new ArrayList<>();
+		Date expired = new Date(System.currentTimeMillis() - 1000);
+		for (int i = 0; i < 1000; i++) {
+			if (i % 10 == 9) {
+				codes.add(logStore.save(LONG_URL + i, null).getShortUrlCode());
+			} else {
+				deletedCodes.add(logStore.save(LONG_URL + i, expired).getShortUrlCode());
+			}
+		}
+		logStore.deleteOvertime();
+
+		try (BloomFilterDwzLogStoreImpl store = new BloomFilterDwzLogStoreImpl(logStore, 1000, 0.01D, 1024 * 1024, 0, 0)) {
+			store.rebuild();
+			Assertions.assertTrue(store.isReady());
+			Assertions.assertEquals(100, store.getApproximateCount());
+
+			// 已存在的短链接码，都能查询到
+			for (int i = 0; i < codes.size(); i++) {
+				Assertions.assertEquals(LONG_URL + (i * 10 + 9), store.getLongUrlByShortUrlCode(codes.get(i)));
+			}
+
+			// 不存在的短链接码（ID不大于重建开始时的最大ID），绝大部分被直接拒绝，不查询存储器
+			logStore.readCount.set(0);
+			for (String deletedCode : deletedCodes) {
+				Assertions.assertNull(store.getLongUrlByShortUrlCode(deletedCode));
+			}
+			Assertions.assertTrue(logStore.readCount.get() < 50, "readCount: " + logStore.readCount.get());
+			Assertions.assertEquals(deletedCodes.size(), store.getRejectionCount() + store.getFalsePositiveCount());
+		}
+	}
+
+	@Test
+	public void testCodesCreatedByOtherInstances() throws Exception {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		logStore.save(LONG_URL, null);
+
+		try (BloomFilterDwzLogStoreImpl store = new BloomFilterDwzLogStoreImpl(logStore, 1000, 0.01D, 1024 * 1024, 0, 0)) {
+			store.rebuild();
+
+			// 其他实例在重建之后创建的短链接码（直接写入存储器，未经过当前实例的过滤器），ID大于重建开始时的最大ID，不会被误拒
+			for (int i = 0; i < 100; i++) {
+				String code = logStore.save(LONG_URL + "/other/" + i, null).getShortUrlCode();
+				Assertions.assertEquals(LONG_URL + "/other/" + i, store.getLongUrlByShortUrlCode(code));
+			}
+			Assertions.assertEquals(0, store.getRejectionCount());
+		}
+	}
+
+	@Test
+	public void testSafetyWindow() throws Exception {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		// 模拟其他实例已取得、但在重建之后才提交的ID
+		DwzLogEntity uncommitted = new DwzLogEntity();
+		uncommitted.setLongUrl(LONG_URL + "/uncommitted");
+		logStore.prepareAll(Collections.singletonList(uncommitted));
+		for (int i = 0; i < 100; i++) {
+			logStore.save(LONG_URL + i, null);
+		}
+
+		try (BloomFilterDwzLogStoreImpl store = new BloomFilterDwzLogStoreImpl(logStore, 1000, 0.01D, 1024 * 1024, 0, 200)) {
+			store.rebuild();
+
+			// 重建之后提交：ID小于重建开始时的最大ID，但在安全窗口内，不会被误拒
+			logStore.insertAll(Collections.singletonList(uncommitted));
+			Assertions.assertEquals(LONG_URL + "/uncommitted", store.getLongUrlByShortUrlCode(uncommitted.getShortUrlCode()));
+			Assertions.assertEquals(0, store.getRejectionCount());
+		}
+	}
+
+	@Test
+	public void testSaveAndRebuild() throws Exception {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		try (BloomFilterDwzLogStoreImpl store = new BloomFilterDwzLogStoreImpl(logStore, 1000, 0.01D, 1024 * 1024, 0, 0)) {
+			store.rebuild();
+
+			// 新创建的短链接码，立即可以查询到
+			String expiredCode = store.save(LONG_URL + "/expired", new Date(System.currentTimeMillis() - 1000)).getShortUrlCode();
+			String code = store.save(LONG_URL, null).getShortUrlCode();
+			Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+
+			// 删除后，过滤器中仍存在，查询存储器
+			Assertions.assertEquals(1, store.deleteOvertime());
+			int readCount = logStore.readCount.get();
+			Assertions.assertNull(store.getLongUrlByShortUrlCode(expiredCode));
+			Assertions.assertEquals(readCount + 1, logStore.readCount.get());
+
+			// 重建后，已删除的短链接码被直接拒绝
+			store.rebuild();
+			Assertions.assertNull(store.getLongUrlByShortUrlCode(expiredCode));
+			Assertions.assertEquals(readCount + 1, logStore.readCount.get());
+			Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		}
+	}
+
+
+	/**
+	 * 统计读取次数的存储器
+	 */
+	static class CountingDwzLogStore extends MockDwzLogStoreImpl {
+
+		final AtomicInteger readCount = new AtomicInteger();
+
+		CountingDwzLogStore() {
+			super(new AtomicLongSequenceServiceImpl());
+		}
+
+		@Override
+		public DwzLogEntity getByShortUrlCode(String shortUrlCode) {
+			readCount.incrementAndGet();
+			return super.getByShortUrlCode(shortUrlCode);
+		}
+	}
+}
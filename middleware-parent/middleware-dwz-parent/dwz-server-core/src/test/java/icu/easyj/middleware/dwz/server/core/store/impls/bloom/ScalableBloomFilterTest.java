@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.bloom;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link ScalableBloomFilter} 测试类
+ *
+ * @author wangliang181230
+ */
+public class ScalableBloomFilterTest {
+
+	@Test
+	public void testGrowth() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01D, 1024 * 1024);
+
+		int added = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.put("code-" + i)) {
+				added++;
+			}
+		}
+		// 误判为已存在的元素不会重复添加
+		Assertions.assertTrue(added > 9_900, "added: " + added);
+		Assertions.assertEquals(added, filter.getApproximateCount());
+		Assertions.assertFalse(filter.put("code-0"));
+		Assertions.assertEquals(4, filter.getStageCount()); // 1000 + 2000 + 4000 + 8000
+		Assertions.assertFalse(filter.isSaturated());
+
+		// 不会漏判
+		for (int i = 0; i < 10_000; i++) {
+			Assertions.assertTrue(filter.mightContain("code-" + i));
+		}
+
+		// 扩容后，误判率仍不超过目标误判率
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("unknown-" + i)) {
+				falsePositives++;
+			}
+		}
+		Assertions.assertTrue(falsePositives < 1_000, "falsePositives: " + falsePositives);
+		Assertions.assertTrue(filter.getExpectedFpp() < 0.01D, "expectedFpp: " + filter.getExpectedFpp());
+	}
+
+	@Test
+	public void testSaturated() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01D, 4 * 1024);
+
+		for (int i = 0; i < 5_000; i++) {
+			filter.put("code-" + i);
+		}
+		// 超出最大内存后，停止扩容
+		Assertions.assertTrue(filter.isSaturated());
+		Assertions.assertTrue(filter.getMemoryBytes() <= 4 * 1024);
+
+		// 误判率升高，但仍不会漏判
+		for (int i = 0; i < 5_000; i++) {
+			Assertions.assertTrue(filter.mightContain("code-" + i));
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.cache;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CachingDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class CachingDwzLogStoreImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@Test
+	public void testReadThrough() {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		CachingDwzLogStoreImpl store = new CachingDwzLogStoreImpl(logStore, 100, 60_000, 5_000);
+
+		String code = store.save(LONG_URL, null).getShortUrlCode();
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		}
+		Assertions.assertEquals(1, logStore.readCount.get());
+		Assertions.assertEquals(1, store.getMissCount());
+		Assertions.assertEquals(9, store.getHitCount());
+
+		// 更新记录后，清除缓存
+		store.update(store.getByLongUrlForUpdate(LONG_URL));
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(2, logStore.readCount.get());
+	}
+
+	@Test
+	public void testNegativeCache() {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		CachingDwzLogStoreImpl store = new CachingDwzLogStoreImpl(logStore, 100, 60_000, 5_000);
+
+		// 序列从1开始，提前访问下一个将要创建的短链接码
+		String code = ShortCodeUtils.toCode(1L);
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(code));
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(1, logStore.readCount.get());
+		Assertions.assertEquals(1, store.getNegativeHitCount());
+
+		// 创建记录后，清除不存在的缓存
+		Assertions.assertEquals(code, store.save(LONG_URL, null).getShortUrlCode());
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(2, logStore.readCount.get());
+	}
+
+	@Test
+	public void testLoadNotDiscardedByOtherWrites() {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		CachingDwzLogStoreImpl store = new CachingDwzLogStoreImpl(logStore, 100, 60_000, 5_000);
+
+		String code = store.save(LONG_URL, null).getShortUrlCode();
+
+		// 读取存储器期间，其他短链接码的写入，不会导致读取到的数据被丢弃
+		logStore.onRead = () -> store.save(LONG_URL + "/other", null);
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		logStore.onRead = null;
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(1, logStore.readCount.get());
+
+		// 读取存储器期间，同一短链接码被更新时，读取到的数据被丢弃
+		store.invalidate(code);
+		logStore.onRead = () -> store.update(store.getByLongUrlForUpdate(LONG_URL));
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		logStore.onRead = null;
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(3, logStore.readCount.get());
+	}
+
+	@Test
+	public void testTtlCappedByTermOfValidity() throws InterruptedException {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		CachingDwzLogStoreImpl store = new CachingDwzLogStoreImpl(logStore, 100, 60_000, 5_000);
+
+		String code = store.save(LONG_URL, new Date(System.currentTimeMillis() + 200)).getShortUrlCode();
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(code));
+
+		// 记录过期后，缓存同时过期，且已过期的记录视为不存在
+		Thread.sleep(300);
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(code));
+		Assertions.assertEquals(2, logStore.readCount.get());
+
+		store.updateOvertime();
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(code));
+	}
+
+	@Test
+	public void testFrequencyBasedEviction() {
+		CountingDwzLogStore logStore = new CountingDwzLogStore();
+		CachingDwzLogStoreImpl store = new CachingDwzLogStoreImpl(logStore, 2, 60_000, 5_000);
+
+		String hot1 = store.save(LONG_URL + 1, null).getShortUrlCode();
+		String hot2 = store.save(LONG_URL + 2, null).getShortUrlCode();
+		String cold = store.save(LONG_URL + 3, null).getShortUrlCode();
+		for (int i = 0; i < 5; i++) {
+			store.getLongUrlByShortUrlCode(hot1);
+			store.getLongUrlByShortUrlCode(hot2);
+		}
+		Assertions.assertEquals(2, store.size());
+
+		// 偶发访问的数据，不会挤出热点数据
+		Assertions.assertEquals(LONG_URL + 3, store.getLongUrlByShortUrlCode(cold));
+		Assertions.assertEquals(2, store.size());
+		Assertions.assertEquals(1, store.getRejectionCount());
+		int readCount = logStore.readCount.get();
+		store.getLongUrlByShortUrlCode(hot1);
+		store.getLongUrlByShortUrlCode(hot2);
+		Assertions.assertEquals(readCount, logStore.readCount.get());
+
+		// 访问频率超过热点数据后，可以进入缓存
+		for (int i = 0; i < 10; i++) {
+			store.getLongUrlByShortUrlCode(cold);
+		}
+		Assertions.assertEquals(1, store.getEvictionCount());
+		readCount = logStore.readCount.get();
+		store.getLongUrlByShortUrlCode(cold);
+		Assertions.assertEquals(readCount, logStore.readCount.get());
+	}
+
+
+	/**
+	 * 统计读取次数的存储器
+	 */
+	static class CountingDwzLogStore extends MockDwzLogStoreImpl {
+
+		final AtomicInteger readCount = new AtomicInteger();
+
+		volatile Runnable onRead;
+
+		CountingDwzLogStore() {
+			super(new AtomicLongSequenceServiceImpl());
+		}
+
+		@Override
+		public DwzLogEntity getByShortUrlCode(String shortUrlCode) {
+			readCount.incrementAndGet();
+			DwzLogEntity dwzLog = super.getByShortUrlCode(shortUrlCode);
+			if (onRead != null) {
+				onRead.run();
+			}
+			return dwzLog;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link FrequencySketch} 测试类
+ *
+ * @author wangliang181230
+ */
+public class FrequencySketchTest {
+
+	@Test
+	public void testIncrementAndReset() {
+		FrequencySketch sketch = new FrequencySketch(1024, Runnable::run);
+
+		Assertions.assertEquals(0, sketch.frequency("a"));
+		for (int i = 0; i < 20; i++) {
+			sketch.increment("a");
+		}
+		// 计数器最大为15
+		Assertions.assertEquals(15, sketch.frequency("a"));
+
+		// 减半
+		sketch.reset();
+		Assertions.assertEquals(7, sketch.frequency("a"));
+	}
+
+	@Test
+	public void testConcurrentIncrement() throws Exception {
+		FrequencySketch sketch = new FrequencySketch(1024, Runnable::run);
+
+		// 多个线程同时计数同一个键，不能丢弃计数
+		int threadCount = 12;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					sketch.increment("hot");
+					return null;
+				}));
+			}
+			start.countDown();
+
+			// 在当前线程中获取结果，使子线程中的断言失败能够传递出来
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertEquals(threadCount, sketch.frequency("hot"));
+	}
+
+	@Test
+	public void testResetInExecutor() {
+		AtomicInteger resetCount = new AtomicInteger();
+		FrequencySketch sketch = new FrequencySketch(1024, r -> {
+			resetCount.incrementAndGet();
+			r.run();
+		});
+
+		// 累计访问次数达到采样数（10 * 1024）后，在执行器中减半
+		for (int i = 0; i < 30_000; i++) {
+			sketch.increment("key-" + i);
+		}
+		Assertions.assertTrue(resetCount.get() > 0);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.db;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.store.DwzOvertimeHandleResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * {@link DataBaseDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class DataBaseDwzLogStoreImplTest {
+
+	/**
+	 * H2的建表语句，与 `/src/script/middleware/dwz-server/mysql/mysql__dwz.sql` 保持一致
+	 */
+	public static final String CREATE_TABLE_SQL = "" +
+			"CREATE TABLE IF NOT EXISTS easyj_dwz_log (" +
+			"  id               bigint       NOT NULL," +
+			"  short_url_code   varchar(16)  NOT NULL," +
+			"  long_url         varchar(255) NOT NULL," +
+			"  long_url_hash    char(32)     NULL," +
+			"  term_of_validity datetime     NULL," +
+			"  status           tinyint      NOT NULL DEFAULT 1," +
+			"  click_count      bigint       NOT NULL DEFAULT 0," +
+			"  create_time      datetime     NOT NULL," +
+			"  update_time      datetime     NOT NULL," +
+			"  version          int          NOT NULL," +
+			"  PRIMARY KEY (id)," +
+			"  UNIQUE (short_url_code)," +
+			"  UNIQUE (long_url_hash)" +
+			")";
+
+	public static final String INSERT_SQL = "INSERT INTO easyj_dwz_log" +
+			" (id, short_url_code, long_url, term_of_validity, status, create_time, update_time, version)" +
+			" VALUES (?, ?, ?, ?, ?, ?, ?, 1)";
+
+
+	private static JdbcTemplate jdbcTemplate;
+
+
+	@BeforeAll
+	public static void beforeAll() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:dwz_log_store_test;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute(CREATE_TABLE_SQL);
+
+		Date now = new Date();
+		// 当前短字符串服务生成的短链接码
+		jdbcTemplate.update(INSERT_SQL, 100L, ShortCodeUtils.toCode(100L), "https://easyj.icu/100", null, 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 101L, ShortCodeUtils.toCode(101L), "https://easyj.icu/101", null, 2, now, now);
+		// 其他短字符串服务配置生成的短链接码：'abc' 解析出的ID对应的是另一条记录
+		jdbcTemplate.update(INSERT_SQL, ShortCodeUtils.toId("abc"), "xyz", "https://easyj.icu/xyz", null, 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 200L, "abc", "https://easyj.icu/abc", new Date(now.getTime() + 60_000), 1, now, now);
+		// 当前短字符串服务无法解析的短链接码
+		jdbcTemplate.update(INSERT_SQL, 201L, "a-b", "https://easyj.icu/a-b", null, 1, now, now);
+		// 长链接重复的旧数据
+		jdbcTemplate.update(INSERT_SQL, 300L, "dup", "https://EASYJ.icu/100", null, 1, now, now);
+	}
+
+
+	@Test
+	public void testGetLongUrlByShortUrlCode() {
+		DataBaseDwzLogStoreImpl store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl());
+
+		Assertions.assertEquals("https://easyj.icu/100", store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(100L)));
+		// 状态不是有效的
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(101L)));
+		// 不存在的
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(102L)));
+
+		// 回退到短链接码字段查询
+		Assertions.assertEquals("https://easyj.icu/abc", store.getLongUrlByShortUrlCode("abc"));
+		Assertions.assertEquals("https://easyj.icu/xyz", store.getLongUrlByShortUrlCode("xyz"));
+		Assertions.assertEquals("https://easyj.icu/a-b", store.getLongUrlByShortUrlCode("a-b"));
+
+		DwzLogEntity dwzLog = store.getByShortUrlCode("abc");
+		Assertions.assertNotNull(dwzLog);
+		Assertions.assertEquals(200L, dwzLog.getId());
+		Assertions.assertNotNull(dwzLog.getTermOfValidity());
+	}
+
+	@Test
+	public void testWithoutFallback() {
+		DataBaseDwzLogStoreImpl store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, false, DwzDedupStrategy.LOCK);
+
+		Assertions.assertEquals("https://easyj.icu/100", store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(100L)));
+		Assertions.assertEquals(100L, store.getByShortUrlCode(ShortCodeUtils.toCode(100L)).getId());
+
+		// 解析出的ID对应的记录，短链接码不一致
+		Assertions.assertNull(store.getLongUrlByShortUrlCode("abc"));
+		Assertions.assertNull(store.getByShortUrlCode("abc"));
+		// 无法解析的短链接码
+		Assertions.assertNull(store.getLongUrlByShortUrlCode("a-b"));
+	}
+
+	@Test
+	public void testGetById() {
+		DataBaseDwzLogStoreImpl store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl());
+
+		DwzLogEntity dwzLog = store.getById(101L);
+		Assertions.assertNotNull(dwzLog);
+		Assertions.assertEquals(ShortCodeUtils.toCode(101L), dwzLog.getShortUrlCode());
+		Assertions.assertEquals(2, dwzLog.getStatus());
+
+		Assertions.assertNull(store.getById(102L));
+	}
+
+	@Test
+	public void testHashDedup() {
+		DataBaseDwzLogStoreImpl store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, true, DwzDedupStrategy.HASH);
+
+		// 补全旧数据的哈希值：6条数据，其中1条长链接重复
+		Assertions.assertEquals(5, store.fillLongUrlHash(2));
+		Assertions.assertEquals(0, store.fillLongUrlHash(2));
+		Assertions.assertNull(jdbcTemplate.queryForObject("SELECT long_url_hash FROM easyj_dwz_log WHERE id = 300", String.class));
+
+		// 根据长链接哈希值查询，主机名不区分大小写
+		DwzLogEntity dwzLog = store.getByLongUrl(" https://EASYJ.ICU/100");
+		Assertions.assertNotNull(dwzLog);
+		Assertions.assertEquals(100L, dwzLog.getId());
+		Assertions.assertEquals(1, dwzLog.getVersion());
+		Assertions.assertNull(store.getByLongUrl("https://easyj.icu/not-exists"));
+
+		// 批量查询（IN条件按每批数据量拆分）
+		store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, true, DwzDedupStrategy.HASH, 2);
+		List<DwzLogEntity> dwzLogs = store.getByLongUrls(Arrays.asList("https://EASYJ.icu/100", "https://easyj.icu/not-exists", "https://easyj.icu/abc"));
+		Assertions.assertEquals(2, dwzLogs.size());
+		Set<Long> ids = new HashSet<>();
+		dwzLogs.forEach(log -> ids.add(log.getId()));
+		Assertions.assertEquals(new HashSet<>(Arrays.asList(100L, 200L)), ids);
+	}
+
+	@Test
+	public void testHandleOvertime() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:dwz_overtime_test;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute(CREATE_TABLE_SQL);
+
+		Date now = new Date();
+		Date overtime1 = new Date(now.getTime() - 2000);
+		Date overtime2 = new Date(now.getTime() - 1000);
+		// 过期时间相同的数据，用于验证键集分页
+		jdbcTemplate.update(INSERT_SQL, 1L, "o1", "https://easyj.icu/o1", overtime1, 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 2L, "o2", "https://easyj.icu/o2", overtime1, 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 3L, "o3", "https://easyj.icu/o3", overtime1, 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 4L, "o4", "https://easyj.icu/o4", overtime2, 0, now, now);
+		jdbcTemplate.update(INSERT_SQL, 5L, "o5", "https://easyj.icu/o5", overtime2, 1, now, now);
+		// 已过期的
+		jdbcTemplate.update(INSERT_SQL, 6L, "o6", "https://easyj.icu/o6", overtime2, 2, now, now);
+		// 未过期的、不过期的
+		jdbcTemplate.update(INSERT_SQL, 7L, "o7", "https://easyj.icu/o7", new Date(now.getTime() + 60_000), 1, now, now);
+		jdbcTemplate.update(INSERT_SQL, 8L, "o8", "https://easyj.icu/o8", null, 1, now, now);
+
+		// H2不支持获取数据库时间，使用本地时间
+		DataBaseDwzLogStoreImpl store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl()) {
+			@Override
+			protected Date now() {
+				return now;
+			}
+		};
+
+		// 分批更新：5条数据，每批2条
+		DwzOvertimeHandleResult result = store.updateOvertime(2, 0L, 0L);
+		Assertions.assertEquals(5, result.getCount());
+		Assertions.assertEquals(3, result.getBatchCount());
+		Assertions.assertTrue(result.isFinished());
+		Assertions.assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM easyj_dwz_log WHERE status = 2", Integer.class));
+		Assertions.assertEquals(2, jdbcTemplate.queryForObject("SELECT version FROM easyj_dwz_log WHERE id = 1", Integer.class));
+		Assertions.assertEquals(0, store.updateOvertime());
+
+		// 超出时间预算，只处理了一批
+		result = store.deleteOvertime(2, 10L, 1L);
+		Assertions.assertEquals(2, result.getCount());
+		Assertions.assertEquals(1, result.getBatchCount());
+		Assertions.assertFalse(result.isFinished());
+
+		// 剩余的数据
+		Assertions.assertEquals(4, store.deleteOvertime());
+		Assertions.assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM easyj_dwz_log", Integer.class));
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.db;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 根据短链接码查询长链接的性能对比：主键查询（短链接码转换回ID） 与 短链接码字段（唯一索引）查询
+ * <p>
+ * 运行方式：执行 {@link #main(String[])} 方法。默认使用H2内存数据库和100万条数据，
+ * 可通过JMH参数调整，例：{@code -p rows=30000000 -p url=jdbc:h2:file:./target/dwz-benchmark;MODE=MySQL}。
+ * 数据量达到千万级时，建议使用H2文件数据库，表中数据量足够时，不会重复插入数据，可重复运行。
+ *
+ * @author wangliang181230
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class DwzLogLookupBenchmark {
+
+	/**
+	 * 短链接码字段查询的SQL（与 {@link DataBaseDwzLogStoreImpl} 中的回退查询一致）
+	 */
+	private static final String GET_LONG_URL_BY_CODE_SQL = "SELECT long_url FROM easyj_dwz_log AS t WHERE t.short_url_code = ? AND t.status = 1";
+
+	private static final int BATCH_SIZE = 10_000;
+
+
+	@Param({"1000000"})
+	private long rows;
+
+	@Param({"jdbc:h2:mem:dwz-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1"})
+	private String url;
+
+
+	private JdbcConnectionPool dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private DataBaseDwzLogStoreImpl store;
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		dataSource = JdbcConnectionPool.create(url, "", "");
+		dataSource.setMaxConnections(8);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute(DataBaseDwzLogStoreImplTest.CREATE_TABLE_SQL);
+
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM easyj_dwz_log", Long.class);
+		if (count == null || count < rows) {
+			jdbcTemplate.execute("TRUNCATE TABLE easyj_dwz_log");
+			this.insertRows();
+		}
+
+		// 所有短链接码都由当前的短字符串服务生成，不需要回退查询
+		store = new DataBaseDwzLogStoreImpl(jdbcTemplate, new AtomicLongSequenceServiceImpl(), ShortCodeUtils.DEFAULT, false, DwzDedupStrategy.LOCK);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataSource.dispose();
+	}
+
+	private void insertRows() {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		List<Object[]> batchArgs = new ArrayList<>(BATCH_SIZE);
+		for (long id = 1; id <= rows; id++) {
+			batchArgs.add(new Object[]{id, ShortCodeUtils.toCode(id), "https://easyj.icu/long-url/" + id, null, 1, now, now});
+			if (batchArgs.size() == BATCH_SIZE || id == rows) {
+				jdbcTemplate.batchUpdate(DataBaseDwzLogStoreImplTest.INSERT_SQL, batchArgs);
+				batchArgs.clear();
+			}
+		}
+	}
+
+	private String randomCode() {
+		return ShortCodeUtils.toCode(ThreadLocalRandom.current().nextLong(1, rows + 1));
+	}
+
+
+	@Benchmark
+	public String primaryKeyLookup() {
+		return store.getLongUrlByShortUrlCode(this.randomCode());
+	}
+
+	@Benchmark
+	public String shortUrlCodeLookup() {
+		return jdbcTemplate.queryForObject(GET_LONG_URL_BY_CODE_SQL, String.class, this.randomCode());
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DwzLogLookupBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
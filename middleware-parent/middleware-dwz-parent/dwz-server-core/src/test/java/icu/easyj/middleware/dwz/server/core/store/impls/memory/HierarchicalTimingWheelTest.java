@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link HierarchicalTimingWheel} 测试类
+ *
+ * @author wangliang181230
+ */
+public class HierarchicalTimingWheelTest {
+
+	@Test
+	public void testAdvance() {
+		long start = 1_000_000L;
+		HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10L, start);
+
+		// 第0层、第1层、第2层、已到期
+		wheel.add(1L, start + 25);
+		wheel.add(2L, start + 10 * 64 * 3);
+		wheel.add(3L, start + 10 * 64 * 64 * 5 + 7);
+		wheel.add(4L, start - 1);
+		Assertions.assertEquals(4, wheel.size());
+
+		Assertions.assertArrayEquals(new long[]{4L}, wheel.advance(start));
+		// 未过期时间，不到期
+		Assertions.assertArrayEquals(new long[0], wheel.advance(start + 25));
+		Assertions.assertArrayEquals(new long[]{1L}, wheel.advance(start + 30));
+
+		Assertions.assertArrayEquals(new long[0], wheel.advance(start + 10 * 64 * 3));
+		Assertions.assertArrayEquals(new long[]{2L}, wheel.advance(start + 10 * 64 * 3 + 10));
+
+		// 一次推进很长时间
+		Assertions.assertArrayEquals(new long[]{3L}, wheel.advance(start + 10L * 64 * 64 * 64));
+		Assertions.assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testRandomExpiration() {
+		long start = 1_700_000_000_000L;
+		HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000L, start);
+
+		int count = 10_000;
+		long[] expireMillis = new long[count];
+		Random random = new Random(2L);
+		for (int i = 0; i < count; i++) {
+			expireMillis[i] = start + (long)(random.nextDouble() * 30L * 24 * 3600 * 1000);
+			wheel.add(i, expireMillis[i]);
+		}
+
+		// 每次推进随机的时长，校验到期的记录都已过期，且未到期的记录都未过期
+		boolean[] expired = new boolean[count];
+		long now = start;
+		while (now < start + 31L * 24 * 3600 * 1000) {
+			now += (long)(random.nextDouble() * 12 * 3600 * 1000);
+			for (long id : wheel.advance(now)) {
+				Assertions.assertFalse(expired[(int)id]);
+				Assertions.assertTrue(expireMillis[(int)id] < now);
+				expired[(int)id] = true;
+			}
+			for (int i = 0; i < count; i++) {
+				if (!expired[i]) {
+					// 到期精度为一个刻度
+					Assertions.assertTrue(expireMillis[i] >= now - 1000, "id = " + i);
+				}
+			}
+		}
+
+		Assertions.assertEquals(0, wheel.size());
+		boolean[] all = new boolean[count];
+		Arrays.fill(all, true);
+		Assertions.assertArrayEquals(all, expired);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link LongObjectHashMap} 测试类
+ *
+ * @author wangliang181230
+ */
+public class LongObjectHashMapTest {
+
+	@Test
+	public void testPutGetRemove() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>(0);
+		Assertions.assertNull(map.get(1L));
+
+		Assertions.assertNull(map.put(1L, "a"));
+		Assertions.assertEquals("a", map.put(1L, "b"));
+		Assertions.assertNull(map.put(0L, "zero"));
+		Assertions.assertNull(map.put(-1L, "minus"));
+		Assertions.assertEquals(3, map.size());
+		Assertions.assertEquals("b", map.get(1L));
+		Assertions.assertEquals("zero", map.get(0L));
+		Assertions.assertEquals("minus", map.get(-1L));
+
+		Assertions.assertEquals("b", map.remove(1L));
+		Assertions.assertNull(map.remove(1L));
+		Assertions.assertNull(map.get(1L));
+		Assertions.assertEquals(2, map.size());
+	}
+
+	@Test
+	public void testRandomOperations() {
+		// 与HashMap对比，验证扩容和删除时的向后移位
+		LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(1L);
+		long key;
+		for (int i = 0; i < 200_000; i++) {
+			key = random.nextInt(5000);
+			if (random.nextBoolean()) {
+				Assertions.assertEquals(expected.put(key, (long)i), map.put(key, (long)i));
+			} else {
+				Assertions.assertEquals(expected.remove(key), map.remove(key));
+			}
+		}
+
+		Assertions.assertEquals(expected.size(), map.size());
+		for (long k = 0; k < 5000; k++) {
+			Assertions.assertEquals(expected.get(k), map.get(k));
+		}
+
+		long[] sum = new long[1];
+		map.forEach((k, v) -> sum[0] += k);
+		Assertions.assertEquals(expected.keySet().stream().mapToLong(Long::longValue).sum(), sum[0]);
+	}
+
+	@Test
+	public void testConcurrentMap() throws InterruptedException {
+		ConcurrentLongObjectMap<long[]> map = new ConcurrentLongObjectMap<>(4, 16);
+
+		int threadCount = 4;
+		int countPerThread = 20_000;
+		Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			int offset = t * countPerThread;
+			threads[t] = new Thread(() -> {
+				for (int i = offset; i < offset + countPerThread; i++) {
+					map.put(i, new long[]{i});
+					// 读取其他线程正在写入的段
+					long[] value = map.get(i);
+					Assertions.assertNotNull(value);
+					Assertions.assertEquals(i, value[0]);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assertions.assertEquals(threadCount * countPerThread, map.size());
+		Assertions.assertArrayEquals(new long[]{123L}, map.get(123L));
+		Assertions.assertNull(map.compute(123L, old -> null));
+		Assertions.assertNull(map.get(123L));
+		Assertions.assertTrue(Arrays.equals(new long[]{124L}, map.get(124L)));
+	}
+}
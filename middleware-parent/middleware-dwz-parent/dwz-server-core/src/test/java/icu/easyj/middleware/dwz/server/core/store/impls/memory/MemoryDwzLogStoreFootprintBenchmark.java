@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 长链接保存在堆内与堆外的对比：{@link MemoryDwzLogStoreImpl} 的内存占用、Full GC耗时和重定向查询的吞吐量
+ * <p>
+ * 运行方式：执行 {@link #main(String[])} 方法。加载数据后，在控制台输出堆内存占用、堆外内存占用和一次Full GC的耗时，
+ * 之后测试重定向查询（需要将堆外的长链接解码为字符串）的吞吐量。
+ * 可通过JMH参数调整数据量和长链接长度，例：{@code -p rows=10000000 -p urlLength=300}，数据量较大时，需要同时调整 -Xmx 和 -XX:MaxDirectMemorySize。
+ *
+ * @author wangliang181230
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+public class MemoryDwzLogStoreFootprintBenchmark {
+
+	private static final int BATCH_SIZE = 10_000;
+
+
+	@Param({"false", "true"})
+	private boolean offHeap;
+
+	@Param({"2000000"})
+	private int rows;
+
+	@Param({"200"})
+	private int urlLength;
+
+
+	private MemoryDwzLogStoreImpl store;
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		long heapBefore = usedHeap();
+		long gcCountBefore = gcCount();
+		long gcMillisBefore = gcMillis();
+		long startTime = System.currentTimeMillis();
+
+		OffHeapStringArena urlArena = offHeap ? new OffHeapStringArena() : null;
+		store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl(), ShortCodeUtils.DEFAULT, DwzDedupStrategy.LOCK,
+				rows, MemoryDwzLogStoreImpl.DEFAULT_TICK_MILLIS, urlArena);
+
+		String padding = this.padding();
+		List<DwzLogEntity> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 1; i <= rows; i++) {
+			DwzLogEntity dwzLog = new DwzLogEntity();
+			dwzLog.setLongUrl("https://easyj.icu/" + i + "/" + padding);
+			batch.add(dwzLog);
+			if (batch.size() == BATCH_SIZE || i == rows) {
+				store.saveAll(batch);
+				batch = new ArrayList<>(BATCH_SIZE);
+			}
+		}
+		long loadMillis = System.currentTimeMillis() - startTime;
+		long loadGcCount = gcCount() - gcCountBefore;
+		long loadGcMillis = gcMillis() - gcMillisBefore;
+
+		long fullGcStart = System.nanoTime();
+		System.gc();
+		long fullGcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fullGcStart);
+		long heapUsed = usedHeap() - heapBefore;
+		long offHeapUsed = urlArena != null ? urlArena.getAllocatedBytes() : 0;
+
+		System.out.printf("%n[offHeap=%s] rows=%d, urlLength=%d%n", offHeap, rows, urlLength);
+		System.out.printf("  heap: %d MB (%d bytes/record), off-heap: %d MB (%d bytes/record)%n",
+				heapUsed >> 20, heapUsed / rows, offHeapUsed >> 20, offHeapUsed / rows);
+		System.out.printf("  load: %d ms, GC during load: %d times / %d ms, full GC after load: %d ms%n",
+				loadMillis, loadGcCount, loadGcMillis, fullGcMillis);
+	}
+
+	private String padding() {
+		StringBuilder sb = new StringBuilder(urlLength);
+		while (sb.length() < urlLength - 30) {
+			sb.append("path-segment/");
+		}
+		return sb.toString();
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+
+
+	@Benchmark
+	public String redirect() {
+		return store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(ThreadLocalRandom.current().nextLong(1, rows + 1)));
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(MemoryDwzLogStoreFootprintBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzServerServiceImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * {@link MemoryDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class MemoryDwzLogStoreImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@Test
+	public void testSaveAndGet() {
+		MemoryDwzLogStoreImpl store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH, 0);
+		Assertions.assertNull(store.getMaxId());
+
+		DwzLogEntity dwzLog = store.save(LONG_URL, null);
+		Assertions.assertEquals(1, dwzLog.getVersion());
+		Assertions.assertEquals(dwzLog.getId(), store.getMaxId());
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(dwzLog.getShortUrlCode()));
+		Assertions.assertEquals(dwzLog.getId(), store.getByShortUrlCode(dwzLog.getShortUrlCode()).getId());
+		Assertions.assertNull(store.getLongUrlByShortUrlCode("a-b"));
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(dwzLog.getId() + 1)));
+
+		// 按规范化后的长链接去重
+		Assertions.assertEquals(dwzLog.getId(), store.getByLongUrl(" HTTPS://EASYJ.ICU/long-url").getId());
+		Assertions.assertNull(store.getByLongUrl("https://easyj.icu/LONG-URL"));
+		Assertions.assertThrows(DuplicateKeyException.class, () -> store.save("https://EASYJ.icu/long-url", null));
+
+		// 返回的是副本，修改后不影响存储的数据
+		DwzLogEntity copy = store.getById(dwzLog.getId());
+		copy.setStatus(DwzLogStatus.Expired);
+		Assertions.assertTrue(store.getById(dwzLog.getId()).isStatus(DwzLogStatus.EFFECTIVE));
+
+		// 整批插入失败时，已插入的记录回滚
+		List<DwzLogEntity> dwzLogs = new ArrayList<>();
+		for (String longUrl : Arrays.asList(LONG_URL + "/1", LONG_URL + "/2", LONG_URL)) {
+			DwzLogEntity entity = new DwzLogEntity();
+			entity.setLongUrl(longUrl);
+			dwzLogs.add(entity);
+		}
+		Assertions.assertThrows(DuplicateKeyException.class, () -> store.saveAll(dwzLogs));
+		Assertions.assertNull(store.getByLongUrl(LONG_URL + "/1"));
+		Assertions.assertEquals(1, store.size());
+		Assertions.assertEquals(dwzLog.getId(), store.getMaxId());
+	}
+
+	@Test
+	public void testUpdate() {
+		MemoryDwzLogStoreImpl store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl());
+
+		DwzLogEntity dwzLog = store.save(LONG_URL, null);
+		Date termOfValidity = new Date(System.currentTimeMillis() + 60_000);
+		dwzLog.setTermOfValidity(termOfValidity);
+
+		// 乐观更新
+		Assertions.assertTrue(store.updateIfUnchanged(dwzLog));
+		Assertions.assertEquals(2, dwzLog.getVersion());
+		dwzLog.setVersion(1);
+		Assertions.assertFalse(store.updateIfUnchanged(dwzLog));
+
+		store.update(dwzLog);
+		DwzLogEntity updated = store.getById(dwzLog.getId());
+		Assertions.assertEquals(termOfValidity, updated.getTermOfValidity());
+		Assertions.assertEquals(3, updated.getVersion());
+
+		dwzLog.setId(dwzLog.getId() + 100);
+		Assertions.assertThrows(RuntimeException.class, () -> store.update(dwzLog));
+	}
+
+	@Test
+	public void testOvertime() {
+		MemoryDwzLogStoreImpl store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl());
+
+		Date overtime = new Date(System.currentTimeMillis() - 1000);
+		DwzLogEntity expired1 = store.save(LONG_URL + "/1", overtime);
+		DwzLogEntity expired2 = store.save(LONG_URL + "/2", overtime);
+		DwzLogEntity renewed = store.save(LONG_URL + "/3", overtime);
+		DwzLogEntity effective = store.save(LONG_URL + "/4", new Date(System.currentTimeMillis() + 60_000));
+		store.save(LONG_URL + "/5", null);
+		Assertions.assertEquals(4, store.getPendingExpirationCount());
+
+		// 已过期但还未处理的记录，不再重定向
+		Assertions.assertNull(store.getLongUrlByShortUrlCode(expired1.getShortUrlCode()));
+		Assertions.assertEquals(LONG_URL + "/4", store.getLongUrlByShortUrlCode(effective.getShortUrlCode()));
+
+		// 续期的记录，时间轮中的旧任务到期后不处理
+		renewed.setTermOfValidity(null);
+		store.update(renewed);
+
+		Assertions.assertEquals(2, store.updateOvertime());
+		Assertions.assertTrue(store.getById(expired1.getId()).isStatus(DwzLogStatus.Expired));
+		Assertions.assertEquals(2, store.getById(expired1.getId()).getVersion());
+		Assertions.assertEquals(LONG_URL + "/3", store.getLongUrlByShortUrlCode(renewed.getShortUrlCode()));
+		Assertions.assertEquals(0, store.updateOvertime());
+
+		// 过期的记录，再次使用
+		expired2.setTermOfValidity(new Date(System.currentTimeMillis() - 1500)); // 时间轮的到期精度为1个刻度
+		store.update(expired2);
+		Assertions.assertEquals(1, store.deleteOvertime());
+		Assertions.assertNull(store.getById(expired2.getId()));
+		Assertions.assertNull(store.getByLongUrl(LONG_URL + "/2"));
+		Assertions.assertEquals(4, store.size());
+		Assertions.assertEquals(1, store.getPendingExpirationCount());
+	}
+
+	@Test
+	public void testOffHeap() {
+		OffHeapStringArena urlArena = new OffHeapStringArena(256);
+		MemoryDwzLogStoreImpl store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH, 0, MemoryDwzLogStoreImpl.DEFAULT_TICK_MILLIS, urlArena);
+
+		List<DwzLogEntity> dwzLogs = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			dwzLogs.add(store.save(LONG_URL + "/中文/" + i, new Date(System.currentTimeMillis() - 1000)));
+		}
+		DwzLogEntity effective = store.save(LONG_URL + "/effective", null);
+		Assertions.assertTrue(urlArena.getSlabCount() > 1);
+
+		// 从堆外读取
+		Assertions.assertEquals(LONG_URL + "/effective", store.getLongUrlByShortUrlCode(effective.getShortUrlCode()));
+		Assertions.assertEquals(LONG_URL + "/中文/3", store.getById(dwzLogs.get(3).getId()).getLongUrl());
+		Assertions.assertEquals(dwzLogs.get(5).getId(), store.getByLongUrl(LONG_URL + "/中文/5").getId());
+		Assertions.assertThrows(DuplicateKeyException.class, () -> store.save(LONG_URL + "/中文/5", null));
+
+		// 更新不会重新保存长链接
+		long liveBytes = urlArena.getLiveBytes();
+		effective.setTermOfValidity(new Date(System.currentTimeMillis() + 60_000));
+		store.update(effective);
+		Assertions.assertEquals(liveBytes, urlArena.getLiveBytes());
+
+		// 删除后释放，只剩下有效记录所在的分片
+		Assertions.assertEquals(20, store.deleteOvertime());
+		Assertions.assertEquals(1, store.size());
+		Assertions.assertEquals(1, urlArena.getSlabCount());
+		Assertions.assertEquals(4 + (LONG_URL + "/effective").length(), urlArena.getLiveBytes());
+		Assertions.assertEquals(LONG_URL + "/effective", store.getLongUrlByShortUrlCode(effective.getShortUrlCode()));
+	}
+
+	@Test
+	public void testConcurrentCreate() throws InterruptedException {
+		MemoryDwzLogStoreImpl store = new MemoryDwzLogStoreImpl(new AtomicLongSequenceServiceImpl(),
+				ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH, 0);
+		DefaultDwzServerServiceImpl service = new DefaultDwzServerServiceImpl(store, DwzDedupStrategy.HASH);
+
+		int threadCount = 8;
+		int urlCount = 500;
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int t = 0; t < threadCount; t++) {
+			new Thread(() -> {
+				try {
+					// 所有线程创建同样的一批长链接
+					for (int i = 0; i < urlCount; i++) {
+						DwzLogEntity dwzLog = service.createShortUrlCode(LONG_URL + "/" + i, null);
+						ids.add(dwzLog.getId());
+						Assertions.assertEquals(LONG_URL + "/" + i, store.getLongUrlByShortUrlCode(dwzLog.getShortUrlCode()));
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+
+		// 每个长链接只有一条记录
+		Assertions.assertEquals(urlCount, ids.size());
+		Assertions.assertEquals(urlCount, store.size());
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.memory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link OffHeapStringArena} 测试类
+ *
+ * @author wangliang181230
+ */
+public class OffHeapStringArenaTest {
+
+	@Test
+	public void testPutAndGet() {
+		OffHeapStringArena arena = new OffHeapStringArena(64);
+
+		long ref1 = arena.put("https://easyj.icu/1");
+		long ref2 = arena.put("https://easyj.icu/中文");
+		Assertions.assertEquals("https://easyj.icu/1", arena.get(ref1));
+		Assertions.assertEquals("https://easyj.icu/中文", arena.get(ref2));
+		Assertions.assertEquals(1, arena.getSlabCount());
+
+		// 超过分片大小的字符串，单独分配一个分片
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			sb.append("0123456789");
+		}
+		long ref3 = arena.put(sb.toString());
+		Assertions.assertEquals(sb.toString(), arena.get(ref3));
+		Assertions.assertEquals(2, arena.getSlabCount());
+		Assertions.assertEquals(64 + 104, arena.getAllocatedBytes());
+
+		Assertions.assertNull(arena.get(OffHeapStringArena.NO_REF));
+	}
+
+	@Test
+	public void testFree() {
+		OffHeapStringArena arena = new OffHeapStringArena(32);
+
+		// 每个字符串占 4 + 12 字节，每个分片可保存2个
+		long[] refs = new long[6];
+		for (int i = 0; i < refs.length; i++) {
+			refs[i] = arena.put("easyj.icu/" + i + i);
+		}
+		Assertions.assertEquals(3, arena.getSlabCount());
+		Assertions.assertEquals(6 * 16, arena.getLiveBytes());
+
+		// 分片中还有有效数据时，不释放
+		arena.free(refs[0]);
+		Assertions.assertEquals(3, arena.getSlabCount());
+		Assertions.assertEquals("easyj.icu/11", arena.get(refs[1]));
+
+		// 分片中的数据全部释放后，释放整个分片，引用失效
+		arena.free(refs[1]);
+		Assertions.assertEquals(2, arena.getSlabCount());
+		Assertions.assertNull(arena.get(refs[1]));
+		arena.free(refs[1]); // 重复释放无影响
+		Assertions.assertEquals(4 * 16, arena.getLiveBytes());
+
+		// 当前分片的数据全部释放后，不释放，可继续写入
+		arena.free(refs[4]);
+		arena.free(refs[5]);
+		Assertions.assertEquals(2, arena.getSlabCount());
+
+		// 复用已释放的槽位，旧的引用不会读到新数据
+		long ref = arena.put("easyj.icu/66");
+		long ref2 = arena.put("easyj.icu/77");
+		Assertions.assertEquals("easyj.icu/66", arena.get(ref));
+		Assertions.assertEquals("easyj.icu/77", arena.get(ref2));
+		Assertions.assertNull(arena.get(refs[0]));
+		Assertions.assertNull(arena.get(refs[4]));
+		Assertions.assertEquals("easyj.icu/22", arena.get(refs[2]));
+		Assertions.assertEquals(2, arena.getSlabCount());
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.mmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.data.store.StoreException;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzLogStatus;
+import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * {@link MmapDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class MmapDwzLogStoreImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	public void testCleanShutdown() throws IOException {
+		File dir = tempDir.resolve("dwz").toFile();
+
+		DwzLogEntity dwzLog;
+		DwzLogEntity updated;
+		try (MmapDwzLogStoreImpl store = open(dir, 64 * 1024)) {
+			dwzLog = store.save(LONG_URL, null);
+			updated = store.save(LONG_URL + "/updated", null);
+			updated.setTermOfValidity(new Date(System.currentTimeMillis() + 60_000));
+			Assertions.assertTrue(store.updateIfUnchanged(updated));
+			store.save(LONG_URL + "/overtime", new Date(System.currentTimeMillis() - 1000));
+			Assertions.assertEquals(1, store.deleteOvertime());
+		}
+
+		// 正常关闭时已保存检查点，重新打开时无需重放变更日志
+		try (MmapDwzLogStoreImpl store = open(dir, 64 * 1024)) {
+			Assertions.assertEquals(0, store.getReplayedCount());
+			Assertions.assertEquals(2, store.size());
+			Assertions.assertEquals(3L, store.getMaxId());
+			Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(dwzLog.getShortUrlCode()));
+			Assertions.assertEquals(2, store.getById(updated.getId()).getVersion());
+			Assertions.assertEquals(updated.getTermOfValidity(), store.getById(updated.getId()).getTermOfValidity());
+			Assertions.assertNull(store.getByLongUrl(LONG_URL + "/overtime"));
+			Assertions.assertThrows(DuplicateKeyException.class, () -> store.save(LONG_URL, null));
+
+			// 已过期的记录在重新打开后，依然会被处理
+			updated.setTermOfValidity(new Date(System.currentTimeMillis() - 1000));
+			store.update(updated);
+			Assertions.assertEquals(1, store.updateOvertime());
+			Assertions.assertTrue(store.getById(updated.getId()).isStatus(DwzLogStatus.Expired));
+		}
+
+		MmapDwzLogStoreImpl store = open(dir, 64 * 1024);
+		store.close();
+		Assertions.assertThrows(IllegalStateException.class, store::checkpoint);
+	}
+
+	@Test
+	public void testCrashRecovery() throws IOException {
+		File dir = tempDir.resolve("dwz").toFile();
+		File crashDir = tempDir.resolve("dwz-crash").toFile();
+
+		List<DwzLogEntity> dwzLogs = new ArrayList<>();
+		try (MmapDwzLogStoreImpl store = open(dir, 64 * 1024)) {
+			for (int i = 0; i < 10; i++) {
+				dwzLogs.add(store.save(LONG_URL + "/" + i, null));
+			}
+			store.checkpoint();
+
+			// 检查点之后的变更：新增、更新、删除
+			dwzLogs.add(store.save(LONG_URL + "/10", null));
+			DwzLogEntity dwzLog = dwzLogs.get(0);
+			dwzLog.setTermOfValidity(new Date(System.currentTimeMillis() + 60_000));
+			store.update(dwzLog);
+			dwzLogs.get(1).setTermOfValidity(new Date(System.currentTimeMillis() - 1000));
+			store.update(dwzLogs.get(1));
+			Assertions.assertEquals(1, store.deleteOvertime());
+
+			// 复制未关闭的数据目录，模拟进程异常退出时的文件内容
+			copyDir(dir, crashDir);
+		}
+
+		ISequenceService sequenceService = new AtomicLongSequenceServiceImpl();
+		try (MmapDwzLogStoreImpl store = open(crashDir, 64 * 1024, sequenceService)) {
+			Assertions.assertEquals(4, store.getReplayedCount());
+			Assertions.assertEquals(10, store.size());
+			Assertions.assertEquals(11L, store.getMaxId());
+			Assertions.assertEquals(2, store.getById(dwzLogs.get(0).getId()).getVersion());
+			Assertions.assertNull(store.getById(dwzLogs.get(1).getId()));
+			Assertions.assertEquals(LONG_URL + "/10", store.getLongUrlByShortUrlCode(dwzLogs.get(10).getShortUrlCode()));
+
+			// 被删除的长链接可以重新创建
+			sequenceService.setVal(IDwzLogStore.SEQ_NAME__DWZ_LOG_ID, store.getMaxId());
+			Assertions.assertNotNull(store.save(LONG_URL + "/1", null));
+		}
+	}
+
+	@Test
+	public void testSegmentRollingAndCheckpoint() throws IOException {
+		File dir = tempDir.resolve("dwz").toFile();
+		File crashDir = tempDir.resolve("dwz-crash").toFile();
+
+		try (MmapDwzLogStoreImpl store = open(dir, 1024)) {
+			for (int i = 0; i < 100; i++) {
+				store.save(LONG_URL + "/" + i, null);
+			}
+			Assertions.assertTrue(store.getSegmentCount() > 5);
+			Assertions.assertEquals(store.getSegmentCount(), countSegmentFiles(dir));
+
+			// 检查点之后，只保留当前段文件
+			store.checkpoint();
+			Assertions.assertEquals(1, store.getSegmentCount());
+			Assertions.assertEquals(1, countSegmentFiles(dir));
+			Assertions.assertEquals(1, store.getCheckpointCount());
+
+			for (int i = 100; i < 150; i++) {
+				store.save(LONG_URL + "/" + i, null);
+			}
+			copyDir(dir, crashDir);
+		}
+
+		try (MmapDwzLogStoreImpl store = open(crashDir, 1024)) {
+			Assertions.assertEquals(50, store.getReplayedCount());
+			Assertions.assertEquals(150, store.size());
+			for (int i = 0; i < 150; i++) {
+				Assertions.assertNotNull(store.getByLongUrl(LONG_URL + "/" + i));
+			}
+		}
+
+		// 记录大于段文件时，写入失败，且不影响索引
+		ISequenceService sequenceService = new AtomicLongSequenceServiceImpl();
+		try (MmapDwzLogStoreImpl store = open(dir, 1024, sequenceService)) {
+			sequenceService.setVal(IDwzLogStore.SEQ_NAME__DWZ_LOG_ID, store.getMaxId());
+			StringBuilder longUrl = new StringBuilder(LONG_URL + "/");
+			while (longUrl.length() < 1024) {
+				longUrl.append("0123456789");
+			}
+			Assertions.assertThrows(StoreException.class, () -> store.save(longUrl.toString(), null));
+			Assertions.assertNull(store.getByLongUrl(longUrl.toString()));
+			Assertions.assertEquals(150, store.size());
+		}
+	}
+
+	@Test
+	public void testTornWrite() throws IOException {
+		File dir = tempDir.resolve("dwz").toFile();
+		File crashDir = tempDir.resolve("dwz-crash").toFile();
+
+		try (MmapDwzLogStoreImpl store = open(dir, 64 * 1024)) {
+			for (int i = 0; i < 3; i++) {
+				store.save(LONG_URL + "/" + i, null);
+			}
+			copyDir(dir, crashDir);
+		}
+
+		// 模拟写入一半时进程崩溃：长度已写入，但内容不完整
+		DwzLogSegment segment = DwzLogSegment.open(crashDir, 0, 0);
+		Assertions.assertEquals(3, segment.replay(0, payload -> {
+		}));
+		int position = segment.getPosition();
+		segment.close();
+		try (RandomAccessFile file = new RandomAccessFile(new File(crashDir, DwzLogSegment.toFileName(0)), "rw")) {
+			file.seek(position);
+			file.writeInt(100);
+			file.writeInt(12345);
+			file.write(new byte[]{1, 2, 3});
+		}
+
+		ISequenceService sequenceService = new AtomicLongSequenceServiceImpl();
+		try (MmapDwzLogStoreImpl store = open(crashDir, 64 * 1024, sequenceService)) {
+			Assertions.assertEquals(3, store.getReplayedCount());
+			Assertions.assertEquals(3, store.size());
+
+			// 截断后继续写入
+			sequenceService.setVal(IDwzLogStore.SEQ_NAME__DWZ_LOG_ID, store.getMaxId());
+			store.save(LONG_URL + "/3", null);
+		}
+
+		try (MmapDwzLogStoreImpl store = open(crashDir, 64 * 1024)) {
+			Assertions.assertEquals(4, store.size());
+			Assertions.assertEquals(4L, store.getMaxId());
+		}
+	}
+
+
+	private static MmapDwzLogStoreImpl open(File dir, int segmentSize) throws IOException {
+		return open(dir, segmentSize, new AtomicLongSequenceServiceImpl());
+	}
+
+	private static MmapDwzLogStoreImpl open(File dir, int segmentSize, ISequenceService sequenceService) throws IOException {
+		// 不启用定时刷盘和定时检查点，由测试用例控制
+		return new MmapDwzLogStoreImpl(dir, sequenceService, ShortCodeUtils.DEFAULT, DwzDedupStrategy.HASH, 0, null,
+				segmentSize, false, 0, 0);
+	}
+
+	private static void copyDir(File from, File to) throws IOException {
+		Files.createDirectories(to.toPath());
+		try (Stream<Path> files = Files.list(from.toPath())) {
+			for (Path file : (Iterable<Path>)files::iterator) {
+				Files.copy(file, to.toPath().resolve(file.getFileName()));
+			}
+		}
+	}
+
+	private static long countSegmentFiles(File dir) {
+		return Stream.of(dir.list()).filter(name -> DwzLogSegment.parseSeq(name) >= 0).count();
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.store.impls.writebehind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.data.store.DbStoreException;
+import icu.easyj.middleware.dwz.server.core.domain.entity.DwzLogEntity;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzWriteBehindDurability;
+import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.lang.NonNull;
+
+/**
+ * {@link WriteBehindDwzLogStoreImpl} 测试类
+ *
+ * @author wangliang181230
+ */
+public class WriteBehindDwzLogStoreImplTest {
+
+	private static final String LONG_URL = "https://easyj.icu/long-url";
+
+
+	@Test
+	public void testWaitForFlush() throws Exception {
+		CountingLogStore logStore = new CountingLogStore();
+		try (WriteBehindDwzLogStoreImpl store = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.WAIT_FOR_FLUSH, 64, 5, 1000)) {
+			int threadCount = 8;
+			int countPerThread = 200;
+			ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+			try {
+				List<Future<?>> futures = new ArrayList<>(threadCount);
+				for (int i = 0; i < threadCount; i++) {
+					int threadNo = i;
+					futures.add(executor.submit(() -> {
+						for (int j = 0; j < countPerThread; j++) {
+							DwzLogEntity dwzLog = store.save(LONG_URL + "/" + threadNo + "/" + j, null);
+							// 返回时，已写入被包装的存储器
+							Assertions.assertNotNull(logStore.getById(dwzLog.getId()));
+						}
+					}));
+				}
+				// 在当前线程中获取结果，使子线程中的断言失败能够传递出来
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+
+			Assertions.assertEquals(threadCount * countPerThread, store.getFlushedRecordCount());
+			Assertions.assertEquals(0, store.getFailedRecordCount());
+			Assertions.assertEquals(0, store.getQueueSize());
+			Assertions.assertEquals(0, store.getPendingCount());
+			// 并发的请求共用批次
+			Assertions.assertTrue(logStore.insertCount.get() < threadCount * countPerThread);
+			Assertions.assertEquals(store.getFlushCount(), logStore.insertCount.get());
+			Assertions.assertTrue(store.getMaxFlushMillis() >= store.getAverageFlushMillis());
+		}
+	}
+
+	@Test
+	public void testFireAndForget() throws InterruptedException {
+		CountingLogStore logStore = new CountingLogStore();
+		logStore.insertLatch = new CountDownLatch(1);
+		WriteBehindDwzLogStoreImpl store = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.FIRE_AND_FORGET, 64, 5, 1000);
+
+		// 立即返回，写入前即可根据短链接码查询
+		DwzLogEntity dwzLog = store.save(LONG_URL, null);
+		Assertions.assertEquals(LONG_URL, store.getLongUrlByShortUrlCode(dwzLog.getShortUrlCode()));
+		Assertions.assertEquals(dwzLog.getId(), store.getById(dwzLog.getId()).getId());
+		Assertions.assertNull(logStore.getById(dwzLog.getId()));
+
+		// 正在等待写入的长链接，可用于去重
+		Assertions.assertEquals(dwzLog.getId(), store.getByLongUrl("HTTPS://EASYJ.ICU/long-url").getId());
+		Assertions.assertThrows(DuplicateKeyException.class, () -> store.save(LONG_URL, null));
+
+		logStore.insertLatch.countDown();
+		store.close();
+
+		Assertions.assertEquals(LONG_URL, logStore.getLongUrlByShortUrlCode(dwzLog.getShortUrlCode()));
+		Assertions.assertEquals(0, store.getPendingCount());
+
+		// 关闭后，直接同步写入
+		DwzLogEntity dwzLog2 = store.save(LONG_URL + "/2", null);
+		Assertions.assertNotNull(logStore.getById(dwzLog2.getId()));
+	}
+
+	@Test
+	public void testFlushFailure() {
+		CountingLogStore logStore = new CountingLogStore();
+		logStore.save(LONG_URL + "/dup", null);
+
+		WriteBehindDwzLogStoreImpl store = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.FIRE_AND_FORGET, 64, 50, 1000);
+
+		// 批量写入失败时，逐条重试，只丢弃失败的记录
+		List<DwzLogEntity> dwzLogs = Arrays.asList(newDwzLog(LONG_URL + "/1"), newDwzLog(LONG_URL + "/dup"), newDwzLog(LONG_URL + "/2"));
+		store.saveAll(dwzLogs);
+		store.close();
+
+		Assertions.assertNotNull(logStore.getById(dwzLogs.get(0).getId()));
+		Assertions.assertNull(logStore.getById(dwzLogs.get(1).getId()));
+		Assertions.assertNotNull(logStore.getById(dwzLogs.get(2).getId()));
+		Assertions.assertEquals(2, store.getFlushedRecordCount());
+		Assertions.assertEquals(1, store.getFailedRecordCount());
+
+		// 等待写入时，调用方可收到异常
+		WriteBehindDwzLogStoreImpl waitingStore = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.WAIT_FOR_FLUSH, 64, 5, 1000);
+		try {
+			Assertions.assertThrows(DuplicateKeyException.class, () -> waitingStore.save(LONG_URL + "/dup", null));
+		} finally {
+			waitingStore.close();
+		}
+	}
+
+	@Test
+	public void testFlushTimeout() {
+		CountingLogStore logStore = new CountingLogStore();
+		logStore.insertLatch = new CountDownLatch(1);
+		WriteBehindDwzLogStoreImpl store = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.WAIT_FOR_FLUSH, 64, 0, 1000, 100);
+
+		// 写入线程阻塞时，调用方不会无限期等待
+		Assertions.assertThrows(DbStoreException.class, () -> store.save(LONG_URL, null));
+
+		// 超时的记录仍会在稍后写入
+		logStore.insertLatch.countDown();
+		store.close();
+		Assertions.assertEquals(LONG_URL, logStore.getLongUrlByShortUrlCode(ShortCodeUtils.toCode(1L)));
+	}
+
+	@Test
+	public void testQueueFull() {
+		CountingLogStore logStore = new CountingLogStore();
+		logStore.insertLatch = new CountDownLatch(1);
+		WriteBehindDwzLogStoreImpl store = new WriteBehindDwzLogStoreImpl(logStore, null,
+				DwzWriteBehindDurability.FIRE_AND_FORGET, 1, 0, 1);
+
+		// 写入线程阻塞时：第1条正在写入，第2条在队列中
+		store.save(LONG_URL + "/1", null);
+		waitUntil(() -> store.getQueueSize() == 0);
+		store.save(LONG_URL + "/2", null);
+
+		// 队列已满，第3条在调用线程中同步写入
+		DwzLogEntity dwzLog3 = store.save(LONG_URL + "/3", null);
+		Assertions.assertNotNull(logStore.getById(dwzLog3.getId()));
+		Assertions.assertEquals(1, store.getSyncWriteCount());
+
+		logStore.insertLatch.countDown();
+		store.close();
+		Assertions.assertEquals(3, store.getFlushedRecordCount());
+	}
+
+
+	private static DwzLogEntity newDwzLog(String longUrl) {
+		DwzLogEntity dwzLog = new DwzLogEntity();
+		dwzLog.setLongUrl(longUrl);
+		return dwzLog;
+	}
+
+	private static void waitUntil(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.yield();
+		}
+	}
+
+
+	/**
+	 * 统计批量插入次数的存储器
+	 */
+	static class CountingLogStore extends MockDwzLogStoreImpl {
+
+		final AtomicInteger insertCount = new AtomicInteger();
+
+		/**
+		 * 不为空时，写入线程批量插入前等待
+		 */
+		volatile CountDownLatch insertLatch;
+
+
+		CountingLogStore() {
+			super(new AtomicLongSequenceServiceImpl());
+		}
+
+		@Override
+		public void insertAll(@NonNull List<DwzLogEntity> dwzLogs) {
+			CountDownLatch latch = this.insertLatch;
+			if (latch != null && Thread.currentThread().getName().startsWith("DwzWriteBehind-Writer-")) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			insertCount.incrementAndGet();
+			super.insertAll(dwzLogs);
+		}
+	}
+}
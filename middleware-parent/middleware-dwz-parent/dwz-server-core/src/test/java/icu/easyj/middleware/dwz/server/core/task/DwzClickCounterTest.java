@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.middleware.dwz.server.core.task;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.store.impls.db.DataBaseDwzLogStoreImplTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * {@link DwzClickCounter} 测试类
+ *
+ * @author wangliang181230
+ */
+public class DwzClickCounterTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+
+	@BeforeAll
+	public static void beforeAll() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:dwz_click_counter_test;MODE=MySQL;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute(DataBaseDwzLogStoreImplTest.CREATE_TABLE_SQL);
+
+		Date now = new Date();
+		for (long id = 1; id <= 10; id++) {
+			jdbcTemplate.update(DataBaseDwzLogStoreImplTest.INSERT_SQL, id, ShortCodeUtils.toCode(id), "https://easyj.icu/" + id, null, 1, now, now);
+		}
+	}
+
+
+	@BeforeEach
+	public void beforeEach() {
+		jdbcTemplate.update("UPDATE easyj_dwz_log SET click_count = 0");
+	}
+
+
+	@Test
+	public void testConcurrentIncrementAndFlush() throws Exception {
+		DwzClickCounter counter = new DwzClickCounter(jdbcTemplate, ShortCodeUtils.DEFAULT, 3);
+
+		int threadCount = 8;
+		int countPerThread = 10_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < countPerThread; j++) {
+						counter.increment(j % 10 + 1);
+						// 计数期间并发刷新，不会丢失计数
+						if (j % 1000 == 0) {
+							counter.flush();
+						}
+						// 计数期间并发读取
+						if (j % 1000 == 500) {
+							Assertions.assertTrue(counter.getPendingClickCount(j % 10 + 1) >= 0);
+						}
+					}
+				}));
+			}
+			// 在当前线程中获取结果，使子线程中的断言失败能够传递出来
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		counter.flush();
+
+		for (long id = 1; id <= 10; id++) {
+			Assertions.assertEquals(0, counter.getPendingClickCount(id));
+			Assertions.assertEquals(threadCount * countPerThread / 10, counter.getClickCount(id));
+		}
+		Assertions.assertEquals(threadCount * countPerThread, counter.getTotalClickCount());
+		Assertions.assertEquals(threadCount * countPerThread, counter.getFlushedClickCount());
+	}
+
+	@Test
+	public void testMergePendingCount() {
+		DwzClickCounter counter = new DwzClickCounter(jdbcTemplate, ShortCodeUtils.DEFAULT);
+		long id = 10;
+
+		// 未写入数据库的次数，也包含在点击次数中
+		Assertions.assertTrue(counter.increment(ShortCodeUtils.toCode(id)));
+		counter.increment(id);
+		Assertions.assertEquals(2, counter.getPendingClickCount(id));
+		Assertions.assertEquals(2, counter.getClickCount(id));
+
+		counter.close();
+		Assertions.assertEquals(0, counter.getPendingClickCount(id));
+		Assertions.assertEquals(2, counter.getClickCount(id));
+
+		// 不存在的记录，计数被丢弃
+		counter.increment(999L);
+		Assertions.assertEquals(1, counter.flush());
+		Assertions.assertEquals(1, counter.getDroppedClickCount());
+		Assertions.assertEquals(0, counter.getClickCount(999L));
+	}
+
+	@Test
+	public void testRetryOnlyUnappliedRowsOfFailedBatch() {
+		// 第一次批量写入时，只执行第一行，其余行报告失败（模拟自动提交下的部分执行）
+		JdbcTemplate failingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+			private boolean failed;
+
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+				if (failed) {
+					return super.batchUpdate(sql, batchArgs);
+				}
+				failed = true;
+				super.update(sql, batchArgs.get(0));
+				int[] updateCounts = new int[batchArgs.size()];
+				updateCounts[0] = 1;
+				for (int i = 1; i < updateCounts.length; i++) {
+					updateCounts[i] = Statement.EXECUTE_FAILED;
+				}
+				throw new UncategorizedSQLException("batchUpdate", sql, new BatchUpdateException(updateCounts));
+			}
+		};
+		DwzClickCounter counter = new DwzClickCounter(failingJdbcTemplate, ShortCodeUtils.DEFAULT);
+		for (long id = 1; id <= 3; id++) {
+			counter.increment(id);
+			counter.increment(id);
+		}
+
+		Assertions.assertEquals(0, counter.flush());
+		Assertions.assertEquals(2, counter.getFlushedClickCount());
+		Assertions.assertEquals(2, counter.flush());
+
+		// 已执行的行不会被重复累加
+		for (long id = 1; id <= 3; id++) {
+			Assertions.assertEquals(0, counter.getPendingClickCount(id));
+			Assertions.assertEquals(2, counter.getClickCount(id));
+		}
+		Assertions.assertEquals(6, counter.getFlushedClickCount());
+	}
+}
@@ -15,12 +15,20 @@
  */
 package icu.easyj.sdk.baidu.cloud.dwz;
 
+import cn.hutool.core.clone.CloneSupport;
+
 /**
  * 百度的DWZ服务配置
  *
  * @author wangliang181230
  */
-public class BaiduDwzConfig {
+public class BaiduDwzConfig extends CloneSupport<BaiduDwzConfig> {
+
+	/**
+	 * 默认的单次批量请求最大长网址数
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
 
 	/**
 	 * 服务地址
@@ -47,6 +55,11 @@ public class BaiduDwzConfig {
 	 */
 	private String responseLanguage = "zh";
 
+	/**
+	 * 单次批量请求的最大长网址数（超出时将分多次请求，数量过多时，接口会返回错误：-14）
+	 */
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
 
 	public BaiduDwzConfig() {
 	}
@@ -90,5 +103,13 @@ public class BaiduDwzConfig {
 		this.responseLanguage = responseLanguage;
 	}
 
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	//endregion
 }
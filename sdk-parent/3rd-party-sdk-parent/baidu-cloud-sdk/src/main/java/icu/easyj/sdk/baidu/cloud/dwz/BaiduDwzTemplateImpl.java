@@ -15,7 +15,15 @@
  */
 package icu.easyj.sdk.baidu.cloud.dwz;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import icu.easyj.core.constant.DateConstants;
 import icu.easyj.core.constant.ErrorCodeConstants;
@@ -40,6 +48,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.client.RestClientResponseException;
 
 /**
@@ -82,6 +91,8 @@ public class BaiduDwzTemplateImpl implements IDwzTemplate {
 	}
 
 
+	//region Override IDwzTemplate
+
 	@Override
 	public DwzResponse createShortUrl(DwzRequest request) throws DwzSdkException {
 		Assert.notNull(request, "'request' must not be null");
@@ -90,15 +101,135 @@ public class BaiduDwzTemplateImpl implements IDwzTemplate {
 		// 将入参配置与通用配置合并，生成当前请求所使用的配置
 		BaiduDwzConfig config = ObjectUtils.mergeData(this.config, request.getConfigs());
 
+		// Body
+		String body = "[" + this.buildBodyItem(request, config) + "]";
+
+		// 发送请求
+		BaiduDwzResponse resp = this.request(config, body);
+
+		// 转换响应类型，并返回
+		return this.convertToStandard(resp.getShortUrls().get(0), config.getTermOfValidity());
+	}
+
+	/**
+	 * 批量生成短链接
+	 * <p>
+	 * 可配置参数相同的请求，按 {@link BaiduDwzConfig#getMaxBatchSize()} 分批，每批只调用一次百度云短链接服务接口。<br>
+	 * 注意：<br>
+	 * 1）接口只会返回整批的成功或失败，只要有一个长网址缩短失败（错误代码：-99），整批都将抛出异常；<br>
+	 * 2）响应数据按长网址与请求匹配，某个长网址被服务端规范化而无法匹配时，整批抛出错误代码为 {@code NO_DATA} 的异常，
+	 * 此时可改为逐条生成（见 {@code CoalescingDwzTemplate}）。
+	 *
+	 * @param requests 请求列表
+	 * @return responses 响应列表，顺序与入参一致
+	 * @throws DwzSdkException          SDK异常
+	 * @throws IllegalArgumentException 参数有误的异常
+	 */
+	@Override
+	public List<DwzResponse> createShortUrls(List<DwzRequest> requests) throws DwzSdkException {
+		Assert.notNull(requests, "'requests' must not be null");
+		for (DwzRequest request : requests) {
+			Assert.notNull(request, "'request' must not be null");
+			Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+		}
+
+		if (requests.size() <= 1) {
+			return requests.isEmpty() ? Collections.emptyList() : Collections.singletonList(this.createShortUrl(requests.get(0)));
+		}
+
+		// 按可配置参数分组，同一组的请求使用相同的配置，可合并为一次接口调用
+		Map<Map<String, Object>, List<Integer>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < requests.size(); i++) {
+			Map<String, Object> configs = requests.get(i).getConfigs();
+			groups.computeIfAbsent(configs == null ? Collections.emptyMap() : configs, k -> new ArrayList<>()).add(i);
+		}
+
+		DwzResponse[] responses = new DwzResponse[requests.size()];
+		for (List<Integer> indexes : groups.values()) {
+			// 将入参配置与通用配置合并，生成当前分组所使用的配置
+			BaiduDwzConfig config = ObjectUtils.mergeData(this.config, requests.get(indexes.get(0)).getConfigs());
+			int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+
+			for (int from = 0; from < indexes.size(); from += maxBatchSize) {
+				List<Integer> batch = indexes.subList(from, Math.min(from + maxBatchSize, indexes.size()));
+
+				// Body
+				StringBuilder body = new StringBuilder(batch.size() * 128).append('[');
+				for (Integer index : batch) {
+					if (body.length() > 1) {
+						body.append(',');
+					}
+					body.append(this.buildBodyItem(requests.get(index), config));
+				}
+				body.append(']');
+
+				// 发送请求
+				BaiduDwzResponse resp = this.request(config, body.toString());
+
+				// 按长网址匹配响应数据
+				Map<String, BaiduDwzResponseData> dataMap = new HashMap<>(resp.getShortUrls().size() * 4 / 3 + 1);
+				for (BaiduDwzResponseData data : resp.getShortUrls()) {
+					if (data.getLongUrl() != null) {
+						dataMap.putIfAbsent(data.getLongUrl(), data);
+					}
+				}
+				for (int index : batch) {
+					BaiduDwzResponseData data = dataMap.get(requests.get(index).getLongUrl());
+					if (data == null) {
+						// 响应数据的顺序不固定，长网址被服务端规范化后无法匹配时，不能按顺序猜测，否则可能得到其他长网址的短链接
+						throw new DwzSdkServerException("请求百度云短链接服务的响应中无长网址的数据：" + requests.get(index).getLongUrl(), "NO_DATA");
+					}
+					responses[index] = this.convertToStandard(data, config.getTermOfValidity());
+				}
+			}
+		}
+
+		return Arrays.asList(responses);
+	}
+
+	@Override
+	public int getMaxBatchSize() {
+		return Math.max(1, this.config.getMaxBatchSize());
+	}
+
+	@Override
+	public String getCacheNamespace() {
+		// 不同的服务地址、账号和默认有效期，生成的短链接不同；Token摘要后加入，避免明文出现在缓存键中
+		String source = this.config.getServiceUrl() + '\n' + this.config.getToken() + '\n' + this.config.getTermOfValidity();
+		return "baidu:" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 生成请求Body中的一项
+	 *
+	 * @param request 请求
+	 * @param config  当前请求所使用的配置
+	 * @return 请求Body中的一项
+	 */
+	private String buildBodyItem(DwzRequest request, BaiduDwzConfig config) {
+		return String.format("{\"LongUrl\":\"%s\",\"TermOfValidity\":\"%s\"}", request.getLongUrl(), config.getTermOfValidity());
+	}
+
+	/**
+	 * 请求百度云短链接服务
+	 *
+	 * @param config 当前请求所使用的配置
+	 * @param body   请求Body
+	 * @return 成功的响应，响应数据不为空
+	 * @throws DwzSdkException SDK异常
+	 */
+	private BaiduDwzResponse request(BaiduDwzConfig config, String body) throws DwzSdkException {
 		// 调用开始时间
 		TimeMeter tm = TimeMeter.create();
 
-		String body = null;
 		String respStr = null;
 		RuntimeException ex = null;
 		try {
-			// Body
-			body = String.format("[{\"LongUrl\":\"%s\",\"TermOfValidity\":\"%s\"}]", request.getLongUrl(), config.getTermOfValidity());
 			// Headers
 			HttpHeaders headers = new HttpHeaders();
 			headers.add("Dwz-Token", config.getToken());
@@ -134,8 +265,7 @@ public class BaiduDwzTemplateImpl implements IDwzTemplate {
 				throw new DwzSdkServerException("请求百度云短链接服务的响应中无数据", "NO_DATA");
 			}
 
-			// 转换响应类型，并返回
-			return this.convertToStandard(resp, config.getTermOfValidity());
+			return resp;
 		} catch (DwzSdkException e) {
 			ex = e;
 			throw e;
@@ -161,15 +291,13 @@ public class BaiduDwzTemplateImpl implements IDwzTemplate {
 	/**
 	 * 转换为标准响应
 	 *
-	 * @param resp           Baidu接口响应
+	 * @param data           Baidu接口响应数据
 	 * @param termOfValidity 长链接有效时间：1-year、long-term
 	 * @return 标准响应
 	 */
-	private DwzResponse convertToStandard(BaiduDwzResponse resp, String termOfValidity) {
+	private DwzResponse convertToStandard(BaiduDwzResponseData data, String termOfValidity) {
 		DwzResponse response = new DwzResponse();
 
-		BaiduDwzResponseData data = resp.getShortUrls().get(0);
-
 		// 设置短链接
 		response.setShortUrl(data.getShortUrl());
 		// 设置短链接创建时间
@@ -191,4 +319,6 @@ public class BaiduDwzTemplateImpl implements IDwzTemplate {
 
 		return response;
 	}
+
+	//endregion
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.baidu.cloud.dwz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import icu.easyj.sdk.dwz.DwzRequest;
+import icu.easyj.sdk.dwz.DwzResponse;
+import icu.easyj.sdk.dwz.DwzSdkServerException;
+import icu.easyj.web.util.httpclient.IHttpClientService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link BaiduDwzTemplateImpl#createShortUrls(List)} 测试类
+ *
+ * @author wangliang181230
+ */
+public class BaiduDwzTemplateImplBatchTest {
+
+	@Test
+	public void testCreateShortUrls() {
+		BaiduDwzConfig config = new BaiduDwzConfig("token");
+		config.setMaxBatchSize(2);
+		List<String> bodies = new ArrayList<>();
+		BaiduDwzTemplateImpl template = new BaiduDwzTemplateImpl(config, new MockHttpClientService(bodies, false));
+		Assertions.assertEquals(2, template.getMaxBatchSize());
+
+		Map<String, Object> longTerm = Collections.singletonMap("termOfValidity", "long-term");
+		List<DwzRequest> requests = Arrays.asList(
+				new DwzRequest("https://easyj.icu/1"),
+				new DwzRequest("https://easyj.icu/2", longTerm),
+				new DwzRequest("https://easyj.icu/3"),
+				new DwzRequest("https://easyj.icu/4"));
+
+		List<DwzResponse> responses = template.createShortUrls(requests);
+
+		// 按配置分组，再按最大数量分批：[1, 3]、[4]、[2]
+		Assertions.assertEquals(3, bodies.size());
+		Assertions.assertEquals("[{\"LongUrl\":\"https://easyj.icu/1\",\"TermOfValidity\":\"1-year\"},"
+				+ "{\"LongUrl\":\"https://easyj.icu/3\",\"TermOfValidity\":\"1-year\"}]", bodies.get(0));
+		Assertions.assertEquals("[{\"LongUrl\":\"https://easyj.icu/2\",\"TermOfValidity\":\"long-term\"}]", bodies.get(2));
+
+		// 响应顺序与入参一致
+		Assertions.assertEquals(4, responses.size());
+		for (int i = 0; i < requests.size(); i++) {
+			Assertions.assertEquals("https://dwz.cn/" + (i + 1), responses.get(i).getShortUrl());
+		}
+		Assertions.assertEquals(0L, responses.get(1).getExpireIn());
+		Assertions.assertTrue(responses.get(0).getExpireIn() > 0);
+	}
+
+	@Test
+	public void testPartFailed() {
+		BaiduDwzTemplateImpl template = new BaiduDwzTemplateImpl(new BaiduDwzConfig("token"), new MockHttpClientService(new ArrayList<>(), true));
+
+		DwzSdkServerException e = Assertions.assertThrows(DwzSdkServerException.class,
+				() -> template.createShortUrls(Arrays.asList(new DwzRequest("https://easyj.icu/1"), new DwzRequest("https://easyj.icu/2"))));
+		Assertions.assertEquals(BaiduDwzErrorType.PART_LONG_URL_ERROR.name(), e.getErrorCode());
+	}
+
+	@Test
+	public void testNormalizedLongUrl() {
+		BaiduDwzTemplateImpl template = new BaiduDwzTemplateImpl(new BaiduDwzConfig("token"), new MockHttpClientService(new ArrayList<>(), false, true));
+
+		// 长网址被规范化后无法匹配时，不按顺序猜测，直接抛出异常
+		DwzSdkServerException e = Assertions.assertThrows(DwzSdkServerException.class,
+				() -> template.createShortUrls(Arrays.asList(new DwzRequest("https://EASYJ.icu/1"), new DwzRequest("https://easyj.icu/2"))));
+		Assertions.assertEquals("NO_DATA", e.getErrorCode());
+	}
+
+
+	/**
+	 * 模拟的http客户端服务：短链接为 "https://dwz.cn/" + 长链接的最后一段，且响应数据的顺序与请求相反
+	 * <p>
+	 * normalize为true时，响应中的长链接会被转换为小写（模拟服务端规范化长网址）
+	 */
+	static class MockHttpClientService implements IHttpClientService {
+
+		private final List<String> bodies;
+
+		private final boolean partFailed;
+
+		private final boolean normalize;
+
+
+		MockHttpClientService(List<String> bodies, boolean partFailed, boolean normalize) {
+			this.bodies = bodies;
+			this.partFailed = partFailed;
+			this.normalize = normalize;
+		}
+
+		MockHttpClientService(List<String> bodies, boolean partFailed) {
+			this(bodies, partFailed, false);
+		}
+
+		@Override
+		public <T> T get(String url, Map<String, String> queryStringMap, MultiValueMap<String, String> headers, Class<T> responseClass) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> T post(String url, Object requestBody, MultiValueMap<String, String> headers, Class<T> responseClass) {
+			String body = (String)requestBody;
+			bodies.add(body);
+
+			if (partFailed) {
+				return (T)"{\"Code\":-99,\"ErrMsg\":\"\",\"ShortUrls\":[{\"LongUrl\":\"https://easyj.icu/2\",\"ErrMsg\":\"无效长网址\"}]}";
+			}
+
+			List<String> items = new ArrayList<>();
+			for (String part : body.split("\"LongUrl\":\"")) {
+				if (part.startsWith("https://")) {
+					String longUrl = part.substring(0, part.indexOf('"'));
+					if (normalize) {
+						longUrl = longUrl.toLowerCase();
+					}
+					items.add(0, "{\"LongUrl\":\"" + longUrl + "\",\"ShortUrl\":\"https://dwz.cn/" + longUrl.substring(longUrl.lastIndexOf('/') + 1) + "\"}");
+				}
+			}
+			return (T)("{\"Code\":0,\"ShortUrls\":[" + String.join(",", items) + "]}");
+		}
+	}
+}
@@ -15,6 +15,7 @@
  */
 package icu.easyj.sdk.s3.dwz;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import icu.easyj.core.constant.ErrorCodeConstants;
@@ -37,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.client.RestClientResponseException;
 
 /**
@@ -156,6 +158,12 @@ public class S3DwzTemplateImpl implements IDwzTemplate {
 		}
 	}
 
+	@Override
+	public String getCacheNamespace() {
+		// 不同的服务地址和账号，生成的短链接不同；账号摘要后加入，避免明文出现在缓存键中
+		return "s3:" + DigestUtils.md5DigestAsHex((config.getServiceUrl() + '\n' + config.getClientId()).getBytes(StandardCharsets.UTF_8));
+	}
+
 	//endregion
 
 	/**
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import icu.easyj.core.util.MapUtils;
+import icu.easyj.core.util.StringUtils;
+import icu.easyj.sdk.dwz.cache.IDwzResponseCache;
+import icu.easyj.sdk.dwz.cache.MemoryDwzResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 带缓存的短链接服务（包装其他 {@link IDwzTemplate} 的装饰器）
+ * <p>
+ * 以 命名空间 + 长链接 + 可配置参数 作为缓存键，缓存生成的短链接，相同的长链接再次生成短链接时，直接返回缓存的短链接，
+ * 减少对第三方短链接服务（通常按次收费且有频率限制）的调用。
+ * <p>
+ * 实现说明：<br>
+ * 1）被包装的短链接服务的通用配置是固定的，由命名空间（默认为 {@link IDwzTemplate#getCacheNamespace()}）区分不同的服务和账号，
+ * 再加上 长链接 + 可配置参数 即可确定当前请求实际使用的配置；可配置参数按键排序，并规范化参数值（如：日期转为毫秒数）；<br>
+ * 2）缓存的有效期根据 {@link DwzResponse#getCreateTime()} 和 {@link DwzResponse#getExpireIn()} 计算，
+ * 剩余有效时长不足 {@link #minRemainingMillis} 的短链接不再从缓存中返回；<br>
+ * 3）缓存可插拔，默认为当前实例内的 {@link MemoryDwzResponseCache}，读写缓存失败时，只记录日志，不影响短链接的生成；<br>
+ * 4）本类不合并并发的相同请求，需要时可包装一个 {@link CoalescingDwzTemplate}，避免缓存未命中时并发的相同请求都调用第三方服务；<br>
+ * 5）异步生成短链接时，缓存命中直接返回已完成的结果，不占用异步执行器；未命中时，才调用被包装的短链接服务的异步方法。
+ *
+ * @author wangliang181230
+ * @see CachingDwzTemplateConfig
+ * @see IDwzResponseCache
+ */
+public class CachingDwzTemplate implements IDwzTemplate {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CachingDwzTemplate.class);
+
+
+	/**
+	 * 被包装的短链接服务
+	 */
+	private final IDwzTemplate dwzTemplate;
+
+	/**
+	 * 短链接响应缓存
+	 */
+	private final IDwzResponseCache cache;
+
+	/**
+	 * 短链接最小剩余有效时长（毫秒）
+	 */
+	private final long minRemainingMillis;
+
+	/**
+	 * 缓存命名空间
+	 */
+	private final String namespace;
+
+	//region 统计数据
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	//endregion
+
+
+	public CachingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, @NonNull IDwzResponseCache cache, long minRemainingMillis,
+							  @Nullable String namespace) {
+		Assert.notNull(dwzTemplate, "'dwzTemplate' must not be null");
+		Assert.notNull(cache, "'cache' must not be null");
+		Assert.isTrue(minRemainingMillis >= 0, "'minRemainingMillis' must not be less than 0");
+
+		this.dwzTemplate = dwzTemplate;
+		this.cache = cache;
+		this.minRemainingMillis = minRemainingMillis;
+		this.namespace = StringUtils.isNotEmpty(namespace) ? namespace : dwzTemplate.getCacheNamespace();
+	}
+
+	public CachingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, @NonNull IDwzResponseCache cache, long minRemainingMillis) {
+		this(dwzTemplate, cache, minRemainingMillis, null);
+	}
+
+	public CachingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, @NonNull IDwzResponseCache cache, @NonNull CachingDwzTemplateConfig config) {
+		this(dwzTemplate, cache, config.getMinRemainingMillis(), config.getNamespace());
+	}
+
+	public CachingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, @NonNull CachingDwzTemplateConfig config) {
+		this(dwzTemplate, new MemoryDwzResponseCache(config.getMaximumSize()), config);
+	}
+
+	public CachingDwzTemplate(@NonNull IDwzTemplate dwzTemplate) {
+		this(dwzTemplate, new CachingDwzTemplateConfig());
+	}
+
+
+	//region Override IDwzTemplate
+
+	@Override
+	public DwzResponse createShortUrl(DwzRequest request) throws DwzSdkException {
+		Assert.notNull(request, "'request' must not be null");
+		Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+
+		String key = this.buildKey(request);
+
+		DwzResponse response = this.getFromCache(key);
+		if (response != null) {
+			return response;
+		}
+
+		response = this.dwzTemplate.createShortUrl(request);
+		this.putToCache(key, response);
+		return response;
+	}
+
+	@Override
+	public List<DwzResponse> createShortUrls(List<DwzRequest> requests) throws DwzSdkException {
+		Assert.notNull(requests, "'requests' must not be null");
+
+		// 先从缓存中获取，只有未命中的请求才批量调用
+		List<DwzResponse> responses = new ArrayList<>(requests.size());
+		List<String> missKeys = new ArrayList<>();
+		List<DwzRequest> missRequests = new ArrayList<>();
+		List<Integer> missIndexes = new ArrayList<>();
+		for (int i = 0; i < requests.size(); i++) {
+			DwzRequest request = requests.get(i);
+			Assert.notNull(request, "'request' must not be null");
+			Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+
+			String key = this.buildKey(request);
+			DwzResponse response = this.getFromCache(key);
+			responses.add(response);
+			if (response == null) {
+				missKeys.add(key);
+				missRequests.add(request);
+				missIndexes.add(i);
+			}
+		}
+
+		if (!missRequests.isEmpty()) {
+			List<DwzResponse> missResponses = this.dwzTemplate.createShortUrls(missRequests);
+			for (int i = 0; i < missResponses.size(); i++) {
+				DwzResponse response = missResponses.get(i);
+				this.putToCache(missKeys.get(i), response);
+				responses.set(missIndexes.get(i), response);
+			}
+		}
+
+		return responses;
+	}
+
+	@Override
+	public CompletableFuture<DwzResponse> createShortUrlAsync(DwzRequest request) {
+		Assert.notNull(request, "'request' must not be null");
+		Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+
+		String key = this.buildKey(request);
+
+		// 命中缓存时，直接返回已完成的结果，不占用异步执行器，也不会因执行器已满而被拒绝
+		DwzResponse response = this.getFromCache(key);
+		if (response != null) {
+			return CompletableFuture.completedFuture(response);
+		}
+
+		return this.dwzTemplate.createShortUrlAsync(request).thenApply(resp -> {
+			this.putToCache(key, resp);
+			return resp;
+		});
+	}
+
+	@Override
+	public int getMaxBatchSize() {
+		return this.dwzTemplate.getMaxBatchSize();
+	}
+
+	@Override
+	public String getCacheNamespace() {
+		return this.namespace;
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 生成缓存键：命名空间 + 长链接 + 按键排序后的可配置参数
+	 *
+	 * @param request 请求
+	 * @return 缓存键
+	 */
+	private String buildKey(DwzRequest request) {
+		StringBuilder key = new StringBuilder(this.namespace.length() + request.getLongUrl().length() + 32)
+				.append(this.namespace).append(' ').append(request.getLongUrl());
+
+		Map<String, Object> configs = request.getConfigs();
+		if (MapUtils.isNotEmpty(configs)) {
+			key.append(' ');
+			boolean first = true;
+			for (Map.Entry<String, Object> entry : new TreeMap<>(configs).entrySet()) {
+				if (!first) {
+					key.append('&');
+				}
+				first = false;
+				key.append(encode(entry.getKey())).append('=').append(encode(toCanonicalString(entry.getValue())));
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * 将参数值转换为规范的字符串（日期转为毫秒数，避免 {@link Date#toString()} 丢失毫秒和受时区影响）
+	 *
+	 * @param value 参数值
+	 * @return 规范的字符串
+	 */
+	private static String toCanonicalString(Object value) {
+		if (value instanceof Date) {
+			return String.valueOf(((Date)value).getTime());
+		}
+		return String.valueOf(value);
+	}
+
+	/**
+	 * 编码键和值，避免其中的 {@code &}、{@code =} 等分隔符导致不同的参数生成相同的缓存键
+	 *
+	 * @param str 字符串
+	 * @return 编码后的字符串
+	 */
+	private static String encode(String str) {
+		try {
+			return URLEncoder.encode(str, StandardCharsets.UTF_8.name());
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e); // UTF-8一定支持，不会发生
+		}
+	}
+
+	@Nullable
+	private DwzResponse getFromCache(String key) {
+		DwzResponse response;
+		try {
+			response = this.cache.get(key);
+		} catch (RuntimeException e) {
+			LOGGER.warn("读取短链接缓存失败：{}", e.getMessage(), e);
+			response = null;
+		}
+
+		// 剩余有效时长不足时，视为未命中
+		if (response == null || !this.isUsable(IDwzResponseCache.getExpireAtMillis(response))) {
+			this.missCount.increment();
+			return null;
+		}
+
+		this.hitCount.increment();
+		return copy(response);
+	}
+
+	private void putToCache(String key, DwzResponse response) {
+		if (response == null || response.getShortUrl() == null) {
+			return;
+		}
+
+		// 复制一份再修改，不修改被包装的短链接服务返回的响应
+		DwzResponse copy = copy(response);
+		// 未返回创建时间时，以当前时间作为创建时间，用于计算有效期
+		if (copy.getCreateTime() == null) {
+			copy.setCreateTime(new Date());
+		}
+
+		long expireAtMillis = IDwzResponseCache.getExpireAtMillis(copy);
+		if (!this.isUsable(expireAtMillis)) {
+			return; // 有效时长太短，不缓存
+		}
+
+		try {
+			this.cache.put(key, copy, expireAtMillis == Long.MAX_VALUE ? Long.MAX_VALUE : expireAtMillis - this.minRemainingMillis);
+		} catch (RuntimeException e) {
+			LOGGER.warn("写入短链接缓存失败：{}", e.getMessage(), e);
+		}
+	}
+
+	private boolean isUsable(long expireAtMillis) {
+		return expireAtMillis == Long.MAX_VALUE || expireAtMillis - System.currentTimeMillis() > this.minRemainingMillis;
+	}
+
+	/**
+	 * 复制响应，避免调用方修改返回的响应时影响缓存
+	 *
+	 * @param response 响应
+	 * @return 复制的响应
+	 */
+	private static DwzResponse copy(DwzResponse response) {
+		DwzResponse copy = new DwzResponse();
+		copy.setShortUrl(response.getShortUrl());
+		copy.setCreateTime(response.getCreateTime() != null ? new Date(response.getCreateTime().getTime()) : null);
+		copy.setExpireIn(response.getExpireIn());
+		return copy;
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzTemplate getDwzTemplate() {
+		return dwzTemplate;
+	}
+
+	public IDwzResponseCache getCache() {
+		return cache;
+	}
+
+	public long getMinRemainingMillis() {
+		return minRemainingMillis;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	//endregion
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import icu.easyj.core.constant.DateConstants;
+import icu.easyj.sdk.dwz.cache.MemoryDwzResponseCache;
+
+/**
+ * 带缓存的短链接服务配置
+ *
+ * @author wangliang181230
+ * @see CachingDwzTemplate
+ */
+public class CachingDwzTemplateConfig {
+
+	/**
+	 * 默认的最大缓存数量
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = MemoryDwzResponseCache.DEFAULT_MAXIMUM_SIZE;
+
+	/**
+	 * 默认的短链接最小剩余有效时长：1天
+	 */
+	public static final long DEFAULT_MIN_REMAINING_MILLIS = DateConstants.ONE_DAY_MILL;
+
+
+	/**
+	 * 最大缓存数量（仅对默认的内存缓存有效）
+	 */
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	/**
+	 * 短链接最小剩余有效时长（毫秒），剩余有效时长不足该值的短链接，不再从缓存中返回，以免返回即将过期的短链接
+	 */
+	private long minRemainingMillis = DEFAULT_MIN_REMAINING_MILLIS;
+
+	/**
+	 * 缓存命名空间，为空时使用被包装的短链接服务的 {@link IDwzTemplate#getCacheNamespace()}
+	 */
+	private String namespace;
+
+
+	//region Getter、Setter
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public long getMinRemainingMillis() {
+		return minRemainingMillis;
+	}
+
+	public void setMinRemainingMillis(long minRemainingMillis) {
+		this.minRemainingMillis = minRemainingMillis;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	public void setNamespace(String namespace) {
+		this.namespace = namespace;
+	}
+
+	//endregion
+}
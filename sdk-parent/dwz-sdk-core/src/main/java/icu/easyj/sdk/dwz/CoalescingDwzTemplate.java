@@ -0,0 +1,463 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import icu.easyj.core.constant.ErrorCodeConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 合并请求的短链接服务（包装其他 {@link IDwzTemplate} 的装饰器）
+ * <p>
+ * 1）相同请求合并：长链接和可配置参数都相同的请求，如果已有正在进行中的调用，直接共享该调用的结果，不再重复调用；<br>
+ * 2）批量合并：被包装的短链接服务支持批量接口时（即：{@link IDwzTemplate#getMaxBatchSize()} 大于1），
+ * 在合并窗口时长内到达的并发请求，会被合并为一次 {@link IDwzTemplate#createShortUrls(List)} 调用。
+ * 批次中的第一个请求线程负责等待并发送批量请求，批次已满时立即发送。
+ * <p>
+ * 批量请求因与具体长链接相关的错误（见 {@link CoalescingDwzTemplateConfig#getFallbackErrorCodes()}，以及参数有误的异常）失败时，
+ * 会改为逐条调用 {@link IDwzTemplate#createShortUrl(DwzRequest)}，使每个请求得到各自的结果或异常，
+ * 不会因为某一个长链接有误，导致同一批次的其他请求都失败；
+ * 其他错误（如：超时、服务端5xx）直接作为批次中所有请求的异常，避免上游服务故障时，调用量被放大为批次大小的倍数。
+ * <p>
+ * 异步生成短链接时，相同请求正在进行中，直接返回共享其结果的 {@link CompletableFuture}，不占用异步执行器。
+ *
+ * @author wangliang181230
+ * @see CoalescingDwzTemplateConfig
+ */
+public class CoalescingDwzTemplate implements IDwzTemplate {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingDwzTemplate.class);
+
+
+	/**
+	 * 被包装的短链接服务
+	 */
+	private final IDwzTemplate dwzTemplate;
+
+	/**
+	 * 单次批量请求的最大长链接数
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * 合并窗口时长（纳秒）
+	 */
+	private final long batchWindowNanos;
+
+	/**
+	 * 批量请求失败时，改为逐条生成的错误代码
+	 */
+	private final Set<String> fallbackErrorCodes;
+
+	/**
+	 * 进行中的请求Map
+	 */
+	private final Map<RequestKey, CompletableFuture<DwzResponse>> inFlightMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 收集批次的锁
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * 批次已满的条件
+	 */
+	private final Condition batchFull = this.lock.newCondition();
+
+	/**
+	 * 当前正在收集的批次
+	 */
+	private List<PendingRequest> pendingList = new ArrayList<>();
+
+	//region 统计数据
+
+	/**
+	 * 请求数
+	 */
+	private final LongAdder requestCount = new LongAdder();
+
+	/**
+	 * 共享了进行中调用的结果的请求数
+	 */
+	private final LongAdder sharedCount = new LongAdder();
+
+	/**
+	 * 调用被包装的短链接服务的次数（批量请求失败后的逐条调用不计入）
+	 */
+	private final LongAdder batchCount = new LongAdder();
+
+	//endregion
+
+
+	public CoalescingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, int maxBatchSize, long batchWindowMillis,
+								 @Nullable Collection<String> fallbackErrorCodes) {
+		Assert.notNull(dwzTemplate, "'dwzTemplate' must not be null");
+		Assert.isTrue(batchWindowMillis >= 0, "'batchWindowMillis' must not be less than 0");
+
+		int supportedMaxBatchSize = Math.max(1, dwzTemplate.getMaxBatchSize());
+
+		this.dwzTemplate = dwzTemplate;
+		this.maxBatchSize = maxBatchSize > 0 ? Math.min(maxBatchSize, supportedMaxBatchSize) : supportedMaxBatchSize;
+		this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+		this.fallbackErrorCodes = fallbackErrorCodes == null ? Collections.emptySet() : new HashSet<>(fallbackErrorCodes);
+	}
+
+	public CoalescingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, int maxBatchSize, long batchWindowMillis) {
+		this(dwzTemplate, maxBatchSize, batchWindowMillis, CoalescingDwzTemplateConfig.DEFAULT_FALLBACK_ERROR_CODES);
+	}
+
+	public CoalescingDwzTemplate(@NonNull IDwzTemplate dwzTemplate, @NonNull CoalescingDwzTemplateConfig config) {
+		this(dwzTemplate, config.getMaxBatchSize(), config.getBatchWindowMillis(), config.getFallbackErrorCodes());
+	}
+
+	public CoalescingDwzTemplate(@NonNull IDwzTemplate dwzTemplate) {
+		this(dwzTemplate, new CoalescingDwzTemplateConfig());
+	}
+
+
+	//region Override IDwzTemplate
+
+	@Override
+	public DwzResponse createShortUrl(DwzRequest request) throws DwzSdkException {
+		Assert.notNull(request, "'request' must not be null");
+		Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+
+		this.requestCount.increment();
+
+		RequestKey key = new RequestKey(request);
+		CompletableFuture<DwzResponse> future = new CompletableFuture<>();
+
+		// 相同请求正在进行中，直接共享其结果
+		CompletableFuture<DwzResponse> inFlight = this.inFlightMap.putIfAbsent(key, future);
+		if (inFlight != null) {
+			this.sharedCount.increment();
+			return this.await(inFlight);
+		}
+
+		PendingRequest pending = new PendingRequest(key, request, future);
+		if (this.maxBatchSize > 1) {
+			this.enqueue(pending);
+		} else {
+			// 不支持批量接口，直接调用
+			this.execute(Collections.singletonList(pending));
+		}
+		return this.await(future);
+	}
+
+	@Override
+	public CompletableFuture<DwzResponse> createShortUrlAsync(DwzRequest request) {
+		Assert.notNull(request, "'request' must not be null");
+		Assert.notNull(request.getLongUrl(), "'request.longUrl' must not be null");
+
+		// 相同请求正在进行中，直接共享其结果（返回依赖的新Future，避免调用方取消或完成共享的Future）
+		CompletableFuture<DwzResponse> inFlight = this.inFlightMap.get(new RequestKey(request));
+		if (inFlight != null) {
+			this.requestCount.increment();
+			this.sharedCount.increment();
+			return inFlight.thenApply(response -> response);
+		}
+
+		// 否则在异步执行器中调用 createShortUrl，参与请求合并
+		return IDwzTemplate.super.createShortUrlAsync(request);
+	}
+
+	@Override
+	public List<DwzResponse> createShortUrls(List<DwzRequest> requests) throws DwzSdkException {
+		// 本身已是批量请求，直接调用
+		return this.dwzTemplate.createShortUrls(requests);
+	}
+
+	@Override
+	public int getMaxBatchSize() {
+		return this.dwzTemplate.getMaxBatchSize();
+	}
+
+	@Override
+	public String getCacheNamespace() {
+		return this.dwzTemplate.getCacheNamespace();
+	}
+
+	//endregion
+
+
+	//region Private
+
+	/**
+	 * 将请求加入当前批次
+	 * <p>
+	 * 当前线程为批次中的第一个请求时，等待合并窗口结束或批次已满后，发送整个批次；否则直接返回，由第一个请求线程发送。
+	 *
+	 * @param pending 待发送的请求
+	 */
+	private void enqueue(PendingRequest pending) {
+		List<PendingRequest> batch;
+
+		this.lock.lock();
+		try {
+			this.pendingList.add(pending);
+			if (this.pendingList.size() > 1) {
+				if (this.pendingList.size() >= this.maxBatchSize) {
+					this.batchFull.signal();
+				}
+				return;
+			}
+
+			// 等待合并窗口结束，或批次已满
+			long nanos = this.batchWindowNanos;
+			while (nanos > 0 && this.pendingList.size() < this.maxBatchSize) {
+				try {
+					nanos = this.batchFull.awaitNanos(nanos);
+				} catch (InterruptedException e) {
+					// 被中断时，立即发送当前批次
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			batch = this.pendingList;
+			this.pendingList = new ArrayList<>();
+		} finally {
+			this.lock.unlock();
+		}
+
+		// 窗口期内可能收集到多于最大数量的请求，按最大数量分批发送
+		for (int i = 0; i < batch.size(); i += this.maxBatchSize) {
+			this.execute(batch.subList(i, Math.min(i + this.maxBatchSize, batch.size())));
+		}
+	}
+
+	/**
+	 * 发送一个批次的请求，并设置每个请求的结果
+	 *
+	 * @param batch 批次
+	 */
+	private void execute(List<PendingRequest> batch) {
+		this.batchCount.increment();
+		try {
+			List<DwzResponse> responses;
+			if (batch.size() == 1) {
+				responses = Collections.singletonList(this.dwzTemplate.createShortUrl(batch.get(0).request));
+			} else {
+				List<DwzRequest> requests = new ArrayList<>(batch.size());
+				for (PendingRequest pending : batch) {
+					requests.add(pending.request);
+				}
+				responses = this.dwzTemplate.createShortUrls(requests);
+				if (responses == null || responses.size() != batch.size()) {
+					throw new DwzSdkServerException("批量生成短链接的响应数量与请求数量不一致", "RESPONSE_SIZE_MISMATCH");
+				}
+			}
+
+			for (int i = 0; i < batch.size(); i++) {
+				batch.get(i).complete(responses.get(i), null);
+			}
+		} catch (RuntimeException e) {
+			if (batch.size() > 1 && this.isFallbackError(e)) {
+				LOGGER.warn("批量生成 {} 个短链接失败，改为逐条生成：{}", batch.size(), e.getMessage());
+				for (PendingRequest pending : batch) {
+					this.executeOne(pending);
+				}
+			} else {
+				// 与具体长链接无关的错误，逐条重试只会放大对上游服务的调用量，直接作为所有请求的异常
+				for (PendingRequest pending : batch) {
+					pending.complete(null, e);
+				}
+			}
+		} finally {
+			// 兜底：保证不会有请求线程一直等待
+			for (PendingRequest pending : batch) {
+				if (!pending.future.isDone()) {
+					pending.complete(null, new DwzSdkClientException("生成短链接未知异常", ErrorCodeConstants.UNKNOWN));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 判断批量请求的异常是否可能只与批次中的部分长链接有关
+	 *
+	 * @param e 批量请求的异常
+	 * @return 是否改为逐条生成
+	 */
+	private boolean isFallbackError(RuntimeException e) {
+		if (e instanceof IllegalArgumentException) {
+			return true;
+		}
+		return e instanceof DwzSdkException && ((DwzSdkException)e).getErrorCode() != null
+				&& this.fallbackErrorCodes.contains(((DwzSdkException)e).getErrorCode());
+	}
+
+	private void executeOne(PendingRequest pending) {
+		try {
+			pending.complete(this.dwzTemplate.createShortUrl(pending.request), null);
+		} catch (RuntimeException e) {
+			pending.complete(null, e);
+		}
+	}
+
+	/**
+	 * 等待请求结果
+	 *
+	 * @param future 请求结果
+	 * @return 短链接响应
+	 */
+	private DwzResponse await(CompletableFuture<DwzResponse> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DwzSdkClientException("等待生成短链接的结果时被中断", ErrorCodeConstants.UNKNOWN, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new DwzSdkClientException("生成短链接未知异常", ErrorCodeConstants.UNKNOWN, cause);
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzTemplate getDwzTemplate() {
+		return dwzTemplate;
+	}
+
+	/**
+	 * 获取实际使用的单次批量请求最大长链接数
+	 *
+	 * @return 单次批量请求最大长链接数
+	 */
+	public int getEffectiveMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	//endregion
+
+
+	//region 统计数据
+
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+	public long getSharedCount() {
+		return sharedCount.sum();
+	}
+
+	public long getBatchCount() {
+		return batchCount.sum();
+	}
+
+	//endregion
+
+
+	/**
+	 * 待发送的请求
+	 */
+	private final class PendingRequest {
+
+		private final RequestKey key;
+
+		private final DwzRequest request;
+
+		private final CompletableFuture<DwzResponse> future;
+
+
+		private PendingRequest(RequestKey key, DwzRequest request, CompletableFuture<DwzResponse> future) {
+			this.key = key;
+			this.request = request;
+			this.future = future;
+		}
+
+		/**
+		 * 设置请求结果（先从进行中的请求Map中移除，之后的相同请求将重新调用）
+		 *
+		 * @param response 响应
+		 * @param ex       异常
+		 */
+		private void complete(DwzResponse response, Throwable ex) {
+			inFlightMap.remove(this.key, this.future);
+			if (ex == null) {
+				this.future.complete(response);
+			} else {
+				this.future.completeExceptionally(ex);
+			}
+		}
+	}
+
+	/**
+	 * 请求键：长链接 + 可配置参数
+	 */
+	private static final class RequestKey {
+
+		private final String longUrl;
+
+		private final Map<String, Object> configs;
+
+		private final int hash;
+
+
+		private RequestKey(DwzRequest request) {
+			this.longUrl = request.getLongUrl();
+			// 复制一份，避免调用方修改参数后影响键的判断
+			this.configs = request.getConfigs() == null ? Collections.emptyMap() : new HashMap<>(request.getConfigs());
+			this.hash = 31 * this.longUrl.hashCode() + this.configs.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof RequestKey)) {
+				return false;
+			}
+			RequestKey that = (RequestKey)o;
+			return this.hash == that.hash && this.longUrl.equals(that.longUrl) && Objects.equals(this.configs, that.configs);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+}
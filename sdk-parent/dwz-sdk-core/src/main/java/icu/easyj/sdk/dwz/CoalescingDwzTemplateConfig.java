@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 合并请求的短链接服务配置
+ *
+ * @author wangliang181230
+ * @see CoalescingDwzTemplate
+ */
+public class CoalescingDwzTemplateConfig {
+
+	/**
+	 * 默认的合并窗口时长：2毫秒
+	 */
+	public static final long DEFAULT_BATCH_WINDOW_MILLIS = 2L;
+
+	/**
+	 * 默认的单次批量请求最大长链接数：0，表示使用被包装的短链接服务所支持的最大值
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 0;
+
+	/**
+	 * 默认的改为逐条生成的错误代码：与具体长链接相关的错误（如：百度云短链接服务的部分长网址缩短失败、无效长网址等），
+	 * 以及响应中缺少某个长链接的数据
+	 */
+	public static final Set<String> DEFAULT_FALLBACK_ERROR_CODES = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+			"PART_LONG_URL_ERROR", "INVALID_LONG_URL", "UN_SUPPORTED", "HAS_SAFETY_RISKS", "NO_DATA")));
+
+
+	/**
+	 * 合并窗口时长（毫秒），第一个请求最多等待该时长，以收集同一批次的其他请求
+	 */
+	private long batchWindowMillis = DEFAULT_BATCH_WINDOW_MILLIS;
+
+	/**
+	 * 单次批量请求的最大长链接数（小于等于0时，使用被包装的短链接服务所支持的最大值；大于该最大值时，也使用该最大值）
+	 */
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * 批量请求失败时，改为逐条生成的错误代码
+	 * <p>
+	 * 只有这些错误（以及参数有误的异常）可能只与批次中的部分长链接有关，改为逐条生成可使其他请求成功；
+	 * 其他错误（如：超时、服务端5xx、Token无效、额度不足）直接作为批次中所有请求的异常，避免放大对上游服务的调用量。
+	 */
+	private Set<String> fallbackErrorCodes = new LinkedHashSet<>(DEFAULT_FALLBACK_ERROR_CODES);
+
+
+	//region Getter、Setter
+
+	public long getBatchWindowMillis() {
+		return batchWindowMillis;
+	}
+
+	public void setBatchWindowMillis(long batchWindowMillis) {
+		this.batchWindowMillis = batchWindowMillis;
+	}
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public Set<String> getFallbackErrorCodes() {
+		return fallbackErrorCodes;
+	}
+
+	public void setFallbackErrorCodes(Set<String> fallbackErrorCodes) {
+		this.fallbackErrorCodes = fallbackErrorCodes;
+	}
+
+	//endregion
+}
@@ -15,7 +15,10 @@
  */
 package icu.easyj.sdk.dwz;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 短链接服务接口
@@ -58,4 +61,82 @@ public interface IDwzTemplate {
 	default DwzResponse createShortUrl(String longUrl, Map<String, Object> configs) throws DwzSdkException {
 		return createShortUrl(new DwzRequest(longUrl, configs));
 	}
+
+	/**
+	 * 批量生成短链接
+	 * <p>
+	 * 默认实现逐条调用 {@link #createShortUrl(DwzRequest)}，支持批量接口的实现请重写该方法。
+	 *
+	 * @param requests 请求列表
+	 * @return responses 响应列表，顺序与入参一致
+	 * @throws DwzSdkException          SDK异常
+	 * @throws IllegalArgumentException 参数有误的异常
+	 */
+	default List<DwzResponse> createShortUrls(List<DwzRequest> requests) throws DwzSdkException {
+		List<DwzResponse> responses = new ArrayList<>(requests.size());
+		for (DwzRequest request : requests) {
+			responses.add(createShortUrl(request));
+		}
+		return responses;
+	}
+
+	/**
+	 * 异步生成短链接
+	 * <p>
+	 * 默认实现在 {@link DwzAsyncExecutorHolder#get()} 的有界执行器中调用 {@link #createShortUrl(DwzRequest)}，
+	 * 并将调用方线程的上下文和日志上下文传递到执行线程；能够以非阻塞方式调用的实现，请重写该方法。
+	 *
+	 * @param request 请求
+	 * @return response 响应，执行器已满时，以 {@link java.util.concurrent.RejectedExecutionException} 异常完成
+	 */
+	default CompletableFuture<DwzResponse> createShortUrlAsync(DwzRequest request) {
+		return DwzAsyncExecutorHolder.get().supplyAsync(() -> createShortUrl(request));
+	}
+
+	/**
+	 * 异步生成短链接
+	 *
+	 * @param longUrl 长链接
+	 * @return response 响应
+	 * @see #createShortUrlAsync(DwzRequest)
+	 */
+	default CompletableFuture<DwzResponse> createShortUrlAsync(String longUrl) {
+		return createShortUrlAsync(new DwzRequest(longUrl));
+	}
+
+	/**
+	 * 异步生成短链接
+	 *
+	 * @param longUrl 长链接
+	 * @param configs 可配置参数（主要为了考虑多种实现的不同入参需求）
+	 * @return response 响应
+	 * @see #createShortUrlAsync(DwzRequest)
+	 */
+	default CompletableFuture<DwzResponse> createShortUrlAsync(String longUrl, Map<String, Object> configs) {
+		return createShortUrlAsync(new DwzRequest(longUrl, configs));
+	}
+
+	/**
+	 * 获取单次批量请求的最大长链接数
+	 * <p>
+	 * 返回值大于1时，表示已通过批量接口重写了 {@link #createShortUrls(List)}，
+	 * {@link CoalescingDwzTemplate} 会据此将并发的单条请求合并为批量请求。
+	 *
+	 * @return 单次批量请求的最大长链接数，默认为1，表示不支持批量接口
+	 */
+	default int getMaxBatchSize() {
+		return 1;
+	}
+
+	/**
+	 * 获取缓存命名空间
+	 * <p>
+	 * {@link CachingDwzTemplate} 以此区分不同的短链接服务和账号，避免共享缓存（如：Redis）时读取到其他服务或账号生成的短链接。
+	 * 通用配置（如：账号、服务地址）会影响生成结果的实现，请重写该方法，将这些配置加入命名空间（敏感信息请摘要后加入）。
+	 *
+	 * @return 缓存命名空间，默认为实现类的类名
+	 */
+	default String getCacheNamespace() {
+		return getClass().getName();
+	}
 }
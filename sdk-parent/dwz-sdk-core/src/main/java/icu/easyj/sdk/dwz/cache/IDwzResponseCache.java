@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz.cache;
+
+import icu.easyj.sdk.dwz.DwzResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * 短链接响应缓存接口
+ * <p>
+ * 默认实现为当前实例内的 {@link MemoryDwzResponseCache}，多实例之间需要共享缓存时，可基于Redis等实现该接口，
+ * 并通过 {@link TieredDwzResponseCache} 与本地缓存组合使用。
+ *
+ * @author wangliang181230
+ * @see icu.easyj.sdk.dwz.CachingDwzTemplate
+ */
+public interface IDwzResponseCache {
+
+	/**
+	 * 获取缓存的响应
+	 *
+	 * @param key 缓存键
+	 * @return 缓存的响应，不存在或已过期时返回 {@code null}
+	 */
+	@Nullable
+	DwzResponse get(@NonNull String key);
+
+	/**
+	 * 缓存响应
+	 *
+	 * @param key            缓存键
+	 * @param response       响应
+	 * @param expireAtMillis 缓存的过期时间（毫秒数），{@link Long#MAX_VALUE} 表示不过期
+	 */
+	void put(@NonNull String key, @NonNull DwzResponse response, long expireAtMillis);
+
+	/**
+	 * 移除缓存
+	 *
+	 * @param key 缓存键
+	 */
+	void remove(@NonNull String key);
+
+
+	/**
+	 * 计算短链接的过期时间
+	 *
+	 * @param response 响应
+	 * @return 过期时间（毫秒数），长期有效时返回 {@link Long#MAX_VALUE}
+	 */
+	static long getExpireAtMillis(@NonNull DwzResponse response) {
+		Long expireIn = response.getExpireIn();
+		if (expireIn == null || expireIn <= 0) {
+			return Long.MAX_VALUE; // 长期有效
+		}
+		long createTime = response.getCreateTime() != null ? response.getCreateTime().getTime() : System.currentTimeMillis();
+		return createTime + expireIn;
+	}
+}
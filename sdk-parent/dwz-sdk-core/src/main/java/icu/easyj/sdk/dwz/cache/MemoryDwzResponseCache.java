@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import icu.easyj.sdk.dwz.DwzResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 基于内存实现的短链接响应缓存
+ * <p>
+ * 读取缓存无锁，只有写入和移除缓存时才加锁；缓存已满时，淘汰最早写入的数据；已过期的数据在读取时移除。
+ *
+ * @author wangliang181230
+ */
+public class MemoryDwzResponseCache implements IDwzResponseCache {
+
+	/**
+	 * 默认的最大缓存数量
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+
+	/**
+	 * 最大缓存数量
+	 */
+	private final int maximumSize;
+
+	/**
+	 * 缓存Map
+	 */
+	private final Map<String, CacheEntry> cacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 缓存的写入顺序，用于淘汰最早写入的数据（只在持有 {@link #lock} 时访问）
+	 */
+	private final Set<String> writeOrder = new LinkedHashSet<>();
+
+	/**
+	 * 写入和移除缓存的锁
+	 */
+	private final Object lock = new Object();
+
+
+	public MemoryDwzResponseCache(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "'maximumSize' must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	public MemoryDwzResponseCache() {
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+
+	//region Override IDwzResponseCache
+
+	@Nullable
+	@Override
+	public DwzResponse get(@NonNull String key) {
+		CacheEntry entry = this.cacheMap.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.expireAtMillis <= System.currentTimeMillis()) {
+			synchronized (this.lock) {
+				if (this.cacheMap.remove(key, entry)) {
+					this.writeOrder.remove(key);
+				}
+			}
+			return null;
+		}
+		return entry.response;
+	}
+
+	@Override
+	public void put(@NonNull String key, @NonNull DwzResponse response, long expireAtMillis) {
+		synchronized (this.lock) {
+			this.cacheMap.put(key, new CacheEntry(response, expireAtMillis));
+
+			// 重新写入时，移到队尾
+			this.writeOrder.remove(key);
+			this.writeOrder.add(key);
+
+			// 缓存已满，淘汰最早写入的数据
+			Iterator<String> iterator = this.writeOrder.iterator();
+			while (this.writeOrder.size() > this.maximumSize) {
+				this.cacheMap.remove(iterator.next());
+				iterator.remove();
+			}
+		}
+	}
+
+	@Override
+	public void remove(@NonNull String key) {
+		synchronized (this.lock) {
+			this.cacheMap.remove(key);
+			this.writeOrder.remove(key);
+		}
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * 获取当前缓存数量（包含已过期但还未移除的数据）
+	 *
+	 * @return 当前缓存数量
+	 */
+	public int size() {
+		return cacheMap.size();
+	}
+
+	//endregion
+
+
+	/**
+	 * 缓存项
+	 */
+	private static final class CacheEntry {
+
+		private final DwzResponse response;
+
+		private final long expireAtMillis;
+
+
+		private CacheEntry(DwzResponse response, long expireAtMillis) {
+			this.response = response;
+			this.expireAtMillis = expireAtMillis;
+		}
+	}
+}
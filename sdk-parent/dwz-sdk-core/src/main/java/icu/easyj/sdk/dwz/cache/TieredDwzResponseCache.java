@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz.cache;
+
+import icu.easyj.sdk.dwz.DwzResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * 二级短链接响应缓存
+ * <p>
+ * 先读取一级缓存（通常为当前实例内的缓存），未命中时再读取二级缓存（通常为多实例共享的缓存），命中二级缓存时回填一级缓存。
+ * 写入和移除缓存时，同时操作两级缓存。
+ *
+ * @author wangliang181230
+ */
+public class TieredDwzResponseCache implements IDwzResponseCache {
+
+	/**
+	 * 一级缓存
+	 */
+	private final IDwzResponseCache localCache;
+
+	/**
+	 * 二级缓存
+	 */
+	private final IDwzResponseCache remoteCache;
+
+
+	public TieredDwzResponseCache(@NonNull IDwzResponseCache localCache, @NonNull IDwzResponseCache remoteCache) {
+		Assert.notNull(localCache, "'localCache' must not be null");
+		Assert.notNull(remoteCache, "'remoteCache' must not be null");
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+	}
+
+	public TieredDwzResponseCache(@NonNull IDwzResponseCache remoteCache) {
+		this(new MemoryDwzResponseCache(), remoteCache);
+	}
+
+
+	//region Override IDwzResponseCache
+
+	@Nullable
+	@Override
+	public DwzResponse get(@NonNull String key) {
+		DwzResponse response = this.localCache.get(key);
+		if (response == null) {
+			response = this.remoteCache.get(key);
+			if (response != null) {
+				this.localCache.put(key, response, IDwzResponseCache.getExpireAtMillis(response));
+			}
+		}
+		return response;
+	}
+
+	@Override
+	public void put(@NonNull String key, @NonNull DwzResponse response, long expireAtMillis) {
+		this.remoteCache.put(key, response, expireAtMillis);
+		this.localCache.put(key, response, expireAtMillis);
+	}
+
+	@Override
+	public void remove(@NonNull String key) {
+		this.remoteCache.remove(key);
+		this.localCache.remove(key);
+	}
+
+	//endregion
+
+
+	//region Getter
+
+	public IDwzResponseCache getLocalCache() {
+		return localCache;
+	}
+
+	public IDwzResponseCache getRemoteCache() {
+		return remoteCache;
+	}
+
+	//endregion
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import icu.easyj.core.constant.DateConstants;
+import icu.easyj.sdk.dwz.cache.MemoryDwzResponseCache;
+import icu.easyj.sdk.dwz.cache.TieredDwzResponseCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CachingDwzTemplate} 测试类
+ *
+ * @author wangliang181230
+ */
+public class CachingDwzTemplateTest {
+
+	@Test
+	public void testCreateShortUrl() {
+		AtomicInteger count = new AtomicInteger();
+		CachingDwzTemplate template = new CachingDwzTemplate(request -> newResponse(count, request, 365 * DateConstants.ONE_DAY_MILL));
+
+		DwzResponse response1 = template.createShortUrl("https://easyj.icu");
+		DwzResponse response2 = template.createShortUrl("https://easyj.icu");
+		Assertions.assertEquals(1, count.get());
+		Assertions.assertEquals(response1.getShortUrl(), response2.getShortUrl());
+		Assertions.assertEquals(1, template.getHitCount());
+
+		// 可配置参数不同时，缓存键不同
+		DwzResponse response3 = template.createShortUrl("https://easyj.icu", Collections.singletonMap("termOfValidity", "long-term"));
+		Assertions.assertEquals(2, count.get());
+		Assertions.assertNotEquals(response1.getShortUrl(), response3.getShortUrl());
+
+		// 修改返回的响应，不影响缓存
+		response2.setShortUrl("changed");
+		Assertions.assertEquals(response1.getShortUrl(), template.createShortUrl("https://easyj.icu").getShortUrl());
+	}
+
+	@Test
+	public void testExpire() {
+		AtomicInteger count = new AtomicInteger();
+
+		// 有效时长不足最小剩余有效时长，不缓存
+		CachingDwzTemplate template = new CachingDwzTemplate(request -> newResponse(count, request, DateConstants.HALF_DAY_MILL));
+		template.createShortUrl("https://easyj.icu");
+		template.createShortUrl("https://easyj.icu");
+		Assertions.assertEquals(2, count.get());
+
+		// 长期有效
+		count.set(0);
+		template = new CachingDwzTemplate(request -> newResponse(count, request, 0L));
+		template.createShortUrl("https://easyj.icu");
+		template.createShortUrl("https://easyj.icu");
+		Assertions.assertEquals(1, count.get());
+
+		// 缓存的短链接已临近过期
+		count.set(0);
+		MemoryDwzResponseCache cache = new MemoryDwzResponseCache();
+		DwzResponse expiring = new DwzResponse();
+		expiring.setShortUrl("https://s.icu/old");
+		expiring.setCreateTime(new Date(System.currentTimeMillis() - DateConstants.ONE_DAY_MILL));
+		expiring.setExpireIn(DateConstants.ONE_DAY_MILL + DateConstants.HALF_DAY_MILL);
+		cache.put("test https://easyj.icu", expiring, Long.MAX_VALUE);
+		template = new CachingDwzTemplate(request -> newResponse(count, request, 0L), cache, DateConstants.ONE_DAY_MILL, "test");
+		Assertions.assertNotEquals("https://s.icu/old", template.createShortUrl("https://easyj.icu").getShortUrl());
+		Assertions.assertEquals(1, count.get());
+	}
+
+	@Test
+	public void testCreateShortUrls() {
+		AtomicInteger count = new AtomicInteger();
+		CachingDwzTemplate template = new CachingDwzTemplate(request -> newResponse(count, request, 0L));
+
+		template.createShortUrl("https://easyj.icu/2");
+
+		List<DwzResponse> responses = template.createShortUrls(Arrays.asList(
+				new DwzRequest("https://easyj.icu/1"),
+				new DwzRequest("https://easyj.icu/2"),
+				new DwzRequest("https://easyj.icu/3")));
+		Assertions.assertEquals(3, responses.size());
+		Assertions.assertEquals("https://s.icu/1", responses.get(1).getShortUrl()); // 命中缓存
+		Assertions.assertEquals(3, count.get());
+
+		Assertions.assertEquals(responses.get(2).getShortUrl(), template.createShortUrl("https://easyj.icu/3").getShortUrl());
+		Assertions.assertEquals(3, count.get());
+	}
+
+	@Test
+	public void testTieredCache() {
+		AtomicInteger count = new AtomicInteger();
+		MemoryDwzResponseCache remoteCache = new MemoryDwzResponseCache();
+
+		// 两个实例共享二级缓存
+		IDwzTemplate dwzTemplate = request -> newResponse(count, request, 0L);
+		CachingDwzTemplate template1 = new CachingDwzTemplate(dwzTemplate, new TieredDwzResponseCache(remoteCache), 0L);
+		CachingDwzTemplate template2 = new CachingDwzTemplate(dwzTemplate, new TieredDwzResponseCache(remoteCache), 0L);
+
+		String shortUrl = template1.createShortUrl("https://easyj.icu").getShortUrl();
+		Assertions.assertEquals(shortUrl, template2.createShortUrl("https://easyj.icu").getShortUrl());
+		Assertions.assertEquals(1, count.get());
+		Assertions.assertEquals(1, ((MemoryDwzResponseCache)((TieredDwzResponseCache)template2.getCache()).getLocalCache()).size());
+	}
+
+	@Test
+	public void testNamespace() {
+		AtomicInteger count = new AtomicInteger();
+		MemoryDwzResponseCache sharedCache = new MemoryDwzResponseCache();
+
+		// 共享缓存的不同短链接服务（或账号），不会读取到对方生成的短链接
+		CachingDwzTemplate template1 = new CachingDwzTemplate(request -> newResponse(count, request, 0L), sharedCache, 0L, "account-1");
+		CachingDwzTemplate template2 = new CachingDwzTemplate(request -> newResponse(count, request, 0L), sharedCache, 0L, "account-2");
+		Assertions.assertNotEquals(template1.createShortUrl("https://easyj.icu").getShortUrl(), template2.createShortUrl("https://easyj.icu").getShortUrl());
+		Assertions.assertEquals(2, count.get());
+
+		// 未指定命名空间时，使用被包装的短链接服务的命名空间
+		IDwzTemplate dwzTemplate = request -> newResponse(count, request, 0L);
+		Assertions.assertEquals(dwzTemplate.getCacheNamespace(), new CachingDwzTemplate(dwzTemplate).getNamespace());
+	}
+
+	@Test
+	public void testCanonicalConfigs() {
+		AtomicInteger count = new AtomicInteger();
+		CachingDwzTemplate template = new CachingDwzTemplate(request -> newResponse(count, request, 0L));
+
+		// 只相差毫秒的日期参数，缓存键不同
+		long time = 1_700_000_000_000L;
+		template.createShortUrl("https://easyj.icu", Collections.singletonMap("term-of-validity", new Date(time)));
+		template.createShortUrl("https://easyj.icu", Collections.singletonMap("term-of-validity", new Date(time + 1)));
+		Assertions.assertEquals(2, count.get());
+		template.createShortUrl("https://easyj.icu", Collections.singletonMap("term-of-validity", new Date(time)));
+		Assertions.assertEquals(2, count.get());
+	}
+
+	@Test
+	public void testCreateShortUrlAsync() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		AtomicInteger asyncCount = new AtomicInteger();
+		CachingDwzTemplate template = new CachingDwzTemplate(new IDwzTemplate() {
+			@Override
+			public DwzResponse createShortUrl(DwzRequest request) {
+				return newResponse(count, request, 0L);
+			}
+
+			@Override
+			public CompletableFuture<DwzResponse> createShortUrlAsync(DwzRequest request) {
+				asyncCount.incrementAndGet();
+				return CompletableFuture.supplyAsync(() -> createShortUrl(request));
+			}
+		});
+
+		// 未命中时，调用被包装的短链接服务的异步方法
+		String shortUrl = template.createShortUrlAsync("https://easyj.icu").get(5, TimeUnit.SECONDS).getShortUrl();
+		Assertions.assertEquals(1, asyncCount.get());
+
+		// 命中时，直接返回已完成的结果
+		CompletableFuture<DwzResponse> future = template.createShortUrlAsync("https://easyj.icu");
+		Assertions.assertTrue(future.isDone());
+		Assertions.assertEquals(shortUrl, future.get().getShortUrl());
+		Assertions.assertEquals(1, asyncCount.get());
+		Assertions.assertEquals(1, count.get());
+	}
+
+	@Test
+	public void testNotModifyWrappedResponse() {
+		DwzResponse wrappedResponse = new DwzResponse();
+		wrappedResponse.setShortUrl("https://s.icu/1");
+		wrappedResponse.setExpireIn(0L);
+		CachingDwzTemplate template = new CachingDwzTemplate(request -> wrappedResponse);
+
+		// 未返回创建时间时，只在缓存的副本中设置创建时间
+		template.createShortUrl("https://easyj.icu");
+		Assertions.assertNull(wrappedResponse.getCreateTime());
+		Assertions.assertNotNull(template.createShortUrl("https://easyj.icu").getCreateTime());
+	}
+
+
+	private static DwzResponse newResponse(AtomicInteger count, DwzRequest request, long expireIn) {
+		DwzResponse response = new DwzResponse();
+		response.setShortUrl("https://s.icu/" + count.incrementAndGet());
+		response.setCreateTime(new Date());
+		response.setExpireIn(expireIn);
+		return response;
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CoalescingDwzTemplate} 测试类
+ *
+ * @author wangliang181230
+ */
+public class CoalescingDwzTemplateTest {
+
+	@Test
+	public void testBatch() throws Exception {
+		int threadCount = 8;
+		MockDwzTemplate mock = new MockDwzTemplate(threadCount);
+		// 合并窗口足够长，批次满了之后立即发送
+		CoalescingDwzTemplate template = new CoalescingDwzTemplate(mock, 0, 10_000);
+		Assertions.assertEquals(threadCount, template.getEffectiveMaxBatchSize());
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threadCount);
+			List<Future<DwzResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++) {
+				String longUrl = "https://easyj.icu/" + i;
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					return template.createShortUrl(longUrl);
+				}));
+			}
+
+			for (int i = 0; i < threadCount; i++) {
+				Assertions.assertEquals("https://s.icu/" + "https://easyj.icu/" + i, futures.get(i).get(5, TimeUnit.SECONDS).getShortUrl());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// 只调用了一次批量接口
+		Assertions.assertEquals(1, mock.batchCount.get());
+		Assertions.assertEquals(0, mock.singleCount.get());
+		Assertions.assertEquals(1, template.getBatchCount());
+		Assertions.assertEquals(threadCount, template.getRequestCount());
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception {
+		MockDwzTemplate mock = new MockDwzTemplate(1);
+		mock.blocker = new CountDownLatch(1);
+		CoalescingDwzTemplate template = new CoalescingDwzTemplate(mock);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<DwzResponse> first = executor.submit(() -> template.createShortUrl("https://easyj.icu"));
+			while (mock.singleCount.get() == 0) {
+				Thread.sleep(1);
+			}
+
+			// 相同的请求正在进行中，共享其结果
+			Future<DwzResponse> second = executor.submit(() -> template.createShortUrl("https://easyj.icu"));
+			while (template.getSharedCount() == 0) {
+				Thread.sleep(1);
+			}
+
+			// 异步调用也直接共享进行中的结果，不占用异步执行器
+			CompletableFuture<DwzResponse> third = template.createShortUrlAsync("https://easyj.icu");
+			Assertions.assertEquals(2, template.getSharedCount());
+			mock.blocker.countDown();
+
+			Assertions.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+			Assertions.assertSame(first.get(5, TimeUnit.SECONDS), third.get(5, TimeUnit.SECONDS));
+			Assertions.assertEquals(1, mock.singleCount.get());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// 进行中的请求已完成，重新调用
+		template.createShortUrl("https://easyj.icu");
+		Assertions.assertEquals(2, mock.singleCount.get());
+	}
+
+	@Test
+	public void testBatchFailed() throws Exception {
+		MockDwzTemplate mock = new MockDwzTemplate(2);
+		CoalescingDwzTemplate template = new CoalescingDwzTemplate(mock, 2, 10_000);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			Future<DwzResponse> good = executor.submit(() -> {
+				barrier.await();
+				return template.createShortUrl("https://easyj.icu");
+			});
+			Future<DwzResponse> bad = executor.submit(() -> {
+				barrier.await();
+				return template.createShortUrl("bad");
+			});
+
+			// 批量请求失败后逐条生成，各自得到自己的结果
+			Assertions.assertEquals("https://s.icu/https://easyj.icu", good.get(5, TimeUnit.SECONDS).getShortUrl());
+			Exception e = Assertions.assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+			Assertions.assertTrue(e.getCause() instanceof DwzSdkServerException);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertEquals(1, mock.batchCount.get());
+		Assertions.assertEquals(2, mock.singleCount.get());
+	}
+
+	@Test
+	public void testBatchFailedByServerError() throws Exception {
+		MockDwzTemplate mock = new MockDwzTemplate(2);
+		mock.batchException = new DwzSdkServerException("请求超时", "SERVER_ERROR");
+		CoalescingDwzTemplate template = new CoalescingDwzTemplate(mock, 2, 10_000);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			List<Future<DwzResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				String longUrl = "https://easyj.icu/" + i;
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					return template.createShortUrl(longUrl);
+				}));
+			}
+
+			// 与具体长链接无关的错误，不逐条重试，批次中的所有请求都得到该异常
+			for (Future<DwzResponse> future : futures) {
+				Exception e = Assertions.assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+				Assertions.assertSame(mock.batchException, e.getCause());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Assertions.assertEquals(1, mock.batchCount.get());
+		Assertions.assertEquals(0, mock.singleCount.get());
+	}
+
+
+	/**
+	 * 模拟的短链接服务，长链接为 "bad" 时抛出异常
+	 */
+	static class MockDwzTemplate implements IDwzTemplate {
+
+		final int maxBatchSize;
+
+		final AtomicInteger singleCount = new AtomicInteger();
+
+		final AtomicInteger batchCount = new AtomicInteger();
+
+		volatile CountDownLatch blocker;
+
+		volatile RuntimeException batchException;
+
+
+		MockDwzTemplate(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+
+		@Override
+		public DwzResponse createShortUrl(DwzRequest request) throws DwzSdkException {
+			singleCount.incrementAndGet();
+			if (blocker != null) {
+				try {
+					blocker.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return this.create(request);
+		}
+
+		@Override
+		public List<DwzResponse> createShortUrls(List<DwzRequest> requests) throws DwzSdkException {
+			batchCount.incrementAndGet();
+			if (batchException != null) {
+				throw batchException;
+			}
+			List<DwzResponse> responses = new ArrayList<>(requests.size());
+			for (DwzRequest request : requests) {
+				responses.add(this.create(request));
+			}
+			return responses;
+		}
+
+		@Override
+		public int getMaxBatchSize() {
+			return maxBatchSize;
+		}
+
+		private DwzResponse create(DwzRequest request) {
+			if ("bad".equals(request.getLongUrl())) {
+				throw new DwzSdkServerException("无效长网址", "INVALID_LONG_URL");
+			}
+			DwzResponse response = new DwzResponse();
+			response.setShortUrl("https://s.icu/" + request.getLongUrl());
+			return response;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz;
+
+import icu.easyj.core.executor.BoundedAsyncExecutor;
+import icu.easyj.core.executor.BoundedAsyncExecutorConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link DwzAsyncExecutorHolder} 测试类
+ *
+ * @author wangliang181230
+ */
+public class DwzAsyncExecutorHolderTest {
+
+	@Test
+	public void testRemove() throws Exception {
+		BoundedAsyncExecutor executor = new BoundedAsyncExecutor(DwzAsyncExecutorHolder.THREAD_NAME_PREFIX, new BoundedAsyncExecutorConfig());
+		BoundedAsyncExecutor other = new BoundedAsyncExecutor(DwzAsyncExecutorHolder.THREAD_NAME_PREFIX, new BoundedAsyncExecutorConfig());
+		try {
+			DwzAsyncExecutorHolder.set(executor);
+
+			// 持有的不是指定的执行器时，不移除
+			DwzAsyncExecutorHolder.remove(other);
+			Assertions.assertSame(executor, DwzAsyncExecutorHolder.get());
+
+			// 移除并关闭后，重新创建一个可用的执行器
+			DwzAsyncExecutorHolder.remove(executor);
+			executor.close();
+			BoundedAsyncExecutor created = DwzAsyncExecutorHolder.get();
+			Assertions.assertNotSame(executor, created);
+			Assertions.assertEquals("ok", created.supplyAsync(() -> "ok").get());
+		} finally {
+			executor.close();
+			other.close();
+		}
+	}
+}
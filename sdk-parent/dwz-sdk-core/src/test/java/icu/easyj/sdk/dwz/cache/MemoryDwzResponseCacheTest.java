@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.dwz.cache;
+
+import icu.easyj.sdk.dwz.DwzResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link MemoryDwzResponseCache} 测试类
+ *
+ * @author wangliang181230
+ */
+public class MemoryDwzResponseCacheTest {
+
+	@Test
+	public void testMaximumSize() {
+		MemoryDwzResponseCache cache = new MemoryDwzResponseCache(2);
+
+		cache.put("1", new DwzResponse(), Long.MAX_VALUE);
+		cache.put("2", new DwzResponse(), Long.MAX_VALUE);
+		// 重新写入，移到队尾
+		cache.put("1", new DwzResponse(), Long.MAX_VALUE);
+		cache.put("3", new DwzResponse(), Long.MAX_VALUE);
+
+		// 淘汰最早写入的数据
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertNull(cache.get("2"));
+		Assertions.assertNotNull(cache.get("1"));
+		Assertions.assertNotNull(cache.get("3"));
+
+		cache.remove("1");
+		Assertions.assertNull(cache.get("1"));
+		Assertions.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testExpire() {
+		MemoryDwzResponseCache cache = new MemoryDwzResponseCache();
+
+		cache.put("1", new DwzResponse(), System.currentTimeMillis() - 1);
+		Assertions.assertNull(cache.get("1"));
+		Assertions.assertEquals(0, cache.size());
+	}
+}
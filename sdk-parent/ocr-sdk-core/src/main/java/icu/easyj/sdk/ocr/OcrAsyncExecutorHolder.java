@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.sdk.ocr;
+
+import icu.easyj.core.executor.BoundedAsyncExecutor;
+import icu.easyj.core.executor.BoundedAsyncExecutorConfig;
+import icu.easyj.sdk.ocr.idcardocr.IIdCardOcrTemplate;
+import icu.easyj.sdk.ocr.idcardocr.IdCardOcrRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+/**
+ * 文字识别（OCR）服务异步执行器持有者
+ * <p>
+ * 用于 {@link IIdCardOcrTemplate#idCardOcrAsync(IdCardOcrRequest)} 的默认实现，未设置时，使用默认配置创建一个执行器。
+ *
+ * @author wangliang181230
+ */
+public abstract class OcrAsyncExecutorHolder {
+
+	/**
+	 * 执行线程名前缀
+	 */
+	public static final String THREAD_NAME_PREFIX = "easyj-ocr-async-";
+
+
+	private static volatile BoundedAsyncExecutor asyncExecutor;
+
+
+	/**
+	 * 获取异步执行器
+	 *
+	 * @return 异步执行器
+	 */
+	@NonNull
+	public static BoundedAsyncExecutor get() {
+		if (asyncExecutor == null) {
+			synchronized (OcrAsyncExecutorHolder.class) {
+				if (asyncExecutor == null) {
+					asyncExecutor = new BoundedAsyncExecutor(THREAD_NAME_PREFIX, new BoundedAsyncExecutorConfig());
+				}
+			}
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * 设置异步执行器（被替换的执行器不会被关闭）
+	 *
+	 * @param asyncExecutor 异步执行器
+	 */
+	public static void set(@NonNull BoundedAsyncExecutor asyncExecutor) {
+		Assert.notNull(asyncExecutor, "'asyncExecutor' must not be null");
+		OcrAsyncExecutorHolder.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * 移除异步执行器：仅当持有的是指定的执行器时才移除，之后调用 {@link #get()} 时，将使用默认配置重新创建一个执行器
+	 * <p>
+	 * 用于执行器关闭前（如：Spring容器关闭时）解除引用，避免之后的异步调用都被已关闭的执行器拒绝。
+	 *
+	 * @param asyncExecutor 异步执行器
+	 */
+	public static void remove(@NonNull BoundedAsyncExecutor asyncExecutor) {
+		Assert.notNull(asyncExecutor, "'asyncExecutor' must not be null");
+		synchronized (OcrAsyncExecutorHolder.class) {
+			if (OcrAsyncExecutorHolder.asyncExecutor == asyncExecutor) {
+				OcrAsyncExecutorHolder.asyncExecutor = null;
+			}
+		}
+	}
+}
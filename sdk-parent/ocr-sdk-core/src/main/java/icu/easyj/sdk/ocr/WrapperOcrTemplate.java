@@ -15,6 +15,8 @@
  */
 package icu.easyj.sdk.ocr;
 
+import java.util.concurrent.CompletableFuture;
+
 import icu.easyj.sdk.ocr.idcardocr.IIdCardOcrTemplate;
 import icu.easyj.sdk.ocr.idcardocr.IdCardOcrRequest;
 import icu.easyj.sdk.ocr.idcardocr.IdCardOcrResponse;
@@ -44,5 +46,12 @@ public class WrapperOcrTemplate implements IOcrTemplate {
 		return idCardOcrTemplate.idCardOcr(request);
 	}
 
+	@NonNull
+	@Override
+	public CompletableFuture<IdCardOcrResponse> idCardOcrAsync(@NonNull IdCardOcrRequest request) {
+		// 委托给被包装的接口，以便使用其非阻塞的实现
+		return idCardOcrTemplate.idCardOcrAsync(request);
+	}
+
 	//endregion
 }
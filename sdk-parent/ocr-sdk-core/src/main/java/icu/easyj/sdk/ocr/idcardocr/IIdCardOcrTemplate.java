@@ -15,7 +15,10 @@
  */
 package icu.easyj.sdk.ocr.idcardocr;
 
+import java.util.concurrent.CompletableFuture;
+
 import icu.easyj.sdk.ocr.CardSide;
+import icu.easyj.sdk.ocr.OcrAsyncExecutorHolder;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
@@ -71,6 +74,41 @@ public interface IIdCardOcrTemplate {
 	//endregion
 
 
+	//region 异步识别
+
+	/**
+	 * 异步身份证识别
+	 * <p>
+	 * 默认实现在 {@link OcrAsyncExecutorHolder#get()} 的有界执行器中调用 {@link #idCardOcr(IdCardOcrRequest)}，
+	 * 并将调用方线程的上下文和日志上下文传递到执行线程；能够以非阻塞方式调用的实现，请重写该方法。
+	 *
+	 * @param request 身份证识别请求信息
+	 * @return response 响应，执行器已满时，以 {@link java.util.concurrent.RejectedExecutionException} 异常完成
+	 */
+	@NonNull
+	default CompletableFuture<IdCardOcrResponse> idCardOcrAsync(@NonNull IdCardOcrRequest request) {
+		return OcrAsyncExecutorHolder.get().supplyAsync(() -> idCardOcr(request));
+	}
+
+	/**
+	 * 重载方法：异步身份证识别
+	 *
+	 * @param image       身份证图片的Base64串或URL地址
+	 * @param cardSide    正反面枚举（为空时，将自动解析正反而；不为空时，如果传入图片与该参数不符，将抛出异常）
+	 * @param advancedArr 高级功能数组
+	 * @return response 响应
+	 * @see #idCardOcrAsync(IdCardOcrRequest)
+	 */
+	@NonNull
+	default CompletableFuture<IdCardOcrResponse> idCardOcrAsync(@NonNull String image,
+																@Nullable CardSide cardSide,
+																IdCardOcrAdvanced... advancedArr) {
+		return idCardOcrAsync(new IdCardOcrRequest(image, cardSide, advancedArr, null));
+	}
+
+	//endregion
+
+
 	//region 正反两面一起识别，拿到一个完整的响应信息
 
 	/**
@@ -15,30 +15,56 @@
  */
 package icu.easyj.spring.boot.autoconfigure.middleware.dwz.server;
 
+import java.io.IOException;
+
 import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.util.shortcode.ShortCodeUtils;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerBloomFilterConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerCacheConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMemoryStoreConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerMmapStoreConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerRedirectFilterConfig;
 import icu.easyj.middleware.dwz.server.core.config.DwzServerTaskConfig;
+import icu.easyj.middleware.dwz.server.core.config.DwzServerWriteBehindConfig;
 import icu.easyj.middleware.dwz.server.core.controller.DwzRedirectController;
 import icu.easyj.middleware.dwz.server.core.controller.DwzRestController;
+import icu.easyj.middleware.dwz.server.core.domain.enums.DwzDedupStrategy;
+import icu.easyj.middleware.dwz.server.core.filter.DwzRedirectFilter;
+import icu.easyj.middleware.dwz.server.core.listener.DwzRedirectFilterExclusionsApplicationListener;
 import icu.easyj.middleware.dwz.server.core.listener.DwzServerStartupApplicationListener;
 import icu.easyj.middleware.dwz.server.core.service.IDwzCorrectErrorDataService;
 import icu.easyj.middleware.dwz.server.core.service.IDwzServerService;
 import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzCorrectErrorDataServiceImpl;
 import icu.easyj.middleware.dwz.server.core.service.impls.DefaultDwzServerServiceImpl;
 import icu.easyj.middleware.dwz.server.core.store.IDwzLogStore;
+import icu.easyj.middleware.dwz.server.core.store.impls.bloom.BloomFilterDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.cache.CachingDwzLogStoreImpl;
 import icu.easyj.middleware.dwz.server.core.store.impls.db.DataBaseDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.memory.MemoryDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.mmap.MmapDwzLogStoreImpl;
 import icu.easyj.middleware.dwz.server.core.store.impls.mock.MockDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.store.impls.writebehind.WriteBehindDwzLogStoreImpl;
+import icu.easyj.middleware.dwz.server.core.task.DwzClickCounter;
 import icu.easyj.middleware.dwz.server.core.task.EasyjDwzServerTask;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
 
 /**
  * EasyJ中间件：DWZ（短链接服务）服务端自动装配类
@@ -53,18 +79,118 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @Import({DwzRestController.class, DwzRedirectController.class})
 public class EasyjMiddleWareDwzServerAutoConfiguration {
 
+	/**
+	 * 创建：重定向缓存配置Bean
+	 *
+	 * @return 重定向缓存配置Bean
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.middleware.dwz.server.cache")
+	public DwzServerCacheConfig dwzServerCacheConfig() {
+		return new DwzServerCacheConfig();
+	}
+
+	/**
+	 * 如果启用了重定向缓存，则包装短链接记录存取接口
+	 *
+	 * @param logStore    短链接记录存取接口
+	 * @param cacheConfig 重定向缓存配置
+	 * @return 短链接记录存取接口
+	 */
+	static IDwzLogStore wrapIfCacheEnabled(IDwzLogStore logStore, DwzServerCacheConfig cacheConfig) {
+		if (cacheConfig.isEnabled()) {
+			return new CachingDwzLogStoreImpl(logStore, cacheConfig);
+		}
+		return logStore;
+	}
+
+	/**
+	 * 创建：布隆过滤器配置Bean
+	 *
+	 * @return 布隆过滤器配置Bean
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.middleware.dwz.server.bloom-filter")
+	public DwzServerBloomFilterConfig dwzServerBloomFilterConfig() {
+		return new DwzServerBloomFilterConfig();
+	}
+
+	/**
+	 * 如果启用了布隆过滤器，则包装短链接记录存取接口
+	 *
+	 * @param logStore          短链接记录存取接口
+	 * @param bloomFilterConfig 布隆过滤器配置
+	 * @return 短链接记录存取接口
+	 */
+	static IDwzLogStore wrapIfBloomFilterEnabled(IDwzLogStore logStore, DwzServerBloomFilterConfig bloomFilterConfig) {
+		if (bloomFilterConfig.isEnabled()) {
+			return new BloomFilterDwzLogStoreImpl(logStore, ShortCodeUtils.DEFAULT, bloomFilterConfig);
+		}
+		return logStore;
+	}
+
+	/**
+	 * 创建：写后模式配置Bean
+	 *
+	 * @return 写后模式配置Bean
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.middleware.dwz.server.write-behind")
+	public DwzServerWriteBehindConfig dwzServerWriteBehindConfig() {
+		return new DwzServerWriteBehindConfig();
+	}
+
+	/**
+	 * 如果启用了写后模式，则包装短链接记录存取接口
+	 * <p>
+	 * 写后模式只能与哈希去重策略一起使用：悲观锁去重策略在调用方的事务中持有长链接的锁，
+	 * 等待写入完成时，会与写入线程的插入语句相互等待，直到数据库的锁等待超时。
+	 *
+	 * @param logStore           短链接记录存取接口
+	 * @param writeBehindConfig  写后模式配置
+	 * @param transactionManager 事务管理器，用于批量写入时开启事务
+	 * @param dedupStrategy      同一长链接的去重策略
+	 * @return 短链接记录存取接口
+	 */
+	static IDwzLogStore wrapIfWriteBehindEnabled(IDwzLogStore logStore, DwzServerWriteBehindConfig writeBehindConfig,
+												 @Nullable PlatformTransactionManager transactionManager, DwzDedupStrategy dedupStrategy) {
+		if (writeBehindConfig.isEnabled()) {
+			Assert.state(dedupStrategy == DwzDedupStrategy.HASH, "写后模式（easyj.middleware.dwz.server.write-behind.enabled=true）"
+					+ "只能与哈希去重策略一起使用，请同时配置：easyj.middleware.dwz.server.dedup-strategy=hash");
+			TransactionTemplate transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+			return new WriteBehindDwzLogStoreImpl(logStore, transactionTemplate, writeBehindConfig);
+		}
+		return logStore;
+	}
+
 	/**
 	 * 创建：短链接记录存取接口Bean（基于数据库）（默认）
 	 *
 	 * @param primaryJdbcTemplate 主要数据源对应的jdbcTemplate
 	 * @param sequenceService     序列服务
+	 * @param cacheConfig         重定向缓存配置
+	 * @param bloomFilterConfig   布隆过滤器配置
+	 * @param writeBehindConfig   写后模式配置
+	 * @param transactionManager  事务管理器
+	 * @param codeLookupFallback  根据ID未找到记录时，是否再根据短链接码字段查询
+	 * @param dedupStrategy       同一长链接的去重策略
+	 * @param batchSize           批量插入和批量查询时，每批数据量
 	 * @return 短链接记录存取接口Bean
 	 */
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(value = "easyj.middleware.dwz.server.log-store.type", havingValue = "db", matchIfMissing = true)
-	public IDwzLogStore dataBaseDwzLogStore(JdbcTemplate primaryJdbcTemplate, ISequenceService sequenceService) {
-		return new DataBaseDwzLogStoreImpl(primaryJdbcTemplate, sequenceService);
+	public IDwzLogStore dataBaseDwzLogStore(JdbcTemplate primaryJdbcTemplate, ISequenceService sequenceService, DwzServerCacheConfig cacheConfig,
+											DwzServerBloomFilterConfig bloomFilterConfig, DwzServerWriteBehindConfig writeBehindConfig, ObjectProvider<PlatformTransactionManager> transactionManager,
+											@Value("${easyj.middleware.dwz.server.log-store.db.code-lookup-fallback:true}") boolean codeLookupFallback,
+											@Value("${easyj.middleware.dwz.server.dedup-strategy:lock}") DwzDedupStrategy dedupStrategy,
+											@Value("${easyj.middleware.dwz.server.log-store.db.batch-size:1000}") int batchSize) {
+		IDwzLogStore logStore = new DataBaseDwzLogStoreImpl(primaryJdbcTemplate, sequenceService, ShortCodeUtils.DEFAULT,
+				codeLookupFallback, dedupStrategy, batchSize);
+		logStore = wrapIfWriteBehindEnabled(logStore, writeBehindConfig, transactionManager.getIfUnique(), dedupStrategy);
+		logStore = wrapIfCacheEnabled(logStore, cacheConfig);
+		// 布隆过滤器在最外层，一定不存在的短链接码连缓存都不用访问
+		return wrapIfBloomFilterEnabled(logStore, bloomFilterConfig);
 	}
 
 	/**
@@ -80,16 +206,82 @@ public class EasyjMiddleWareDwzServerAutoConfiguration {
 		return new MockDwzLogStoreImpl(sequenceService);
 	}
 
+	/**
+	 * 创建：基于内存的存储配置Bean
+	 *
+	 * @return 基于内存的存储配置Bean
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.middleware.dwz.server.log-store.memory")
+	public DwzServerMemoryStoreConfig dwzServerMemoryStoreConfig() {
+		return new DwzServerMemoryStoreConfig();
+	}
+
+	/**
+	 * 创建：短链接记录存取接口Bean（基于内存）
+	 *
+	 * @param sequenceService 序列服务
+	 * @param memoryConfig    基于内存的存储配置
+	 * @param dedupStrategy   同一长链接的去重策略
+	 * @return 短链接记录存取接口Bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "easyj.middleware.dwz.server.log-store.type", havingValue = "memory")
+	public IDwzLogStore memoryDwzLogStore(ISequenceService sequenceService, DwzServerMemoryStoreConfig memoryConfig,
+										  @Value("${easyj.middleware.dwz.server.dedup-strategy:lock}") DwzDedupStrategy dedupStrategy) {
+		return new MemoryDwzLogStoreImpl(sequenceService, ShortCodeUtils.DEFAULT, dedupStrategy, memoryConfig);
+	}
+
+	/**
+	 * 基于 内存映射文件 持久化的短链接记录存取接口
+	 */
+	@Lazy
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "easyj.middleware.dwz.server.log-store.type", havingValue = "mmap")
+	static class MmapDwzLogStoreConfiguration {
+
+		/**
+		 * 创建：基于内存映射文件的存储配置Bean
+		 *
+		 * @return 基于内存映射文件的存储配置Bean
+		 */
+		@Bean
+		@ConfigurationProperties("easyj.middleware.dwz.server.log-store.mmap")
+		public DwzServerMmapStoreConfig dwzServerMmapStoreConfig() {
+			return new DwzServerMmapStoreConfig();
+		}
+
+		/**
+		 * 创建：短链接记录存取接口Bean（基于内存映射文件）
+		 *
+		 * @param sequenceService 序列服务
+		 * @param memoryConfig    基于内存的存储配置
+		 * @param config          基于内存映射文件的存储配置
+		 * @param dedupStrategy   同一长链接的去重策略
+		 * @return 短链接记录存取接口Bean
+		 * @throws IOException 打开数据目录或恢复数据失败
+		 */
+		@Bean(destroyMethod = "close")
+		@ConditionalOnMissingBean(IDwzLogStore.class)
+		public IDwzLogStore mmapDwzLogStore(ISequenceService sequenceService, DwzServerMemoryStoreConfig memoryConfig, DwzServerMmapStoreConfig config,
+											@Value("${easyj.middleware.dwz.server.dedup-strategy:lock}") DwzDedupStrategy dedupStrategy) throws IOException {
+			return new MmapDwzLogStoreImpl(sequenceService, ShortCodeUtils.DEFAULT, dedupStrategy, memoryConfig, config);
+		}
+	}
+
 	/**
 	 * 创建：短链接服务接口Bean
 	 *
-	 * @param logStore 短链接记录存取接口Bean
+	 * @param logStore      短链接记录存取接口Bean
+	 * @param dedupStrategy 同一长链接的去重策略
 	 * @return 短链接服务接口Bean
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public IDwzServerService defaultDwzServerService(IDwzLogStore logStore) {
-		return new DefaultDwzServerServiceImpl(logStore);
+	public IDwzServerService defaultDwzServerService(IDwzLogStore logStore,
+													 @Value("${easyj.middleware.dwz.server.dedup-strategy:lock}") DwzDedupStrategy dedupStrategy) {
+		return new DefaultDwzServerServiceImpl(logStore, dedupStrategy);
 	}
 
 
@@ -118,6 +310,65 @@ public class EasyjMiddleWareDwzServerAutoConfiguration {
 	}
 
 
+	/**
+	 * 重定向过滤器相关配置类
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty("easyj.middleware.dwz.server.redirect-filter.enabled") // 默认不启用
+	static class DwzRedirectFilterConfiguration {
+
+		/**
+		 * 重定向过滤器的默认执行顺序：在上下文清理过滤器之后、其他过滤器之前执行
+		 */
+		static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 20;
+
+
+		/**
+		 * 创建：重定向过滤器配置Bean
+		 *
+		 * @return 重定向过滤器配置Bean
+		 */
+		@Bean
+		@ConfigurationProperties("easyj.middleware.dwz.server.redirect-filter")
+		public DwzServerRedirectFilterConfig dwzServerRedirectFilterConfig() {
+			return new DwzServerRedirectFilterConfig();
+		}
+
+		/**
+		 * 创建并注册：重定向过滤器
+		 *
+		 * @param dwzServerService 短链接服务接口Bean
+		 * @param clickCounter     点击次数计数器Bean
+		 * @param config           重定向过滤器配置Bean
+		 * @return 重定向过滤器注册Bean
+		 */
+		@Bean
+		public FilterRegistrationBean<DwzRedirectFilter> dwzRedirectFilterRegistration(IDwzServerService dwzServerService,
+																					   ObjectProvider<DwzClickCounter> clickCounter,
+																					   DwzServerRedirectFilterConfig config) {
+			DwzRedirectFilter filter = new DwzRedirectFilter(dwzServerService, clickCounter.getIfAvailable(), config);
+
+			FilterRegistrationBean<DwzRedirectFilter> registration = new FilterRegistrationBean<>(filter);
+			registration.setName(DwzRedirectFilter.class.getSimpleName());
+			registration.setOrder(config.getOrder() != null ? config.getOrder() : DEFAULT_ORDER);
+			registration.addUrlPatterns("/*");
+			return registration;
+		}
+
+		/**
+		 * 创建：重定向过滤器排除路径的监听器Bean，启动完成后排除SpringMVC中的单级路径，并启用404响应
+		 *
+		 * @param dwzRedirectFilterRegistration 重定向过滤器注册Bean
+		 * @return 重定向过滤器排除路径的监听器Bean
+		 */
+		@Bean
+		public DwzRedirectFilterExclusionsApplicationListener dwzRedirectFilterExclusionsApplicationListener(
+				FilterRegistrationBean<DwzRedirectFilter> dwzRedirectFilterRegistration) {
+			return new DwzRedirectFilterExclusionsApplicationListener(dwzRedirectFilterRegistration.getFilter());
+		}
+	}
+
+
 	/**
 	 * 定时任务相关配置类
 	 */
@@ -138,18 +389,35 @@ public class EasyjMiddleWareDwzServerAutoConfiguration {
 			return new DwzServerTaskConfig();
 		}
 
+		/**
+		 * 创建：点击次数计数器Bean
+		 *
+		 * @param primaryJdbcTemplate 主要数据源对应的jdbcTemplate
+		 * @param dwzServerTaskConfig 定时任务配置Bean
+		 * @return 点击次数计数器Bean
+		 */
+		@Bean
+		@Lazy(false)
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty("easyj.middleware.dwz.server.task.click-count-enabled")
+		public DwzClickCounter dwzClickCounter(JdbcTemplate primaryJdbcTemplate, DwzServerTaskConfig dwzServerTaskConfig) {
+			return new DwzClickCounter(primaryJdbcTemplate, ShortCodeUtils.DEFAULT, dwzServerTaskConfig.getClickCountBatchSize());
+		}
+
 		/**
 		 * 创建：定时任务Bean
 		 *
 		 * @param dwzLogStore         短链接记录存取接口Bean
 		 * @param dwzServerTaskConfig 定时任务配置Bean
+		 * @param clickCounter        点击次数计数器Bean
 		 * @return 定时任务Bean
 		 */
 		@Bean
 		@Lazy(false)
 		@ConditionalOnMissingBean
-		public EasyjDwzServerTask easyjDwzServerTask(IDwzLogStore dwzLogStore, DwzServerTaskConfig dwzServerTaskConfig) {
-			return new EasyjDwzServerTask(dwzLogStore, dwzServerTaskConfig);
+		public EasyjDwzServerTask easyjDwzServerTask(IDwzLogStore dwzLogStore, DwzServerTaskConfig dwzServerTaskConfig,
+													 ObjectProvider<DwzClickCounter> clickCounter) {
+			return new EasyjDwzServerTask(dwzLogStore, dwzServerTaskConfig, clickCounter.getIfAvailable());
 		}
 	}
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package icu.easyj.spring.boot.autoconfigure.sdk.dwz;
+
+import icu.easyj.core.executor.BoundedAsyncExecutor;
+import icu.easyj.core.executor.BoundedAsyncExecutorConfig;
+import icu.easyj.sdk.dwz.DwzAsyncExecutorHolder;
+import icu.easyj.sdk.dwz.IDwzTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * 短链接服务异步执行器自动装配
+ *
+ * @author wangliang181230
+ * @see IDwzTemplate#createShortUrlAsync(icu.easyj.sdk.dwz.DwzRequest)
+ */
+@ConditionalOnClass(IDwzTemplate.class)
+public class EasyjDwzAsyncExecutorAutoConfiguration {
+
+	/**
+	 * 短链接服务异步执行器配置 Bean
+	 *
+	 * @return 异步执行器配置
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.sdk.dwz.async")
+	public BoundedAsyncExecutorConfig dwzAsyncExecutorConfig() {
+		return new BoundedAsyncExecutorConfig();
+	}
+
+	/**
+	 * 短链接服务异步执行器 Bean，并设置到 {@link DwzAsyncExecutorHolder} 中
+	 *
+	 * @param config 异步执行器配置
+	 * @return 异步执行器
+	 */
+	@Bean(destroyMethod = "close")
+	@Lazy(false)
+	public BoundedAsyncExecutor dwzAsyncExecutor(@Qualifier("dwzAsyncExecutorConfig") BoundedAsyncExecutorConfig config) {
+		BoundedAsyncExecutor asyncExecutor = new BoundedAsyncExecutor(DwzAsyncExecutorHolder.THREAD_NAME_PREFIX, config);
+		DwzAsyncExecutorHolder.set(asyncExecutor);
+		return asyncExecutor;
+	}
+
+	/**
+	 * 容器关闭时，在关闭短链接服务异步执行器之前，将其从 {@link DwzAsyncExecutorHolder} 中移除，
+	 * 避免之后的异步调用都被已关闭的执行器拒绝（依赖执行器的Bean会先于执行器销毁）
+	 *
+	 * @param asyncExecutor 异步执行器
+	 * @return 销毁回调
+	 */
+	@Bean
+	@Lazy(false)
+	public DisposableBean dwzAsyncExecutorHolderCleaner(@Qualifier("dwzAsyncExecutor") BoundedAsyncExecutor asyncExecutor) {
+		return () -> DwzAsyncExecutorHolder.remove(asyncExecutor);
+	}
+}
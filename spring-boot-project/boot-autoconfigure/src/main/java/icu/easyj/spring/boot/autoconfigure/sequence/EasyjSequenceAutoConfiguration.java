@@ -15,13 +15,29 @@
  */
 package icu.easyj.spring.boot.autoconfigure.sequence;
 
+import java.io.IOException;
 import javax.sql.DataSource;
 
+import icu.easyj.config.ServerConfigs;
+import icu.easyj.core.clock.ITickClock;
+import icu.easyj.core.clock.TickClock;
 import icu.easyj.core.sequence.ISequenceService;
+import icu.easyj.core.sequence.SegmentSequenceConfig;
+import icu.easyj.core.sequence.SegmentSequenceService;
 import icu.easyj.core.sequence.impls.AtomicLongSequenceServiceImpl;
+import icu.easyj.core.sequence.impls.MmapSequenceConfig;
+import icu.easyj.core.sequence.impls.MmapSequenceServiceImpl;
+import icu.easyj.core.sequence.impls.SnowflakeSequenceConfig;
+import icu.easyj.core.sequence.impls.SnowflakeSequenceServiceImpl;
 import icu.easyj.db.sequence.impls.DataBaseSequenceServiceImpl;
+import icu.easyj.db.util.DbClockUtils;
 import icu.easyj.redis.sequence.impls.SpringRedisSequenceServiceImpl;
+import icu.easyj.redis.util.RedisClockUtils;
+import icu.easyj.spring.boot.autoconfigure.configs.ServerProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -37,6 +53,32 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 @ConditionalOnProperty(value = "easyj.sequence.type")
 public class EasyjSequenceAutoConfiguration {
 
+	/**
+	 * 号段缓存序列服务配置
+	 *
+	 * @return 号段缓存序列服务配置
+	 */
+	@Bean
+	@ConfigurationProperties("easyj.sequence.segment")
+	public SegmentSequenceConfig segmentSequenceConfig() {
+		return new SegmentSequenceConfig();
+	}
+
+	/**
+	 * 如果启用了号段缓存，则包装序列服务
+	 *
+	 * @param sequenceService 序列服务
+	 * @param segmentConfig   号段缓存序列服务配置
+	 * @return 序列服务
+	 */
+	static ISequenceService wrapIfSegmentEnabled(ISequenceService sequenceService, SegmentSequenceConfig segmentConfig) {
+		if (segmentConfig.isEnabled()) {
+			return new SegmentSequenceService(sequenceService, segmentConfig);
+		}
+		return sequenceService;
+	}
+
+
 	/**
 	 * 基于 Redis 实现的序列服务
 	 */
@@ -46,8 +88,8 @@ public class EasyjSequenceAutoConfiguration {
 	static class RedisSequenceServiceConfiguration {
 
 		@Bean
-		public ISequenceService redisSequenceServiceImpl(RedisConnectionFactory connectionFactory) {
-			return new SpringRedisSequenceServiceImpl(connectionFactory);
+		public ISequenceService redisSequenceServiceImpl(RedisConnectionFactory connectionFactory, SegmentSequenceConfig segmentConfig) {
+			return wrapIfSegmentEnabled(new SpringRedisSequenceServiceImpl(connectionFactory), segmentConfig);
 		}
 	}
 
@@ -61,8 +103,8 @@ public class EasyjSequenceAutoConfiguration {
 	static class DataBaseSequenceServiceConfiguration {
 
 		@Bean
-		public ISequenceService dataBaseSequenceService(DataSource primaryDataSource) {
-			return new DataBaseSequenceServiceImpl(primaryDataSource);
+		public ISequenceService dataBaseSequenceService(DataSource primaryDataSource, SegmentSequenceConfig segmentConfig) {
+			return wrapIfSegmentEnabled(new DataBaseSequenceServiceImpl(primaryDataSource), segmentConfig);
 		}
 	}
 
@@ -75,9 +117,84 @@ public class EasyjSequenceAutoConfiguration {
 	@ConditionalOnProperty(value = "easyj.sequence.type", havingValue = "atomic-long")
 	static class AtomicLongSequenceServiceConfiguration {
 
+		/**
+		 * 基于 {@link java.util.concurrent.atomic.AtomicLong} 实现的序列服务
+		 *
+		 * @param blockSize 每个线程每次申请的序列值个数，大于1时启用分段模式（序列值唯一，但不再全局有序）
+		 * @return 序列服务
+		 */
 		@Bean
-		public ISequenceService atomicLongSequenceService() {
-			return new AtomicLongSequenceServiceImpl();
+		public ISequenceService atomicLongSequenceService(@Value("${easyj.sequence.atomic-long.block-size:1}") int blockSize) {
+			return new AtomicLongSequenceServiceImpl(0L, blockSize);
+		}
+	}
+
+
+	/**
+	 * 基于 雪花算法 实现的序列服务
+	 */
+	@Lazy
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "easyj.sequence.type", havingValue = "snowflake")
+	static class SnowflakeSequenceServiceConfiguration {
+
+		@Bean
+		@ConfigurationProperties("easyj.sequence.snowflake")
+		public SnowflakeSequenceConfig snowflakeSequenceConfig() {
+			return new SnowflakeSequenceConfig();
+		}
+
+		/**
+		 * 雪花算法序列服务
+		 *
+		 * @param config            雪花算法序列服务配置
+		 * @param serverProperties  要先初始化好该bean，以获取当前服务的数据中心ID和工作ID，所以这里空引用一下
+		 * @param dataSourceProvider 数据源提供者，时钟类型为 db 时使用
+		 * @param redisConnectionFactoryProvider Redis连接工厂提供者，时钟类型为 redis 时使用
+		 * @return 雪花算法序列服务
+		 */
+		@Bean
+		@SuppressWarnings("unused")
+		public ISequenceService snowflakeSequenceService(SnowflakeSequenceConfig config, ServerProperties serverProperties,
+														 ObjectProvider<DataSource> dataSourceProvider,
+														 ObjectProvider<RedisConnectionFactory> redisConnectionFactoryProvider) {
+			Long nodeId = config.getNodeId();
+			if (nodeId == null) {
+				// 未配置节点ID时，由数据中心ID（高5位）和工作ID（低5位）组成
+				nodeId = (ServerConfigs.getDataCenterId() << 5) | ServerConfigs.getWorkerId();
+			}
+
+			ITickClock clock;
+			if ("db".equalsIgnoreCase(config.getClock())) {
+				clock = DbClockUtils.getClock(dataSourceProvider.getObject());
+			} else if ("redis".equalsIgnoreCase(config.getClock())) {
+				clock = RedisClockUtils.getClock(redisConnectionFactoryProvider.getObject());
+			} else {
+				clock = new TickClock(System.currentTimeMillis() * 1000);
+			}
+
+			return new SnowflakeSequenceServiceImpl(clock, nodeId, config);
+		}
+	}
+
+
+	/**
+	 * 基于 内存映射文件 实现的序列服务
+	 */
+	@Lazy
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(value = "easyj.sequence.type", havingValue = "mmap")
+	static class MmapSequenceServiceConfiguration {
+
+		@Bean
+		@ConfigurationProperties("easyj.sequence.mmap")
+		public MmapSequenceConfig mmapSequenceConfig() {
+			return new MmapSequenceConfig();
+		}
+
+		@Bean(destroyMethod = "close")
+		public MmapSequenceServiceImpl mmapSequenceService(MmapSequenceConfig config) throws IOException {
+			return new MmapSequenceServiceImpl(config);
 		}
 	}
 }
@@ -0,0 +1,45 @@
+-- 升级：添加批量获取序列值的函数 func_nextvals 和获取序列步长的函数 func_incval，用于一次预留一段序列值（如：号段缓存、批量生成短链接）
+-- 说明：未执行该脚本时，批量获取序列值将退化为循环调用 func_nextval。
+DROP FUNCTION IF EXISTS func_nextvals;
+DROP FUNCTION IF EXISTS func_incval;
+
+
+-- 批量获取序列值的函数（一次预留 cnt 个步长的序列值，返回预留的第一个序列值，步长通过 func_incval 获取）
+CREATE FUNCTION func_nextvals (seq_name varchar(255), cnt int)
+    RETURNS bigint
+    DETERMINISTIC
+BEGIN
+    DECLARE inc bigint DEFAULT NULL;
+
+    SELECT `increment_value` INTO inc
+      FROM `easyj_sys_sequence`
+     WHERE `name` = seq_name;
+
+    -- 支持自动创建序列（与 func_nextval 一致，自动创建的序列的第一个序列值为1，`increment_value`为1）
+    IF inc IS NULL THEN
+        SET inc = 1;
+        INSERT INTO `easyj_sys_sequence` ( `name`,   `current_value`, `increment_value` )
+                              VALUES ( seq_name,  0,               1 );
+    END IF;
+
+    UPDATE `easyj_sys_sequence`
+       SET `current_value` = `current_value` + inc * cnt
+     WHERE `name` = seq_name;
+
+    RETURN func_currval(seq_name) - inc * (cnt - 1);
+END;
+
+
+-- 获取序列步长的函数（序列不存在时返回1，与自动创建的序列一致）
+CREATE FUNCTION func_incval (seq_name varchar(255))
+    RETURNS bigint
+    DETERMINISTIC
+BEGIN
+    DECLARE inc bigint DEFAULT NULL;
+
+    SELECT `increment_value` INTO inc
+      FROM `easyj_sys_sequence`
+     WHERE `name` = seq_name;
+
+    RETURN IFNULL(inc, 1);
+END;
@@ -0,0 +1,5 @@
+-- 升级：添加点击次数字段，用于统计短链接的点击次数（配置：easyj.middleware.dwz.server.task.click-count-enabled=true）
+-- 说明：点击次数先在 dwz-server 的内存中累计，再由定时任务按ID批量累加到该字段，有几秒钟的延迟。
+ALTER TABLE "EASYJ_DWZ_LOG" ADD COLUMN "CLICK_COUNT" BIGINT DEFAULT 0 NOT NULL;
+
+COMMENT ON COLUMN "EASYJ_DWZ_LOG"."CLICK_COUNT" IS '点击次数（由 dwz-server 定时批量累加，有几秒钟的延迟）';
@@ -0,0 +1,13 @@
+-- 升级：添加长链接哈希值字段及其唯一索引，用于创建短链接时的乐观去重（配置：easyj.middleware.dwz.server.dedup-strategy=hash）
+-- 说明：
+--   1、哈希值为规范化后的长链接的128位MurmurHash3（32个十六进制字符），无法通过SQL计算，已有数据的哈希值由 dwz-server 启动时自动补全；
+--   2、唯一索引允许多个NULL值，所以可以先创建索引再补全数据；已存在的重复长链接，只有第一条记录会补全哈希值。
+ALTER TABLE "EASYJ_DWZ_LOG" ADD COLUMN "LONG_URL_HASH" CHAR(32) NULL;
+
+CREATE UNIQUE INDEX "UDX_LONG_URL_HASH" ON "EASYJ_DWZ_LOG" ("LONG_URL_HASH" ASC);
+
+COMMENT ON COLUMN "EASYJ_DWZ_LOG"."LONG_URL_HASH" IS '长链接哈希值（规范化后的长链接的128位MurmurHash3，用于去重）';
+
+
+-- 哈希值补全完成后，可删除仅用于悲观锁去重（dedup-strategy=lock）的索引
+-- DROP INDEX "IDX_LONG_URL_STATUS";
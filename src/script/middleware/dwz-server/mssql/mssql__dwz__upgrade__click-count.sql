@@ -0,0 +1,8 @@
+-- 升级：添加点击次数字段，用于统计短链接的点击次数（配置：easyj.middleware.dwz.server.task.click-count-enabled=true）
+-- 说明：点击次数先在 dwz-server 的内存中累计，再由定时任务按ID批量累加到该字段，有几秒钟的延迟。
+ALTER TABLE [dbo].[easyj_dwz_log] ADD [click_count] bigint NOT NULL DEFAULT 0;
+GO
+
+EXEC sp_addextendedproperty 'MS_Description', N'点击次数（由 dwz-server 定时批量累加，有几秒钟的延迟）',
+     'SCHEMA', N'dbo', 'TABLE', N'easyj_dwz_log', 'COLUMN', N'click_count';
+GO
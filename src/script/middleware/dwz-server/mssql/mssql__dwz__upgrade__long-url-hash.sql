@@ -0,0 +1,17 @@
+-- 升级：添加长链接哈希值字段及其唯一索引，用于创建短链接时的乐观去重（配置：easyj.middleware.dwz.server.dedup-strategy=hash）
+-- 说明：
+--   1、哈希值为规范化后的长链接的128位MurmurHash3（32个十六进制字符），无法通过SQL计算，已有数据的哈希值由 dwz-server 启动时自动补全；
+--   2、SQL Server的唯一索引只允许一个NULL值，所以使用筛选索引排除NULL值；已存在的重复长链接，只有第一条记录会补全哈希值。
+ALTER TABLE [dbo].[easyj_dwz_log] ADD [long_url_hash] char(32) NULL;
+GO
+
+CREATE UNIQUE NONCLUSTERED INDEX [UDX_LONG_URL_HASH] ON [dbo].[easyj_dwz_log] ([long_url_hash] ASC) WHERE [long_url_hash] IS NOT NULL;
+GO
+
+EXEC sp_addextendedproperty 'MS_Description', N'长链接哈希值（规范化后的长链接的128位MurmurHash3，用于去重）',
+     'SCHEMA', N'dbo', 'TABLE', N'easyj_dwz_log', 'COLUMN', N'long_url_hash';
+GO
+
+
+-- 哈希值补全完成后，可删除仅用于悲观锁去重（dedup-strategy=lock）的索引
+-- DROP INDEX [IDX_LONG_URL_STATUS] ON [dbo].[easyj_dwz_log];
@@ -4,8 +4,10 @@ CREATE TABLE "EASYJ_DWZ_LOG"
     "ID"               NUMBER (20,0)  NOT NULL,
     "SHORT_URL_CODE"   VARCHAR2 (16)  NOT NULL,
     "LONG_URL"         VARCHAR2 (255) NOT NULL,
+    "LONG_URL_HASH"    CHAR (32),
     "TERM_OF_VALIDITY" DATE,
     "STATUS"           NUMBER (1,0)   NOT NULL,
+    "CLICK_COUNT"      NUMBER (20,0)  DEFAULT 0 NOT NULL,
     "CREATE_TIME"      DATE           NOT NULL,
     "UPDATE_TIME"      DATE           NOT NULL,
     "VERSION"          NUMBER         NOT NULL,
@@ -13,6 +15,7 @@ CREATE TABLE "EASYJ_DWZ_LOG"
 );
 
 CREATE UNIQUE INDEX "UDX_SHORT_URL_CODE" ON "DWZ_LOG" ("SHORT_URL_CODE" ASC);
+CREATE UNIQUE INDEX "UDX_LONG_URL_HASH" ON "DWZ_LOG" ("LONG_URL_HASH" ASC);
 CREATE INDEX "IDX_LONG_URL_STATUS" ON "DWZ_LOG" ("LONG_URL" ASC, "STATUS" ASC);
 CREATE INDEX "IDX_TERM_OF_VALIDITY_STATUS" ON "DWZ_LOG" ("TERM_OF_VALIDITY" ASC, "STATUS" ASC);
 
@@ -21,8 +24,10 @@ COMMENT ON TABLE "DWZ_LOG" IS '短链接记录表';
 COMMENT ON COLUMN "DWZ_LOG"."ID" IS 'ID';
 COMMENT ON COLUMN "DWZ_LOG"."SHORT_URL_CODE" IS '短链接码';
 COMMENT ON COLUMN "DWZ_LOG"."LONG_URL" IS '长链接';
+COMMENT ON COLUMN "DWZ_LOG"."LONG_URL_HASH" IS '长链接哈希值（规范化后的长链接的128位MurmurHash3，用于去重）';
 COMMENT ON COLUMN "DWZ_LOG"."TERM_OF_VALIDITY" IS '过期时间（为空表示不过期）';
 COMMENT ON COLUMN "DWZ_LOG"."STATUS" IS '状态：0=无效,1=有效,2=已过期';
+COMMENT ON COLUMN "DWZ_LOG"."CLICK_COUNT" IS '点击次数（由 dwz-server 定时批量累加，有几秒钟的延迟）';
 COMMENT ON COLUMN "DWZ_LOG"."CREATE_TIME" IS '数据创建时间';
 COMMENT ON COLUMN "DWZ_LOG"."UPDATE_TIME" IS '数据更新时间';
 COMMENT ON COLUMN "DWZ_LOG"."VERSION" IS '数据版本号';